@@ -51,6 +51,9 @@ import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.ObjectReleaseTracker;
 import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.common.util.SuppressForbidden;
+import org.apache.solr.core.CoreContainer;
+import org.apache.solr.core.CoreDescriptor;
+import org.apache.solr.core.SolrCore;
 import org.apache.solr.embedded.JettySolrRunner;
 import org.apache.solr.util.SolrTestNonSecureRandomProvider;
 import org.openjdk.jmh.annotations.Level;
@@ -512,6 +515,25 @@ public class SolrBenchState {
     }
   }
 
+  /**
+   * Gets a core of the collection, for benchmarks that exercise Solr internals directly. The caller
+   * must close it.
+   *
+   * @param collection the collection
+   * @return the core, or null if no node hosts a core of the collection
+   */
+  public SolrCore getCore(String collection) {
+    for (JettySolrRunner jetty : cluster.getJettySolrRunners()) {
+      CoreContainer cores = jetty.getCoreContainer();
+      for (CoreDescriptor cd : cores.getCoreDescriptors()) {
+        if (collection.equals(cd.getCollectionName())) {
+          return cores.getCore(cd.getName());
+        }
+      }
+    }
+    return null;
+  }
+
   /**
    * Dump core info.
    *
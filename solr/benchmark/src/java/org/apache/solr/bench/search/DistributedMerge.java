@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.bench.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.solr.bench.SolrBenchState;
+import org.apache.solr.client.solrj.response.JavaBinResponseParser;
+import org.apache.solr.client.solrj.response.SimpleSolrResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.JavaBinCodec;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.handler.component.FacetComponent;
+import org.apache.solr.handler.component.QueryComponent;
+import org.apache.solr.handler.component.ResponseBuilder;
+import org.apache.solr.handler.component.SearchComponent;
+import org.apache.solr.handler.component.ShardDoc;
+import org.apache.solr.handler.component.ShardFieldSortedHitQueue;
+import org.apache.solr.handler.component.ShardRequest;
+import org.apache.solr.handler.component.ShardResponse;
+import org.apache.solr.request.LocalSolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.search.SolrReturnFields;
+import org.apache.solr.search.SortSpec;
+import org.apache.solr.search.SortSpecParsing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the coordinator side of a distributed search against synthesized shard responses: the
+ * JavaBin decoding of the responses, merging their ids in {@link ShardFieldSortedHitQueue} (alone
+ * and via {@link QueryComponent}) and the facet counting / refinement planning of {@link
+ * FacetComponent}. No shard is actually queried; a single core only supplies the schema and
+ * searcher the components expect. Run with {@code -prof gc} to report allocation as well.
+ */
+@Fork(value = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+@Warmup(time = 5, iterations = 3)
+@Measurement(time = 10, iterations = 5)
+public class DistributedMerge {
+
+  private static final String collection = "benchDistributedMerge";
+
+  private static final String SORT_FIELD = "val_l_dv";
+
+  private static final String FACET_FIELD = "cat_s";
+
+  @State(Scope.Benchmark)
+  public static class BenchState {
+
+    @Param({"8", "64"})
+    int numShards;
+
+    /** Number of top documents requested, and so returned by every shard. */
+    @Param({"10", "1000"})
+    int rows;
+
+    @Param({"score desc", SORT_FIELD + " asc"})
+    String sort;
+
+    /** Number of distinct terms the shards' facet counts are drawn from. */
+    @Param({"5000"})
+    int facetTerms;
+
+    @Param({"100"})
+    int facetLimit;
+
+    private String[] shardNames;
+    private byte[][] encodedResponses;
+    private List<ShardResponse> shardResponses;
+    private ShardDoc[] shardDocs;
+
+    private SolrCore core;
+    private SolrQueryRequest req;
+    private SortSpec sortSpec;
+    private SortField[] sortFields;
+    private List<SearchComponent> components;
+    private QueryComponent queryComponent;
+    private FacetComponent facetComponent;
+
+    @Setup(Level.Trial)
+    public void setup(SolrBenchState solrBenchState) throws Exception {
+      solrBenchState.startSolr(1);
+      solrBenchState.createCollection(collection, 1, 1);
+
+      SplittableRandom random = solrBenchState.getRandom();
+      shardNames = new String[numShards];
+      encodedResponses = new byte[numShards][];
+      shardResponses = new ArrayList<>(numShards);
+      for (int shard = 0; shard < numShards; shard++) {
+        shardNames[shard] = "shard" + shard;
+        encodedResponses[shard] = encode(shardResponse(shard, random));
+
+        SimpleSolrResponse rsp = new SimpleSolrResponse();
+        rsp.setResponse(decode(encodedResponses[shard]));
+        ShardResponse srsp = new ShardResponse();
+        srsp.setShard(shardNames[shard]);
+        srsp.setSolrResponse(rsp);
+        shardResponses.add(srsp);
+      }
+      shardDocs = shardDocs();
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration(SolrBenchState solrBenchState) {
+      core = solrBenchState.getCore(collection);
+      queryComponent = (QueryComponent) core.getSearchComponent(QueryComponent.COMPONENT_NAME);
+      facetComponent = (FacetComponent) core.getSearchComponent(FacetComponent.COMPONENT_NAME);
+      components = List.of(queryComponent, facetComponent);
+
+      req =
+          new LocalSolrQueryRequest(
+              core,
+              SolrBenchState.params(
+                  "q", "*:*",
+                  "fl", "id,score",
+                  "sort", sort,
+                  "rows", String.valueOf(rows),
+                  "facet", "true",
+                  "facet.field", FACET_FIELD,
+                  "facet.limit", String.valueOf(facetLimit)));
+      sortSpec = SortSpecParsing.parseSortSpec(sort, req);
+      sortSpec.setOffset(0);
+      sortSpec.setCount(rows);
+      Sort luceneSort = sortSpec.getSort();
+      sortFields =
+          luceneSort != null ? luceneSort.getSort() : new SortField[] {SortField.FIELD_SCORE};
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+      req.close();
+      core.close();
+    }
+
+    ResponseBuilder newResponseBuilder() {
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      rsp.setReturnFields(new SolrReturnFields(req));
+      ResponseBuilder rb = new ResponseBuilder(req, rsp, components);
+      rb.setSortSpec(sortSpec);
+      rb.shards = shardNames;
+      return rb;
+    }
+
+    ShardRequest newShardRequest() {
+      ShardRequest sreq = new ShardRequest();
+      sreq.purpose = ShardRequest.PURPOSE_GET_TOP_IDS;
+      sreq.shards = shardNames;
+      sreq.params = new ModifiableSolrParams(req.getParams());
+      sreq.responses = shardResponses;
+      return sreq;
+    }
+
+    /** A shard's top-ids response with facet counts, as it would be returned to the coordinator. */
+    private NamedList<Object> shardResponse(int shard, SplittableRandom random) {
+      SolrDocumentList docs = new SolrDocumentList();
+      List<Object> sortValues = new ArrayList<>(rows);
+      float score = 10f + random.nextFloat();
+      long sortValue = random.nextLong(1000);
+      for (int i = 0; i < rows; i++) {
+        SolrDocument doc = new SolrDocument();
+        doc.setField("id", shard + "-" + i);
+        doc.setField("score", score);
+        docs.add(doc);
+        sortValues.add(sortValue);
+        score -= random.nextFloat() * 10f / rows;
+        sortValue += random.nextLong(1000);
+      }
+      docs.setNumFound(rows * 100L);
+      docs.setStart(0);
+      docs.setMaxScore(docs.isEmpty() ? null : (Float) docs.get(0).getFieldValue("score"));
+
+      // every shard sees every term, with skewed and shard dependent counts; like a real shard it
+      // returns only its over-requested top terms, which is what makes refinement necessary
+      int shardFacetLimit = Math.min(facetTerms, (int) (facetLimit * 1.5) + 10);
+      long[] counts = new long[facetTerms];
+      for (int term = 0; term < facetTerms; term++) {
+        counts[term] = (long) (100_000.0 / (term + 1) * (0.5 + random.nextDouble()));
+      }
+      Integer[] terms = new Integer[facetTerms];
+      for (int term = 0; term < facetTerms; term++) {
+        terms[term] = term;
+      }
+      Arrays.sort(terms, (a, b) -> Long.compare(counts[b], counts[a]));
+      NamedList<Object> fieldCounts = new NamedList<>();
+      for (int i = 0; i < shardFacetLimit; i++) {
+        fieldCounts.add("term" + terms[i], counts[terms[i]]);
+      }
+
+      SimpleOrderedMap<Object> facetFields = new SimpleOrderedMap<>();
+      facetFields.add(FACET_FIELD, fieldCounts);
+      SimpleOrderedMap<Object> facetCounts = new SimpleOrderedMap<>();
+      facetCounts.add("facet_queries", new SimpleOrderedMap<>());
+      facetCounts.add("facet_fields", facetFields);
+      facetCounts.add("facet_ranges", new SimpleOrderedMap<>());
+      facetCounts.add("facet_intervals", new SimpleOrderedMap<>());
+      facetCounts.add("facet_heatmaps", new SimpleOrderedMap<>());
+
+      SimpleOrderedMap<Object> header = new SimpleOrderedMap<>();
+      header.add("status", 0);
+      header.add("QTime", 1);
+
+      NamedList<Object> rsp = new NamedList<>();
+      rsp.add("responseHeader", header);
+      rsp.add("response", docs);
+      if (!sort.startsWith("score")) {
+        NamedList<Object> sortFieldValues = new NamedList<>();
+        sortFieldValues.add(SORT_FIELD, sortValues);
+        rsp.add("sort_values", sortFieldValues);
+      }
+      rsp.add("facet_counts", facetCounts);
+      return rsp;
+    }
+
+    /** The docs {@link QueryComponent} would push into its queue for the decoded responses. */
+    @SuppressWarnings("unchecked")
+    private ShardDoc[] shardDocs() {
+      List<ShardDoc> result = new ArrayList<>();
+      for (ShardResponse srsp : shardResponses) {
+        NamedList<Object> rsp = srsp.getSolrResponse().getResponse();
+        SolrDocumentList docs = (SolrDocumentList) rsp.get("response");
+        NamedList<List<Object>> sortFieldValues = (NamedList<List<Object>>) rsp.get("sort_values");
+        if (sortFieldValues == null) {
+          sortFieldValues = new NamedList<>();
+        }
+        for (int i = 0; i < docs.size(); i++) {
+          SolrDocument doc = docs.get(i);
+          ShardDoc shardDoc = new ShardDoc();
+          shardDoc.id = doc.getFieldValue("id");
+          shardDoc.shard = srsp.getShard();
+          shardDoc.orderInShard = i;
+          shardDoc.score = ((Number) doc.getFieldValue("score")).floatValue();
+          shardDoc.sortFieldValues = sortFieldValues;
+          result.add(shardDoc);
+        }
+      }
+      return result.toArray(new ShardDoc[0]);
+    }
+  }
+
+  private static byte[] encode(NamedList<Object> rsp) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JavaBinCodec codec = new JavaBinCodec()) {
+      codec.marshal(rsp, out);
+    }
+    return out.toByteArray();
+  }
+
+  private static NamedList<Object> decode(byte[] bytes) throws IOException {
+    return new JavaBinResponseParser().processResponse(new ByteArrayInputStream(bytes), null);
+  }
+
+  /** Decodes every shard's JavaBin response, as the coordinator's client does. */
+  @Benchmark
+  public void decodeShardResponses(BenchState state, Blackhole bh) throws IOException {
+    for (byte[] bytes : state.encodedResponses) {
+      bh.consume(decode(bytes));
+    }
+  }
+
+  /** Pushes every shard's docs through the priority queue and pops the merged top docs. */
+  @Benchmark
+  public void shardFieldSortedHitQueue(BenchState state, Blackhole bh) {
+    ShardFieldSortedHitQueue queue =
+        new ShardFieldSortedHitQueue(state.sortFields, state.rows, state.req.getSearcher());
+    for (ShardDoc shardDoc : state.shardDocs) {
+      queue.insertWithOverflow(shardDoc);
+    }
+    while (queue.size() > 0) {
+      bh.consume(queue.pop());
+    }
+  }
+
+  /** The GET_TOP_IDS phase of {@link QueryComponent}, including the merge of the ids. */
+  @Benchmark
+  public Object mergeIds(BenchState state) {
+    ResponseBuilder rb = state.newResponseBuilder();
+    state.queryComponent.handleResponses(rb, state.newShardRequest());
+    return rb.resultIds;
+  }
+
+  /** Merges the shards' facet counts and works out which terms need refinement from which shard. */
+  @Benchmark
+  public Object facetRefinement(BenchState state) {
+    ResponseBuilder rb = state.newResponseBuilder();
+    rb.doFacets = true;
+    rb.setStage(ResponseBuilder.STAGE_EXECUTE_QUERY);
+    ShardRequest sreq = state.newShardRequest();
+    state.facetComponent.modifyRequest(rb, state.queryComponent, sreq);
+    state.facetComponent.handleResponses(rb, sreq);
+    return rb._facetInfo;
+  }
+}
@@ -140,6 +140,9 @@ public class Overseer implements SolrCloseable {
 
   // System properties are used in tests to make them run fast
   public static final int STATE_UPDATE_DELAY = ZkStateReader.STATE_UPDATE_DELAY;
+  // Upper bound of the flush interval, which grows when writing the cluster state is slow
+  public static final int STATE_UPDATE_MAX_DELAY =
+      Integer.getInteger("solr.OverseerStateUpdateMaxDelay", STATE_UPDATE_DELAY);
   public static final int STATE_UPDATE_BATCH_SIZE =
       Integer.getInteger("solr.OverseerStateUpdateBatchSize", 10000);
   public static final int STATE_UPDATE_MAX_QUEUE =
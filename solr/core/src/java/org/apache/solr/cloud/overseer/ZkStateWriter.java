@@ -18,12 +18,14 @@ package org.apache.solr.cloud.overseer;
 
 import java.lang.invoke.MethodHandles;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.solr.cloud.Overseer;
 import org.apache.solr.cloud.Stats;
 import org.apache.solr.common.cloud.ClusterState;
@@ -55,6 +57,15 @@ import org.slf4j.LoggerFactory;
 public class ZkStateWriter {
   private static final long MAX_FLUSH_INTERVAL =
       TimeUnit.NANOSECONDS.convert(Overseer.STATE_UPDATE_DELAY, TimeUnit.MILLISECONDS);
+  private static final long ADAPTIVE_MAX_FLUSH_INTERVAL =
+      TimeUnit.NANOSECONDS.convert(Overseer.STATE_UPDATE_MAX_DELAY, TimeUnit.MILLISECONDS);
+
+  /**
+   * When flushing takes long (large state.json, many collections), the flush interval is stretched
+   * to this many times the duration of the last flush, up to {@link
+   * Overseer#STATE_UPDATE_MAX_DELAY}, so that a backlog of updates is coalesced into fewer writes.
+   */
+  static final int FLUSH_COST_FACTOR = 10;
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   /**
@@ -69,6 +80,13 @@ public class ZkStateWriter {
   private int numUpdates = 0;
   protected ClusterState clusterState = null;
   protected long lastUpdatedTime = 0;
+  protected long flushInterval = MAX_FLUSH_INTERVAL;
+
+  /**
+   * The state.json last written by this instance for each collection, so that writes that wouldn't
+   * change it (and would still wake up every watcher of the collection) can be skipped
+   */
+  private final Map<String, WrittenState> writtenStates = new HashMap<>();
 
   /**
    * Set to true if we ever get a BadVersionException so that we can disallow future operations with
@@ -202,10 +220,15 @@ public class ZkStateWriter {
    * @return true if a flush to ZK is required, false otherwise
    */
   private boolean maybeFlushAfter() {
-    return System.nanoTime() - lastUpdatedTime > MAX_FLUSH_INTERVAL
+    return System.nanoTime() - lastUpdatedTime > flushInterval
         || numUpdates > Overseer.STATE_UPDATE_BATCH_SIZE;
   }
 
+  /** The current interval between flushes of buffered updates, in nanoseconds. */
+  public long getFlushInterval() {
+    return flushInterval;
+  }
+
   public boolean hasPendingUpdates() {
     return numUpdates != 0;
   }
@@ -255,6 +278,7 @@ public class ZkStateWriter {
       return clusterState;
     }
     boolean success = false;
+    long startTime = System.nanoTime();
     try {
       if (!updates.isEmpty()) {
         for (Map.Entry<String, ZkWriteCommand> entry : updates.entrySet()) {
@@ -282,17 +306,29 @@ public class ZkStateWriter {
             // delete collection cmd
             log.debug("going to delete state.json {}", path);
             reader.getZkClient().clean(path);
+            writtenStates.remove(name);
           } else {
             byte[] data = Utils.toJSON(Map.of(c.getName(), c));
             if (minStateByteLenForCompression > -1 && data.length > minStateByteLenForCompression) {
               // When compressing state.json, we expect at least a 10:1 compression ratio.
               data = compressor.compressBytes(data, data.length / 10);
             }
-            if (reader.getZkClient().exists(path)) {
+            Stat current = reader.getZkClient().exists(path, null);
+            WrittenState written = writtenStates.get(name);
+            if (current != null
+                && current.getVersion() == c.getZNodeVersion()
+                && written != null
+                && written.matches(current.getVersion(), data)) {
+              // the state.json in ZK is the one we'd write, e.g. a replica went down and came back
+              // up within the flush interval
+              log.debug("skipping update_collection {}, state unchanged", path);
+              clusterState = clusterState.copyWith(name, c);
+            } else if (current != null) {
               if (log.isDebugEnabled()) {
                 log.debug("going to update_collection {} version: {}", path, c.getZNodeVersion());
               }
               Stat stat = reader.getZkClient().setData(path, data, c.getZNodeVersion());
+              writtenStates.put(name, WrittenState.of(stat.getVersion(), data));
               DocCollection newCollection =
                   DocCollection.create(
                       name,
@@ -307,6 +343,7 @@ public class ZkStateWriter {
               log.debug("going to create_collection {}", path);
               Stat stat = new Stat();
               reader.getZkClient().create(path, data, CreateMode.PERSISTENT, stat);
+              writtenStates.put(name, WrittenState.of(stat.getVersion(), data));
               DocCollection newCollection =
                   DocCollection.create(
                       name,
@@ -337,6 +374,7 @@ public class ZkStateWriter {
       }
 
       if (resetPendingUpdateCounters) {
+        adjustFlushInterval(System.nanoTime() - startTime);
         resetPendingUpdateCounters();
       }
       success = true;
@@ -356,6 +394,17 @@ public class ZkStateWriter {
     return clusterState;
   }
 
+  /**
+   * Stretches the flush interval when flushing is expensive, so that at most about 1/{@link
+   * #FLUSH_COST_FACTOR} of the time is spent writing to ZK, and shrinks it back when it's cheap.
+   */
+  void adjustFlushInterval(long flushNanos) {
+    flushInterval =
+        Math.max(
+            MAX_FLUSH_INTERVAL,
+            Math.min(ADAPTIVE_MAX_FLUSH_INTERVAL, flushNanos * FLUSH_COST_FACTOR));
+  }
+
   public void resetPendingUpdateCounters() {
     lastUpdatedTime = System.nanoTime();
     numUpdates = 0;
@@ -368,6 +417,19 @@ public class ZkStateWriter {
     return clusterState;
   }
 
+  /** A written state.json: its znode version, and the length and SHA-256 digest of its data. */
+  private record WrittenState(int version, int length, byte[] sha256) {
+    static WrittenState of(int version, byte[] data) {
+      return new WrittenState(version, data.length, DigestUtils.sha256(data));
+    }
+
+    boolean matches(int version, byte[] data) {
+      return this.version == version
+          && length == data.length
+          && Arrays.equals(sha256, DigestUtils.sha256(data));
+    }
+  }
+
   public interface ZkWriteCallback {
     /** Called by ZkStateWriter if state is flushed to ZK */
     void onWrite() throws Exception;
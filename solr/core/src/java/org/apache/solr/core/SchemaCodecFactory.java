@@ -20,12 +20,15 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.KnnVectorsReader;
 import org.apache.lucene.codecs.KnnVectorsWriter;
 import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.bloom.BloomFilteringPostingsFormat;
 import org.apache.lucene.codecs.lucene104.Lucene104Codec;
 import org.apache.lucene.codecs.lucene104.Lucene104Codec.Mode;
 import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
@@ -34,8 +37,10 @@ import org.apache.lucene.index.SegmentWriteState;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.StrUtils;
 import org.apache.solr.schema.DenseVectorField;
 import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.util.plugin.SolrCoreAware;
 import org.slf4j.Logger;
@@ -45,7 +50,10 @@ import org.slf4j.LoggerFactory;
  * Per-field CodecFactory implementation, extends Lucene's and returns postings format
  * implementations according to the schema configuration. <br>
  * Also, a string argument with name <code>compressionMode</code> can be provided to chose between
- * the different compression options for stored fields
+ * the different compression options for stored fields, and a boolean argument with name <code>
+ * uniqueKeyBloomFilter</code> to add a bloom filter to the postings of the uniqueKey field, so that
+ * looking up ids that don't exist in a segment (e.g. new documents) usually doesn't need to seek
+ * its terms dictionary
  *
  * @lucene.experimental
  */
@@ -56,10 +64,19 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
 
   public static final Mode SOLR_DEFAULT_COMPRESSION_MODE = Mode.BEST_SPEED;
 
+  /**
+   * Key to use in init arguments to wrap the postings format of the uniqueKey field in a {@link
+   * BloomFilteringPostingsFormat}.
+   */
+  public static final String UNIQUE_KEY_BLOOM_FILTER = "uniqueKeyBloomFilter";
+
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private Codec codec;
   private volatile SolrCore core;
+  private boolean uniqueKeyBloomFilter;
+  // bloom filtering format by the name of the format it wraps
+  private final Map<String, PostingsFormat> bloomFilteringFormats = new ConcurrentHashMap<>();
 
   // TODO: we need to change how solr does this?
   // rather than a string like "Direct" you need to be able to pass parameters
@@ -96,18 +113,27 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
       compressionMode = SOLR_DEFAULT_COMPRESSION_MODE;
       log.debug("Using default compressionMode: {}", compressionMode);
     }
+    Object bloomFilterArg = args.get(UNIQUE_KEY_BLOOM_FILTER);
+    uniqueKeyBloomFilter = bloomFilterArg != null && StrUtils.parseBool(bloomFilterArg.toString());
     codec =
         new Lucene104Codec(compressionMode) {
           @Override
           public PostingsFormat getPostingsFormatForField(String field) {
-            final SchemaField schemaField = core.getLatestSchema().getFieldOrNull(field);
-            if (schemaField != null) {
-              String postingsFormatName = schemaField.getPostingsFormat();
-              if (postingsFormatName != null) {
-                return PostingsFormat.forName(postingsFormatName);
-              }
+            final IndexSchema schema = core.getLatestSchema();
+            final SchemaField schemaField = schema.getFieldOrNull(field);
+            final PostingsFormat format;
+            if (schemaField != null && schemaField.getPostingsFormat() != null) {
+              format = PostingsFormat.forName(schemaField.getPostingsFormat());
+            } else {
+              format = super.getPostingsFormatForField(field);
+            }
+            if (uniqueKeyBloomFilter
+                && schema.getUniqueKeyField() != null
+                && field.equals(schema.getUniqueKeyField().getName())) {
+              return bloomFilteringFormats.computeIfAbsent(
+                  format.getName(), k -> new BloomFilteringPostingsFormat(format));
             }
-            return super.getPostingsFormatForField(field);
+            return format;
           }
 
           @Override
@@ -331,6 +331,8 @@ public class SolrConfig implements MapWriter {
       httpCachingConfig = new HttpCachingConfig(this);
 
       maxWarmingSearchers = get("query").get("maxWarmingSearchers").intVal(1);
+      autowarmThreads = Math.max(1, get("query").get("autowarmThreads").intVal(1));
+      maxAutowarmTimeMs = get("query").get("maxAutowarmTimeMs").intVal(-1);
       slowQueryThresholdMillis = get("query").get("slowQueryThresholdMillis").intVal(-1);
       for (SolrPluginInfo plugin : plugins) loadPluginInfo(plugin);
 
@@ -674,6 +676,10 @@ public class SolrConfig implements MapWriter {
   private Map<String, List<PluginInfo>> pluginStore = new LinkedHashMap<>();
 
   public final int maxWarmingSearchers;
+  // number of threads regenerating cache entries concurrently while autowarming
+  public final int autowarmThreads;
+  // wall-clock budget for autowarming a new searcher, -1 for no limit
+  public final int maxAutowarmTimeMs;
   public final boolean useColdSearcher;
   public final Version luceneMatchVersion;
   protected String dataDir;
@@ -783,6 +789,8 @@ public class SolrConfig implements MapWriter {
         autoCommmitMaxTime,
         autoSoftCommmitMaxDocs,
         autoSoftCommmitMaxTime;
+    // bounds up to which maxTime may be adapted to the cost of commits, -1 if not adaptive
+    public final int autoCommitAdaptiveMaxTime, autoSoftCommitAdaptiveMaxTime;
     public final long autoCommitMaxSizeBytes;
     public final boolean openSearcher; // is opening a new searcher part of hard autocommit?
     public final boolean commitWithinSoftCommit;
@@ -812,6 +820,8 @@ public class SolrConfig implements MapWriter {
 
       this.autoSoftCommmitMaxDocs = autoSoftCommmitMaxDocs;
       this.autoSoftCommmitMaxTime = autoSoftCommmitMaxTime;
+      this.autoCommitAdaptiveMaxTime = -1;
+      this.autoSoftCommitAdaptiveMaxTime = -1;
 
       this.commitWithinSoftCommit = commitWithinSoftCommit;
       this.commitPollInterval = commitPollInterval;
@@ -828,6 +838,9 @@ public class SolrConfig implements MapWriter {
       this.openSearcher = autoCommit.get("openSearcher").boolVal(true);
       this.autoSoftCommmitMaxDocs = updateHandler.get("autoSoftCommit").get("maxDocs").intVal(-1);
       this.autoSoftCommmitMaxTime = updateHandler.get("autoSoftCommit").get("maxTime").intVal(-1);
+      this.autoCommitAdaptiveMaxTime = autoCommit.get("adaptiveMaxTime").intVal(-1);
+      this.autoSoftCommitAdaptiveMaxTime =
+          updateHandler.get("autoSoftCommit").get("adaptiveMaxTime").intVal(-1);
       this.commitWithinSoftCommit =
           updateHandler.get("commitWithin").get("softCommit").boolVal(true);
       this.commitPollInterval = updateHandler.get("commitPollInterval").txt();
@@ -838,15 +851,21 @@ public class SolrConfig implements MapWriter {
     @Override
     public void writeMap(EntryWriter ew) throws IOException {
       ew.put("commitWithin", Map.of("softCommit", commitWithinSoftCommit));
-      ew.put(
-          "autoCommit",
-          Map.of(
-              "maxDocs", autoCommmitMaxDocs,
-              "maxTime", autoCommmitMaxTime,
-              "openSearcher", openSearcher));
-      ew.put(
-          "autoSoftCommit",
-          Map.of("maxDocs", autoSoftCommmitMaxDocs, "maxTime", autoSoftCommmitMaxTime));
+      Map<String, Object> autoCommit = new LinkedHashMap<>();
+      autoCommit.put("maxDocs", autoCommmitMaxDocs);
+      autoCommit.put("maxTime", autoCommmitMaxTime);
+      autoCommit.put("openSearcher", openSearcher);
+      if (autoCommitAdaptiveMaxTime > 0) {
+        autoCommit.put("adaptiveMaxTime", autoCommitAdaptiveMaxTime);
+      }
+      ew.put("autoCommit", autoCommit);
+      Map<String, Object> autoSoftCommit = new LinkedHashMap<>();
+      autoSoftCommit.put("maxDocs", autoSoftCommmitMaxDocs);
+      autoSoftCommit.put("maxTime", autoSoftCommmitMaxTime);
+      if (autoSoftCommitAdaptiveMaxTime > 0) {
+        autoSoftCommit.put("adaptiveMaxTime", autoSoftCommitAdaptiveMaxTime);
+      }
+      ew.put("autoSoftCommit", autoSoftCommit);
       ew.put("commitPollInterval", commitPollInterval);
     }
   }
@@ -961,6 +980,8 @@ public class SolrConfig implements MapWriter {
               m.put("useFilterForSortedQuery", useFilterForSortedQuery);
               m.put("queryResultWindowSize", queryResultWindowSize);
               m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
+              m.put("autowarmThreads", autowarmThreads);
+              m.put("maxAutowarmTimeMs", maxAutowarmTimeMs);
               m.put("enableLazyFieldLoading", enableLazyFieldLoading);
               m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
               m.put(MIN_PREFIX_QUERY_TERM_LENGTH, prefixQueryMinPrefixLength);
@@ -144,6 +144,7 @@ import org.apache.solr.search.stats.StatsCache;
 import org.apache.solr.update.DefaultSolrCoreState;
 import org.apache.solr.update.DirectUpdateHandler2;
 import org.apache.solr.update.IndexFingerprint;
+import org.apache.solr.update.SegmentFingerprint;
 import org.apache.solr.update.SolrCoreState;
 import org.apache.solr.update.SolrCoreState.IndexWriterCloser;
 import org.apache.solr.update.SolrIndexWriter;
@@ -233,7 +234,7 @@ public class SolrCore implements SolrInfoBean, Closeable {
   private IndexReaderFactory indexReaderFactory;
   private final Codec codec;
   private final ConfigSet configSet;
-  private final Cache<IndexReader.CacheKey, IndexFingerprint> perSegmentFingerprintCache =
+  private final Cache<IndexReader.CacheKey, SegmentFingerprint> perSegmentFingerprintCache =
       Caffeine.newBuilder().weakKeys().build();
   // singleton listener for all packages used in schema
 
@@ -286,6 +287,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
   private final ExecutorService coreAsyncTaskExecutor =
       ExecutorUtil.newMDCAwareCachedThreadPool("Core Async Task");
 
+  // regenerates cache entries concurrently when autowarming; null if autowarming is serial
+  private ExecutorService autowarmExecutor;
+
   public final SolrCore.Provider coreProvider;
 
   /**
@@ -1084,6 +1088,13 @@ public class SolrCore implements SolrInfoBean, Closeable {
       this.coreProvider = new Provider(coreContainer, getName(), uniqueId);
 
       this.solrConfig = configSet.getSolrConfig();
+      if (solrConfig.autowarmThreads > 1) {
+        this.autowarmExecutor =
+            ExecutorUtil.newMDCAwareCachedThreadPool(
+                solrConfig.autowarmThreads,
+                Integer.MAX_VALUE,
+                new SolrNamedThreadFactory("autowarmExecutor"));
+      }
       this.resourceLoader = configSet.getSolrConfig().getResourceLoader();
       this.resourceLoader.setSolrCore(this);
       IndexSchema schema = configSet.getIndexSchema();
@@ -1777,6 +1788,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
     log.info("CLOSING SolrCore {}", this);
 
     ExecutorUtil.shutdownAndAwaitTermination(coreAsyncTaskExecutor);
+    if (autowarmExecutor != null) {
+      ExecutorUtil.shutdownAndAwaitTermination(autowarmExecutor);
+    }
 
     // Close circuit breakers that may have background threads, before metrics because some circuit
     // breakers use metrics
@@ -2159,10 +2173,12 @@ public class SolrCore implements SolrInfoBean, Closeable {
   }
 
   /**
-   * Computes fingerprint of a segment and caches it only if all the version in segment are included
-   * in the fingerprint. We can't use computeIfAbsent as caching is conditional (as described above)
-   * There is chance that two threads may compute fingerprint on the same segment. It might be OK to
-   * do so rather than locking entire map.
+   * Computes the fingerprint of a segment from its {@link SegmentFingerprint}, which is cached per
+   * segment core and updated when documents of the segment are deleted. The versions of the segment
+   * are only read again if the given maxVersion includes some but not all of them, or if a deletion
+   * removed its smallest or largest version. The cache entry is replaced with a plain put rather
+   * than computed under the cache's lock, so two threads may read the versions of the same segment
+   * at the same time. That is cheaper than blocking other lookups while the versions are read.
    *
    * @param searcher searcher that includes specified LeaderReaderContext
    * @param ctx LeafReaderContext of a segment to compute fingerprint of
@@ -2172,7 +2188,7 @@ public class SolrCore implements SolrInfoBean, Closeable {
    */
   public IndexFingerprint getIndexFingerprint(
       SolrIndexSearcher searcher, LeafReaderContext ctx, long maxVersion) throws IOException {
-    IndexReader.CacheHelper cacheHelper = ctx.reader().getReaderCacheHelper();
+    IndexReader.CacheHelper cacheHelper = ctx.reader().getCoreCacheHelper();
     if (cacheHelper == null) {
       if (log.isDebugEnabled()) {
         log.debug(
@@ -2185,15 +2201,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
       return IndexFingerprint.getFingerprint(searcher, ctx, maxVersion);
     }
 
-    IndexFingerprint f = null;
-    f = perSegmentFingerprintCache.getIfPresent(cacheHelper.getKey());
-    // fingerprint is either not cached or if we want fingerprint only up to a version less than
-    // maxVersionEncountered in the segment, or documents were deleted from segment for which
-    // fingerprint was cached
-    //
-    if (f == null
-        || (f.getMaxInHash() > maxVersion)
-        || (f.getNumDocs() != ctx.reader().numDocs())) {
+    SegmentFingerprint cached = perSegmentFingerprintCache.getIfPresent(cacheHelper.getKey());
+    SegmentFingerprint segment = cached == null ? null : cached.update(searcher, ctx);
+    if (segment == null) {
       if (log.isDebugEnabled()) {
         log.debug(
             "IndexFingerprint cache miss for searcher:{} reader:{} readerHash:{} maxVersion:{}",
@@ -2202,27 +2212,10 @@ public class SolrCore implements SolrInfoBean, Closeable {
             ctx.reader().hashCode(),
             maxVersion);
       }
-      f = IndexFingerprint.getFingerprint(searcher, ctx, maxVersion);
-      // cache fingerprint for the segment only if all the versions in the segment are included in
-      // the fingerprint
-      if (f.getMaxVersionEncountered() == f.getMaxInHash()) {
-        log.debug(
-            "Caching fingerprint for searcher:{} leafReaderContext:{} mavVersion:{}",
-            searcher,
-            ctx,
-            maxVersion);
-        perSegmentFingerprintCache.put(cacheHelper.getKey(), f);
-      }
-
-    } else {
-      if (log.isDebugEnabled()) {
-        log.debug(
-            "IndexFingerprint cache hit for searcher:{} reader:{} readerHash:{} maxVersion:{}",
-            searcher,
-            ctx.reader(),
-            ctx.reader().hashCode(),
-            maxVersion);
-      }
+      segment = SegmentFingerprint.compute(searcher, ctx);
+    }
+    if (segment != cached) {
+      perSegmentFingerprintCache.put(cacheHelper.getKey(), segment);
     }
     if (log.isDebugEnabled()) {
       log.debug(
@@ -2230,6 +2223,12 @@ public class SolrCore implements SolrInfoBean, Closeable {
           perSegmentFingerprintCache.estimatedSize(),
           searcher.getTopReaderContext().leaves().size());
     }
+
+    IndexFingerprint f = segment.getFingerprint(ctx, maxVersion);
+    if (f == null) {
+      // maxVersion falls within the versions of this segment
+      f = IndexFingerprint.getFingerprint(searcher, ctx, maxVersion);
+    }
     return f;
   }
 
@@ -3627,6 +3626,14 @@ public class SolrCore implements SolrInfoBean, Closeable {
     coreAsyncTaskExecutor.execute(r);
   }
 
+  /**
+   * Returns the executor used to regenerate cache entries concurrently while autowarming a new
+   * searcher, or null if autowarming is serial (see {@link SolrConfig#autowarmThreads}).
+   */
+  public ExecutorService getAutowarmExecutor() {
+    return autowarmExecutor;
+  }
+
   /**
    * Provides the core instance if the core instance is still alive. This helps to not hold on to a
    * live {@link SolrCore} instance even after it's unloaded
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import org.apache.solr.client.solrj.impl.SolrZkClientTimeout;
@@ -211,6 +212,27 @@ public class ZkContainer {
                     measurement -> {
                       measurement.record(metricsListener.getChildFetches(), attributes);
                     });
+
+                ZkStateReader zkStateReader = zkController.getZkStateReader();
+                ctx.observableLongCounter(
+                    "solr.zk.state.parse_time",
+                    "Total time spent parsing collection states read from ZooKeeper",
+                    measurement -> {
+                      measurement.record(
+                          TimeUnit.NANOSECONDS.toMillis(
+                              zkStateReader.getCollectionStateParseNanos()),
+                          attributes);
+                    },
+                    OtelUnit.MILLISECONDS);
+
+                ctx.observableLongCounter(
+                    "solr.zk.state.parsed",
+                    "Total bytes of collection states parsed",
+                    measurement -> {
+                      measurement.record(
+                          zkStateReader.getCollectionStateBytesParsed(), attributes);
+                    },
+                    OtelUnit.BYTES);
               }
 
               @Override
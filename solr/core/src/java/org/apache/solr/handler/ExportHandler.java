@@ -55,6 +55,7 @@ public class ExportHandler extends SearchHandler {
   private SolrClientCache solrClientCache;
   private StreamContext initialStreamContext;
   private String writerMetricsPath;
+  private ExportWriter.ExportMetrics exportMetrics;
 
   public static class ExportHandlerStreamFactory extends SolrDefaultStreamFactory {
     static final String[] forbiddenStreams =
@@ -91,6 +92,10 @@ public class ExportHandler extends SearchHandler {
     super.initializeMetrics(parentContext, attributes);
     this.writerMetricsPath =
         SolrMetricManager.mkName("writer", getCategory().toString(), "/export");
+    this.exportMetrics =
+        new ExportWriter.ExportMetrics(
+            solrMetricsContext,
+            attributes.toBuilder().put(CATEGORY_ATTR, getCategory().toString()).build());
   }
 
   @Override
@@ -135,6 +140,12 @@ public class ExportHandler extends SearchHandler {
     rsp.add(
         ReplicationAPIBase.FILE_STREAM,
         new ExportWriter(
-            req, rsp, wt, initialStreamContext, solrMetricsContext, writerMetricsPath));
+            req,
+            rsp,
+            wt,
+            initialStreamContext,
+            solrMetricsContext,
+            writerMetricsPath,
+            exportMetrics));
   }
 }
@@ -25,8 +25,10 @@ import static org.apache.solr.handler.ReplicationHandler.CMD_GET_FILE_LIST;
 import static org.apache.solr.handler.ReplicationHandler.CMD_INDEX_VERSION;
 import static org.apache.solr.handler.ReplicationHandler.COMMAND;
 import static org.apache.solr.handler.ReplicationHandler.CONF_FILES;
+import static org.apache.solr.handler.ReplicationHandler.DOWNLOAD_THREADS;
 import static org.apache.solr.handler.ReplicationHandler.FETCH_FROM_LEADER;
 import static org.apache.solr.handler.ReplicationHandler.LEADER_URL;
+import static org.apache.solr.handler.ReplicationHandler.MAX_DOWNLOAD_MB_PER_SEC;
 import static org.apache.solr.handler.ReplicationHandler.SIZE;
 import static org.apache.solr.handler.ReplicationHandler.SKIP_COMMIT_ON_LEADER_VERSION_ZERO;
 import static org.apache.solr.handler.admin.api.ReplicationAPIBase.CHECKSUM;
@@ -57,6 +59,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -65,6 +68,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -86,6 +90,7 @@ import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimiter;
 import org.apache.solr.client.api.model.FileMetaData;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -102,6 +107,7 @@ import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.FastInputStream;
 import org.apache.solr.common.util.IOUtils;
@@ -167,6 +173,14 @@ public class IndexFetcher {
 
   private volatile LocalFsFileFetcher localFileFetcher;
 
+  // index files being downloaded when downloadThreads > 1, by name
+  private final Map<String, FileFetcher> parallelFileFetchers = new ConcurrentHashMap<>();
+
+  private final int downloadThreads;
+
+  // shared by all the downloads of this fetcher, null if the bandwidth isn't limited
+  private final RateLimiter downloadRateLimiter;
+
   private volatile ExecutorService fsyncService;
 
   private volatile boolean stop = false;
@@ -284,6 +298,22 @@ public class IndexFetcher {
     useExternalCompression = ReplicationHandler.EXTERNAL.equals(compress);
     soTimeout = getParameter(initArgs, SolrHttpConstants.PROP_SO_TIMEOUT, 120000, null);
 
+    Object threads = initArgs.get(DOWNLOAD_THREADS);
+    downloadThreads =
+        Math.max(
+            1,
+            threads != null
+                ? Integer.parseInt(threads.toString())
+                : EnvUtils.getPropertyAsInteger("solr.replication.downloadThreads", 1));
+    Object maxMBPerSec = initArgs.get(MAX_DOWNLOAD_MB_PER_SEC);
+    double downloadMBPerSec =
+        Double.parseDouble(
+            maxMBPerSec != null
+                ? maxMBPerSec.toString()
+                : EnvUtils.getProperty("solr.replication.maxDownloadMBPerSec", "0"));
+    downloadRateLimiter =
+        downloadMBPerSec > 0 ? new RateLimiter.SimpleRateLimiter(downloadMBPerSec) : null;
+
     String httpBasicAuthUser = (String) initArgs.get(SolrHttpConstants.PROP_BASIC_AUTH_USER);
     String httpBasicAuthPassword = (String) initArgs.get(SolrHttpConstants.PROP_BASIC_AUTH_PASS);
     solrClient =
@@ -967,9 +997,8 @@ public class IndexFetcher {
       bytesDownloaded += (Long) file.get(SIZE);
     }
 
-    // get size from current file being downloaded
-    Map<String, Object> currentFile = getCurrentFile();
-    if (currentFile != null) {
+    // get size from the files being downloaded
+    for (Map<String, Object> currentFile : getCurrentFiles()) {
       if (currentFile.containsKey("bytesDownloaded")) {
         bytesDownloaded += (Long) currentFile.get("bytesDownloaded");
       }
@@ -1121,6 +1150,7 @@ public class IndexFetcher {
           FilterDirectory.unwrap(tmpIndexDir));
     }
 
+    List<Map<String, Object>> filesToFetch = new ArrayList<>();
     for (Map<String, Object> file : filesToDownload) {
       String filename = (String) file.get(NAME);
       long size = (Long) file.get(SIZE);
@@ -1152,6 +1182,9 @@ public class IndexFetcher {
           // efficient as compared to a file copy. TODO: Maybe we could do a move safely here?
           Files.createLink(Path.of(tmpIndexDirPath, filename), localFile);
           bytesSkippedCopying += Files.size(localFile);
+          filesDownloaded.add(new HashMap<>(file));
+        } else if (downloadThreads > 1) {
+          filesToFetch.add(file);
         } else {
           dirFileFetcher =
               new DirectoryFileFetcher(
@@ -1159,14 +1192,17 @@ public class IndexFetcher {
           currentFile = file;
           dirFileFetcher.fetchFile();
           bytesDownloaded += dirFileFetcher.getBytesDownloaded();
+          filesDownloaded.add(new HashMap<>(file));
         }
-        filesDownloaded.add(new HashMap<>(file));
       } else {
         if (log.isDebugEnabled()) {
           log.debug("Skipping download for {} because it already exists", file.get(NAME));
         }
       }
     }
+    if (!filesToFetch.isEmpty()) {
+      bytesDownloaded += fetchIndexFilesInParallel(filesToFetch, tmpIndexDir, latestGeneration);
+    }
     log.info(
         "Bytes downloaded: {}, Bytes skipped downloading: {}",
         bytesDownloaded,
@@ -1174,6 +1210,60 @@ public class IndexFetcher {
     return bytesDownloaded;
   }
 
+  /**
+   * Downloads the given index files with up to {@code downloadThreads} concurrent requests, the
+   * largest files first. If a download fails, the others are aborted and the first failure is
+   * thrown.
+   *
+   * @return number of bytes downloaded
+   */
+  private long fetchIndexFilesInParallel(
+      List<Map<String, Object>> files, Directory tmpIndexDir, long latestGeneration)
+      throws Exception {
+    files.sort(Comparator.comparingLong((Map<String, Object> f) -> (Long) f.get(SIZE)).reversed());
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareFixedThreadPool(
+            Math.min(downloadThreads, files.size()), new SolrNamedThreadFactory("indexFetcher"));
+    try {
+      List<Future<Long>> futures = new ArrayList<>(files.size());
+      for (Map<String, Object> file : files) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  String name = (String) file.get(NAME);
+                  DirectoryFileFetcher fetcher =
+                      new DirectoryFileFetcher(tmpIndexDir, file, name, FILE, latestGeneration);
+                  parallelFileFetchers.put(name, fetcher);
+                  try {
+                    fetcher.fetchFile();
+                  } finally {
+                    parallelFileFetchers.remove(name);
+                  }
+                  filesDownloaded.add(new HashMap<>(file));
+                  return fetcher.getBytesDownloaded();
+                }));
+      }
+      long bytesDownloaded = 0;
+      Exception failure = null;
+      for (Future<Long> future : futures) {
+        try {
+          bytesDownloaded += future.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof Exception cause ? cause : e;
+            stop = true; // abort the other downloads
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return bytesDownloaded;
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
   // only for testing purposes. do not use this anywhere else
   // -----------START----------------------
   static BooleanSupplier testWait = () -> true;
@@ -1509,6 +1599,28 @@ public class IndexFetcher {
     return tmp == null ? List.of() : new ArrayList<>(tmp);
   }
 
+  /**
+   * The files being downloaded with the number of bytes downloaded so far, several if {@code
+   * downloadThreads} is greater than 1.
+   */
+  List<Map<String, Object>> getCurrentFiles() {
+    List<Map<String, Object>> files = new ArrayList<>();
+    for (FileFetcher fetcher : parallelFileFetchers.values()) {
+      Map<String, Object> file = new HashMap<>();
+      file.put(NAME, fetcher.fileName);
+      file.put(SIZE, fetcher.size);
+      file.put("bytesDownloaded", fetcher.getBytesDownloaded());
+      files.add(file);
+    }
+    if (files.isEmpty()) {
+      Map<String, Object> file = getCurrentFile();
+      if (file != null) {
+        files.add(file);
+      }
+    }
+    return files;
+  }
+
   // TODO: currently does not reflect conf files
   Map<String, Object> getCurrentFile() {
     Map<String, Object> tmp = currentFile;
@@ -1626,6 +1738,7 @@ public class IndexFetcher {
     private int fetchPackets(FastInputStream fis) throws Exception {
       byte[] intbytes = new byte[4];
       byte[] longbytes = new byte[8];
+      long bytesBeforePause = 0;
       try {
         while (true) {
           if (fis.peek() == -1) {
@@ -1636,7 +1749,7 @@ public class IndexFetcher {
             return 0;
           }
           if (stop) {
-            stop = false;
+            // reset once the whole fetch is over, so that concurrent downloads see it too
             aborted = true;
             throw new ReplicationHandlerException("User aborted replication");
           }
@@ -1677,6 +1790,13 @@ public class IndexFetcher {
           // if everything is fine, write down the packet to the file
           file.write(buf, packetSize);
           bytesDownloaded += packetSize;
+          if (downloadRateLimiter != null) {
+            bytesBeforePause += packetSize;
+            if (bytesBeforePause >= downloadRateLimiter.getMinPauseCheckBytes()) {
+              downloadRateLimiter.pause(bytesBeforePause);
+              bytesBeforePause = 0;
+            }
+          }
           log.debug("Fetched and wrote {} bytes of file: {}", bytesDownloaded, fileName);
           // errorCount is always set to zero after a successful packet
           errorCount = 0;
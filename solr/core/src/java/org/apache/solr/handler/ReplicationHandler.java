@@ -1066,7 +1066,8 @@ public class ReplicationHandler extends RequestHandlerBase
             bytesDownloaded += (Long) file.get(SIZE);
           }
 
-          Map<String, Object> currentFile = fetcher.getCurrentFile();
+          List<Map<String, Object>> currentFiles = fetcher.getCurrentFiles();
+          Map<String, Object> currentFile = currentFiles.isEmpty() ? null : currentFiles.get(0);
           String currFile = null;
           long currFileSize = 0, currFileSizeDownloaded = 0;
           float percentDownloaded = 0;
@@ -1080,6 +1081,24 @@ public class ReplicationHandler extends RequestHandlerBase
                 percentDownloaded = (float) (currFileSizeDownloaded * 100) / currFileSize;
             }
           }
+          if (currentFiles.size() > 1) {
+            List<NamedList<Object>> filesInProgress = new ArrayList<>();
+            for (Map<String, Object> file : currentFiles) {
+              long size = (Long) file.get(SIZE);
+              long downloaded = (Long) file.get("bytesDownloaded");
+              if (file != currentFile) {
+                bytesDownloaded += downloaded;
+              }
+              NamedList<Object> fileProgress = new SimpleOrderedMap<>();
+              fileProgress.add(NAME, file.get(NAME));
+              fileProgress.add("size", NumberUtils.readableSize(size));
+              fileProgress.add("sizeDownloaded", NumberUtils.readableSize(downloaded));
+              fileProgress.add(
+                  "sizePercent", String.valueOf(size > 0 ? (float) (downloaded * 100) / size : 0));
+              filesInProgress.add(fileProgress);
+            }
+            follower.add("currentFiles", filesInProgress);
+          }
           follower.add("filesDownloaded", filesDownloaded);
           follower.add("numFilesDownloaded", String.valueOf(filesDownloaded.size()));
 
@@ -1581,6 +1600,12 @@ public class ReplicationHandler extends RequestHandlerBase
 
   public static final String FETCH_FROM_LEADER = "fetchFromLeader";
 
+  /** Number of index files a follower downloads concurrently, 1 by default. */
+  public static final String DOWNLOAD_THREADS = "downloadThreads";
+
+  /** Limit of the overall download rate of a follower in MB/s, unlimited by default. */
+  public static final String MAX_DOWNLOAD_MB_PER_SEC = "maxDownloadMBPerSec";
+
   // In case of TLOG replica, if leaderVersion = zero, don't do commit
   // otherwise updates from current tlog won't be copied over properly to the new tlog,
   // leading to data loss.
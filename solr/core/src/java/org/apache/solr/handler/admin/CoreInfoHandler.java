@@ -17,19 +17,35 @@
 package org.apache.solr.handler.admin;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.core.SolrInfoBean;
 import org.apache.solr.handler.RequestHandlerBase;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.search.CaffeineCache;
+import org.apache.solr.search.OffHeapCaffeineCache;
+import org.apache.solr.search.SolrCache;
 import org.apache.solr.security.AuthorizationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This handler returns core level info. See {@link org.apache.solr.handler.admin.SystemInfoHandler}
+ *
+ * <p>With the {@value #ENTRY_COSTS_PARAM} parameter, it also lists the most beneficial entries of
+ * the caches that track the cost of their entries, see {@link CaffeineCache#getEntryCosts(int)}.
  */
 public class CoreInfoHandler extends RequestHandlerBase {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  /** The number of entries to list the cost of, per cache. */
+  public static final String ENTRY_COSTS_PARAM = "entryCosts";
+
   @Override
   public String getDescription() {
     return "Get Core Info";
@@ -50,5 +66,39 @@ public class CoreInfoHandler extends RequestHandlerBase {
     rsp.setHttpCaching(false);
 
     rsp.add("core", SystemInfoProvider.getCoreInfo(req.getCore(), req.getSchema()));
+
+    int numEntryCosts = req.getParams().getInt(ENTRY_COSTS_PARAM, 0);
+    if (numEntryCosts > 0) {
+      rsp.add("entryCosts", getEntryCosts(req.getCore(), numEntryCosts));
+    }
+  }
+
+  private static SimpleOrderedMap<Object> getEntryCosts(SolrCore core, int n) {
+    SimpleOrderedMap<Object> caches = new SimpleOrderedMap<>();
+    for (SolrInfoBean infoBean : core.getInfoRegistry().values()) {
+      final List<? extends Map.Entry<?, CaffeineCache.EntryCost>> costs;
+      if (infoBean instanceof CaffeineCache<?, ?> cache) {
+        costs = cache.getEntryCosts(n);
+      } else if (infoBean instanceof OffHeapCaffeineCache<?, ?> cache) {
+        costs = cache.getEntryCosts(n);
+      } else {
+        continue;
+      }
+      if (costs.isEmpty()) {
+        continue;
+      }
+      List<SimpleOrderedMap<Object>> entries = new ArrayList<>(costs.size());
+      for (Map.Entry<?, CaffeineCache.EntryCost> e : costs) {
+        CaffeineCache.EntryCost cost = e.getValue();
+        SimpleOrderedMap<Object> entry = new SimpleOrderedMap<>();
+        entry.add("key", String.valueOf(e.getKey()));
+        entry.add("computeMs", TimeUnit.NANOSECONDS.toMillis(cost.getComputeNanos()));
+        entry.add("hits", cost.getHits());
+        entry.add("ramBytes", cost.getRamBytes());
+        entries.add(entry);
+      }
+      caches.add(((SolrCache<?, ?>) infoBean).name(), entries);
+    }
+    return caches;
   }
 }
@@ -47,6 +47,7 @@ import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.params.CommonAdminParams;
 import org.apache.solr.common.params.CoreAdminParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequestBase;
@@ -206,6 +207,10 @@ class SplitOp implements CoreAdminHandler.CoreAdminOp {
       SplitIndexCommand cmd =
           new SplitIndexCommand(
               req, it.rsp, paths, newCores, ranges, router, routeFieldName, splitKey, splitMethod);
+      cmd.numThreads =
+          params.getInt(
+              CoreAdminParams.SPLIT_THREADS,
+              EnvUtils.getPropertyAsInteger("solr.index.split.threads", 1));
       parentCore.getUpdateHandler().split(cmd);
 
       if (it.handler.coreContainer.isZooKeeperAware()) {
@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -37,6 +38,7 @@ import org.apache.solr.client.solrj.impl.LBAsyncSolrClient;
 import org.apache.solr.client.solrj.impl.LBSolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.routing.NoOpReplicaListTransformer;
+import org.apache.solr.client.solrj.routing.ReplicaLatencyTracker;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
 import org.apache.solr.cloud.CloudDescriptor;
 import org.apache.solr.cloud.ZkController;
@@ -282,7 +284,31 @@ public class HttpShardHandler extends ShardHandler {
       SimpleSolrResponse ssr,
       ShardResponse srsp,
       long startTimeNS) {
-    CompletableFuture<LBSolrClient.Rsp> future = this.lbClient.requestAsync(lbReq);
+    // the LB client tries the endpoints in order; latency is attributed to the preferred one
+    final ReplicaLatencyTracker latencyTracker = httpShardHandlerFactory.getReplicaLatencyTracker();
+    final String preferredUrl =
+        latencyTracker == null || lbReq.getEndpoints().isEmpty()
+            ? null
+            : lbReq.getEndpoints().get(0).getUrl();
+    if (preferredUrl != null) {
+      latencyTracker.requestStarted(preferredUrl);
+    }
+    CompletableFuture<LBSolrClient.Rsp> future;
+    try {
+      future = this.lbClient.requestAsync(lbReq);
+    } catch (RuntimeException e) {
+      if (preferredUrl != null) {
+        latencyTracker.requestFinished(preferredUrl);
+      }
+      throw e;
+    }
+    if (preferredUrl != null) {
+      // registered before the cancellation check below, so that cancelled requests are released
+      future.whenComplete(
+          (rsp, throwable) ->
+              recordLatency(
+                  latencyTracker, preferredUrl, rsp, throwable, System.nanoTime() - startTimeNS));
+    }
     // Hold the cancellation lock so the canceled check and the responseFutureMap put happen as one
     // step: either we register this future for later cancellation, or (if cancelAll already ran) we
     // cancel it now and never track it.
@@ -328,6 +354,26 @@ public class HttpShardHandler extends ShardHandler {
         });
   }
 
+  private static void recordLatency(
+      ReplicaLatencyTracker tracker,
+      String preferredUrl,
+      LBSolrClient.Rsp rsp,
+      Throwable throwable,
+      long elapsedNS) {
+    tracker.requestFinished(preferredUrl);
+    if (throwable instanceof CancellationException) {
+      return; // says nothing about the replica
+    }
+    if (rsp != null
+        && ReplicaLatencyTracker.nodeKey(preferredUrl)
+            .equals(ReplicaLatencyTracker.nodeKey(rsp.getServer()))) {
+      tracker.recordResponseTime(preferredUrl, elapsedNS);
+    } else {
+      // failed, or answered by another replica after the preferred one failed
+      tracker.recordFailure(preferredUrl);
+    }
+  }
+
   /**
    * Enqueue {@code value} into the {@link #responses} queue iff {@code key} is still tracked in
    * {@link #responseFutureMap}, holding the cancellation monitor so this stays atomic with {@link
@@ -39,6 +39,8 @@ import org.apache.solr.client.solrj.jetty.HttpJettySolrClient;
 import org.apache.solr.client.solrj.jetty.LBJettySolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.routing.AffinityReplicaListTransformerFactory;
+import org.apache.solr.client.solrj.routing.LatencyReplicaListTransformerFactory;
+import org.apache.solr.client.solrj.routing.ReplicaLatencyTracker;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformerFactory;
 import org.apache.solr.client.solrj.routing.RequestReplicaListTransformerGenerator;
@@ -107,6 +109,9 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   private RequestReplicaListTransformerGenerator requestReplicaListTransformerGenerator =
       new RequestReplicaListTransformerGenerator();
 
+  // null unless "latency" replica routing is configured
+  private ReplicaLatencyTracker replicaLatencyTracker;
+
   // URL scheme to be used in distributed search.
   static final String INIT_URL_SCHEME = "urlScheme";
 
@@ -165,6 +170,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   private void initReplicaListTransformers(NamedList<?> routingConfig) {
     String defaultRouting = null;
     ReplicaListTransformerFactory stableRltFactory = null;
+    LatencyReplicaListTransformerFactory latencyRltFactory = null;
     ReplicaListTransformerFactory defaultRltFactory;
     if (routingConfig != null && routingConfig.size() > 0) {
       Iterator<? extends Entry<String, ?>> iter = routingConfig.iterator();
@@ -185,6 +191,12 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
             defaultRouting = checkDefaultReplicaListTransformer(c, key, defaultRouting);
             stableRltFactory = new AffinityReplicaListTransformerFactory(c);
             break;
+          case ShardParams.REPLICA_LATENCY:
+            NamedList<?> lc = getNamedList(e.getValue());
+            defaultRouting = checkDefaultReplicaListTransformer(lc, key, defaultRouting);
+            latencyRltFactory =
+                new LatencyReplicaListTransformerFactory(new ReplicaLatencyTracker(lc), r);
+            break;
           default:
             throw new IllegalArgumentException("invalid replica routing spec name: " + key);
         }
@@ -195,11 +207,23 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
     }
     if (ShardParams.REPLICA_STABLE.equals(defaultRouting)) {
       defaultRltFactory = stableRltFactory;
+    } else if (ShardParams.REPLICA_LATENCY.equals(defaultRouting)) {
+      defaultRltFactory = latencyRltFactory;
     } else {
       defaultRltFactory = RequestReplicaListTransformerGenerator.RANDOM_RLTF;
     }
+    this.replicaLatencyTracker = latencyRltFactory == null ? null : latencyRltFactory.getTracker();
     this.requestReplicaListTransformerGenerator =
-        new RequestReplicaListTransformerGenerator(defaultRltFactory, stableRltFactory);
+        new RequestReplicaListTransformerGenerator(
+            defaultRltFactory, stableRltFactory, latencyRltFactory);
+  }
+
+  /**
+   * The tracker that {@link HttpShardHandler}s report shard request latencies to, or null if
+   * "latency" replica routing is not configured.
+   */
+  ReplicaLatencyTracker getReplicaLatencyTracker() {
+    return replicaLatencyTracker;
   }
 
   /**
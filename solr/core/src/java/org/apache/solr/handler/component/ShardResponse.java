@@ -74,7 +74,7 @@ public final class ShardResponse {
     this.rsp = rsp;
   }
 
-  void setShard(String shard) {
+  public void setShard(String shard) {
     this.shard = shard;
   }
 
@@ -60,6 +60,8 @@ class ExportBuffers {
   Buffer outputBuffer;
   Runnable filler;
   ExecutorService service;
+  // sorts segments concurrently, if the request asks for more than one export thread
+  ExecutorService sortService;
   Throwable error;
   LongAdder outputCounter = new LongAdder();
   volatile boolean shutDown = false;
@@ -96,7 +98,14 @@ class ExportBuffers {
     outputBuffer = bufferTwo;
     SortDoc writerSortDoc = exportWriter.getSortDoc(searcher, sort.getSort());
 
-    MergeIterator mergeIterator = exportWriter.getMergeIterator(leaves, sets, writerSortDoc);
+    int sortThreads = Math.min(exportWriter.exportThreads, leaves.size());
+    if (sortThreads > 1) {
+      sortService =
+          ExecutorUtil.newMDCAwareFixedThreadPool(
+              sortThreads, new SolrNamedThreadFactory("ExportSort"));
+    }
+    MergeIterator mergeIterator =
+        exportWriter.getMergeIterator(leaves, sets, writerSortDoc, sortService);
 
     bufferOne.initialize(writerSortDoc);
     bufferTwo.initialize(writerSortDoc);
@@ -200,6 +209,11 @@ class ExportBuffers {
       service.shutdownNow();
       service = null;
     }
+    if (sortService != null) {
+      // don't leave segments being sorted after the searcher is released
+      ExecutorUtil.shutdownNowAndAwaitTermination(sortService);
+      sortService = null;
+    }
     shutDown = true;
   }
 
@@ -17,6 +17,10 @@
 
 package org.apache.solr.handler.export;
 
+import static org.apache.solr.metrics.SolrMetricProducer.TYPE_ATTR;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
@@ -32,6 +36,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedDocValues;
@@ -55,9 +65,12 @@ import org.apache.solr.common.PushWriter;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.params.StreamParams;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.JavaBinCodec;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.OtelUnit;
+import org.apache.solr.metrics.otel.instruments.AttributedLongCounter;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.response.JSONResponseWriter;
@@ -94,6 +107,11 @@ import org.slf4j.LoggerFactory;
  * that haven't been sent yet and stores them in a Priority Queue. They are then exported (written
  * across the wire) and marked as sent (unset in the bitmap). This process repeats until all
  * matching documents have been sent.
+ *
+ * <p>With {@link #EXPORT_THREADS_PARAM} &gt; 1, the passes over the segments run concurrently on a
+ * pool of that many threads, at most {@link #MAX_EXPORT_THREADS}: every segment sorts its next
+ * batch in the background while its current batch is being merged with the other segments'
+ * batches and written.
  */
 public class ExportWriter implements SolrCore.RawWriter, Closeable {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -101,9 +119,16 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   public static final String BATCH_SIZE_PARAM = "batchSize";
   public static final String QUEUE_SIZE_PARAM = "queueSize";
   public static final String INCLUDE_STORED_FIELDS_PARAM = "includeStoredFields";
+  public static final String EXPORT_THREADS_PARAM = "exportThreads";
 
   public static final int DEFAULT_BATCH_SIZE = 30000;
   public static final int DEFAULT_QUEUE_SIZE = 150000;
+  public static final int DEFAULT_EXPORT_THREADS = 1;
+
+  /** Upper bound on {@link #EXPORT_THREADS_PARAM}, defaults to the number of processors. */
+  public static final int MAX_EXPORT_THREADS =
+      EnvUtils.getPropertyAsInteger(
+          "solr.export.maxThreads", Runtime.getRuntime().availableProcessors());
   private static final FieldWriter EMPTY_FIELD_WRITER =
       new FieldWriter() {
         @Override
@@ -118,6 +143,11 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   final StreamContext initialStreamContext;
   final SolrMetricsContext solrMetricsContext;
   final String metricsPath;
+  final ExportMetrics exportMetrics;
+  // The number of threads sorting segments, 1 to sort them in the filler thread.
+  final int exportThreads;
+  final LongAdder exportedDocs = new LongAdder();
+  final LongAdder sortNanos = new LongAdder();
   // The batch size for the output writer thread.
   final int batchSize;
   // The max combined size of the segment level priority queues.
@@ -137,12 +167,26 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       StreamContext initialStreamContext,
       SolrMetricsContext solrMetricsContext,
       String metricsPath) {
+    this(req, res, wt, initialStreamContext, solrMetricsContext, metricsPath, null);
+  }
+
+  public ExportWriter(
+      SolrQueryRequest req,
+      SolrQueryResponse res,
+      String wt,
+      StreamContext initialStreamContext,
+      SolrMetricsContext solrMetricsContext,
+      String metricsPath,
+      ExportMetrics exportMetrics) {
     this.req = req;
     this.res = res;
     this.wt = wt;
     this.initialStreamContext = initialStreamContext;
     this.solrMetricsContext = solrMetricsContext;
     this.metricsPath = metricsPath;
+    this.exportMetrics = exportMetrics;
+    int requestedThreads = req.getParams().getInt(EXPORT_THREADS_PARAM, DEFAULT_EXPORT_THREADS);
+    this.exportThreads = Math.max(1, Math.min(requestedThreads, MAX_EXPORT_THREADS));
     this.priorityQueueSize = req.getParams().getInt(QUEUE_SIZE_PARAM, DEFAULT_QUEUE_SIZE);
     this.batchSize = DEFAULT_BATCH_SIZE;
   }
@@ -376,6 +420,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
         }
       }
       destination.outDocsIndex = outDocsIndex;
+      exportedDocs.add(outDocsIndex + 1);
     } catch (Throwable t) {
       log.error("transfer", t);
       if (t instanceof InterruptedException) {
@@ -388,7 +433,23 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   protected void writeDocs(
       SolrQueryRequest req, OutputStream os, IteratorWriter.ItemWriter writer, Sort sort)
       throws IOException {
-    List<LeafReaderContext> leaves = req.getSearcher().getTopReaderContext().leaves();
+    final long startNanos = System.nanoTime();
+    try {
+      writeDocs(req, os, writer, sort, req.getSearcher().getTopReaderContext().leaves());
+    } finally {
+      if (exportMetrics != null) {
+        exportMetrics.record(exportedDocs.sum(), System.nanoTime() - startNanos, sortNanos.sum());
+      }
+    }
+  }
+
+  private void writeDocs(
+      SolrQueryRequest req,
+      OutputStream os,
+      IteratorWriter.ItemWriter writer,
+      Sort sort,
+      List<LeafReaderContext> leaves)
+      throws IOException {
     final int queueSize = Math.min(batchSize, totalHits);
 
     ExportBuffers buffers =
@@ -402,6 +463,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
         tupleStream = createTupleStream();
         tupleStream.open();
       } catch (Exception e) {
+        buffers.shutdownNow();
         buffers.getWriter().add((MapWriter) ew -> Tuple.EXCEPTION(e, true).writeMap(ew));
         return;
       }
@@ -754,6 +816,15 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
 
   public MergeIterator getMergeIterator(
       List<LeafReaderContext> leaves, FixedBitSet[] bits, SortDoc sortDoc) throws IOException {
+    return getMergeIterator(leaves, bits, sortDoc, null);
+  }
+
+  /**
+   * @param executor if not null, segments sort their batches on it concurrently, one batch ahead
+   */
+  MergeIterator getMergeIterator(
+      List<LeafReaderContext> leaves, FixedBitSet[] bits, SortDoc sortDoc, Executor executor)
+      throws IOException {
     try {
       long totalDocs = 0;
       for (int i = 0; i < leaves.size(); i++) {
@@ -797,7 +868,8 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       for (int i = 0; i < segmentIterators.length; i++) {
         SortQueue sortQueue = new SortQueue(sizes[i], sortDoc.copy());
         segmentIterators[i] =
-            new SegmentIterator(bits[i], leaves.get(i), sortQueue, sortDoc.copy());
+            new SegmentIterator(
+                bits[i], leaves.get(i), sortQueue, sortDoc.copy(), sortNanos, executor);
       }
 
       return new MergeIterator(segmentIterators, sortDoc);
@@ -808,16 +880,28 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   private static class SegmentIterator {
 
     private final FixedBitSet bits;
-    private final SortQueue queue;
     private final SortDoc sortDoc;
     private final LeafReaderContext context;
-    private final SortDoc[] outDocs;
+    private final LongAdder sortNanos;
+    private SortQueue queue;
+    private SortDoc[] outDocs;
 
     private SortDoc nextDoc;
     private int index;
 
+    // When sorting concurrently, the next batch is sorted into the spare queue in the background.
+    private final Executor executor;
+    private SortQueue spareQueue;
+    private SortDoc[] spareOutDocs;
+    private Future<Integer> nextBatch;
+
     public SegmentIterator(
-        FixedBitSet bits, LeafReaderContext context, SortQueue sortQueue, SortDoc sortDoc)
+        FixedBitSet bits,
+        LeafReaderContext context,
+        SortQueue sortQueue,
+        SortDoc sortDoc,
+        LongAdder sortNanos,
+        Executor executor)
         throws IOException {
       this.bits = bits;
       this.queue = sortQueue;
@@ -825,7 +909,16 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       this.nextDoc = sortDoc.copy();
       this.context = context;
       this.outDocs = new SortDoc[sortQueue.maxSize];
-      topDocs();
+      this.sortNanos = sortNanos;
+      this.executor = executor;
+      if (executor == null) {
+        topDocs();
+      } else {
+        this.spareQueue = new SortQueue(sortQueue.maxSize, sortDoc);
+        this.spareOutDocs = new SortDoc[sortQueue.maxSize];
+        this.index = -1;
+        sortNextBatch();
+      }
     }
 
     public SortDoc next() throws IOException {
@@ -833,15 +926,21 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       if (index > -1) {
         _sortDoc = outDocs[index--];
       } else {
-        topDocs();
+        if (executor == null) {
+          topDocs();
+        } else {
+          swapBatch();
+        }
         if (index > -1) {
           _sortDoc = outDocs[index--];
         }
       }
 
       if (_sortDoc != null) {
-        // Clear the bit so it's not loaded again.
-        bits.clear(_sortDoc.docId);
+        if (executor == null) {
+          // Clear the bit so it's not loaded again.
+          bits.clear(_sortDoc.docId);
+        }
 
         // Load the global ordinal (only matters for strings)
         _sortDoc.setGlobalValues(nextDoc);
@@ -856,6 +955,63 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     }
 
     private void topDocs() throws IOException {
+      index = sortBatch(queue, outDocs);
+    }
+
+    /**
+     * Sorts the next batch into the spare queue in the background. The bits of the batch are
+     * cleared as soon as it is sorted, since all of its docs will be output, so that the batch
+     * after it can be sorted before this one has been consumed.
+     */
+    private void sortNextBatch() {
+      final SortQueue batchQueue = spareQueue;
+      final SortDoc[] batchDocs = spareOutDocs;
+      FutureTask<Integer> task =
+          new FutureTask<>(
+              () -> {
+                int last = sortBatch(batchQueue, batchDocs);
+                for (int i = 0; i <= last; i++) {
+                  bits.clear(batchDocs[i].docId);
+                }
+                return last;
+              });
+      nextBatch = task;
+      executor.execute(task);
+    }
+
+    /** Waits for the batch being sorted in the background, and starts sorting the one after. */
+    private void swapBatch() throws IOException {
+      if (nextBatch == null) {
+        index = -1;
+        return;
+      }
+      final int last;
+      try {
+        last = nextBatch.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof IOException ioe ? ioe : new IOException(e.getCause());
+      }
+      SortQueue consumedQueue = queue;
+      queue = spareQueue;
+      spareQueue = consumedQueue;
+      SortDoc[] consumedDocs = outDocs;
+      outDocs = spareOutDocs;
+      spareOutDocs = consumedDocs;
+      index = last;
+
+      // a batch that doesn't fill the queue is the segment's last one
+      nextBatch = null;
+      if (last + 1 == queue.maxSize) {
+        sortNextBatch();
+      }
+    }
+
+    /** Collects the top docs not output yet into the queue and returns the last index in docs. */
+    private int sortBatch(SortQueue queue, SortDoc[] docs) throws IOException {
+      final long startNanos = System.nanoTime();
       try {
         queue.reset();
         SortDoc top = queue.top();
@@ -873,21 +1029,56 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
         }
 
         // Pop the queue and load up the array.
-        index = -1;
+        int last = -1;
 
         SortDoc _sortDoc;
         while ((_sortDoc = queue.pop()) != null) {
           if (_sortDoc.docId > -1) {
-            outDocs[++index] = _sortDoc;
+            docs[++last] = _sortDoc;
           }
         }
+        return last;
       } catch (Exception e) {
         log.error("Segment Iterator Error:", e);
         throw new IOException(e);
+      } finally {
+        sortNanos.add(System.nanoTime() - startNanos);
       }
     }
   }
 
+  /** Throughput metrics of an /export handler, shared by all of its requests. */
+  public static class ExportMetrics {
+    private final AttributedLongCounter docs;
+    private final AttributedLongCounter exportTime;
+    private final AttributedLongCounter sortTime;
+
+    public ExportMetrics(SolrMetricsContext solrMetricsContext, Attributes attributes) {
+      docs =
+          new AttributedLongCounter(
+              solrMetricsContext.longCounter("solr.core.export.docs", "Documents exported"),
+              attributes);
+      LongCounter timeCounter =
+          solrMetricsContext.longCounter(
+              "solr.core.export.time",
+              "Time spent exporting documents (total), and sorting segments summed over all"
+                  + " threads (sort)",
+              OtelUnit.MILLISECONDS);
+      exportTime =
+          new AttributedLongCounter(
+              timeCounter, attributes.toBuilder().put(TYPE_ATTR, "total").build());
+      sortTime =
+          new AttributedLongCounter(
+              timeCounter, attributes.toBuilder().put(TYPE_ATTR, "sort").build());
+    }
+
+    void record(long exportedDocs, long exportNanos, long sortNanos) {
+      docs.add(exportedDocs);
+      exportTime.add(TimeUnit.NANOSECONDS.toMillis(exportNanos));
+      sortTime.add(TimeUnit.NANOSECONDS.toMillis(sortNanos));
+    }
+  }
+
   public static class IgnoreException extends IOException {
     @Override
     public void printStackTrace(PrintWriter pw) {
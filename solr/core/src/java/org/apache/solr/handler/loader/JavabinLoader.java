@@ -40,6 +40,7 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.update.AddUpdateCommand;
 import org.apache.solr.update.DeleteUpdateCommand;
+import org.apache.solr.update.processor.PipelinedUpdateProcessor;
 import org.apache.solr.update.processor.UpdateRequestProcessor;
 
 /**
@@ -70,7 +71,20 @@ public class JavabinLoader extends ContentStreamLoader {
     InputStream is = null;
     try {
       is = stream.getStream();
-      parseAndLoadDocs(req, rsp, is, processor);
+      PipelinedUpdateProcessor pipeline =
+          req.getParams().getBool("multistream", false)
+              ? null // the loaders of the streams may reuse their commands
+              : PipelinedUpdateProcessor.forRequest(req, rsp, processor);
+      if (pipeline == null) {
+        parseAndLoadDocs(req, rsp, is, processor);
+      } else {
+        try {
+          parseAndLoadDocs(req, rsp, is, pipeline);
+          pipeline.finishPipeline();
+        } finally {
+          pipeline.closePipeline();
+        }
+      }
     } finally {
       if (is != null) {
         is.close();
@@ -92,6 +106,8 @@ public class JavabinLoader extends ContentStreamLoader {
     JavaBinUpdateRequestCodec.StreamingUpdateHandler handler =
         new JavaBinUpdateRequestCodec.StreamingUpdateHandler() {
           private AddUpdateCommand addCmd = null;
+          // a pipeline processes the command later, on another thread
+          private final boolean reuseAddCmd = !(processor instanceof PipelinedUpdateProcessor);
 
           @Override
           public void update(
@@ -120,7 +136,11 @@ public class JavabinLoader extends ContentStreamLoader {
 
             try {
               processor.processAdd(addCmd);
-              addCmd.clear();
+              if (reuseAddCmd) {
+                addCmd.clear();
+              } else {
+                addCmd = null;
+              }
             } catch (IOException e) {
               throw new SolrException(
                   SolrException.ErrorCode.SERVER_ERROR, "ERROR adding document " + document, e);
@@ -218,7 +238,14 @@ public class JavabinLoader extends ContentStreamLoader {
           }
         }
         processor.processDelete(delcmd);
-        delcmd.clear();
+        if (processor instanceof PipelinedUpdateProcessor) {
+          // the pipeline processes the command later, on another thread
+          int commitWithin = delcmd.commitWithin;
+          delcmd = new DeleteUpdateCommand(req);
+          delcmd.commitWithin = commitWithin;
+        } else {
+          delcmd.clear();
+        }
       }
     }
 
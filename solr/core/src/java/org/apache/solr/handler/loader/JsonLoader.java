@@ -56,6 +56,7 @@ import org.apache.solr.update.AddUpdateCommand;
 import org.apache.solr.update.CommitUpdateCommand;
 import org.apache.solr.update.DeleteUpdateCommand;
 import org.apache.solr.update.RollbackUpdateCommand;
+import org.apache.solr.update.processor.PipelinedUpdateProcessor;
 import org.apache.solr.update.processor.UpdateRequestProcessor;
 import org.apache.solr.util.RecordingJSONParser;
 import org.noggit.JSONParser;
@@ -84,7 +85,17 @@ public class JsonLoader extends ContentStreamLoader {
       ContentStream stream,
       UpdateRequestProcessor processor)
       throws Exception {
-    new SingleThreadedJsonLoader(req, rsp, processor).load(req, rsp, stream, processor);
+    PipelinedUpdateProcessor pipeline = PipelinedUpdateProcessor.forRequest(req, rsp, processor);
+    if (pipeline == null) {
+      new SingleThreadedJsonLoader(req, rsp, processor).load(req, rsp, stream, processor);
+      return;
+    }
+    try {
+      new SingleThreadedJsonLoader(req, rsp, pipeline).load(req, rsp, stream, pipeline);
+      pipeline.finishPipeline();
+    } finally {
+      pipeline.closePipeline();
+    }
   }
 
   @SuppressWarnings("unchecked")
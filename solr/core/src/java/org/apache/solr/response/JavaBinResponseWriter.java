@@ -181,7 +181,13 @@ public class JavaBinResponseWriter implements QueryResponseWriter {
     }
   }
 
-  static class MaskCharSeqSolrDocument extends SolrDocument {
+  /**
+   * A {@link SolrDocument} whose values may be raw {@link
+   * org.apache.solr.common.util.Utf8CharSequence}s, written by {@link JavaBinCodec} without
+   * decoding. Values are converted to Strings when read through the usual accessors, so document
+   * transformers never see them.
+   */
+  public static class MaskCharSeqSolrDocument extends SolrDocument {
     /** Get the value or collection of values for a given field. */
     @Override
     public Object getFieldValue(String name) {
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys have been seen recently, as used
+ * by TinyLFU [1]. Counters are periodically halved so that old sightings fade away.
+ *
+ * <p>Updates are not synchronized: concurrent increments may occasionally be lost, which only makes
+ * the estimate slightly lower.
+ *
+ * <p>[1] http://arxiv.org/pdf/1512.00727.pdf
+ */
+class AdmissionSketch {
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final long[] SEEDS = {
+    0x97cb3127L, 0xb0f1a0adL, 0xc2b2ae35L, 0x27d4eb2fL,
+  };
+
+  // 16 counters per long
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private final AtomicInteger additions = new AtomicInteger();
+
+  /**
+   * @param expectedKeys number of distinct keys that should be tracked accurately, typically the
+   *     maximum size of the cache
+   */
+  AdmissionSketch(int expectedKeys) {
+    int tableSize = Integer.highestOneBit(Math.max(16, Math.min(expectedKeys, 1 << 24)) - 1) << 1;
+    table = new long[tableSize];
+    tableMask = tableSize - 1;
+    sampleSize = 10 * tableSize;
+  }
+
+  /** Records a sighting of the key and returns the estimated number of sightings, including it. */
+  int increment(Object key) {
+    int hash = spread(key.hashCode());
+    int min = MAX_COUNT;
+    boolean added = false;
+    for (int i = 0; i < DEPTH; i++) {
+      int index = indexOf(hash, i);
+      int shift = counterShift(hash, i);
+      long word = table[index];
+      int count = (int) ((word >>> shift) & 0xfL);
+      if (count < MAX_COUNT) {
+        table[index] = word + (1L << shift);
+        count++;
+        added = true;
+      }
+      min = Math.min(min, count);
+    }
+    if (added && additions.incrementAndGet() >= sampleSize) {
+      reset();
+    }
+    return min;
+  }
+
+  /** Returns the estimated number of recent sightings of the key. */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int min = MAX_COUNT;
+    for (int i = 0; i < DEPTH; i++) {
+      long word = table[indexOf(hash, i)];
+      min = Math.min(min, (int) ((word >>> counterShift(hash, i)) & 0xfL));
+    }
+    return min;
+  }
+
+  /** Halves all counters. */
+  private void reset() {
+    additions.set(0);
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+    }
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int counterShift(int hash, int i) {
+    // one of the 16 counters of the word, different for each row
+    return (((hash >>> (i << 3)) & 0xf) << 2);
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
@@ -59,6 +59,8 @@ public class CacheConfig implements MapWriter {
 
   private String regenImpl;
 
+  private volatile SegmentFilterCache segmentFilterCache;
+
   public CacheConfig() {}
 
   @SuppressWarnings({"rawtypes"})
@@ -175,6 +177,40 @@ public class CacheConfig implements MapWriter {
     }
   }
 
+  /**
+   * Returns the {@link SegmentFilterCache} shared by all caches created from this config, or null
+   * if per-segment caching was not enabled with {@value SegmentFilterCache#PER_SEGMENT_PARAM}. Like
+   * the persistence object, it outlives individual cache instances.
+   */
+  public SegmentFilterCache getSegmentFilterCache() {
+    if (!Boolean.parseBoolean(args.get(SegmentFilterCache.PER_SEGMENT_PARAM))) {
+      return null;
+    }
+    SegmentFilterCache result = segmentFilterCache;
+    if (result == null) {
+      synchronized (this) {
+        result = segmentFilterCache;
+        if (result == null) {
+          String str = args.get(SegmentFilterCache.PER_SEGMENT_MAX_RAM_MB_PARAM);
+          long maxRamMB =
+              str == null
+                  ? SegmentFilterCache.DEFAULT_MAX_RAM_MB
+                  : Double.valueOf(str).longValue();
+          segmentFilterCache = result = new SegmentFilterCache(maxRamMB * 1024L * 1024L);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Whether DocSets should be compressed before they are cached, enabled with {@value
+   * RoaringDocSet#COMPRESS_PARAM}.
+   */
+  public boolean isCompressDocSets() {
+    return Boolean.parseBoolean(args.get(RoaringDocSet.COMPRESS_PARAM));
+  }
+
   @Override
   public void writeMap(EntryWriter ew) throws IOException {
     for (Map.Entry<String, String> entry : args.entrySet()) {
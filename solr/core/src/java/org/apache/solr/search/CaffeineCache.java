@@ -29,16 +29,23 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -62,6 +69,14 @@ import org.slf4j.LoggerFactory;
  * cache is able to outperform classic policies like LRU and LFU, as well as modern policies like
  * ARC and LIRS. This policy performed particularly well in search workloads.
  *
+ * <p>Optionally, new entries of a live cache can be subject to admission control: with {@code
+ * admitAfter} set, a key is only inserted once it has been looked up that many times recently, as
+ * estimated by a frequency sketch that survives autowarming. Entries whose computation took at
+ * least {@code admitCostMs} are admitted on the first lookup regardless, since they are the most
+ * expensive to recompute. With {@code admitCostMs} or {@code trackCost} set, the compute time and
+ * hits of every entry are tracked, see {@link #getEntryCosts(int)}; those of the most beneficial
+ * entries are listed by the {@link org.apache.solr.handler.admin.CoreInfoHandler}.
+ *
  * <p>[1] https://github.com/ben-manes/caffeine [2] http://arxiv.org/pdf/1512.00727.pdf [3]
  * http://highscalability.com/blog/2016/1/25/design-of-a-modern-cache.html
  */
@@ -91,12 +106,26 @@ public class CaffeineCache<K, V> extends SolrCacheBase
   private Cache<K, V> cache;
   private AsyncCache<K, V> asyncCache;
   private long warmupTime;
+  private volatile int warmedCount;
+  private volatile int warmSkippedCount;
   private int maxSize;
   private long maxRamBytes;
   private int initialSize;
   private int maxIdleTimeSec;
   private boolean cleanupThread;
   private boolean async;
+  private int admitAfter;
+  private long admitCostNanos;
+  // shared with the caches autowarmed from this one; null unless admitAfter > 1
+  private AdmissionSketch admissionSketch;
+  // null unless cost tracking is enabled
+  private Map<K, EntryCost> entryCosts;
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder computeNanos = new LongAdder();
+  private final LongAdder savedNanos = new LongAdder();
+  private long priorRejections;
+  private long priorComputeNanos;
+  private long priorSavedNanos;
 
   private SolrMetricsContext solrMetricsContext;
 
@@ -135,6 +164,18 @@ public class CaffeineCache<K, V> extends SolrCacheBase
       executor = Runnable::run;
     }
 
+    str = args.get(ADMIT_AFTER_PARAM);
+    // the sketch counts up to 15 sightings
+    admitAfter = Math.min((str == null) ? 1 : Integer.parseInt(str), 15);
+    if (admitAfter > 1) {
+      admissionSketch = new AdmissionSketch(maxSize);
+    }
+    str = args.get(ADMIT_COST_MS_PARAM);
+    admitCostNanos = (str == null) ? -1 : TimeUnit.MILLISECONDS.toNanos(Long.parseLong(str));
+    if (admitCostNanos >= 0 || Boolean.parseBoolean(args.get(TRACK_COST_PARAM))) {
+      entryCosts = new ConcurrentHashMap<>();
+    }
+
     description = generateDescription(maxSize, initialSize);
 
     cache = buildCache(null);
@@ -189,6 +230,9 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     if (async) {
       ramBytes.add(-RAM_BYTES_PER_FUTURE);
     }
+    if (entryCosts != null) {
+      entryCosts.remove(key);
+    }
   }
 
   @Override
@@ -198,7 +242,22 @@ public class CaffeineCache<K, V> extends SolrCacheBase
 
   @Override
   public V get(K key) {
-    return cache.getIfPresent(key);
+    if (admissionSketch != null) {
+      admissionSketch.increment(key);
+    }
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      recordEntryHit(key);
+    }
+    return value;
+  }
+
+  /**
+   * Whether admission control applies to new entries. Entries inserted while warming are always
+   * admitted, they were either hot in the previous cache or explicitly configured.
+   */
+  private boolean isAdmissionControlled() {
+    return admissionSketch != null && getState() == State.LIVE;
   }
 
   private V computeAsync(K key, IOFunction<? super K, ? extends V> mappingFunction)
@@ -244,6 +303,62 @@ public class CaffeineCache<K, V> extends SolrCacheBase
   @Override
   public V computeIfAbsent(K key, IOFunction<? super K, ? extends V> mappingFunction)
       throws IOException {
+    if (isAdmissionControlled() && admissionSketch.increment(key) < admitAfter) {
+      return computeUnadmitted(key, mappingFunction);
+    }
+    if (entryCosts == null) {
+      return computeIfAbsentInternal(key, mappingFunction);
+    }
+
+    long[] costNanos = {-1};
+    V value =
+        computeIfAbsentInternal(
+            key,
+            k -> {
+              long start = System.nanoTime();
+              V computed = mappingFunction.apply(k);
+              costNanos[0] = System.nanoTime() - start;
+              return computed;
+            });
+    if (costNanos[0] < 0) {
+      recordEntryHit(key);
+    } else if (value != null) {
+      recordEntryCost(key, value, costNanos[0]);
+    }
+    return value;
+  }
+
+  /**
+   * Looks up a key that hasn't been seen often enough to be admitted: if absent, the value is
+   * computed and only inserted if its computation was expensive enough.
+   */
+  private V computeUnadmitted(K key, IOFunction<? super K, ? extends V> mappingFunction)
+      throws IOException {
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      recordEntryHit(key);
+      return value;
+    }
+    long start = System.nanoTime();
+    value = mappingFunction.apply(key);
+    long costNanos = System.nanoTime() - start;
+    if (value == null) {
+      return null;
+    }
+    if (admitCostNanos >= 0 && costNanos >= admitCostNanos) {
+      if (cache.asMap().putIfAbsent(key, value) == null) {
+        inserts.increment();
+        recordRamBytes(key, value);
+        recordEntryCost(key, value, costNanos);
+      }
+    } else {
+      rejections.increment();
+    }
+    return value;
+  }
+
+  private V computeIfAbsentInternal(K key, IOFunction<? super K, ? extends V> mappingFunction)
+      throws IOException {
     if (async) {
       return computeAsync(key, mappingFunction);
     }
@@ -270,8 +385,18 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     }
   }
 
+  /** Whether {@link #put(Object, Object)} would insert the key's value, rather than reject it. */
+  boolean admitsPut(K key) {
+    // puts don't count as sightings, only lookups do
+    return !isAdmissionControlled() || admissionSketch.frequency(key) >= admitAfter;
+  }
+
   @Override
   public V put(K key, V val) {
+    if (!admitsPut(key)) {
+      rejections.increment();
+      return null;
+    }
     inserts.increment();
     V old = cache.asMap().put(key, val);
     // ramBytes decrement for `old` happens via #onRemoval
@@ -304,6 +429,93 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     if (async) ramBytes.add(RAM_BYTES_PER_FUTURE);
   }
 
+  private void recordEntryCost(K key, V value, long costNanos) {
+    if (entryCosts == null) {
+      return;
+    }
+    computeNanos.add(costNanos);
+    entryCosts.put(
+        key,
+        new EntryCost(
+            costNanos,
+            RamUsageEstimator.sizeOfObject(value, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED)));
+    if (!cache.asMap().containsKey(key)) {
+      // not inserted after all, or already removed again
+      entryCosts.remove(key);
+    }
+  }
+
+  private void recordEntryHit(K key) {
+    if (entryCosts == null) {
+      return;
+    }
+    EntryCost entryCost = entryCosts.get(key);
+    if (entryCost != null) {
+      entryCost.hits.increment();
+      savedNanos.add(entryCost.computeNanos);
+    }
+  }
+
+  /**
+   * Returns the tracked cost of up to {@code n} entries of this cache, most beneficial first: the
+   * entries whose hits saved the most compute time per byte of memory. Empty unless cost tracking
+   * is enabled by {@code admitCostMs} or {@code trackCost}.
+   */
+  public List<Map.Entry<K, EntryCost>> getEntryCosts(int n) {
+    if (entryCosts == null) {
+      return List.of();
+    }
+    return entryCosts.entrySet().stream()
+        .sorted(
+            Comparator.comparingDouble((Map.Entry<K, EntryCost> e) -> e.getValue().benefit())
+                .reversed())
+        .limit(n)
+        .map(e -> Map.entry(e.getKey(), e.getValue()))
+        .toList();
+  }
+
+  /** The measured cost of computing a cache entry, and how often it has been hit since. */
+  public static final class EntryCost {
+    private final long computeNanos;
+    private final long ramBytes;
+    private final LongAdder hits = new LongAdder();
+
+    EntryCost(long computeNanos, long ramBytes) {
+      this.computeNanos = computeNanos;
+      this.ramBytes = ramBytes;
+    }
+
+    /** Time it took to compute the value. */
+    public long getComputeNanos() {
+      return computeNanos;
+    }
+
+    /** Estimated size of the value. */
+    public long getRamBytes() {
+      return ramBytes;
+    }
+
+    /** Number of lookups served by the entry. */
+    public long getHits() {
+      return hits.sum();
+    }
+
+    /** Compute time saved by the hits of the entry, per byte it occupies. */
+    double benefit() {
+      return (double) getHits() * computeNanos / Math.max(1, ramBytes);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "EntryCost(computeNanos=%d, ramBytes=%d, hits=%d)",
+          computeNanos,
+          ramBytes,
+          getHits());
+    }
+  }
+
   @Override
   public V remove(K key) {
     // ramBytes adjustment happens via #onRemoval
@@ -314,6 +526,9 @@ public class CaffeineCache<K, V> extends SolrCacheBase
   public void clear() {
     cache.invalidateAll();
     ramBytes.reset();
+    if (entryCosts != null) {
+      entryCosts.clear();
+    }
   }
 
   @Override
@@ -400,21 +615,51 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     Map<K, V> hottest = Map.of();
     CaffeineCache<K, V> other = (CaffeineCache<K, V>) old;
 
+    if (admissionSketch != null && other.admissionSketch != null) {
+      // keep the lookup history of keys that were not admitted yet
+      admissionSketch = other.admissionSketch;
+    }
+
     // warm entries
     if (isAutowarmingOn()) {
       int size = autowarm.getWarmCount(other.cache.asMap().size());
       hottest = other.cache.policy().eviction().map(p -> p.hottest(size)).orElse(Map.of());
     }
 
-    for (Entry<K, V> entry : hottest.entrySet()) {
-      try {
-        boolean continueRegen =
-            regenerator.regenerateItem(searcher, this, old, entry.getKey(), entry.getValue());
-        if (!continueRegen) {
+    // Concurrent regeneration is only safe if computeIfAbsent supports recursion: a regenerator
+    // may compute other entries of this cache (e.g. a join filter) while holding an entry lock
+    Executor warmExecutor =
+        searcher != null && isRecursionSupported() ? searcher.getAutowarmExecutor() : null;
+    int warmed;
+    if (warmExecutor == null) {
+      warmed = 0;
+      for (Entry<K, V> entry : hottest.entrySet()) {
+        if (searcher != null && searcher.isAutowarmTimeExceeded()) {
           break;
         }
-      } catch (Exception e) {
-        log.error("Error during auto-warming of key: {}", entry.getKey(), e);
+        try {
+          boolean continueRegen =
+              regenerator.regenerateItem(searcher, this, old, entry.getKey(), entry.getValue());
+          warmed++;
+          if (!continueRegen) {
+            break;
+          }
+        } catch (Exception e) {
+          log.error("Error during auto-warming of key: {}", entry.getKey(), e);
+        }
+      }
+    } else {
+      warmed = warmConcurrently(searcher, old, hottest, warmExecutor);
+    }
+    warmedCount = warmed;
+    warmSkippedCount = hottest.size() - warmed;
+    if (entryCosts != null && other.entryCosts != null) {
+      // regenerated entries are usually put, carry over what is known about their cost
+      for (K key : cache.asMap().keySet()) {
+        EntryCost entryCost = other.entryCosts.get(key);
+        if (entryCost != null) {
+          entryCosts.putIfAbsent(key, entryCost);
+        }
       }
     }
 
@@ -426,10 +671,53 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     priorHits = oldStats.hitCount() + other.hits.sum() + other.priorHits;
     priorInserts = other.inserts.sum() + other.priorInserts;
     priorLookups = oldStats.requestCount() + other.lookups.sum() + other.priorLookups;
+    priorRejections = other.rejections.sum() + other.priorRejections;
+    priorComputeNanos = other.computeNanos.sum() + other.priorComputeNanos;
+    priorSavedNanos = other.savedNanos.sum() + other.priorSavedNanos;
     warmupTime =
         TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
   }
 
+  /**
+   * Regenerates the entries on the executor, hottest first, until the regenerator asks to stop or
+   * the searcher's autowarm time is exceeded. Entries already being regenerated are waited for.
+   *
+   * @return the number of regenerated entries
+   */
+  private int warmConcurrently(
+      SolrIndexSearcher searcher, SolrCache<K, V> old, Map<K, V> hottest, Executor warmExecutor) {
+    AtomicBoolean stop = new AtomicBoolean();
+    AtomicInteger warmed = new AtomicInteger();
+    List<CompletableFuture<Void>> futures = new ArrayList<>(hottest.size());
+    for (Entry<K, V> entry : hottest.entrySet()) {
+      Runnable task =
+          () -> {
+            if (stop.get() || searcher.isAutowarmTimeExceeded()) {
+              return;
+            }
+            try {
+              boolean continueRegen =
+                  regenerator.regenerateItem(
+                      searcher, this, old, entry.getKey(), entry.getValue());
+              warmed.incrementAndGet();
+              if (!continueRegen) {
+                stop.set(true);
+              }
+            } catch (Exception e) {
+              log.error("Error during auto-warming of key: {}", entry.getKey(), e);
+            }
+          };
+      try {
+        futures.add(CompletableFuture.runAsync(task, warmExecutor));
+      } catch (RejectedExecutionException e) {
+        // the core is shutting down
+        break;
+      }
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    return warmed.get();
+  }
+
   /** Returns the description of this cache. */
   private String generateDescription(int limit, int initialSize) {
     return String.format(
@@ -498,6 +786,18 @@ public class CaffeineCache<K, V> extends SolrCacheBase
         solrMetricsContext.longGaugeMeasurement(
             metricName + ".warmup_time", "Cache warmup time (most recent)", OtelUnit.MILLISECONDS);
 
+    ObservableLongMeasurement computeTimeMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + ".compute_time",
+            "Cumulative compute time of tracked entries, when inserted (compute) or saved by hits"
+                + " (saved)",
+            OtelUnit.MILLISECONDS);
+
+    ObservableLongMeasurement warmupEntriesMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + ".warmup_entries",
+            "Number of entries regenerated or skipped by the most recent warmup");
+
     solrMetricsContext.batchCallback(
         () -> {
           if (cache == null) {
@@ -511,6 +811,10 @@ public class CaffeineCache<K, V> extends SolrCacheBase
           sizeMetric.record(cache.asMap().size(), cacheAttributes);
           ramBytesUsedMetric.record(ramBytesUsed(), cacheAttributes);
           warmupTimeMetric.record(warmupTime, cacheAttributes);
+          warmupEntriesMetric.record(
+              warmedCount, cacheAttributes.toBuilder().put(TYPE_ATTR, "warmed").build());
+          warmupEntriesMetric.record(
+              warmSkippedCount, cacheAttributes.toBuilder().put(TYPE_ATTR, "skipped").build());
 
           CacheStats cumulativeStats = priorStats.plus(stats);
           long cumLookups = priorLookups + lookupCount;
@@ -527,11 +831,26 @@ public class CaffeineCache<K, V> extends SolrCacheBase
           cacheOperationMetric.record(
               cumulativeStats.evictionCount(),
               cacheAttributes.toBuilder().put(OPERATION_ATTR, "evictions").build());
+          if (admissionSketch != null) {
+            cacheOperationMetric.record(
+                priorRejections + rejections.sum(),
+                cacheAttributes.toBuilder().put(OPERATION_ATTR, "rejections").build());
+          }
+          if (entryCosts != null) {
+            computeTimeMetric.record(
+                TimeUnit.NANOSECONDS.toMillis(priorComputeNanos + computeNanos.sum()),
+                cacheAttributes.toBuilder().put(TYPE_ATTR, "compute").build());
+            computeTimeMetric.record(
+                TimeUnit.NANOSECONDS.toMillis(priorSavedNanos + savedNanos.sum()),
+                cacheAttributes.toBuilder().put(TYPE_ATTR, "saved").build());
+          }
         },
         cacheLookupsMetric,
         cacheOperationMetric,
         sizeMetric,
         ramBytesUsedMetric,
-        warmupTimeMetric);
+        warmupTimeMetric,
+        computeTimeMetric,
+        warmupEntriesMetric);
   }
 }
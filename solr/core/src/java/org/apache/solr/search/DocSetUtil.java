@@ -263,6 +263,21 @@ public class DocSetUtil {
     return new SortedIntDocSet(docs);
   }
 
+  /**
+   * Returns a {@link RoaringDocSet} copy of a {@link BitDocSet} if that takes at most half the
+   * memory, otherwise the set itself. Meant for sets that are retained, such as filterCache
+   * entries: compressing costs a pass over the bits.
+   */
+  public static DocSet compress(DocSet docs) {
+    if (docs instanceof BitDocSet bitDocSet && !(docs instanceof MutableBitDocSet)) {
+      RoaringDocSet compressed = RoaringDocSet.fromBits(bitDocSet.getBits());
+      if (compressed.ramBytesUsed() <= docs.ramBytesUsed() / 2) {
+        return compressed;
+      }
+    }
+    return docs;
+  }
+
   public static void collectSortedDocSet(DocSet docs, IndexReader reader, Collector collector)
       throws IOException {
     // TODO add SortedDocSet sub-interface and take that.
@@ -391,8 +391,12 @@ class JoinQuery extends Query implements SolrSearcherRequirer {
               } else {
                 if (toTermSet instanceof BitDocSet) {
                   resultBits = ((BitDocSet) toTermSet).getBits().clone();
-                } else {
+                } else if (toTermSet instanceof SortedIntDocSet) {
                   resultList.add(toTermSet);
+                } else {
+                  // e.g. a compressed filterCache entry
+                  resultBits = new FixedBitSet(toSearcher.maxDoc());
+                  toTermSet.addAllTo(resultBits);
                 }
               }
             } else {
@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import io.opentelemetry.api.common.Attributes;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.Buffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.util.IOFunction;
+
+/**
+ * A {@link CaffeineCache} variant that keeps the bulk of {@link DocSet} and {@link DocList} values
+ * in direct (off-heap) memory, so that large filterCache and queryResultCache instances don't
+ * contribute to old generation pressure.
+ *
+ * <p>{@link DocSlice} values are stored as an {@link OffHeapDocList}, and {@link BitDocSet} and
+ * {@link SortedIntDocSet} values as an {@link OffHeapDocSet}; both are read in place, so a cache
+ * hit copies nothing. Any other value is kept on-heap as is.
+ *
+ * <p>Eviction, {@code maxRamMB}, autowarming and metrics behave like {@link CaffeineCache}; {@link
+ * #ramBytesUsed()} includes the off-heap memory of the entries. The direct memory of a removed
+ * entry is not freed right away: lookups may still be reading it, so like any direct buffer it is
+ * released by the JVM once the buffer is garbage collected. {@link #offHeapBytesUsed()} reports
+ * the direct memory allocated by the cache that is not released yet, which may be more than what
+ * its current entries hold. When allocating would exceed {@code -XX:MaxDirectMemorySize}, the JVM
+ * runs a garbage collection to release unreachable buffers first, unless {@code
+ * -XX:+DisableExplicitGC} is set.
+ *
+ * @see CaffeineCache
+ */
+public class OffHeapCaffeineCache<K, V> extends SolrCacheBase
+    implements SolrCache<K, V>, Accountable {
+
+  private final LongAdder offHeapBytes = new LongAdder();
+  // the buffers allocated by this cache that the JVM has not released yet
+  private final Set<BufferReference> liveBuffers = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<Buffer> releasedBuffers = new ReferenceQueue<>();
+
+  private final CaffeineCache<K, Object> delegate = new CaffeineCache<>();
+
+  // the cache we're autowarming from, to hand to the regenerator
+  private volatile OffHeapCaffeineCache<K, V> warmingFrom;
+
+  @Override
+  public Object init(Map<String, String> args, Object persistence, CacheRegenerator regenerator) {
+    super.init(args, regenerator);
+    CacheRegenerator delegateRegenerator =
+        regenerator == null
+            ? null
+            : new CacheRegenerator() {
+              @Override
+              @SuppressWarnings("unchecked")
+              public <K1, V1> boolean regenerateItem(
+                  SolrIndexSearcher newSearcher,
+                  SolrCache<K1, V1> newCache,
+                  SolrCache<K1, V1> oldCache,
+                  K1 oldKey,
+                  V1 oldVal)
+                  throws IOException {
+                return regenerator.regenerateItem(
+                    newSearcher,
+                    OffHeapCaffeineCache.this,
+                    warmingFrom,
+                    (K) oldKey,
+                    (V) oldVal);
+              }
+            };
+    return delegate.init(args, persistence, delegateRegenerator);
+  }
+
+  private Object toCacheValue(V value) {
+    final Object cacheValue;
+    if (value instanceof BitDocSet || value instanceof SortedIntDocSet) {
+      cacheValue = OffHeapDocSet.copyOf((DocSet) value);
+    } else if (value != null && value.getClass() == DocSlice.class) {
+      // subclasses such as TopDocsSlice carry more than ids and scores
+      cacheValue = OffHeapDocList.copyOf((DocList) value);
+    } else {
+      return value;
+    }
+    track(cacheValue);
+    return cacheValue;
+  }
+
+  private void track(Object cacheValue) {
+    expungeReleasedBuffers();
+    if (cacheValue instanceof OffHeapDocSet offHeapDocSet) {
+      track(offHeapDocSet.buffer(), offHeapDocSet.offHeapBytesUsed());
+    } else {
+      OffHeapDocList offHeapDocList = (OffHeapDocList) cacheValue;
+      for (Buffer buffer : offHeapDocList.buffers()) {
+        // int or float views
+        track(buffer, (long) buffer.capacity() * Integer.BYTES);
+      }
+    }
+  }
+
+  private void track(Buffer buffer, long bytes) {
+    offHeapBytes.add(bytes);
+    liveBuffers.add(new BufferReference(buffer, bytes, releasedBuffers));
+  }
+
+  /**
+   * Returns the references tracking the buffers that are not released yet. Enqueuing one stands in
+   * for the garbage collection of its buffer.
+   */
+  Set<? extends Reference<Buffer>> liveBuffers() {
+    return liveBuffers;
+  }
+
+  /** Stops counting the memory of the buffers that were garbage collected, and thus released. */
+  private void expungeReleasedBuffers() {
+    for (Reference<? extends Buffer> ref = releasedBuffers.poll();
+        ref != null;
+        ref = releasedBuffers.poll()) {
+      BufferReference released = (BufferReference) ref;
+      liveBuffers.remove(released);
+      offHeapBytes.add(-released.bytes);
+    }
+  }
+
+  // the off-heap values are a DocSet or DocList themselves
+  @SuppressWarnings("unchecked")
+  private static <V> V fromCacheValue(Object cacheValue) {
+    return (V) cacheValue;
+  }
+
+  @Override
+  public V get(K key) {
+    return fromCacheValue(delegate.get(key));
+  }
+
+  @Override
+  public V put(K key, V value) {
+    // don't copy values that admission control rejects anyway
+    Object cacheValue = delegate.admitsPut(key) ? toCacheValue(value) : value;
+    return fromCacheValue(delegate.put(key, cacheValue));
+  }
+
+  @Override
+  public V remove(K key) {
+    return fromCacheValue(delegate.remove(key));
+  }
+
+  @Override
+  public V computeIfAbsent(K key, IOFunction<? super K, ? extends V> mappingFunction)
+      throws IOException {
+    // hand the value we computed ourselves back to the caller, instead of a copy of it
+    Object[] computed = new Object[1];
+    Object cacheValue =
+        delegate.computeIfAbsent(
+            key,
+            k -> {
+              V value = mappingFunction.apply(k);
+              computed[0] = value;
+              return value == null ? null : toCacheValue(value);
+            });
+    if (computed[0] != null) {
+      @SuppressWarnings("unchecked")
+      V value = (V) computed[0];
+      return value;
+    }
+    return fromCacheValue(cacheValue);
+  }
+
+  @Override
+  public int size() {
+    return delegate.size();
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public void setState(State state) {
+    super.setState(state);
+    delegate.setState(state);
+  }
+
+  @Override
+  public void warm(SolrIndexSearcher searcher, SolrCache<K, V> old) {
+    OffHeapCaffeineCache<K, V> other = (OffHeapCaffeineCache<K, V>) old;
+    warmingFrom = other;
+    try {
+      delegate.warm(searcher, other.delegate);
+    } finally {
+      warmingFrom = null;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+    SolrCache.super.close();
+  }
+
+  @Override
+  public int getMaxSize() {
+    return delegate.getMaxSize();
+  }
+
+  @Override
+  public void setMaxSize(int maxSize) {
+    delegate.setMaxSize(maxSize);
+  }
+
+  @Override
+  public int getMaxRamMB() {
+    return delegate.getMaxRamMB();
+  }
+
+  @Override
+  public void setMaxRamMB(int maxRamMB) {
+    delegate.setMaxRamMB(maxRamMB);
+  }
+
+  @Override
+  public boolean isRecursionSupported() {
+    return delegate.isRecursionSupported();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return RamUsageEstimator.shallowSizeOfInstance(OffHeapCaffeineCache.class)
+        + delegate.ramBytesUsed();
+  }
+
+  /**
+   * Returns the direct memory allocated for entries of this cache that is not released yet, which
+   * includes the memory of removed entries until their buffers are garbage collected.
+   */
+  public long offHeapBytesUsed() {
+    expungeReleasedBuffers();
+    return offHeapBytes.sum();
+  }
+
+  /**
+   * Returns the tracked cost of up to {@code n} entries, see {@link
+   * CaffeineCache#getEntryCosts(int)}.
+   */
+  public List<Map.Entry<K, CaffeineCache.EntryCost>> getEntryCosts(int n) {
+    return delegate.getEntryCosts(n);
+  }
+
+  //////////////////////// SolrInfoBean methods //////////////////////
+
+  @Override
+  public String getName() {
+    return OffHeapCaffeineCache.class.getName();
+  }
+
+  @Override
+  public String getDescription() {
+    return "OffHeap " + delegate.getDescription();
+  }
+
+  @Override
+  public SolrMetricsContext getSolrMetricsContext() {
+    return delegate.getSolrMetricsContext();
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+
+  @Override
+  public void initializeMetrics(SolrMetricsContext parentContext, Attributes attributes) {
+    initializeMetrics(parentContext, attributes, "solr.caffeine_cache");
+  }
+
+  public void initializeMetrics(
+      SolrMetricsContext solrMetricsContext, Attributes attributes, String metricName) {
+    delegate.initializeMetrics(solrMetricsContext, attributes, metricName);
+    Attributes cacheAttributes =
+        attributes.toBuilder().put(CATEGORY_ATTR, getCategory().toString()).build();
+    solrMetricsContext.observableLongGauge(
+        metricName + ".off_heap_used",
+        "Direct memory bytes used by cache entries",
+        obs -> obs.record(offHeapBytesUsed(), cacheAttributes));
+  }
+
+  /** Tells when the JVM released the memory of a direct buffer. */
+  private static final class BufferReference extends PhantomReference<Buffer> {
+    final long bytes;
+
+    BufferReference(Buffer buffer, long bytes, ReferenceQueue<Buffer> queue) {
+      super(buffer, queue);
+      this.bytes = bytes;
+    }
+  }
+}
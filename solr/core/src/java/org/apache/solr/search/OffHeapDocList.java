@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Collection;
+import java.util.List;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A {@link DocList} whose doc ids and scores live in direct (off-heap) memory and are read in
+ * place. Created by {@link OffHeapCaffeineCache} from a {@link DocSlice}; instances are immutable
+ * and subsets share the same off-heap buffers.
+ */
+public class OffHeapDocList implements DocList, Accountable {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(OffHeapDocList.class);
+
+  // position of docs.get(0) in the complete ordered list of matches
+  private final int base;
+  private final int offset;
+  private final int len;
+  private final IntBuffer docs;
+  private final FloatBuffer scores; // may be null
+  private final long matches;
+  private final float maxScore;
+  private final TotalHits.Relation matchesRelation;
+
+  private OffHeapDocList(
+      int base,
+      int offset,
+      int len,
+      IntBuffer docs,
+      FloatBuffer scores,
+      long matches,
+      float maxScore,
+      TotalHits.Relation matchesRelation) {
+    this.base = base;
+    this.offset = offset;
+    this.len = len;
+    this.docs = docs;
+    this.scores = scores;
+    this.matches = matches;
+    this.maxScore = maxScore;
+    this.matchesRelation = matchesRelation;
+  }
+
+  /** Copies the documents (and scores, if any) of the given list to off-heap memory. */
+  public static OffHeapDocList copyOf(DocList list) {
+    int len = list.size();
+    IntBuffer docs =
+        ByteBuffer.allocateDirect(len * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    FloatBuffer scores =
+        list.hasScores()
+            ? ByteBuffer.allocateDirect(len * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer()
+            : null;
+    DocIterator iter = list.iterator();
+    for (int i = 0; i < len; i++) {
+      docs.put(i, iter.nextDoc());
+      if (scores != null) {
+        scores.put(i, iter.score());
+      }
+    }
+    return new OffHeapDocList(
+        list.offset(),
+        list.offset(),
+        len,
+        docs,
+        scores,
+        list.matches(),
+        list.maxScore(),
+        list.hitCountRelation());
+  }
+
+  /** Returns the number of bytes held in off-heap memory, shared with any subsets. */
+  public long offHeapBytesUsed() {
+    return ((long) docs.capacity() << 2) + (scores == null ? 0 : ((long) scores.capacity() << 2));
+  }
+
+  /** Returns the buffers holding the off-heap memory, shared with any subsets. */
+  List<Buffer> buffers() {
+    return scores == null ? List.of(docs) : List.of(docs, scores);
+  }
+
+  @Override
+  public DocList subset(int offset, int len) {
+    if (this.offset == offset && this.len == len) return this;
+
+    // we can only serve positions that were copied, unless there are no more matches
+    if (offset < base) return null;
+    int storedEnd = base + docs.capacity();
+    int requestedEnd = offset + len;
+    if (requestedEnd > storedEnd && this.matches > storedEnd) return null;
+    int realEndDoc = Math.min(requestedEnd, storedEnd);
+    int realLen = Math.max(realEndDoc - offset, 0);
+    if (this.offset == offset && this.len == realLen) return this;
+    return new OffHeapDocList(
+        base, offset, realLen, docs, scores, matches, maxScore, matchesRelation);
+  }
+
+  @Override
+  public boolean hasScores() {
+    return scores != null;
+  }
+
+  @Override
+  public float maxScore() {
+    return maxScore;
+  }
+
+  @Override
+  public int offset() {
+    return offset;
+  }
+
+  @Override
+  public int size() {
+    return len;
+  }
+
+  @Override
+  public long matches() {
+    return matches;
+  }
+
+  @Override
+  public TotalHits.Relation hitCountRelation() {
+    return matchesRelation;
+  }
+
+  @Override
+  public DocIterator iterator() {
+    return new DocIterator() {
+      int pos = offset - base;
+      final int end = pos + len;
+
+      @Override
+      public boolean hasNext() {
+        return pos < end;
+      }
+
+      @Override
+      public Integer next() {
+        return nextDoc();
+      }
+
+      /** The remove operation is not supported by this Iterator. */
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException(
+            "The remove  operation is not supported by this Iterator.");
+      }
+
+      @Override
+      public int nextDoc() {
+        return docs.get(pos++);
+      }
+
+      @Override
+      public float score() {
+        return scores.get(pos - 1);
+      }
+    };
+  }
+
+  /**
+   * Includes the off-heap buffers, so that caches bounded by {@code maxRamMB} keep bounding the
+   * total memory of their entries.
+   */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + offHeapBytesUsed();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return List.of();
+  }
+}
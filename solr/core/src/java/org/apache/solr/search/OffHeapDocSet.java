@@ -0,0 +1,482 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Collection;
+import java.util.List;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A {@link DocSet} whose documents live in direct (off-heap) memory and are read in place, as the
+ * words of a bitset or as sorted ids. Created by {@link OffHeapCaffeineCache} from a {@link
+ * BitDocSet} or a {@link SortedIntDocSet}; instances are immutable. Set operations read the buffer
+ * directly and only allocate their on-heap result.
+ */
+public class OffHeapDocSet extends DocSet {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(OffHeapDocSet.class);
+
+  private final ByteBuffer buffer;
+  private final LongBuffer words; // null for sorted ids
+  private final IntBuffer docs; // null for bits
+  private final int size;
+  // the length of the bitset, or one past the last of the sorted ids
+  private final int numBits;
+
+  private OffHeapDocSet(ByteBuffer buffer, boolean sortedIds, int size, int numBits) {
+    this.buffer = buffer;
+    this.words = sortedIds ? null : buffer.asLongBuffer();
+    this.docs = sortedIds ? buffer.asIntBuffer() : null;
+    this.size = size;
+    this.numBits = numBits;
+  }
+
+  /** Copies the documents of a {@link BitDocSet} or a {@link SortedIntDocSet} off-heap. */
+  public static OffHeapDocSet copyOf(DocSet docSet) {
+    if (docSet instanceof BitDocSet bitDocSet) {
+      FixedBitSet bits = bitDocSet.getBits();
+      int numWords = FixedBitSet.bits2words(bits.length());
+      ByteBuffer buffer =
+          ByteBuffer.allocateDirect(numWords * Long.BYTES).order(ByteOrder.nativeOrder());
+      buffer.asLongBuffer().put(bits.getBits(), 0, numWords);
+      return new OffHeapDocSet(buffer, false, bitDocSet.size(), bits.length());
+    }
+    int[] docs = ((SortedIntDocSet) docSet).getDocs();
+    ByteBuffer buffer =
+        ByteBuffer.allocateDirect(docs.length * Integer.BYTES).order(ByteOrder.nativeOrder());
+    buffer.asIntBuffer().put(docs);
+    return new OffHeapDocSet(
+        buffer, true, docs.length, docs.length == 0 ? 0 : docs[docs.length - 1] + 1);
+  }
+
+  /** Returns the number of bytes held in off-heap memory. */
+  public long offHeapBytesUsed() {
+    return buffer.capacity();
+  }
+
+  /** Returns the buffer holding the off-heap memory, shared with any clones. */
+  Buffer buffer() {
+    return buffer;
+  }
+
+  /** Returns the words of the other set if it is a bitset, else null. */
+  private static LongBuffer wordsOf(DocSet other) {
+    if (other instanceof BitDocSet bitDocSet) {
+      FixedBitSet bits = bitDocSet.getBits();
+      return LongBuffer.wrap(bits.getBits(), 0, FixedBitSet.bits2words(bits.length()));
+    } else if (other instanceof OffHeapDocSet offHeapDocSet) {
+      return offHeapDocSet.words;
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean exists(int doc) {
+    if (doc >= numBits) {
+      return false;
+    }
+    if (words != null) {
+      return (words.get(doc >> 6) & (1L << doc)) != 0;
+    }
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int docb = docs.get(mid);
+      if (docb < doc) {
+        low = mid + 1;
+      } else if (docb > doc) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public DocSet intersection(DocSet other) {
+    if (other instanceof SortedIntDocSet) {
+      // probes us for each of its docs
+      return other.intersection(this);
+    }
+    if (docs != null) {
+      int[] arr = new int[size];
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        int doc = docs.get(i);
+        if (other.exists(doc)) arr[count++] = doc;
+      }
+      return new SortedIntDocSet(arr, count);
+    }
+    LongBuffer otherWords = wordsOf(other);
+    if (otherWords == null && other instanceof OffHeapDocSet) {
+      // sorted ids, probing us for each of them
+      return other.intersection(this);
+    }
+    FixedBitSet newbits = new FixedBitSet(numBits);
+    if (otherWords != null) {
+      long[] target = newbits.getBits();
+      int numWords = Math.min(words.limit(), otherWords.limit());
+      for (int i = 0; i < numWords; i++) {
+        target[i] = words.get(i) & otherWords.get(i);
+      }
+    } else {
+      DocIterator iter = other.iterator();
+      while (iter.hasNext()) {
+        int doc = iter.nextDoc();
+        if (exists(doc)) newbits.set(doc);
+      }
+    }
+    return new BitDocSet(newbits);
+  }
+
+  @Override
+  public int intersectionSize(DocSet other) {
+    if (other instanceof SortedIntDocSet) {
+      return other.intersectionSize(this);
+    }
+    int count = 0;
+    if (docs != null) {
+      for (int i = 0; i < size; i++) {
+        if (other.exists(docs.get(i))) count++;
+      }
+      return count;
+    }
+    LongBuffer otherWords = wordsOf(other);
+    if (otherWords == null && other instanceof OffHeapDocSet) {
+      return other.intersectionSize(this);
+    }
+    if (otherWords != null) {
+      int numWords = Math.min(words.limit(), otherWords.limit());
+      for (int i = 0; i < numWords; i++) {
+        count += Long.bitCount(words.get(i) & otherWords.get(i));
+      }
+    } else {
+      DocIterator iter = other.iterator();
+      while (iter.hasNext()) {
+        if (exists(iter.nextDoc())) count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public boolean intersects(DocSet other) {
+    if (other instanceof SortedIntDocSet) {
+      return other.intersects(this);
+    }
+    if (docs != null) {
+      for (int i = 0; i < size; i++) {
+        if (other.exists(docs.get(i))) return true;
+      }
+      return false;
+    }
+    LongBuffer otherWords = wordsOf(other);
+    if (otherWords == null && other instanceof OffHeapDocSet) {
+      return other.intersects(this);
+    }
+    if (otherWords != null) {
+      int numWords = Math.min(words.limit(), otherWords.limit());
+      for (int i = 0; i < numWords; i++) {
+        if ((words.get(i) & otherWords.get(i)) != 0) return true;
+      }
+    } else {
+      DocIterator iter = other.iterator();
+      while (iter.hasNext()) {
+        if (exists(iter.nextDoc())) return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public DocSet union(DocSet other) {
+    FixedBitSet newbits = getFixedBitSetClone();
+    if (other instanceof BitDocSet otherDocSet) {
+      newbits = FixedBitSet.ensureCapacity(newbits, otherDocSet.getBits().length());
+      newbits.or(otherDocSet.getBits());
+    } else {
+      DocIterator iter = other.iterator();
+      while (iter.hasNext()) {
+        int doc = iter.nextDoc();
+        newbits = FixedBitSet.ensureCapacity(newbits, doc);
+        newbits.set(doc);
+      }
+    }
+    return new BitDocSet(newbits);
+  }
+
+  @Override
+  public DocSet andNot(DocSet other) {
+    if (other.size() == 0) {
+      return this;
+    }
+    if (docs != null) {
+      int[] arr = new int[size];
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        int doc = docs.get(i);
+        if (!other.exists(doc)) arr[count++] = doc;
+      }
+      return new SortedIntDocSet(arr, count);
+    }
+    FixedBitSet newbits = getFixedBitSetClone();
+    LongBuffer otherWords = wordsOf(other);
+    if (otherWords != null) {
+      long[] target = newbits.getBits();
+      int numWords = Math.min(target.length, otherWords.limit());
+      for (int i = 0; i < numWords; i++) {
+        target[i] &= ~otherWords.get(i);
+      }
+    } else {
+      BitDocSet.andNot(newbits, other);
+    }
+    return new BitDocSet(newbits);
+  }
+
+  @Override
+  public void addAllTo(FixedBitSet target) {
+    if (docs != null) {
+      for (int i = 0; i < size; i++) {
+        target.set(docs.get(i));
+      }
+      return;
+    }
+    long[] targetWords = target.getBits();
+    int numWords = Math.min(targetWords.length, words.limit());
+    for (int i = 0; i < numWords; i++) {
+      targetWords[i] |= words.get(i);
+    }
+  }
+
+  @Override
+  public DocIterator iterator() {
+    final Cursor cursor = new Cursor();
+    return new DocIterator() {
+      int next = cursor.advance(0);
+
+      @Override
+      public boolean hasNext() {
+        return next != DocIdSetIterator.NO_MORE_DOCS;
+      }
+
+      @Override
+      public Integer next() {
+        return nextDoc();
+      }
+
+      /** The remove operation is not supported by this Iterator. */
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException(
+            "The remove  operation is not supported by this Iterator.");
+      }
+
+      @Override
+      public int nextDoc() {
+        int doc = next;
+        next = cursor.advance(doc + 1);
+        return doc;
+      }
+
+      @Override
+      public float score() {
+        return 0.0f;
+      }
+    };
+  }
+
+  @Override
+  public DocIdSetIterator iterator(LeafReaderContext context) {
+    if (size == 0) {
+      return null;
+    }
+    final int base;
+    final int max; // one past the max doc in this segment.
+    if (context.isTopLevel) {
+      base = 0;
+      max = numBits;
+    } else {
+      final int maxDoc = context.reader().maxDoc();
+      if (maxDoc < 1) {
+        // entirely empty segment
+        return null;
+      }
+      base = context.docBase;
+      max = base + maxDoc;
+    }
+    final Cursor cursor = new Cursor();
+
+    return new DocIdSetIterator() {
+      int adjustedDoc = -1;
+
+      @Override
+      public int docID() {
+        return adjustedDoc;
+      }
+
+      @Override
+      public int nextDoc() {
+        return advance(adjustedDoc + 1);
+      }
+
+      @Override
+      public int advance(int target) {
+        if (adjustedDoc == NO_MORE_DOCS || target == NO_MORE_DOCS) {
+          return adjustedDoc = NO_MORE_DOCS;
+        }
+        int doc = cursor.advance(target + base);
+        return adjustedDoc = doc < max ? doc - base : NO_MORE_DOCS;
+      }
+
+      @Override
+      public long cost() {
+        // pro-rated for the segment
+        return Math.min(size, (long) size * (max - base) / Math.max(1, numBits) + 1);
+      }
+    };
+  }
+
+  @Override
+  public DocSetQuery makeQuery() {
+    return new DocSetQuery(this);
+  }
+
+  @Override
+  public OffHeapDocSet clone() {
+    // the buffer is never modified, so it can be shared
+    return new OffHeapDocSet(buffer, docs != null, size, numBits);
+  }
+
+  @Override
+  public Bits getBits() {
+    return new Bits() {
+      @Override
+      public boolean get(int index) {
+        return exists(index);
+      }
+
+      @Override
+      public int length() {
+        return numBits;
+      }
+    };
+  }
+
+  @Override
+  protected FixedBitSet getFixedBitSet() {
+    return getFixedBitSetClone();
+  }
+
+  @Override
+  protected FixedBitSet getFixedBitSetClone() {
+    FixedBitSet bits = new FixedBitSet(numBits);
+    addAllTo(bits);
+    return bits;
+  }
+
+  /**
+   * Includes the off-heap buffer, so that caches bounded by {@code maxRamMB} keep bounding the
+   * total memory of their entries.
+   */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + offHeapBytesUsed();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return List.of();
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapDocSet{"
+        + "size="
+        + size
+        + ","
+        + (docs != null ? "ids" : "bits")
+        + "="
+        + numBits
+        + ",offHeapBytesUsed="
+        + offHeapBytesUsed()
+        + '}';
+  }
+
+  /** Finds the documents of the set in increasing order. */
+  private final class Cursor {
+    // for sorted ids, the index of the first doc that may be at or after the next target
+    private int pos;
+
+    /** Returns the first document of the set at or after the target, or NO_MORE_DOCS. */
+    int advance(int target) {
+      if (target >= numBits) {
+        return DocIdSetIterator.NO_MORE_DOCS;
+      }
+      if (words != null) {
+        int i = target >> 6;
+        long word = words.get(i) >>> target; // shifts by target mod 64
+        if (word != 0) {
+          return target + Long.numberOfTrailingZeros(word);
+        }
+        int numWords = words.limit();
+        while (++i < numWords) {
+          word = words.get(i);
+          if (word != 0) {
+            return (i << 6) + Long.numberOfTrailingZeros(word);
+          }
+        }
+        return DocIdSetIterator.NO_MORE_DOCS;
+      }
+      int low = pos;
+      // iterating in order only skips the doc returned last, search otherwise
+      if (low < size && docs.get(low) < target) {
+        low++;
+        if (low < size && docs.get(low) < target) {
+          int high = size - 1;
+          low++;
+          while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (docs.get(mid) < target) {
+              low = mid + 1;
+            } else {
+              high = mid - 1;
+            }
+          }
+        }
+      }
+      pos = low;
+      return low < size ? docs.get(low) : DocIdSetIterator.NO_MORE_DOCS;
+    }
+  }
+}
@@ -0,0 +1,1061 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A compressed implementation of {@link DocSet} in the style of Roaring bitmaps [1]. Documents are
+ * partitioned into blocks of 65536 ids, and each non-empty block is stored as whichever is smallest
+ * of a sorted array of 16-bit ids, a bitmap, or a list of runs. Good for medium density sets of
+ * large indexes, which would take {@code maxDoc/8} bytes as a {@link BitDocSet}; see {@link
+ * DocSetUtil#compress(DocSet)}.
+ *
+ * <p>Instances are immutable, set operations return new sets that may share blocks with their
+ * inputs.
+ *
+ * <p>[1] https://arxiv.org/abs/1603.06549
+ */
+public class RoaringDocSet extends DocSet {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(RoaringDocSet.class)
+          + 2 * RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
+
+  /** filterCache attribute enabling compression of cached sets. */
+  public static final String COMPRESS_PARAM = "compressDocSets";
+
+  static final int BLOCK_SHIFT = 16;
+  static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+  static final int BLOCK_MASK = BLOCK_SIZE - 1;
+  static final int BLOCK_WORDS = BLOCK_SIZE >>> 6;
+  // beyond this cardinality, an array of chars takes more space than a bitmap
+  static final int MAX_ARRAY_SIZE = BLOCK_SIZE >>> 4;
+
+  private final char[] keys; // the high 16 bits of the docs of each block
+  private final Container[] containers;
+  private final int size;
+  private final int length; // 1 greater than the largest possible doc
+  private final long ramBytesUsed;
+
+  private RoaringDocSet(char[] keys, Container[] containers, int size, int length) {
+    this.keys = keys;
+    this.containers = containers;
+    this.size = size;
+    this.length = length;
+    long ram =
+        BASE_RAM_BYTES_USED
+            + ((long) keys.length << 1)
+            + (long) containers.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+    for (Container container : containers) {
+      ram += container.ramBytesUsed();
+    }
+    this.ramBytesUsed = ram;
+  }
+
+  /** Creates a compressed copy of the bits. */
+  public static RoaringDocSet fromBits(FixedBitSet bits) {
+    final int length = bits.length();
+    final long[] words = bits.getBits();
+    final int numWords = FixedBitSet.bits2words(length);
+    final int numBlocks = (length + BLOCK_MASK) >>> BLOCK_SHIFT;
+    Builder builder = new Builder(numBlocks, length);
+    long[] scratch = new long[BLOCK_WORDS];
+    for (int block = 0; block < numBlocks; block++) {
+      int from = block * BLOCK_WORDS;
+      int n = Math.min(BLOCK_WORDS, numWords - from);
+      System.arraycopy(words, from, scratch, 0, n);
+      Arrays.fill(scratch, n, BLOCK_WORDS, 0L);
+      builder.add(block, Container.fromWords(scratch));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates a set of the given docs.
+   *
+   * @param docs sorted ids, without duplicates
+   * @param len number of ids in the array
+   * @param length 1 greater than the largest possible doc, typically maxDoc
+   */
+  public static RoaringDocSet fromDocs(int[] docs, int len, int length) {
+    Builder builder = new Builder((length + BLOCK_MASK) >>> BLOCK_SHIFT, length);
+    long[] scratch = new long[BLOCK_WORDS];
+    int i = 0;
+    while (i < len) {
+      final int key = docs[i] >>> BLOCK_SHIFT;
+      Arrays.fill(scratch, 0L);
+      for (; i < len && (docs[i] >>> BLOCK_SHIFT) == key; i++) {
+        int value = docs[i] & BLOCK_MASK;
+        scratch[value >>> 6] |= 1L << value;
+      }
+      builder.add(key, Container.fromWords(scratch));
+    }
+    return builder.build();
+  }
+
+  private static RoaringDocSet fromDocSet(DocSet docSet) {
+    if (docSet instanceof RoaringDocSet roaringDocSet) {
+      return roaringDocSet;
+    } else if (docSet instanceof SortedIntDocSet sortedIntDocSet) {
+      int[] docs = sortedIntDocSet.getDocs();
+      return fromDocs(docs, docs.length, docs.length == 0 ? 0 : docs[docs.length - 1] + 1);
+    }
+    return fromBits(docSet.getFixedBitSet());
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean exists(int doc) {
+    int i = Arrays.binarySearch(keys, (char) (doc >>> BLOCK_SHIFT));
+    return i >= 0 && containers[i].contains(doc & BLOCK_MASK);
+  }
+
+  /**
+   * Returns the words of the block of the other set, or null if the other set has no docs in that
+   * block. The words are either those of a bitmap block, or copied to the scratch array, and must
+   * not be modified. The other set must be a RoaringDocSet or a BitDocSet.
+   */
+  private static long[] blockWords(DocSet other, int key, long[] scratch) {
+    if (other instanceof RoaringDocSet roaringDocSet) {
+      int i = Arrays.binarySearch(roaringDocSet.keys, (char) key);
+      if (i < 0) {
+        return null;
+      }
+      if (roaringDocSet.containers[i] instanceof BitmapContainer bitmapContainer) {
+        return bitmapContainer.words;
+      }
+      Arrays.fill(scratch, 0L);
+      roaringDocSet.containers[i].orInto(scratch);
+      return scratch;
+    }
+    long[] words = ((BitDocSet) other).getBits().getBits();
+    int from = key * BLOCK_WORDS;
+    if (from >= words.length) {
+      return null;
+    }
+    int n = Math.min(BLOCK_WORDS, words.length - from);
+    System.arraycopy(words, from, scratch, 0, n);
+    Arrays.fill(scratch, n, BLOCK_WORDS, 0L);
+    return scratch;
+  }
+
+  @Override
+  public DocSet intersection(DocSet other) {
+    if (!(other instanceof RoaringDocSet || other instanceof BitDocSet)) {
+      // SortedIntDocSet is better at this, probing us for each of its docs
+      return other.intersection(this);
+    }
+    Builder builder = new Builder(keys.length, length);
+    long[] scratch = new long[BLOCK_WORDS];
+    for (int i = 0; i < keys.length; i++) {
+      long[] otherWords = blockWords(other, keys[i], scratch);
+      if (otherWords != null) {
+        builder.add(keys[i], containers[i].and(otherWords));
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public int intersectionSize(DocSet other) {
+    if (!(other instanceof RoaringDocSet || other instanceof BitDocSet)) {
+      return other.intersectionSize(this);
+    }
+    int count = 0;
+    long[] scratch = new long[BLOCK_WORDS];
+    for (int i = 0; i < keys.length; i++) {
+      long[] otherWords = blockWords(other, keys[i], scratch);
+      if (otherWords != null) {
+        count += containers[i].intersectionCount(otherWords);
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public boolean intersects(DocSet other) {
+    if (!(other instanceof RoaringDocSet || other instanceof BitDocSet)) {
+      return other.intersects(this);
+    }
+    long[] scratch = new long[BLOCK_WORDS];
+    for (int i = 0; i < keys.length; i++) {
+      long[] otherWords = blockWords(other, keys[i], scratch);
+      if (otherWords != null && containers[i].intersectionCount(otherWords) > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public DocSet union(DocSet other) {
+    if (other instanceof BitDocSet) {
+      return other.union(this);
+    }
+    RoaringDocSet o = fromDocSet(other);
+    Builder builder = new Builder(keys.length + o.keys.length, Math.max(length, o.length));
+    int i = 0, j = 0;
+    while (i < keys.length || j < o.keys.length) {
+      int key = i < keys.length ? keys[i] : Integer.MAX_VALUE;
+      int otherKey = j < o.keys.length ? o.keys[j] : Integer.MAX_VALUE;
+      if (key < otherKey) {
+        builder.add(key, containers[i++]);
+      } else if (key > otherKey) {
+        builder.add(otherKey, o.containers[j++]);
+      } else {
+        builder.add(key, containers[i++].or(o.containers[j++]));
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public DocSet andNot(DocSet other) {
+    if (other.size() == 0) {
+      return this;
+    }
+    if (!(other instanceof RoaringDocSet || other instanceof BitDocSet)) {
+      other = fromDocSet(other);
+    }
+    Builder builder = new Builder(keys.length, length);
+    long[] scratch = new long[BLOCK_WORDS];
+    for (int i = 0; i < keys.length; i++) {
+      long[] otherWords = blockWords(other, keys[i], scratch);
+      builder.add(keys[i], otherWords == null ? containers[i] : containers[i].andNot(otherWords));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public void addAllTo(FixedBitSet target) {
+    for (int i = 0; i < keys.length; i++) {
+      containers[i].addTo(target, keys[i] << BLOCK_SHIFT);
+    }
+  }
+
+  @Override
+  public DocIterator iterator() {
+    final Cursor cursor = new Cursor();
+    return new DocIterator() {
+      int next = cursor.advance(0);
+
+      @Override
+      public boolean hasNext() {
+        return next != DocIdSetIterator.NO_MORE_DOCS;
+      }
+
+      @Override
+      public Integer next() {
+        return nextDoc();
+      }
+
+      /** The remove operation is not supported by this Iterator. */
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException(
+            "The remove  operation is not supported by this Iterator.");
+      }
+
+      @Override
+      public int nextDoc() {
+        int doc = next;
+        next = cursor.advance(doc + 1);
+        return doc;
+      }
+
+      @Override
+      public float score() {
+        return 0.0f;
+      }
+    };
+  }
+
+  @Override
+  public DocIdSetIterator iterator(LeafReaderContext context) {
+    if (size == 0) {
+      return null;
+    }
+    final int base;
+    final int max; // one past the max doc in this segment.
+    if (context.isTopLevel) {
+      base = 0;
+      max = length;
+    } else {
+      final int maxDoc = context.reader().maxDoc();
+      if (maxDoc < 1) {
+        // entirely empty segment
+        return null;
+      }
+      base = context.docBase;
+      max = base + maxDoc;
+    }
+    final Cursor cursor = new Cursor();
+
+    return new DocIdSetIterator() {
+      int adjustedDoc = -1;
+
+      @Override
+      public int docID() {
+        return adjustedDoc;
+      }
+
+      @Override
+      public int nextDoc() {
+        return advance(adjustedDoc + 1);
+      }
+
+      @Override
+      public int advance(int target) {
+        if (adjustedDoc == NO_MORE_DOCS || target == NO_MORE_DOCS) {
+          return adjustedDoc = NO_MORE_DOCS;
+        }
+        int doc = cursor.advance(target + base);
+        return adjustedDoc = doc < max ? doc - base : NO_MORE_DOCS;
+      }
+
+      @Override
+      public long cost() {
+        // pro-rated for the segment
+        return Math.min(size, (long) size * (max - base) / Math.max(1, length) + 1);
+      }
+    };
+  }
+
+  @Override
+  public DocSetQuery makeQuery() {
+    return new DocSetQuery(this);
+  }
+
+  @Override
+  public RoaringDocSet clone() {
+    // blocks are never modified, so they can be shared
+    return new RoaringDocSet(keys, containers, size, length);
+  }
+
+  @Override
+  public Bits getBits() {
+    return new Bits() {
+      @Override
+      public boolean get(int index) {
+        return exists(index);
+      }
+
+      @Override
+      public int length() {
+        return length;
+      }
+    };
+  }
+
+  @Override
+  protected FixedBitSet getFixedBitSet() {
+    return getFixedBitSetClone();
+  }
+
+  @Override
+  protected FixedBitSet getFixedBitSetClone() {
+    FixedBitSet bits = new FixedBitSet(length);
+    addAllTo(bits);
+    return bits;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return List.of();
+  }
+
+  @Override
+  public String toString() {
+    return "RoaringDocSet{"
+        + "size="
+        + size()
+        + ",blocks="
+        + keys.length
+        + ",ramUsed="
+        + RamUsageEstimator.humanReadableUnits(ramBytesUsed())
+        + '}';
+  }
+
+  /** Moves forward over the docs of the set, across blocks. */
+  private final class Cursor {
+    private int index = -1;
+    private ContainerIterator it;
+    private int doc = -1;
+
+    /**
+     * Positions on the first doc greater than or equal to the target, which must be greater than
+     * the current doc, and returns it or {@link DocIdSetIterator#NO_MORE_DOCS}.
+     */
+    int advance(int target) {
+      if (doc == DocIdSetIterator.NO_MORE_DOCS) {
+        return doc;
+      }
+      int key = target >>> BLOCK_SHIFT;
+      if (it == null || key != keys[index]) {
+        int i = Arrays.binarySearch(keys, index + 1, keys.length, (char) key);
+        index = i < 0 ? -i - 1 : i;
+        if (index >= keys.length) {
+          return doc = DocIdSetIterator.NO_MORE_DOCS;
+        }
+        it = containers[index].iterator();
+        if (keys[index] != key) {
+          target = keys[index] << BLOCK_SHIFT;
+        }
+      }
+      for (; ; ) {
+        int value = it.advance(target & BLOCK_MASK);
+        if (value < BLOCK_SIZE) {
+          return doc = (keys[index] << BLOCK_SHIFT) | value;
+        }
+        if (++index >= keys.length) {
+          return doc = DocIdSetIterator.NO_MORE_DOCS;
+        }
+        it = containers[index].iterator();
+        target = keys[index] << BLOCK_SHIFT;
+      }
+    }
+  }
+
+  /** Accumulates the non-empty blocks of a new set, in key order. */
+  private static final class Builder {
+    private final char[] keys;
+    private final Container[] containers;
+    private final int length;
+    private int numBlocks;
+    private int size;
+
+    Builder(int maxBlocks, int length) {
+      this.keys = new char[maxBlocks];
+      this.containers = new Container[maxBlocks];
+      this.length = length;
+    }
+
+    void add(int key, Container container) {
+      if (container == null) {
+        return;
+      }
+      keys[numBlocks] = (char) key;
+      containers[numBlocks++] = container;
+      size += container.cardinality();
+    }
+
+    RoaringDocSet build() {
+      return new RoaringDocSet(
+          Arrays.copyOf(keys, numBlocks), Arrays.copyOf(containers, numBlocks), size, length);
+    }
+  }
+
+  /** Iterates the (16-bit) values of a container. */
+  interface ContainerIterator {
+    /**
+     * Returns the first value greater than or equal to the target, or {@link #BLOCK_SIZE} if there
+     * is none. Targets must not decrease between calls.
+     */
+    int advance(int target);
+  }
+
+  /** The docs of a block, as values relative to the start of the block. */
+  abstract static class Container {
+
+    abstract int cardinality();
+
+    abstract boolean contains(int value);
+
+    /** Sets the bits of the values in the words of a block. */
+    abstract void orInto(long[] words);
+
+    /** Sets the bits of the docs in the target, the block starting at the given doc. */
+    abstract void addTo(FixedBitSet target, int base);
+
+    abstract ContainerIterator iterator();
+
+    abstract long ramBytesUsed();
+
+    long[] toWords() {
+      long[] words = new long[BLOCK_WORDS];
+      orInto(words);
+      return words;
+    }
+
+    /** Returns the values that are also set in the words, or null if there are none. */
+    abstract Container and(long[] other);
+
+    /** Returns the values that are not set in the words, or null if there are none. */
+    abstract Container andNot(long[] other);
+
+    /** Returns the values that are set in this container or in the other one. */
+    Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.or(this);
+      }
+      long[] words = toWords();
+      other.orInto(words);
+      return fromOwnedWords(words);
+    }
+
+    /** Returns the number of values that are also set in the words. */
+    abstract int intersectionCount(long[] other);
+
+    /**
+     * Creates the smallest container for the bits of a block, or returns null if none are set. The
+     * words are not retained.
+     */
+    static Container fromWords(long[] words) {
+      return fromWords(words, false);
+    }
+
+    /** Like {@link #fromWords(long[])}, but may retain the words, which must not be modified. */
+    static Container fromOwnedWords(long[] words) {
+      return fromWords(words, true);
+    }
+
+    private static Container fromWords(long[] words, boolean owned) {
+      int cardinality = 0;
+      int numRuns = 0;
+      long previous = 0;
+      for (long word : words) {
+        cardinality += Long.bitCount(word);
+        // a run starts at every set bit whose preceding bit is clear
+        numRuns += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+        previous = word;
+      }
+      if (cardinality == 0) {
+        return null;
+      }
+      long runBytes = 4L * numRuns;
+      if (runBytes < 2L * cardinality && runBytes < 8L * BLOCK_WORDS) {
+        return RunContainer.fromWords(words, numRuns, cardinality);
+      } else if (cardinality <= MAX_ARRAY_SIZE) {
+        return ArrayContainer.fromWords(words, cardinality);
+      }
+      return new BitmapContainer(owned ? words : words.clone(), cardinality);
+    }
+
+    /**
+     * Creates the smallest container for the runs, given as pairs of the first and last value of
+     * each, or returns null if there are none. The runs are not retained.
+     */
+    static Container fromRuns(char[] runs, int len, int cardinality) {
+      if (cardinality == 0) {
+        return null;
+      }
+      long runBytes = 2L * len;
+      if (runBytes < 2L * cardinality && runBytes < 8L * BLOCK_WORDS) {
+        return new RunContainer(Arrays.copyOf(runs, len), cardinality);
+      }
+      long[] words = new long[BLOCK_WORDS];
+      for (int i = 0; i < len; i += 2) {
+        setRange(words, runs[i], runs[i + 1] + 1);
+      }
+      return fromOwnedWords(words);
+    }
+  }
+
+  /** A sorted array of values, for sparse blocks. */
+  static final class ArrayContainer extends Container {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(ArrayContainer.class);
+
+    private final char[] values;
+
+    private ArrayContainer(char[] values) {
+      this.values = values;
+    }
+
+    static ArrayContainer fromWords(long[] words, int cardinality) {
+      char[] values = new char[cardinality];
+      int n = 0;
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values);
+    }
+
+    @Override
+    int cardinality() {
+      return values.length;
+    }
+
+    @Override
+    boolean contains(int value) {
+      return Arrays.binarySearch(values, (char) value) >= 0;
+    }
+
+    @Override
+    void orInto(long[] words) {
+      for (char value : values) {
+        words[value >>> 6] |= 1L << value;
+      }
+    }
+
+    @Override
+    void addTo(FixedBitSet target, int base) {
+      for (char value : values) {
+        target.set(base + value);
+      }
+    }
+
+    private Container filter(long[] other, boolean keepSet) {
+      char[] filtered = new char[values.length];
+      int n = 0;
+      for (char value : values) {
+        if (((other[value >>> 6] & (1L << value)) != 0) == keepSet) {
+          filtered[n++] = value;
+        }
+      }
+      if (n == values.length) {
+        return this;
+      }
+      return n == 0 ? null : new ArrayContainer(Arrays.copyOf(filtered, n));
+    }
+
+    @Override
+    Container and(long[] other) {
+      return filter(other, true);
+    }
+
+    @Override
+    Container andNot(long[] other) {
+      return filter(other, false);
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof ArrayContainer arrayContainer
+          && values.length + arrayContainer.values.length <= MAX_ARRAY_SIZE) {
+        // merge the sorted values
+        char[] otherValues = arrayContainer.values;
+        char[] merged = new char[values.length + otherValues.length];
+        int i = 0, j = 0, n = 0;
+        while (i < values.length && j < otherValues.length) {
+          char value = values[i];
+          char otherValue = otherValues[j];
+          if (value <= otherValue) {
+            i++;
+            if (value == otherValue) {
+              j++;
+            }
+            merged[n++] = value;
+          } else {
+            j++;
+            merged[n++] = otherValue;
+          }
+        }
+        while (i < values.length) {
+          merged[n++] = values[i++];
+        }
+        while (j < otherValues.length) {
+          merged[n++] = otherValues[j++];
+        }
+        return new ArrayContainer(n == merged.length ? merged : Arrays.copyOf(merged, n));
+      }
+      return super.or(other);
+    }
+
+    @Override
+    int intersectionCount(long[] other) {
+      int count = 0;
+      for (char value : values) {
+        if ((other[value >>> 6] & (1L << value)) != 0) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    @Override
+    ContainerIterator iterator() {
+      return new ContainerIterator() {
+        int index = 0;
+
+        @Override
+        public int advance(int target) {
+          if (index < values.length && values[index] < target) {
+            // usually the next value
+            if (++index < values.length && values[index] < target) {
+              int i = Arrays.binarySearch(values, index + 1, values.length, (char) target);
+              index = i < 0 ? -i - 1 : i;
+            }
+          }
+          return index < values.length ? values[index] : BLOCK_SIZE;
+        }
+      };
+    }
+
+    @Override
+    long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(values);
+    }
+  }
+
+  /** A bitmap of all values of the block, for dense blocks. */
+  static final class BitmapContainer extends Container {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(BitmapContainer.class);
+
+    private final long[] words;
+    private final int cardinality;
+
+    private BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(int value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    void orInto(long[] words) {
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        words[i] |= this.words[i];
+      }
+    }
+
+    @Override
+    void addTo(FixedBitSet target, int base) {
+      long[] targetWords = target.getBits();
+      int offset = base >>> 6;
+      int n = Math.min(BLOCK_WORDS, targetWords.length - offset);
+      for (int i = 0; i < n; i++) {
+        targetWords[offset + i] |= words[i];
+      }
+    }
+
+    @Override
+    Container and(long[] other) {
+      int count = 0;
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        count += Long.bitCount(words[i] & other[i]);
+      }
+      if (count == cardinality) {
+        return this;
+      } else if (count == 0) {
+        return null;
+      }
+      long[] result = new long[BLOCK_WORDS];
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        result[i] = words[i] & other[i];
+      }
+      return fromOwnedWords(result);
+    }
+
+    @Override
+    Container andNot(long[] other) {
+      int count = 0;
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        count += Long.bitCount(words[i] & ~other[i]);
+      }
+      if (count == cardinality) {
+        return this;
+      } else if (count == 0) {
+        return null;
+      }
+      long[] result = new long[BLOCK_WORDS];
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        result[i] = words[i] & ~other[i];
+      }
+      return fromOwnedWords(result);
+    }
+
+    @Override
+    Container or(Container other) {
+      long[] result = words.clone();
+      other.orInto(result);
+      return fromOwnedWords(result);
+    }
+
+    @Override
+    int intersectionCount(long[] other) {
+      int count = 0;
+      for (int i = 0; i < BLOCK_WORDS; i++) {
+        count += Long.bitCount(words[i] & other[i]);
+      }
+      return count;
+    }
+
+    @Override
+    ContainerIterator iterator() {
+      return target -> nextSetBit(words, target);
+    }
+
+    @Override
+    long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(words);
+    }
+  }
+
+  /** Runs of consecutive values, for blocks with long stretches of matching docs. */
+  static final class RunContainer extends Container {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(RunContainer.class);
+
+    // pairs of the first and last value of each run
+    private final char[] runs;
+    private final int cardinality;
+
+    private RunContainer(char[] runs, int cardinality) {
+      this.runs = runs;
+      this.cardinality = cardinality;
+    }
+
+    static RunContainer fromWords(long[] words, int numRuns, int cardinality) {
+      char[] runs = new char[numRuns << 1];
+      int n = 0;
+      for (int start = nextSetBit(words, 0); start < BLOCK_SIZE; ) {
+        int end = nextClearBit(words, start);
+        runs[n++] = (char) start;
+        runs[n++] = (char) (end - 1);
+        start = nextSetBit(words, end);
+      }
+      assert n == runs.length;
+      return new RunContainer(runs, cardinality);
+    }
+
+    private int numRuns() {
+      return runs.length >>> 1;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(int value) {
+      // find the last run starting at or before the value
+      int low = 0;
+      int high = numRuns() - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (runs[mid << 1] <= value) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return high >= 0 && value <= runs[(high << 1) + 1];
+    }
+
+    @Override
+    void orInto(long[] words) {
+      for (int i = 0; i < runs.length; i += 2) {
+        setRange(words, runs[i], runs[i + 1] + 1);
+      }
+    }
+
+    @Override
+    void addTo(FixedBitSet target, int base) {
+      for (int i = 0; i < runs.length; i += 2) {
+        target.set(base + runs[i], base + runs[i + 1] + 1);
+      }
+    }
+
+    /** Splits the runs on the values that are (not) set in the words, keeping the others. */
+    private Container filter(long[] other, boolean keepSet) {
+      char[] filtered = new char[runs.length];
+      int n = 0;
+      int count = 0;
+      for (int i = 0; i < runs.length; i += 2) {
+        int end = runs[i + 1] + 1;
+        int from = keepSet ? nextSetBit(other, runs[i]) : nextClearBit(other, runs[i]);
+        while (from < end) {
+          int to = Math.min(end, keepSet ? nextClearBit(other, from) : nextSetBit(other, from));
+          if (n == filtered.length) {
+            filtered = ArrayUtil.grow(filtered, n + 2);
+          }
+          filtered[n++] = (char) from;
+          filtered[n++] = (char) (to - 1);
+          count += to - from;
+          from = keepSet ? nextSetBit(other, to) : nextClearBit(other, to);
+        }
+      }
+      return count == cardinality ? this : fromRuns(filtered, n, count);
+    }
+
+    @Override
+    Container and(long[] other) {
+      return filter(other, true);
+    }
+
+    @Override
+    Container andNot(long[] other) {
+      return filter(other, false);
+    }
+
+    @Override
+    Container or(Container other) {
+      if (!(other instanceof RunContainer runContainer)) {
+        return super.or(other);
+      }
+      // merge the runs, which are sorted by their first value
+      char[] otherRuns = runContainer.runs;
+      char[] merged = new char[runs.length + otherRuns.length];
+      int n = 0;
+      int count = 0;
+      int i = 0, j = 0;
+      while (i < runs.length || j < otherRuns.length) {
+        final int start, last;
+        if (j >= otherRuns.length || (i < runs.length && runs[i] <= otherRuns[j])) {
+          start = runs[i];
+          last = runs[i + 1];
+          i += 2;
+        } else {
+          start = otherRuns[j];
+          last = otherRuns[j + 1];
+          j += 2;
+        }
+        if (n > 0 && start <= merged[n - 1] + 1) {
+          // overlaps or adjoins the previous run
+          if (last > merged[n - 1]) {
+            count += last - merged[n - 1];
+            merged[n - 1] = (char) last;
+          }
+        } else {
+          merged[n++] = (char) start;
+          merged[n++] = (char) last;
+          count += last - start + 1;
+        }
+      }
+      return fromRuns(merged, n, count);
+    }
+
+    @Override
+    int intersectionCount(long[] other) {
+      int count = 0;
+      for (int i = 0; i < runs.length; i += 2) {
+        count += countRange(other, runs[i], runs[i + 1] + 1);
+      }
+      return count;
+    }
+
+    @Override
+    ContainerIterator iterator() {
+      return new ContainerIterator() {
+        int run = 0;
+
+        @Override
+        public int advance(int target) {
+          while (run < runs.length && runs[run + 1] < target) {
+            run += 2;
+          }
+          return run < runs.length ? Math.max(runs[run], target) : BLOCK_SIZE;
+        }
+      };
+    }
+
+    @Override
+    long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(runs);
+    }
+  }
+
+  /** Returns the first set bit of a block at or after the given one, or {@link #BLOCK_SIZE}. */
+  static int nextSetBit(long[] words, int from) {
+    int i = from >>> 6;
+    if (i >= BLOCK_WORDS) {
+      return BLOCK_SIZE;
+    }
+    long word = words[i] >>> from;
+    if (word != 0) {
+      return from + Long.numberOfTrailingZeros(word);
+    }
+    while (++i < BLOCK_WORDS) {
+      if (words[i] != 0) {
+        return (i << 6) + Long.numberOfTrailingZeros(words[i]);
+      }
+    }
+    return BLOCK_SIZE;
+  }
+
+  /** Returns the first clear bit of a block at or after the given one, or {@link #BLOCK_SIZE}. */
+  static int nextClearBit(long[] words, int from) {
+    int i = from >>> 6;
+    if (i >= BLOCK_WORDS) {
+      return BLOCK_SIZE;
+    }
+    long word = ~words[i] >>> from;
+    if (word != 0) {
+      return from + Long.numberOfTrailingZeros(word);
+    }
+    while (++i < BLOCK_WORDS) {
+      if (words[i] != -1L) {
+        return (i << 6) + Long.numberOfTrailingZeros(~words[i]);
+      }
+    }
+    return BLOCK_SIZE;
+  }
+
+  /** Counts the set bits from {@code from} (inclusive) to {@code to} (exclusive) of a block. */
+  static int countRange(long[] words, int from, int to) {
+    int startWord = from >>> 6;
+    int endWord = (to - 1) >>> 6;
+    long startMask = -1L << from;
+    long endMask = -1L >>> -to;
+    if (startWord == endWord) {
+      return Long.bitCount(words[startWord] & startMask & endMask);
+    }
+    int count = Long.bitCount(words[startWord] & startMask);
+    for (int i = startWord + 1; i < endWord; i++) {
+      count += Long.bitCount(words[i]);
+    }
+    return count + Long.bitCount(words[endWord] & endMask);
+  }
+
+  /** Sets the bits from {@code from} (inclusive) to {@code to} (exclusive) of a block. */
+  static void setRange(long[] words, int from, int to) {
+    int startWord = from >>> 6;
+    int endWord = (to - 1) >>> 6;
+    long startMask = -1L << from;
+    long endMask = -1L >>> -to;
+    if (startWord == endWord) {
+      words[startWord] |= (startMask & endMask);
+      return;
+    }
+    words[startWord] |= startMask;
+    Arrays.fill(words, startWord + 1, endWord, -1L);
+    words[endWord] |= endMask;
+  }
+}
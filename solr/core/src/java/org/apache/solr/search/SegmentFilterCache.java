@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.util.IOFunction;
+
+/**
+ * Caches the documents matching a filter query for individual index segments. Entries are keyed by
+ * the segment core (see {@link IndexReader#getCoreCacheHelper()}) so, unlike the top-level
+ * filterCache, they remain valid across searchers: when a new searcher is opened only new or merged
+ * segments have to be computed. Entries for a segment are dropped as soon as its core is closed.
+ *
+ * <p>The cached {@link DocIdSet}s contain segment-local doc ids and ignore deletions; live docs are
+ * applied when the per-segment pieces are assembled into a top-level {@link DocSet} by {@link
+ * SolrIndexSearcher}.
+ *
+ * <p>A single instance is shared by all searchers of a core, see {@link
+ * CacheConfig#getSegmentFilterCache()}. It is enabled with {@code perSegment="true"} on the
+ * filterCache configuration.
+ *
+ * @lucene.experimental
+ */
+public class SegmentFilterCache implements Accountable {
+
+  /** Enables per-segment caching for the filterCache. */
+  public static final String PER_SEGMENT_PARAM = "perSegment";
+
+  /** Maximum RAM used by the per-segment entries, defaults to {@link #DEFAULT_MAX_RAM_MB}. */
+  public static final String PER_SEGMENT_MAX_RAM_MB_PARAM = "perSegmentMaxRamMB";
+
+  public static final int DEFAULT_MAX_RAM_MB = 256;
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(SegmentFilterCache.class);
+
+  private record Key(IndexReader.CacheKey coreKey, Query query) {}
+
+  private final Cache<Key, DocIdSet> cache;
+  private final long maxRamBytes;
+  private final Set<IndexReader.CacheKey> trackedCores = ConcurrentHashMap.newKeySet();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder ramBytes = new LongAdder();
+
+  public SegmentFilterCache(long maxRamBytes) {
+    this.maxRamBytes = maxRamBytes;
+    this.cache =
+        Caffeine.newBuilder()
+            .executor(Runnable::run)
+            .maximumWeight(maxRamBytes)
+            .<Key, DocIdSet>weigher((k, v) -> (int) Math.min(Integer.MAX_VALUE, weigh(k, v)))
+            .<Key, DocIdSet>removalListener(
+                (k, v, cause) -> {
+                  if (k != null && v != null) {
+                    ramBytes.add(-weigh(k, v));
+                  }
+                })
+            .build();
+  }
+
+  private static long weigh(Key key, DocIdSet value) {
+    return RamUsageEstimator.sizeOfObject(key.query, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED)
+        + value.ramBytesUsed()
+        + RamUsageEstimator.LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY;
+  }
+
+  /**
+   * Returns the cached documents of {@code query} in the given segment, computing them with {@code
+   * mappingFunction} if they are missing. Segments without a core cache helper are never cached.
+   *
+   * @param mappingFunction computes the segment-local matches, ignoring deletions
+   */
+  public DocIdSet computeIfAbsent(
+      LeafReaderContext leaf, Query query, IOFunction<LeafReaderContext, DocIdSet> mappingFunction)
+      throws IOException {
+    IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+    if (cacheHelper == null) {
+      misses.increment();
+      return mappingFunction.apply(leaf);
+    }
+    IndexReader.CacheKey coreKey = cacheHelper.getKey();
+    if (trackedCores.add(coreKey)) {
+      cacheHelper.addClosedListener(this::evictCore);
+    }
+
+    Key key = new Key(coreKey, query);
+    DocIdSet cached = cache.getIfPresent(key);
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    try {
+      return cache.get(
+          key,
+          k -> {
+            try {
+              DocIdSet value = mappingFunction.apply(leaf);
+              ramBytes.add(weigh(k, value));
+              return value;
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void evictCore(IndexReader.CacheKey coreKey) {
+    trackedCores.remove(coreKey);
+    cache.asMap().keySet().removeIf(k -> k.coreKey == coreKey);
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public int size() {
+    return cache.asMap().size();
+  }
+
+  public long getMaxRamBytes() {
+    return maxRamBytes;
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + ramBytes.sum();
+  }
+}
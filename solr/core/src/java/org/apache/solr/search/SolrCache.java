@@ -38,6 +38,9 @@ public interface SolrCache<K, V> extends SolrInfoBean {
   String INITIAL_SIZE_PARAM = "initialSize";
   String CLEANUP_THREAD_PARAM = "cleanupThread";
   String ASYNC_PARAM = "async";
+  String ADMIT_AFTER_PARAM = "admitAfter";
+  String ADMIT_COST_MS_PARAM = "admitCostMs";
+  String TRACK_COST_PARAM = "trackCost";
 
   /**
    * The initialization routine. Instance specific arguments are passed in the <code>args</code>
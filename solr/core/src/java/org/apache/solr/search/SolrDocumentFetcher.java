@@ -64,8 +64,10 @@ import org.apache.lucene.util.NumericUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentBase;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.ByteArrayUtf8CharSequence;
 import org.apache.solr.core.SolrConfig;
 import org.apache.solr.response.DocsStreamer;
+import org.apache.solr.response.JavaBinResponseWriter;
 import org.apache.solr.response.ResultContext;
 import org.apache.solr.schema.BoolField;
 import org.apache.solr.schema.EnumFieldType;
@@ -600,10 +602,16 @@ public class SolrDocumentFetcher {
     final int subIndex = ReaderUtil.subIndex(docid, leafContexts);
     final int localId = docid - leafContexts.get(subIndex).docBase;
     final LeafReader leafReader = leafContexts.get(subIndex).reader();
+    // only a masking document may hold raw UTF-8 values; they're written as-is by JavaBinCodec
+    final Predicate<String> readAsBytes =
+        doc instanceof JavaBinResponseWriter.MaskCharSeqSolrDocument
+            ? ResultContext.READASBYTES.get()
+            : null;
     for (String fieldName : fields) {
       DocValuesIteratorCache.FieldDocValuesSupplier e = reuseDvIters.getSupplier(fieldName);
       if (e != null) {
-        Object fieldValue = decodeDVField(localId, leafReader, subIndex, e);
+        boolean asUtf8 = readAsBytes != null && readAsBytes.test(fieldName);
+        Object fieldValue = decodeDVField(localId, leafReader, subIndex, e, asUtf8);
         if (fieldValue != null) {
           doc.setField(fieldName, fieldValue);
         }
@@ -614,13 +622,16 @@ public class SolrDocumentFetcher {
   /**
    * Decode value from DV field for a document
    *
+   * @param asUtf8 if true, string values are returned as {@link ByteArrayUtf8CharSequence} copies
+   *     of the docValues bytes instead of being decoded to Strings
    * @return null if DV field is not exist or can not decodable
    */
   private Object decodeDVField(
       int localId,
       LeafReader leafReader,
       int readerOrd,
-      DocValuesIteratorCache.FieldDocValuesSupplier e)
+      DocValuesIteratorCache.FieldDocValuesSupplier e,
+      boolean asUtf8)
       throws IOException {
 
     final DocValuesType dvType = e.type;
@@ -645,6 +656,8 @@ public class SolrDocumentFetcher {
           // Special handling for Boolean fields since they're stored as 'T' and 'F'.
           if (e.schemaField.getType() instanceof BoolField) {
             return e.schemaField.getType().toObject(e.schemaField, bRef);
+          } else if (asUtf8) {
+            return toUtf8CharSequence(bRef);
           } else {
             return bRef.utf8ToString();
           }
@@ -682,7 +695,10 @@ public class SolrDocumentFetcher {
           for (int o = 0; o < values.docValueCount(); o++) {
             long ord = values.nextOrd();
             BytesRef value = values.lookupOrd(ord);
-            outValues.add(e.schemaField.getType().toObject(e.schemaField, value));
+            outValues.add(
+                asUtf8
+                    ? toUtf8CharSequence(value)
+                    : e.schemaField.getType().toObject(e.schemaField, value));
           }
           assert outValues.size() > 0;
           return outValues;
@@ -693,6 +709,14 @@ public class SolrDocumentFetcher {
     }
   }
 
+  /** Copies the (reused) docValues bytes, skipping the round trip through a String. */
+  private static ByteArrayUtf8CharSequence toUtf8CharSequence(BytesRef bytesRef) {
+    return new ByteArrayUtf8CharSequence(
+        Arrays.copyOfRange(bytesRef.bytes, bytesRef.offset, bytesRef.offset + bytesRef.length),
+        0,
+        bytesRef.length);
+  }
+
   private Object decodeNumberFromDV(SchemaField schemaField, long value, boolean sortableNumeric) {
     // note: This special-case is unfortunate; if we have to add any more than perhaps the fieldType
     // should have this method so that specific field types can customize it.
@@ -910,7 +934,10 @@ public class SolrDocumentFetcher {
           }
         } else {
           // no need to get stored fields of the document, see SOLR-5968
-          sdoc = new SolrDocument();
+          sdoc =
+              ResultContext.READASBYTES.get() == null
+                  ? new SolrDocument()
+                  : new JavaBinResponseWriter.MaskCharSeqSolrDocument();
           solrReturnFields.setFieldSources(SolrReturnFields.FIELD_SOURCES.ALL_FROM_DV);
         }
 
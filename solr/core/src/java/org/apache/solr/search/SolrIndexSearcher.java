@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +56,7 @@ import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.FieldDoc;
@@ -66,6 +68,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
@@ -85,6 +88,7 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.DocIdSetBuilder;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
@@ -153,6 +157,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final long openNanoTime = System.nanoTime();
   private Date registerTime;
   private long warmupTime = 0;
+  private volatile boolean autowarmTimeLimited;
+  private volatile long autowarmDeadline; // System.nanoTime() based
   private final DirectoryReader reader;
   private final boolean closeReader;
 
@@ -162,6 +168,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
   private final boolean cachingEnabled;
   private final SolrCache<Query, DocSet> filterCache;
+  private final SegmentFilterCache segmentFilterCache;
+  private final boolean compressFilters;
   private final SolrCache<QueryResultKey, DocList> queryResultCache;
   private final SolrCache<String, UnInvertedField> fieldValueCache;
   private final SolrCache<Integer, float[]> featureVectorCache;
@@ -443,6 +451,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       filterCache =
           solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
+      segmentFilterCache =
+          filterCache == null ? null : solrConfig.filterCacheConfig.getSegmentFilterCache();
+      compressFilters = filterCache != null && solrConfig.filterCacheConfig.isCompressDocSets();
       queryResultCache =
           solrConfig.queryResultCacheConfig == null
               ? null
@@ -472,6 +483,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       cacheList = clist.toArray(new SolrCache[0]);
     } else {
       this.filterCache = null;
+      this.segmentFilterCache = null;
+      this.compressFilters = false;
       this.queryResultCache = null;
       this.fieldValueCache = null;
       this.featureVectorCache = null;
@@ -611,6 +624,11 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
             solrMetricsContext,
             core.getCoreAttributes().toBuilder().put(NAME_ATTR, cache.name()).build(),
             "solr.core.indexsearcher.cache");
+      } else if (cache instanceof OffHeapCaffeineCache<?, ?> offHeapCache) {
+        offHeapCache.initializeMetrics(
+            solrMetricsContext,
+            core.getCoreAttributes().toBuilder().put(NAME_ATTR, cache.name()).build(),
+            "solr.core.indexsearcher.cache");
       }
     }
     initializeMetrics(solrMetricsContext, core.getCoreAttributes());
@@ -1075,17 +1093,87 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
       // Not found in the cache so compute and put in the cache
       if (answer == null) {
-        answer = getDocSetNC(query, null);
+        answer = computeCachedDocSet(query);
         filterCache.put(query, answer);
       }
     } else {
-      answer = filterCache.computeIfAbsent(query, q -> getDocSetNC(q, null));
+      answer = filterCache.computeIfAbsent(query, this::computeCachedDocSet);
     }
 
     assert !(answer instanceof MutableBitDocSet) : "should not be mutable";
     return answer;
   }
 
+  /** Computes the DocSet of a positive query that is about to be put in the filterCache. */
+  private DocSet computeCachedDocSet(Query query) throws IOException {
+    if (segmentFilterCache == null || query instanceof DocSetProducer) {
+      return compressForCache(getDocSetNC(query, null));
+    }
+    return compressForCache(getDocSetPerSegment(query));
+  }
+
+  /** Compresses a DocSet that is about to be put in the filterCache, if enabled. */
+  private DocSet compressForCache(DocSet docSet) {
+    // a set of all live docs is shared with the searcher already
+    if (!compressFilters || docSet.size() == numDocs()) {
+      return docSet;
+    }
+    return DocSetUtil.compress(docSet);
+  }
+
+  /**
+   * Assembles the DocSet of a positive query from per-segment results held in the {@link
+   * SegmentFilterCache}. Only segments that were not seen by a previous searcher (new or merged
+   * segments) are evaluated, which keeps filterCache autowarming cheap for NRT indexes. Segments
+   * for which the query's weight is not cacheable are always evaluated and never cached. The
+   * matches are gathered in a {@link DocSetBuilder}, so a bitset of all docs is only allocated for
+   * large results.
+   */
+  private DocSet getDocSetPerSegment(Query query) throws IOException {
+    final Weight weight =
+        createWeight(rewrite(QueryUtils.makeQueryable(query)), ScoreMode.COMPLETE_NO_SCORES, 1f);
+    final DocSetBuilder builder = new DocSetBuilder(maxDoc(), 0);
+    for (LeafReaderContext leaf : leafContexts) {
+      final DocIdSet segSet;
+      if (weight.isCacheable(leaf)) {
+        segSet = segmentFilterCache.computeIfAbsent(leaf, query, l -> getLeafDocIdSet(weight, l));
+      } else {
+        segSet = getLeafDocIdSet(weight, leaf);
+      }
+      final DocIdSetIterator it = segSet.iterator();
+      if (it == null) {
+        continue;
+      }
+      final Bits liveDocs = leaf.reader().getLiveDocs();
+      final int base = leaf.docBase;
+      for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+        if (liveDocs == null || liveDocs.get(doc)) {
+          builder.add(base + doc);
+        }
+      }
+    }
+
+    // leaves and their docs are visited in order
+    return DocSetUtil.getDocSet(builder.buildUniqueInOrder(null), this);
+  }
+
+  /** Segment-local matches of the weight, ignoring deletions. */
+  private static DocIdSet getLeafDocIdSet(Weight weight, LeafReaderContext leaf)
+      throws IOException {
+    Scorer scorer = weight.scorer(leaf);
+    if (scorer == null) {
+      return DocIdSet.EMPTY;
+    }
+    DocIdSetBuilder builder = new DocIdSetBuilder(leaf.reader().maxDoc());
+    builder.add(scorer.iterator());
+    return builder.build();
+  }
+
+  /** Returns the cache of per-segment filter results, or null if it isn't enabled. */
+  public SegmentFilterCache getSegmentFilterCache() {
+    return segmentFilterCache;
+  }
+
   private static final MatchAllDocsQuery MATCH_ALL_DOCS_QUERY = new MatchAllDocsQuery();
 
   /** Used as a synchronization point to handle the lazy-init of {@link #liveDocs}. */
@@ -1400,7 +1488,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       TermQuery key = new TermQuery(new Term(deState.fieldName, deState.termsEnum.term()));
       return filterCache.computeIfAbsent(
           key,
-          (IOFunction<? super Query, ? extends DocSet>) k -> getResult(deState, largestPossible));
+          (IOFunction<? super Query, ? extends DocSet>)
+              k -> compressForCache(getResult(deState, largestPossible)));
     }
 
     return getResult(deState, largestPossible);
@@ -2519,26 +2608,19 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   public void warm(SolrIndexSearcher old) {
     // Make sure this is first! filters can help queryResults execute!
     long warmingStartTime = System.nanoTime();
+    final int maxAutowarmTimeMs = core.getSolrConfig().maxAutowarmTimeMs;
+    if (maxAutowarmTimeMs >= 0) {
+      autowarmDeadline = warmingStartTime + TimeUnit.MILLISECONDS.toNanos(maxAutowarmTimeMs);
+      autowarmTimeLimited = true;
+    }
     // warm the caches in order...
-    ModifiableSolrParams params = new ModifiableSolrParams();
-    params.add("warming", "true");
     for (int i = 0; i < cacheList.length; i++) {
       if (log.isDebugEnabled()) {
         log.debug("autowarming [{}] from [{}]\n\t{}", this, old, old.cacheList[i]);
       }
 
-      final SolrQueryRequest req = SolrQueryRequest.wrapSearcher(SolrIndexSearcher.this, params);
-      final SolrQueryResponse rsp = new SolrQueryResponse();
-      SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
-      try {
-        cacheList[i].warm(this, old.cacheList[i]);
-      } finally {
-        try {
-          req.close();
-        } finally {
-          SolrRequestInfo.clearRequestInfo();
-        }
-      }
+      final int cacheIdx = i;
+      withWarmingRequest(() -> cacheList[cacheIdx].warm(this, old.cacheList[cacheIdx]));
 
       if (log.isDebugEnabled()) {
         log.debug("autowarming result for [{}]\n\t{}", this, cacheList[i]);
@@ -2546,9 +2628,59 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     }
     this.warmupTime =
         TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
+    if (isAutowarmTimeExceeded()) {
+      log.warn(
+          "Autowarming [{}] exceeded maxAutowarmTimeMs={} (took {} ms), not all entries were warmed",
+          this,
+          maxAutowarmTimeMs,
+          warmupTime);
+    }
     if (warmupTimer != null) warmupTimer.record(warmupTime);
   }
 
+  /** Runs the task with a local warming request on this searcher set in {@link SolrRequestInfo}. */
+  private void withWarmingRequest(Runnable task) {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.add("warming", "true");
+    final SolrQueryRequest req = SolrQueryRequest.wrapSearcher(SolrIndexSearcher.this, params);
+    final SolrQueryResponse rsp = new SolrQueryResponse();
+    SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+    try {
+      task.run();
+    } finally {
+      try {
+        req.close();
+      } finally {
+        SolrRequestInfo.clearRequestInfo();
+      }
+    }
+  }
+
+  /**
+   * Returns an executor that caches may use to regenerate entries concurrently while this searcher
+   * is being autowarmed, or null if entries should be regenerated by the calling thread. Tasks are
+   * run with a warming request, just like the calling thread.
+   *
+   * @see SolrConfig#autowarmThreads
+   */
+  public Executor getAutowarmExecutor() {
+    final ExecutorService executor = core.getAutowarmExecutor();
+    if (executor == null) {
+      return null;
+    }
+    return task -> executor.execute(() -> withWarmingRequest(task));
+  }
+
+  /**
+   * Returns true once the time allowed to autowarm this searcher has elapsed, after which caches
+   * should stop regenerating entries so that the searcher can be registered.
+   *
+   * @see SolrConfig#maxAutowarmTimeMs
+   */
+  public boolean isAutowarmTimeExceeded() {
+    return autowarmTimeLimited && System.nanoTime() - autowarmDeadline > 0;
+  }
+
   /** return the named generic cache */
   @SuppressWarnings({"rawtypes"})
   public SolrCache getCache(String cacheName) {
@@ -2654,6 +2786,23 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
               liveDocsNaiveCacheHitCount.sum(),
               baseAttributes.toBuilder().put(TYPE_ATTR, "naive_hits").build());
         });
+    if (segmentFilterCache != null) {
+      solrMetricsContext.observableLongCounter(
+          "solr.core.indexsearcher.segment_filter_cache.lookups",
+          "Per-segment filterCache lookups (shared by all searchers of the core)",
+          obs -> {
+            obs.record(
+                segmentFilterCache.getHits(),
+                baseAttributes.toBuilder().put(RESULT_ATTR, "hit").build());
+            obs.record(
+                segmentFilterCache.getMisses(),
+                baseAttributes.toBuilder().put(RESULT_ATTR, "miss").build());
+          });
+      solrMetricsContext.observableLongGauge(
+          "solr.core.indexsearcher.segment_filter_cache.ram_used",
+          "RAM bytes used by the per-segment filterCache",
+          obs -> obs.record(segmentFilterCache.ramBytesUsed(), baseAttributes));
+    }
     // reader stats (numeric)
     solrMetricsContext.observableLongGauge(
         "solr.core.indexsearcher.index.num_docs",
@@ -28,14 +28,17 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.PriorityQueue;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.SchemaField;
@@ -50,6 +53,9 @@ import org.apache.solr.search.facet.SlotAcc.SweepingCountSlotAcc;
  * @see FacetField
  */
 abstract class FacetFieldProcessor extends FacetProcessor<FacetField> {
+  // smallest domain for which multi-threaded collection is worth it; non-final for tests
+  static int MIN_PARALLEL_DOMAIN_SIZE = 10000;
+
   SchemaField sf;
   SlotAcc indexOrderAcc;
   int effectiveMincount;
@@ -780,6 +786,47 @@ abstract class FacetFieldProcessor extends FacetProcessor<FacetField> {
     super.setNextReader(ctx);
   }
 
+  /**
+   * Returns the index segments grouped by the searcher's slices if the first phase should be
+   * collected concurrently on the searcher's executor, or null to collect on the calling thread.
+   * This requires the request to ask for {@link CommonParams#MULTI_THREADED} search, a domain of
+   * at least {@link #MIN_PARALLEL_DOMAIN_SIZE} docs, and more than one slice. The caller is
+   * responsible for only collecting state that can be merged afterwards, e.g. counts.
+   */
+  List<List<LeafReaderContext>> getCollectionSlices(boolean mergeable, int domainSize) {
+    if (!mergeable
+        || domainSize < MIN_PARALLEL_DOMAIN_SIZE
+        || fcontext.req == null
+        || !fcontext.req.getParams().getBool(CommonParams.MULTI_THREADED, false)) {
+      return null;
+    }
+    final IndexSearcher.LeafSlice[] slices = fcontext.searcher.getSlices();
+    if (slices.length <= 1) {
+      return null;
+    }
+    final boolean[] seen = new boolean[fcontext.searcher.getIndexReader().leaves().size()];
+    final List<List<LeafReaderContext>> ret = new ArrayList<>(slices.length);
+    for (IndexSearcher.LeafSlice slice : slices) {
+      final List<LeafReaderContext> leaves = new ArrayList<>(slice.partitions.length);
+      for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+        // a segment that is split across slices is still collected whole, once
+        if (!seen[partition.ctx.ord]) {
+          seen[partition.ctx.ord] = true;
+          leaves.add(partition.ctx);
+        }
+      }
+      if (!leaves.isEmpty()) {
+        ret.add(leaves);
+      }
+    }
+    return ret.size() > 1 ? ret : null;
+  }
+
+  /** Runs per-slice collection tasks on the searcher's executor, returning results in order. */
+  <T> List<T> invokeSlices(List<Callable<T>> tasks) throws IOException {
+    return fcontext.searcher.getTaskExecutor().invokeAll(tasks);
+  }
+
   void setNextReaderFirstPhase(LeafReaderContext ctx) throws IOException {
     if (collectAcc != null) {
       collectAcc.setNextReader(ctx);
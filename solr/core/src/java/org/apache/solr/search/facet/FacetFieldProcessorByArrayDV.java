@@ -17,8 +17,10 @@
 package org.apache.solr.search.facet;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiDocValues;
@@ -32,6 +34,7 @@ import org.apache.lucene.util.UnicodeUtil;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.facet.SlotAcc.CountSlotAcc;
+import org.apache.solr.search.facet.SlotAcc.CountSlotArrAcc;
 import org.apache.solr.search.facet.SlotAcc.SweepCountAccStruct;
 import org.apache.solr.search.facet.SlotAcc.SweepingCountSlotAcc;
 import org.apache.solr.search.facet.SweepCountAware.SegCountGlobal;
@@ -130,79 +133,168 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     if (freq.perSeg != null)
       accumSeg = canDoPerSeg && freq.perSeg; // internal - override perSeg heuristic
 
+    // counts (the only thing collected per-segment) are cheap to merge, so these may be collected
+    // by several threads
+    final List<List<LeafReaderContext>> slices = getCollectionSlices(canDoPerSeg, domainSize);
+    if (slices != null) {
+      collectSlices(slices, base, others, accumSeg);
+      return;
+    }
+
     final int maxSize = others.size() + 1; // others + base
     final List<LeafReaderContext> leaves = fcontext.searcher.getIndexReader().leaves();
     final DocIdSetIterator[] subIterators = new DocIdSetIterator[maxSize];
     final CountSlotAcc[] activeCountAccs = new CountSlotAcc[maxSize];
 
-    for (int subIdx = 0; subIdx < leaves.size(); subIdx++) {
-      LeafReaderContext subCtx = leaves.get(subIdx);
-
+    for (LeafReaderContext subCtx : leaves) {
       setNextReaderFirstPhase(subCtx);
+      collectLeaf(
+          subCtx,
+          base,
+          others,
+          subIterators,
+          activeCountAccs,
+          countOnly,
+          canDoPerSeg,
+          accumSeg,
+          countBuffers);
+    }
 
-      final SweepDISI disi =
-          SweepDISI.newInstance(base, others, subIterators, activeCountAccs, subCtx);
-      if (disi == null) {
-        continue;
-      }
-      LongValues toGlobal = ordinalMap == null ? null : ordinalMap.getGlobalOrds(subIdx);
-
-      SortedDocValues singleDv = null;
-      SortedSetDocValues multiDv = null;
-      if (multiValuedField) {
-        // TODO: get sub from multi?
-        multiDv = subCtx.reader().getSortedSetDocValues(sf.getName());
-        if (multiDv == null) {
-          if (countOnly) {
-            continue;
-          } else {
-            multiDv = DocValues.emptySortedSet();
+    countBuffers = new SegCountBuffers(); // better GC
+  }
+
+  /**
+   * Counts each slice of the index on the searcher's executor into its own count accumulators
+   * (one per sweep domain, like the processor's), then adds them up into the processor's ones.
+   */
+  private void collectSlices(
+      List<List<LeafReaderContext>> slices,
+      SweepCountAccStruct base,
+      List<SweepCountAccStruct> others,
+      boolean accumSeg)
+      throws IOException {
+    final int maxSize = others.size() + 1; // others + base
+    final List<Callable<CountSlotAcc[]>> tasks = new ArrayList<>(slices.size());
+    for (List<LeafReaderContext> slice : slices) {
+      tasks.add(
+          () -> {
+            final CountSlotAcc[] sliceAccs = new CountSlotAcc[maxSize];
+            sliceAccs[0] = new CountSlotArrAcc(fcontext, maxSlots);
+            final SweepCountAccStruct sliceBase =
+                new SweepCountAccStruct(base.docSet, true, sliceAccs[0]);
+            final List<SweepCountAccStruct> sliceOthers = new ArrayList<>(others.size());
+            for (int i = 0; i < others.size(); i++) {
+              sliceAccs[i + 1] = new CountSlotArrAcc(fcontext, maxSlots);
+              sliceOthers.add(
+                  new SweepCountAccStruct(others.get(i).docSet, false, sliceAccs[i + 1]));
+            }
+            final DocIdSetIterator[] subIterators = new DocIdSetIterator[maxSize];
+            final CountSlotAcc[] activeCountAccs = new CountSlotAcc[maxSize];
+            final SegCountBuffers buffers = new SegCountBuffers();
+            for (LeafReaderContext subCtx : slice) {
+              collectLeaf(
+                  subCtx,
+                  sliceBase,
+                  sliceOthers,
+                  subIterators,
+                  activeCountAccs,
+                  true,
+                  true,
+                  accumSeg,
+                  buffers);
+            }
+            return sliceAccs;
+          });
+    }
+
+    final CountSlotAcc[] targets = new CountSlotAcc[maxSize];
+    targets[0] = base.countAcc;
+    for (int i = 0; i < others.size(); i++) {
+      targets[i + 1] = others.get(i).countAcc;
+    }
+    for (CountSlotAcc[] sliceAccs : invokeSlices(tasks)) {
+      for (int i = 0; i < maxSize; i++) {
+        for (int slot = 0; slot < maxSlots; slot++) {
+          final long count = sliceAccs[i].getCount(slot);
+          if (count != 0) {
+            targets[i].incrementCount(slot, count);
           }
-        } else if (countOnly && multiDv.getValueCount() < 1) {
-          continue;
         }
-        // some codecs may optimize SortedSet storage for single-valued fields
-        // this will be null if this is not a wrapped single valued docvalues.
-        if (unwrap_singleValued_multiDv) {
-          singleDv = DocValues.unwrapSingleton(multiDv);
+      }
+    }
+  }
+
+  private void collectLeaf(
+      LeafReaderContext subCtx,
+      SweepCountAccStruct base,
+      List<SweepCountAccStruct> others,
+      DocIdSetIterator[] subIterators,
+      CountSlotAcc[] activeCountAccs,
+      boolean countOnly,
+      boolean canDoPerSeg,
+      boolean accumSeg,
+      SegCountBuffers buffers)
+      throws IOException {
+    final SweepDISI disi =
+        SweepDISI.newInstance(base, others, subIterators, activeCountAccs, subCtx);
+    if (disi == null) {
+      return;
+    }
+    LongValues toGlobal = ordinalMap == null ? null : ordinalMap.getGlobalOrds(subCtx.ord);
+
+    SortedDocValues singleDv = null;
+    SortedSetDocValues multiDv = null;
+    if (multiValuedField) {
+      // TODO: get sub from multi?
+      multiDv = subCtx.reader().getSortedSetDocValues(sf.getName());
+      if (multiDv == null) {
+        if (countOnly) {
+          return;
+        } else {
+          multiDv = DocValues.emptySortedSet();
         }
-      } else {
-        singleDv = subCtx.reader().getSortedDocValues(sf.getName());
-        if (singleDv == null) {
-          if (countOnly) {
-            continue;
-          } else {
-            singleDv = DocValues.emptySorted();
-          }
-        } else if (countOnly && singleDv.getValueCount() < 1) {
-          continue;
+      } else if (countOnly && multiDv.getValueCount() < 1) {
+        return;
+      }
+      // some codecs may optimize SortedSet storage for single-valued fields
+      // this will be null if this is not a wrapped single valued docvalues.
+      if (unwrap_singleValued_multiDv) {
+        singleDv = DocValues.unwrapSingleton(multiDv);
+      }
+    } else {
+      singleDv = subCtx.reader().getSortedDocValues(sf.getName());
+      if (singleDv == null) {
+        if (countOnly) {
+          return;
+        } else {
+          singleDv = DocValues.emptySorted();
         }
+      } else if (countOnly && singleDv.getValueCount() < 1) {
+        return;
       }
+    }
 
-      if (singleDv != null) {
-        if (accumSeg) {
-          collectPerSeg(singleDv, disi, toGlobal);
+    if (singleDv != null) {
+      if (accumSeg) {
+        collectPerSeg(singleDv, disi, toGlobal, buffers);
+      } else {
+        if (canDoPerSeg && toGlobal != null) {
+          collectCounts(singleDv, disi, toGlobal);
         } else {
-          if (canDoPerSeg && toGlobal != null) {
-            collectCounts(singleDv, disi, toGlobal);
-          } else {
-            collectDocs(singleDv, disi, toGlobal);
-          }
+          collectDocs(singleDv, disi, toGlobal);
         }
+      }
+    } else {
+      if (accumSeg) {
+        collectPerSeg(multiDv, disi, toGlobal, buffers);
       } else {
-        if (accumSeg) {
-          collectPerSeg(multiDv, disi, toGlobal);
+        if (canDoPerSeg && toGlobal != null) {
+          collectCounts(multiDv, disi, toGlobal);
         } else {
-          if (canDoPerSeg && toGlobal != null) {
-            collectCounts(multiDv, disi, toGlobal);
-          } else {
-            collectDocs(multiDv, disi, toGlobal);
-          }
+          collectDocs(multiDv, disi, toGlobal);
         }
       }
     }
-
-    Arrays.fill(reuse, null); // better GC
   }
 
   @Override
@@ -210,10 +302,11 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     return si.lookupOrd(ord);
   }
 
-  private void collectPerSeg(SortedDocValues singleDv, SweepDISI disi, LongValues toGlobal)
+  private void collectPerSeg(
+      SortedDocValues singleDv, SweepDISI disi, LongValues toGlobal, SegCountBuffers buffers)
       throws IOException {
     int segMax = singleDv.getValueCount();
-    final SegCountPerSeg segCounter = getSegCountPerSeg(disi, segMax);
+    final SegCountPerSeg segCounter = buffers.getSegCountPerSeg(disi, segMax);
 
     /*
      * alternate trial implementations // ord // FieldUtil.visitOrds(singleDv, disi,
@@ -249,12 +342,6 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     segCounter.register(disi.countAccs, toGlobal, segMax - 1);
   }
 
-  private SegCountPerSeg getSegCountPerSeg(SweepDISI disi, int segMax) {
-    final int size = disi.size;
-    return new SegCountPerSeg(
-        getSegmentCountArrays(segMax, size), getBoolArr(segMax), segMax, size);
-  }
-
   private SegCountGlobal getSegCountGlobal(SweepDISI disi, SortedDocValues dv) {
     return new SegCountGlobal(disi.countAccs);
   }
@@ -263,10 +350,11 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     return new SegCountGlobal(disi.countAccs);
   }
 
-  private void collectPerSeg(SortedSetDocValues multiDv, SweepDISI disi, LongValues toGlobal)
+  private void collectPerSeg(
+      SortedSetDocValues multiDv, SweepDISI disi, LongValues toGlobal, SegCountBuffers buffers)
       throws IOException {
     int segMax = (int) multiDv.getValueCount();
-    final SegCountPerSeg segCounter = getSegCountPerSeg(disi, segMax);
+    final SegCountPerSeg segCounter = buffers.getSegCountPerSeg(disi, segMax);
 
     int doc;
     while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
@@ -282,43 +370,56 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     segCounter.register(disi.countAccs, toGlobal, segMax - 1);
   }
 
-  private boolean[] reuseBool;
-
-  private boolean[] getBoolArr(int maxNeeded) {
-    if (reuseBool == null) {
-      // make the count array large enough for any segment
-      // FUTURE: (optionally) directly use the array of the CountAcc for an optimized index..
-      reuseBool = new boolean[(int) si.getValueCount() + 1];
-    } else {
-      Arrays.fill(reuseBool, 0, maxNeeded, false);
+  /**
+   * Segment-local count arrays, sized for any segment and reused across segments. Each collecting
+   * thread needs its own.
+   */
+  private class SegCountBuffers {
+    private boolean[] reuseBool;
+    private int[][] reuse = new int[12][];
+
+    SegCountPerSeg getSegCountPerSeg(SweepDISI disi, int segMax) {
+      final int size = disi.size;
+      return new SegCountPerSeg(
+          getSegmentCountArrays(segMax, size), getBoolArr(segMax), segMax, size);
     }
-    return reuseBool;
-  }
 
-  private int[][] reuse = new int[12][];
+    private boolean[] getBoolArr(int maxNeeded) {
+      if (reuseBool == null) {
+        // make the count array large enough for any segment
+        // FUTURE: (optionally) directly use the array of the CountAcc for an optimized index..
+        reuseBool = new boolean[(int) si.getValueCount() + 1];
+      } else {
+        Arrays.fill(reuseBool, 0, maxNeeded, false);
+      }
+      return reuseBool;
+    }
 
-  private int[] getCountArr(int maxNeeded, int idx) {
-    if (idx >= reuse.length) {
-      reuse = Arrays.copyOf(reuse, idx + 1);
+    private int[] getCountArr(int maxNeeded, int idx) {
+      if (idx >= reuse.length) {
+        reuse = Arrays.copyOf(reuse, idx + 1);
+      }
+      if (reuse[idx] == null) {
+        // make the count array large enough for any segment
+        // FUTURE: (optionally) directly use the array of the CountAcc for an optimized index..
+        reuse[idx] = new int[(int) si.getValueCount() + 1];
+      } else {
+        Arrays.fill(reuse[idx], 0, maxNeeded, 0);
+      }
+      return reuse[idx];
     }
-    if (reuse[idx] == null) {
-      // make the count array large enough for any segment
-      // FUTURE: (optionally) directly use the array of the CountAcc for an optimized index..
-      reuse[idx] = new int[(int) si.getValueCount() + 1];
-    } else {
-      Arrays.fill(reuse[idx], 0, maxNeeded, 0);
+
+    private int[][] getSegmentCountArrays(int segMax, int size) {
+      int[][] ret = new int[size][];
+      int i = size - 1;
+      do {
+        ret[i] = getCountArr(segMax, i);
+      } while (i-- > 0);
+      return ret;
     }
-    return reuse[idx];
   }
 
-  private int[][] getSegmentCountArrays(int segMax, int size) {
-    int[][] ret = new int[size][];
-    int i = size - 1;
-    do {
-      ret[i] = getCountArr(segMax, i);
-    } while (i-- > 0);
-    return ret;
-  }
+  private SegCountBuffers countBuffers = new SegCountBuffers();
 
   private void collectDocs(SortedDocValues singleDv, SweepDISI disi, LongValues toGlobal)
       throws IOException {
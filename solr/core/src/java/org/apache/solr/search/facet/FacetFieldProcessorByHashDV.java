@@ -18,6 +18,9 @@ package org.apache.solr.search.facet;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.function.IntFunction;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.DocValuesType;
@@ -27,6 +30,7 @@ import org.apache.lucene.index.MultiDocValues;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.util.BitUtil;
@@ -89,6 +93,11 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
     /** returns the slot */
     int add(long val) {
+      return add(val, 1);
+    }
+
+    /** adds a positive count for the value; returns the slot */
+    int add(long val, long inc) {
       if (cardinality >= threshold) {
         rehash();
       }
@@ -97,13 +106,13 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
       for (int slot = h & (vals.length - 1); ; slot = (slot + ((h >> 7) | 1)) & (vals.length - 1)) {
         long count = counts[slot];
         if (count == 0) {
-          counts[slot] = 1;
+          counts[slot] = inc;
           vals[slot] = val;
           cardinality++;
           return slot;
         } else if (vals[slot] == val) {
           // val is already in the set
-          counts[slot] = count + 1;
+          counts[slot] = count + inc;
           return slot;
         }
       }
@@ -341,10 +350,17 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
   }
 
   private void collectDocs() throws IOException {
-    if (calc instanceof TermOrdCalc) { // Strings
+    // TODO support SortedSetDocValues
+    final SortedDocValues globalDocValues =
+        calc instanceof TermOrdCalc
+            ? FieldUtil.getSortedDocValues(fcontext.qcontext, sf, null)
+            : null;
 
-      // TODO support SortedSetDocValues
-      SortedDocValues globalDocValues = FieldUtil.getSortedDocValues(fcontext.qcontext, sf, null);
+    // if only counting, each slice of the index can be counted into its own table concurrently
+    final List<List<LeafReaderContext>> slices =
+        getCollectionSlices(collectAcc == null && allBucketsAcc == null, fcontext.base.size());
+
+    if (globalDocValues != null) { // Strings
       ((TermOrdCalc) calc).lookupOrdFunction =
           ord -> {
             try {
@@ -354,6 +370,11 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
             }
           };
 
+      if (slices != null) {
+        collectSlices(slices, globalDocValues);
+        return;
+      }
+
       DocSetUtil.collectSortedDocSet(
           fcontext.base,
           fcontext.searcher.getIndexReader(),
@@ -384,6 +405,8 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
             }
           });
 
+    } else if (slices != null) {
+      collectSlices(slices, null);
     } else { // Numeric:
 
       if (sf.multiValued()) {
@@ -450,6 +473,82 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
     }
   }
 
+  /**
+   * Counts each slice into its own hash table on the searcher's executor, then adds the tables up
+   * into {@link #table}. Only used when counting is all that is collected.
+   *
+   * @param globalDocValues the top level docValues for term ordinals, or null for numerics
+   */
+  private void collectSlices(List<List<LeafReaderContext>> slices, SortedDocValues globalDocValues)
+      throws IOException {
+    final int sliceTableSize = table.numSlots();
+    final List<Callable<LongCounts>> tasks = new ArrayList<>(slices.size());
+    for (List<LeafReaderContext> slice : slices) {
+      tasks.add(
+          () -> {
+            final LongCounts counts = new LongCounts(sliceTableSize);
+            for (LeafReaderContext ctx : slice) {
+              final DocIdSetIterator disi = fcontext.base.iterator(ctx);
+              if (disi != null) {
+                countLeaf(ctx, disi, globalDocValues, counts);
+              }
+            }
+            return counts;
+          });
+    }
+    for (LongCounts counts : invokeSlices(tasks)) {
+      for (int slot = 0; slot < counts.numSlots(); slot++) {
+        if (counts.counts[slot] != 0) {
+          table.add(counts.vals[slot], counts.counts[slot]);
+        }
+      }
+    }
+  }
+
+  private void countLeaf(
+      LeafReaderContext ctx,
+      DocIdSetIterator disi,
+      SortedDocValues globalDocValues,
+      LongCounts counts)
+      throws IOException {
+    int doc;
+    if (globalDocValues != null) {
+      final SortedDocValues values = DocValues.getSorted(ctx.reader(), sf.getName());
+      final LongValues toGlobal =
+          globalDocValues instanceof MultiDocValues.MultiSortedDocValues multiDocValues
+              ? multiDocValues.mapping.getGlobalOrds(ctx.ord)
+              : LongValues.IDENTITY;
+      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        if (values.advanceExact(doc)) {
+          counts.add(toGlobal.get(values.ordValue()));
+        }
+      }
+    } else if (sf.multiValued()) {
+      final SortedNumericDocValues values = DocValues.getSortedNumeric(ctx.reader(), sf.getName());
+      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        if (values.advanceExact(doc)) {
+          long l = values.nextValue();
+          counts.add(l);
+          for (int i = 1, count = values.docValueCount(); i < count; i++) {
+            long lnew = values.nextValue();
+            // don't double-count repeated values
+            if (lnew != l) {
+              counts.add(lnew);
+            }
+            l = lnew;
+          }
+        }
+      }
+    } else {
+      final NumericDocValues values = DocValues.getNumeric(ctx.reader(), sf.getName());
+      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        if (values.advanceExact(doc)) {
+          counts.add(values.longValue());
+        }
+      }
+    }
+  }
+
   private void collectValFirstPhase(int segDoc, long val) throws IOException {
     int slot = table.add(val); // this can trigger a rehash
 
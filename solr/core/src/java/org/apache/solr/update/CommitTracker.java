@@ -52,10 +52,20 @@ public final class CommitTracker implements Runnable {
   // scheduler delay for maxSize-triggered autocommits
   public static final int SIZE_COMMIT_DELAY_MS = 1;
 
+  // an adaptive maxTime is kept at least this many times the average cost of a commit
+  static final int ADAPTIVE_COST_FACTOR = 4;
+  // weight of the latest commit in the average cost of a commit
+  static final double ADAPTIVE_COST_ALPHA = 0.5;
+
   // settings, not final so we can change them in testing
   private int docsUpperBound;
   private long timeUpperBound;
   private long tLogFileSizeUpperBound;
+  private long adaptiveTimeUpperBound;
+
+  // the maxTime currently in effect; between timeUpperBound and adaptiveTimeUpperBound if adaptive
+  private volatile long currentTimeUpperBound;
+  private double commitCostMillis = -1;
 
   // note: can't use ExecutorsUtil because it doesn't have a *scheduled* ExecutorService.
   //  Not a big deal but it means we must take care of MDC logging here.
@@ -83,12 +93,40 @@ public final class CommitTracker implements Runnable {
       long tLogFileSizeUpperBound,
       boolean openSearcher,
       boolean softCommit) {
+    this(
+        name,
+        core,
+        docsUpperBound,
+        timeUpperBound,
+        -1,
+        tLogFileSizeUpperBound,
+        openSearcher,
+        softCommit);
+  }
+
+  /**
+   * @param adaptiveTimeUpperBound if greater than {@code timeUpperBound}, the maxTime is adapted
+   *     after each auto commit to the cost of the commits (including opening and warming the
+   *     searcher), between {@code timeUpperBound} and this bound; see {@link
+   *     #adjustTimeUpperBound(long, boolean)}
+   */
+  public CommitTracker(
+      String name,
+      SolrCore core,
+      int docsUpperBound,
+      int timeUpperBound,
+      long adaptiveTimeUpperBound,
+      long tLogFileSizeUpperBound,
+      boolean openSearcher,
+      boolean softCommit) {
     this.core = core;
     this.name = name;
     pending = null;
 
     this.docsUpperBound = docsUpperBound;
     this.timeUpperBound = timeUpperBound;
+    this.currentTimeUpperBound = timeUpperBound;
+    this.adaptiveTimeUpperBound = adaptiveTimeUpperBound;
     this.tLogFileSizeUpperBound = tLogFileSizeUpperBound;
 
     this.softCommit = softCommit;
@@ -126,7 +164,7 @@ public final class CommitTracker implements Runnable {
   }
 
   private void _scheduleCommitWithinIfNeeded(long commitWithin) {
-    long ctime = (commitWithin > 0) ? commitWithin : timeUpperBound;
+    long ctime = (commitWithin > 0) ? commitWithin : currentTimeUpperBound;
 
     if (ctime > 0) {
       _scheduleCommitWithin(ctime);
@@ -260,6 +298,8 @@ public final class CommitTracker implements Runnable {
     }
 
     MDCLoggingContext.setCore(core);
+    long start = System.nanoTime();
+    boolean failed = true;
     try (SolrQueryRequest req = new SolrQueryRequestBase(core, new ModifiableSolrParams())) {
       CommitUpdateCommand command = new CommitUpdateCommand(req, false);
       command.openSearcher = openSearcher;
@@ -278,14 +318,53 @@ public final class CommitTracker implements Runnable {
       autoCommitCount.incrementAndGet();
 
       core.getUpdateHandler().commit(command);
+      failed = false;
     } catch (Exception e) {
       log.error("auto commit error...", e);
     } finally {
       MDCLoggingContext.clear();
     }
+    adjustTimeUpperBound(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed);
     // log.info("###done committing");
   }
 
+  /**
+   * Adapts the maxTime to the cost of the last auto commit, if an adaptive bound is configured.
+   *
+   * <p>The commit waits for the new searcher, so its cost includes opening and warming it, which
+   * grows with the rate of indexing and the size of the caches. The maxTime is kept at {@link
+   * #ADAPTIVE_COST_FACTOR} times the average cost, so that searchers don't pile up while warming
+   * during bursts of indexing, and it goes back down to the configured maxTime as commits get
+   * cheaper. A failed commit (e.g. too many warming searchers) doubles it. It always stays between
+   * the configured maxTime and the adaptive bound; maxDocs, maxSize and commitWithin still apply.
+   *
+   * @param commitMillis how long the commit took
+   * @param failed whether the commit failed
+   */
+  void adjustTimeUpperBound(long commitMillis, boolean failed) {
+    if (timeUpperBound <= 0 || adaptiveTimeUpperBound <= timeUpperBound) {
+      return;
+    }
+    synchronized (this) {
+      long next;
+      if (failed) {
+        next = currentTimeUpperBound * 2;
+      } else {
+        commitCostMillis =
+            commitCostMillis < 0
+                ? commitMillis
+                : ADAPTIVE_COST_ALPHA * commitMillis
+                    + (1 - ADAPTIVE_COST_ALPHA) * commitCostMillis;
+        next = (long) (ADAPTIVE_COST_FACTOR * commitCostMillis);
+      }
+      next = Math.max(timeUpperBound, Math.min(next, adaptiveTimeUpperBound));
+      if (next != currentTimeUpperBound) {
+        log.debug("{} AutoCommit: adjusting maxTime to {}ms", name, next);
+        currentTimeUpperBound = next;
+      }
+    }
+  }
+
   // to facilitate testing: blocks if called during commit
   public int getCommitCount() {
     return autoCommitCount.get();
@@ -295,6 +374,9 @@ public final class CommitTracker implements Runnable {
   public String toString() {
     if (timeUpperBound > 0 || docsUpperBound > 0 || tLogFileSizeUpperBound > 0) {
       return (timeUpperBound > 0 ? ("if uncommitted for " + timeUpperBound + "ms; ") : "")
+          + (timeUpperBound > 0 && adaptiveTimeUpperBound > timeUpperBound
+              ? ("adapted up to " + adaptiveTimeUpperBound + "ms; ")
+              : "")
           + (docsUpperBound > 0 ? ("if " + docsUpperBound + " uncommitted docs; ") : "")
           + (tLogFileSizeUpperBound > 0
               ? String.format(
@@ -309,6 +391,15 @@ public final class CommitTracker implements Runnable {
     return timeUpperBound;
   }
 
+  /** The maxTime in effect, which differs from the configured one if it is adaptive. */
+  public long getCurrentTimeUpperBound() {
+    return currentTimeUpperBound;
+  }
+
+  long getAdaptiveTimeUpperBound() {
+    return adaptiveTimeUpperBound;
+  }
+
   int getDocsUpperBound() {
     return docsUpperBound;
   }
@@ -324,6 +415,12 @@ public final class CommitTracker implements Runnable {
   // only for testing - not thread safe
   public void setTimeUpperBound(long timeUpperBound) {
     this.timeUpperBound = timeUpperBound;
+    this.currentTimeUpperBound = timeUpperBound;
+  }
+
+  // only for testing - not thread safe
+  public void setAdaptiveTimeUpperBound(long adaptiveTimeUpperBound) {
+    this.adaptiveTimeUpperBound = adaptiveTimeUpperBound;
   }
 
   // only for testing - not thread safe
@@ -147,6 +147,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             core,
             docsUpperBound,
             timeUpperBound,
+            updateHandlerInfo.autoCommitAdaptiveMaxTime,
             fileSizeUpperBound,
             updateHandlerInfo.openSearcher,
             false);
@@ -159,6 +160,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             core,
             softCommitDocsUpperBound,
             softCommitTimeUpperBound,
+            updateHandlerInfo.autoSoftCommitAdaptiveMaxTime,
             NO_FILE_SIZE_UPPER_BOUND_PLACEHOLDER,
             true,
             true);
@@ -190,6 +192,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             core,
             docsUpperBound,
             timeUpperBound,
+            updateHandlerInfo.autoCommitAdaptiveMaxTime,
             fileSizeUpperBound,
             updateHandlerInfo.openSearcher,
             false);
@@ -202,6 +205,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             core,
             softCommitDocsUpperBound,
             softCommitTimeUpperBound,
+            updateHandlerInfo.autoSoftCommitAdaptiveMaxTime,
             NO_FILE_SIZE_UPPER_BOUND_PLACEHOLDER,
             updateHandlerInfo.openSearcher,
             true);
@@ -376,6 +380,16 @@ public class DirectUpdateHandler2 extends UpdateHandler
                 softCommitTracker.getTimeUpperBound(),
                 baseAttributes.toBuilder().put(TYPE_ATTR, "soft_auto_commit_max_time").build());
           }
+          if (commitTracker.getAdaptiveTimeUpperBound() > 0) {
+            observableLongMeasurement.record(
+                commitTracker.getCurrentTimeUpperBound(),
+                baseAttributes.toBuilder().put(TYPE_ATTR, "auto_commit_current_time").build());
+          }
+          if (softCommitTracker.getAdaptiveTimeUpperBound() > 0) {
+            observableLongMeasurement.record(
+                softCommitTracker.getCurrentTimeUpperBound(),
+                baseAttributes.toBuilder().put(TYPE_ATTR, "soft_auto_commit_current_time").build());
+          }
         }));
 
     solrMetricsContext.observableLongGauge(
@@ -410,11 +424,60 @@ public class DirectUpdateHandler2 extends UpdateHandler
       return addDoc0(cmd);
     } catch (SolrException e) {
       throw e;
-    } catch (AlreadyClosedException e) {
+    } catch (RuntimeException e) {
+      throw addDocException(cmd, e);
+    }
+  }
+
+  /**
+   * Adds the documents with one reference to the IndexWriter, and logs those that are plain updates
+   * (the usual case) to the update log as one group, rather than taking its lock per document.
+   * Lucene has no bulk update with a different delete term per document, so the documents are still
+   * updated in the IndexWriter one at a time.
+   */
+  @Override
+  public int addDocs(List<AddUpdateCommand> cmds) throws IOException {
+    if (cmds.size() <= 1 || idField == null) {
+      return super.addDocs(cmds);
+    }
+    TestInjection.injectDirectUpdateLatch();
+    int count = 0;
+    List<AddUpdateCommand> toLog = new ArrayList<>(cmds.size());
+    RefCounted<IndexWriter> iw = solrCoreState.getIndexWriter(core);
+    try {
+      IndexWriter writer = iw.get();
+      for (AddUpdateCommand cmd : cmds) {
+        if (!isPlainUpdate(cmd)) {
+          // keep the update log in order
+          logAdds(toLog);
+          count += addDoc(cmd);
+          continue;
+        }
+        try {
+          count += addPlainUpdate(cmd, writer, toLog);
+        } catch (SolrException e) {
+          throw e;
+        } catch (RuntimeException e) {
+          throw addDocException(cmd, e);
+        }
+      }
+    } finally {
+      try {
+        // what was added to the index must be logged, even if a later document failed
+        logAdds(toLog);
+      } finally {
+        iw.decref();
+      }
+    }
+    return count;
+  }
+
+  private SolrException addDocException(AddUpdateCommand cmd, RuntimeException e) {
+    if (e instanceof AlreadyClosedException) {
       String errorMsg =
           "Server error writing document id " + cmd.getPrintableId() + " to the index.";
-      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, errorMsg, e);
-    } catch (IllegalArgumentException iae) {
+      return new SolrException(SolrException.ErrorCode.SERVER_ERROR, errorMsg, e);
+    } else if (e instanceof IllegalArgumentException iae) {
       String errorDetails =
           (iae.getCause() instanceof BytesRefHash.MaxBytesLengthExceededException
               ? ". Perhaps the document has an indexed string field (solr.StrField) which is too large"
@@ -425,20 +488,59 @@ public class DirectUpdateHandler2 extends UpdateHandler
               + " to the index; possible analysis error: "
               + iae.getMessage()
               + errorDetails;
-      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, errorMsg, iae);
-    } catch (RuntimeException t) {
-      SolrException.ErrorCode errorCode =
-          core.getCoreContainer().checkTragicException(core)
-              ? SolrException.ErrorCode.SERVER_ERROR
-              : SolrException.ErrorCode.BAD_REQUEST;
-      String errorMsg =
-          "Exception writing document id "
-              + cmd.getPrintableId()
-              + " to the index"
-              + (errorCode == SolrException.ErrorCode.SERVER_ERROR
-                  ? "."
-                  : "; possible analysis error.");
-      throw new SolrException(errorCode, errorMsg, t);
+      return new SolrException(SolrException.ErrorCode.BAD_REQUEST, errorMsg, iae);
+    }
+    SolrException.ErrorCode errorCode =
+        core.getCoreContainer().checkTragicException(core)
+            ? SolrException.ErrorCode.SERVER_ERROR
+            : SolrException.ErrorCode.BAD_REQUEST;
+    String errorMsg =
+        "Exception writing document id "
+            + cmd.getPrintableId()
+            + " to the index"
+            + (errorCode == SolrException.ErrorCode.SERVER_ERROR
+                ? "."
+                : "; possible analysis error.");
+    return new SolrException(errorCode, errorMsg, e);
+  }
+
+  /**
+   * Whether the command is an overwriting update without reordered delete by queries to apply, the
+   * same as {@link #doNormalUpdate(AddUpdateCommand)} would do.
+   */
+  private boolean isPlainUpdate(AddUpdateCommand cmd) {
+    return cmd.overwrite
+        && (cmd.getFlags() & UpdateCommand.IGNORE_INDEXWRITER) == 0
+        && (ulog == null || cmd.version <= 0 || ulog.getDBQNewer(cmd.version) == null);
+  }
+
+  /** {@link #addDoc0(AddUpdateCommand)} for a plain update, logged later by the caller. */
+  private int addPlainUpdate(
+      AddUpdateCommand cmd, IndexWriter writer, List<AddUpdateCommand> toLog) throws IOException {
+    int rc = -1;
+
+    addCommands.increment();
+    addCommandsCumulative.inc();
+    submittedAdds.inc();
+    try {
+      updateDocOrDocValues(cmd, writer);
+      if (ulog != null) toLog.add(cmd);
+      updateAddTrackers(cmd);
+      rc = 1;
+    } finally {
+      if (rc != 1) {
+        numErrorsCumulative.inc();
+      } else {
+        numDocsPending.increment();
+      }
+    }
+    return rc;
+  }
+
+  private void logAdds(List<AddUpdateCommand> toLog) {
+    if (!toLog.isEmpty()) {
+      ulog.add(toLog);
+      toLog.clear();
     }
   }
 
@@ -484,15 +586,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
         allowDuplicateUpdate(cmd);
       }
 
-      if ((cmd.getFlags() & UpdateCommand.IGNORE_AUTOCOMMIT) == 0) {
-        if (commitWithinSoftCommit) {
-          commitTracker.addedDocument(-1, this::getCurrentTLogSize);
-          softCommitTracker.addedDocument(cmd.commitWithin);
-        } else {
-          softCommitTracker.addedDocument(-1);
-          commitTracker.addedDocument(cmd.commitWithin, this::getCurrentTLogSize);
-        }
-      }
+      updateAddTrackers(cmd);
 
       rc = 1;
     } finally {
@@ -576,6 +670,18 @@ public class DirectUpdateHandler2 extends UpdateHandler
     }
   }
 
+  private void updateAddTrackers(AddUpdateCommand cmd) {
+    if ((cmd.getFlags() & UpdateCommand.IGNORE_AUTOCOMMIT) == 0) {
+      if (commitWithinSoftCommit) {
+        commitTracker.addedDocument(-1, this::getCurrentTLogSize);
+        softCommitTracker.addedDocument(cmd.commitWithin);
+      } else {
+        softCommitTracker.addedDocument(-1);
+        commitTracker.addedDocument(cmd.commitWithin, this::getCurrentTLogSize);
+      }
+    }
+  }
+
   private void updateDeleteTrackers(DeleteUpdateCommand cmd) {
     if ((cmd.getFlags() & UpdateCommand.IGNORE_AUTOCOMMIT) == 0) {
       if (commitWithinSoftCommit) {
@@ -585,13 +691,13 @@ public class DirectUpdateHandler2 extends UpdateHandler
       }
 
       if (commitTracker.getTimeUpperBound() > 0) {
-        commitTracker.scheduleCommitWithin(commitTracker.getTimeUpperBound());
+        commitTracker.scheduleCommitWithin(commitTracker.getCurrentTimeUpperBound());
       }
 
       commitTracker.scheduleMaxSizeTriggeredCommitIfNeeded(this::getCurrentTLogSize);
 
       if (softCommitTracker.getTimeUpperBound() > 0) {
-        softCommitTracker.scheduleCommitWithin(softCommitTracker.getTimeUpperBound());
+        softCommitTracker.scheduleCommitWithin(softCommitTracker.getCurrentTimeUpperBound());
       }
     }
   }
@@ -773,9 +879,9 @@ public class DirectUpdateHandler2 extends UpdateHandler
 
     // TODO: consider soft commit issues
     if (rc == 1 && commitTracker.getTimeUpperBound() > 0) {
-      commitTracker.scheduleCommitWithin(commitTracker.getTimeUpperBound());
+      commitTracker.scheduleCommitWithin(commitTracker.getCurrentTimeUpperBound());
     } else if (rc == 1 && softCommitTracker.getTimeUpperBound() > 0) {
-      softCommitTracker.scheduleCommitWithin(softCommitTracker.getTimeUpperBound());
+      softCommitTracker.scheduleCommitWithin(softCommitTracker.getCurrentTimeUpperBound());
     }
 
     return rc;
@@ -62,6 +62,23 @@ public class IndexFingerprint implements MapWriter {
     this.maxVersionSpecified = maxVersionSpecified;
   }
 
+  IndexFingerprint(
+      long maxVersionSpecified,
+      long maxVersionEncountered,
+      long maxInHash,
+      long versionsHash,
+      long numVersions,
+      long numDocs,
+      long maxDoc) {
+    this.maxVersionSpecified = maxVersionSpecified;
+    this.maxVersionEncountered = maxVersionEncountered;
+    this.maxInHash = maxInHash;
+    this.versionsHash = versionsHash;
+    this.numVersions = numVersions;
+    this.numDocs = numDocs;
+    this.maxDoc = maxDoc;
+  }
+
   public long getMaxVersionSpecified() {
     return maxVersionSpecified;
   }
@@ -110,11 +127,6 @@ public class IndexFingerprint implements MapWriter {
 
   public static IndexFingerprint getFingerprint(
       SolrIndexSearcher searcher, LeafReaderContext ctx, Long maxVersion) throws IOException {
-    SchemaField versionField = VersionInfo.getAndCheckVersionField(searcher.getSchema());
-    ValueSource vs = versionField.getType().getValueSource(versionField, null);
-    Map<Object, Object> funcContext = ValueSource.newContext(searcher);
-    vs.createWeight(funcContext, searcher);
-
     IndexFingerprint f = new IndexFingerprint();
     f.maxVersionSpecified = maxVersion;
     f.maxDoc = ctx.reader().maxDoc();
@@ -122,7 +134,7 @@ public class IndexFingerprint implements MapWriter {
 
     int maxDoc = ctx.reader().maxDoc();
     Bits liveDocs = ctx.reader().getLiveDocs();
-    FunctionValues fv = vs.getValues(funcContext, ctx);
+    FunctionValues fv = getVersionValues(searcher, ctx);
     for (int doc = 0; doc < maxDoc; doc++) {
       if (liveDocs != null && !liveDocs.get(doc)) continue;
       long v = fv.longVal(doc);
@@ -137,6 +149,15 @@ public class IndexFingerprint implements MapWriter {
     return f;
   }
 
+  static FunctionValues getVersionValues(SolrIndexSearcher searcher, LeafReaderContext ctx)
+      throws IOException {
+    SchemaField versionField = VersionInfo.getAndCheckVersionField(searcher.getSchema());
+    ValueSource vs = versionField.getType().getValueSource(versionField, null);
+    Map<Object, Object> funcContext = ValueSource.newContext(searcher);
+    vs.createWeight(funcContext, searcher);
+    return vs.getValues(funcContext, ctx);
+  }
+
   public static IndexFingerprint reduce(IndexFingerprint acc, IndexFingerprint f2) {
     // acc should have maxVersionSpecified already set in it using IndexFingerprint(long
     // maxVersionSpecified) constructor
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.util.Arrays;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.update.UpdateLog.LogPtr;
+
+/**
+ * Map of indexed id to the position of its latest update in the transaction log, as kept by {@link
+ * UpdateLog} for real-time get between commits.
+ *
+ * <p>Unlike a {@code HashMap<BytesRef, LogPtr>}, this doesn't allocate objects per update: the id
+ * bytes are appended to one byte array, the pointers and versions are kept in parallel primitive
+ * arrays, and an open-addressing table with linear probing maps id hashes to entries. Entries are
+ * never removed individually; the map is cleared or dropped as a whole on commit.
+ *
+ * <p>Not thread safe; {@link UpdateLog} only accesses it while synchronized.
+ */
+public final class LogPtrMap {
+  private static final int INITIAL_ENTRIES = 16;
+
+  // slot -> entry index + 1, 0 for an empty slot; the size is a power of 2, at least twice size
+  private int[] table;
+  private int[] hashes;
+  private int[] keyOffsets;
+  private int[] keyLengths;
+  private long[] pointers;
+  private long[] versions;
+  private long[] previousPointers;
+  private byte[] keyBytes;
+  private int keyBytesUsed;
+  private int size;
+
+  public LogPtrMap() {
+    table = new int[INITIAL_ENTRIES * 2];
+    hashes = new int[INITIAL_ENTRIES];
+    keyOffsets = new int[INITIAL_ENTRIES];
+    keyLengths = new int[INITIAL_ENTRIES];
+    pointers = new long[INITIAL_ENTRIES];
+    versions = new long[INITIAL_ENTRIES];
+    previousPointers = new long[INITIAL_ENTRIES];
+    keyBytes = new byte[INITIAL_ENTRIES * 16];
+  }
+
+  /**
+   * Records the latest update of an id, replacing any previous one.
+   *
+   * @see LogPtr#LogPtr(long, long, long)
+   */
+  public void put(BytesRef id, long pointer, long version, long previousPointer) {
+    int hash = id.hashCode();
+    int slot = findSlot(id, hash);
+    int entry = table[slot] - 1;
+    if (entry < 0) {
+      if (size == hashes.length) {
+        growEntries();
+        int tableLength = table.length;
+        while (tableLength < hashes.length * 2) {
+          tableLength <<= 1;
+        }
+        if (tableLength != table.length) {
+          rehash(tableLength);
+          slot = findSlot(id, hash);
+        }
+      }
+      entry = size++;
+      table[slot] = entry + 1;
+      hashes[entry] = hash;
+      keyOffsets[entry] = keyBytesUsed;
+      keyLengths[entry] = id.length;
+      keyBytes = ArrayUtil.grow(keyBytes, keyBytesUsed + id.length);
+      System.arraycopy(id.bytes, id.offset, keyBytes, keyBytesUsed, id.length);
+      keyBytesUsed += id.length;
+    }
+    pointers[entry] = pointer;
+    versions[entry] = version;
+    previousPointers[entry] = previousPointer;
+  }
+
+  /** Returns the latest update of the given id, or null if there is none. */
+  public LogPtr get(BytesRef id) {
+    int entry = table[findSlot(id, id.hashCode())] - 1;
+    return entry < 0 ? null : new LogPtr(pointers[entry], versions[entry], previousPointers[entry]);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Removes all entries, keeping the allocated arrays. */
+  public void clear() {
+    Arrays.fill(table, 0);
+    size = 0;
+    keyBytesUsed = 0;
+  }
+
+  private int findSlot(BytesRef id, int hash) {
+    int mask = table.length - 1;
+    int slot = hash & mask;
+    while (true) {
+      int entry = table[slot] - 1;
+      if (entry < 0 || (hashes[entry] == hash && keyEquals(entry, id))) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private boolean keyEquals(int entry, BytesRef id) {
+    int offset = keyOffsets[entry];
+    return Arrays.equals(
+        keyBytes, offset, offset + keyLengths[entry], id.bytes, id.offset, id.offset + id.length);
+  }
+
+  private void growEntries() {
+    int newLength = ArrayUtil.oversize(size + 1, Long.BYTES);
+    hashes = ArrayUtil.growExact(hashes, newLength);
+    keyOffsets = ArrayUtil.growExact(keyOffsets, newLength);
+    keyLengths = ArrayUtil.growExact(keyLengths, newLength);
+    pointers = ArrayUtil.growExact(pointers, newLength);
+    versions = ArrayUtil.growExact(versions, newLength);
+    previousPointers = ArrayUtil.growExact(previousPointers, newLength);
+  }
+
+  private void rehash(int newTableLength) {
+    int[] newTable = new int[newTableLength];
+    int mask = newTableLength - 1;
+    for (int entry = 0; entry < size; entry++) {
+      int slot = hashes[entry] & mask;
+      while (newTable[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      newTable[slot] = entry + 1;
+    }
+    table = newTable;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.JavaBinRequestWriter;
+import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+
+/**
+ * An update that {@link SolrCmdDistributor} sends to several nodes (all the replicas of a shard),
+ * and possibly several times (retries). It is serialized to JavaBin once, on the first send, and
+ * the same bytes are written to the stream of every node. It must not be modified once submitted.
+ *
+ * @see Writer
+ */
+class ReplicaUpdateRequest extends UpdateRequest {
+  private byte[] javabin;
+
+  synchronized byte[] getJavaBin() throws IOException {
+    if (javabin == null) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new JavaBinUpdateRequestCodec().marshal(this, out);
+      javabin = out.toByteArray();
+    }
+    return javabin;
+  }
+
+  /**
+   * The request writer of the update-only client of {@link UpdateShardHandler}: writes {@link
+   * ReplicaUpdateRequest}s from their serialized bytes, and anything else like its superclass.
+   */
+  static class Writer extends JavaBinRequestWriter {
+
+    @Override
+    public ContentWriter getContentWriter(SolrRequest<?> req) {
+      ContentWriter contentWriter = super.getContentWriter(req);
+      if (contentWriter == null || !(req instanceof ReplicaUpdateRequest replicaRequest)) {
+        return contentWriter;
+      }
+      return new ContentWriter() {
+        @Override
+        public void write(OutputStream os) throws IOException {
+          os.write(replicaRequest.getJavaBin());
+        }
+
+        @Override
+        public String getContentType() {
+          return contentWriter.getContentType();
+        }
+      };
+    }
+
+    @Override
+    public void write(SolrRequest<?> request, OutputStream os) throws IOException {
+      if (request instanceof ReplicaUpdateRequest replicaRequest) {
+        os.write(replicaRequest.getJavaBin());
+      } else {
+        super.write(request, os);
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.io.IOException;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.util.Bits;
+import org.apache.solr.common.util.Hash;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * The versions of the live documents of a segment, summarized so that its {@link IndexFingerprint}
+ * can be derived without reading the versions again. Cached by {@link
+ * org.apache.solr.core.SolrCore} per segment core, so that it survives deletions: when the live
+ * documents change, it is updated by reading only the versions of the documents that were deleted
+ * (or, for an older reader, undeleted) since. In-place updates rewrite versions through doc values
+ * updates, which keep the segment core and the live docs, so the versions are read again whenever
+ * the doc values generation of the segment changes.
+ *
+ * <p>The fingerprint is derived for a {@code maxVersion} that includes all or none of the versions
+ * of the segment; since versions increase over time, this is the case of all the segments but the
+ * ones written around {@code maxVersion}, which must be read.
+ *
+ * @lucene.internal
+ */
+public final class SegmentFingerprint {
+  // the doc values generation of a reader that can't be tracked, never reused
+  private static final long UNKNOWN_DOC_VALUES_GEN = Long.MIN_VALUE;
+
+  private final long maxVersion;
+  private final long minVersion;
+  private final long versionsHash;
+  private final long numVersions;
+  // the live docs of the reader this was computed for, null if none were deleted
+  private final Bits liveDocs;
+  // the doc values generation of the reader this was computed for
+  private final long docValuesGen;
+
+  private SegmentFingerprint(
+      long maxVersion,
+      long minVersion,
+      long versionsHash,
+      long numVersions,
+      Bits liveDocs,
+      long docValuesGen) {
+    this.maxVersion = maxVersion;
+    this.minVersion = minVersion;
+    this.versionsHash = versionsHash;
+    this.numVersions = numVersions;
+    this.liveDocs = liveDocs;
+    this.docValuesGen = docValuesGen;
+  }
+
+  /** Reads the versions of all the live documents of the segment. */
+  public static SegmentFingerprint compute(SolrIndexSearcher searcher, LeafReaderContext ctx)
+      throws IOException {
+    long maxVersion = 0;
+    long minVersion = Long.MAX_VALUE;
+    long versionsHash = 0;
+    long numVersions = 0;
+    int maxDoc = ctx.reader().maxDoc();
+    Bits liveDocs = ctx.reader().getLiveDocs();
+    FunctionValues fv = IndexFingerprint.getVersionValues(searcher, ctx);
+    for (int doc = 0; doc < maxDoc; doc++) {
+      if (liveDocs != null && !liveDocs.get(doc)) continue;
+      long v = fv.longVal(doc);
+      maxVersion = Math.max(v, maxVersion);
+      minVersion = Math.min(v, minVersion);
+      versionsHash += Hash.fmix64(v);
+      numVersions++;
+    }
+    return new SegmentFingerprint(
+        maxVersion, minVersion, versionsHash, numVersions, liveDocs, docValuesGen(ctx.reader()));
+  }
+
+  /**
+   * Returns this if the segment has the same live docs in the given reader, else an updated copy,
+   * or null if it must be computed again (a deleted document had the smallest or largest version,
+   * or versions were updated in place).
+   */
+  public SegmentFingerprint update(SolrIndexSearcher searcher, LeafReaderContext ctx)
+      throws IOException {
+    long newDocValuesGen = docValuesGen(ctx.reader());
+    if (newDocValuesGen == UNKNOWN_DOC_VALUES_GEN || newDocValuesGen != docValuesGen) {
+      return null;
+    }
+    Bits newLiveDocs = ctx.reader().getLiveDocs();
+    if (newLiveDocs == liveDocs) {
+      return this;
+    }
+    long newMaxVersion = maxVersion;
+    long newMinVersion = minVersion;
+    long newVersionsHash = versionsHash;
+    long newNumVersions = numVersions;
+    int maxDoc = ctx.reader().maxDoc();
+    FunctionValues fv = null;
+    for (int doc = 0; doc < maxDoc; doc++) {
+      boolean wasLive = liveDocs == null || liveDocs.get(doc);
+      boolean isLive = newLiveDocs == null || newLiveDocs.get(doc);
+      if (wasLive == isLive) continue;
+      if (fv == null) {
+        fv = IndexFingerprint.getVersionValues(searcher, ctx);
+      }
+      long v = fv.longVal(doc);
+      if (isLive) {
+        newMaxVersion = Math.max(v, newMaxVersion);
+        newMinVersion = Math.min(v, newMinVersion);
+        newVersionsHash += Hash.fmix64(v);
+        newNumVersions++;
+      } else {
+        if (v == maxVersion || v == minVersion) {
+          return null;
+        }
+        newVersionsHash -= Hash.fmix64(v);
+        newNumVersions--;
+      }
+    }
+    return new SegmentFingerprint(
+        newMaxVersion, newMinVersion, newVersionsHash, newNumVersions, newLiveDocs, docValuesGen);
+  }
+
+  /**
+   * Returns the doc values generation of the segment of the reader, or {@link
+   * #UNKNOWN_DOC_VALUES_GEN} if the reader doesn't wrap a {@link SegmentReader}.
+   */
+  private static long docValuesGen(LeafReader reader) {
+    LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+    if (unwrapped instanceof SegmentReader segmentReader) {
+      return segmentReader.getSegmentInfo().getDocValuesGen();
+    }
+    return UNKNOWN_DOC_VALUES_GEN;
+  }
+
+  /**
+   * Returns the fingerprint of the segment up to the given version, or null if some but not all of
+   * its versions are included, in which case it must be computed with {@link
+   * IndexFingerprint#getFingerprint(SolrIndexSearcher, LeafReaderContext, Long)}.
+   */
+  public IndexFingerprint getFingerprint(LeafReaderContext ctx, long maxVersionSpecified) {
+    long numDocs = ctx.reader().numDocs();
+    long maxDoc = ctx.reader().maxDoc();
+    if (maxVersionSpecified >= maxVersion) {
+      return new IndexFingerprint(
+          maxVersionSpecified, maxVersion, maxVersion, versionsHash, numVersions, numDocs, maxDoc);
+    } else if (maxVersionSpecified < minVersion) {
+      return new IndexFingerprint(maxVersionSpecified, maxVersion, 0, 0, 0, numDocs, maxDoc);
+    }
+    return null;
+  }
+}
@@ -244,16 +244,16 @@ public class SolrCmdDistributor implements Closeable {
       RollupRequestReplicationTracker rollupTracker,
       LeaderRequestReplicationTracker leaderTracker)
       throws IOException {
+    if (cmd.isInPlaceUpdate()) {
+      params.set(
+          DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION, String.valueOf(cmd.prevVersion));
+    }
+    // the same for all nodes, so that the document is only serialized once
+    UpdateRequest uReq = new ReplicaUpdateRequest();
+    if (cmd.isLastDocInBatch) uReq.lastDocInBatch();
+    uReq.setParams(params);
+    uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
     for (Node node : nodes) {
-      UpdateRequest uReq = new UpdateRequest();
-      if (cmd.isLastDocInBatch) uReq.lastDocInBatch();
-      uReq.setParams(params);
-      uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
-      if (cmd.isInPlaceUpdate()) {
-        params.set(
-            DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION,
-            String.valueOf(cmd.prevVersion));
-      }
       submit(new Req(cmd, node, uReq, synchronous, rollupTracker, leaderTracker), false);
     }
   }
@@ -25,7 +25,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.index.CodecReader;
@@ -64,7 +66,9 @@ import org.apache.solr.common.cloud.CompositeIdRouter;
 import org.apache.solr.common.cloud.DocRouter;
 import org.apache.solr.common.cloud.HashBasedRouter;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.core.DirectoryFactory;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.handler.IndexFetcher;
@@ -242,175 +246,102 @@ public class SolrIndexSplitter {
     // this tracks round-robin assignment of docs to partitions
     AtomicInteger currentPartition = new AtomicInteger();
 
-    if (splitMethod != SplitMethod.LINK) {
-      t = timings.sub("findDocSetsPerLeaf");
-      for (LeafReaderContext readerContext : leaves) {
-        assert readerContext.ordInParent == segmentDocSets.size(); // make sure we're going in order
-        FixedBitSet[] docSets =
-            split(
-                readerContext,
-                numPieces,
-                field,
-                rangesArr,
-                splitKey,
-                hashRouter,
-                currentPartition,
-                false);
-        segmentDocSets.add(docSets);
-      }
-      t.stop();
-    }
-
-    Map<IndexReader.CacheKey, FixedBitSet[]> docsToDeleteCache = new ConcurrentHashMap<>();
-
-    // would it be more efficient to write segment-at-a-time to each new index?
-    // - need to worry about number of open descriptors
-    // - need to worry about if IW.addIndexes does a sync or not...
-    // - would be more efficient on the read side, but prob less efficient merging
-    for (int partitionNumber = 0; partitionNumber < numPieces; partitionNumber++) {
-      String partitionName =
-          "SolrIndexSplitter:partition="
-              + partitionNumber
-              + ",partitionCount="
-              + numPieces
-              + (cmd.ranges != null ? ",range=" + cmd.ranges.get(partitionNumber) : "");
-      log.info(partitionName);
-
-      boolean success = false;
-
-      RefCounted<IndexWriter> iwRef = null;
-      IndexWriter iw;
-      if (cmd.cores != null && splitMethod != SplitMethod.LINK) {
-        SolrCore subCore = cmd.cores.get(partitionNumber);
-        iwRef = subCore.getUpdateHandler().getSolrCoreState().getIndexWriter(subCore);
-        iw = iwRef.get();
-      } else {
-        if (splitMethod == SplitMethod.LINK) {
-          SolrCore subCore = cmd.cores.get(partitionNumber);
-          String path = subCore.getDataDir() + INDEX_PREFIX + timestamp;
-          t = timings.sub("hardLinkCopy");
-          t.resume();
-          // copy by hard-linking
-          Directory splitDir =
-              subCore
-                  .getDirectoryFactory()
-                  .get(
-                      path,
-                      DirectoryFactory.DirContext.DEFAULT,
-                      subCore.getSolrConfig().indexConfig.lockType);
-          // the wrapper doesn't hold any resources itself so it doesn't need closing
-          HardlinkCopyDirectoryWrapper hardLinkedDir = new HardlinkCopyDirectoryWrapper(splitDir);
-          boolean copiedOk = false;
-          try {
-            for (String file : parentDirectory.listAll()) {
-              // we've closed the IndexWriter, so ignore write.lock
-              // its file may be present even when IndexWriter is closed but
-              // we've already checked that the lock is not held by anyone else
-              if (file.equals(IndexWriter.WRITE_LOCK_NAME)) {
-                continue;
-              }
-              hardLinkedDir.copyFrom(parentDirectory, file, file, IOContext.DEFAULT);
-            }
-            copiedOk = true;
-          } finally {
-            if (!copiedOk) {
-              subCore.getDirectoryFactory().doneWithDirectory(splitDir);
-              subCore.getDirectoryFactory().remove(splitDir);
-            }
+    int numThreads = Math.min(cmd.numThreads, numPieces);
+    ExecutorService executor =
+        numThreads > 1
+            ? ExecutorUtil.newMDCAwareFixedThreadPool(
+                numThreads, new SolrNamedThreadFactory("indexSplitter"))
+            : null;
+    try {
+      if (splitMethod != SplitMethod.LINK) {
+        t = timings.sub("findDocSetsPerLeaf");
+        if (executor != null && rangesArr != null) {
+          // without ranges docs are assigned round-robin, which needs the segments in order
+          List<Callable<FixedBitSet[]>> tasks = new ArrayList<>(leaves.size());
+          for (LeafReaderContext readerContext : leaves) {
+            tasks.add(
+                () ->
+                    split(
+                        readerContext,
+                        numPieces,
+                        field,
+                        rangesArr,
+                        splitKey,
+                        hashRouter,
+                        currentPartition,
+                        false));
           }
-          t.pause();
-          IndexWriterConfig iwConfig = parentConfig.toIndexWriterConfig(subCore);
-          // don't run merges at this time
-          iwConfig.setMergePolicy(NoMergePolicy.INSTANCE);
-          t = timings.sub("createSubIW");
-          t.resume();
-          iw = new SolrIndexWriter(partitionName, splitDir, iwConfig);
-          t.pause();
+          // results are in the order of the tasks, i.e. of the segments
+          segmentDocSets.addAll(
+              ExecutorUtil.submitAllAndAwaitAggregatingExceptions(executor, tasks));
         } else {
-          SolrCore core = searcher.getCore();
-          String path = cmd.paths.get(partitionNumber);
-          t = timings.sub("createSubIW");
-          t.resume();
-          iw =
-              SolrIndexWriter.create(
-                  core,
-                  partitionName,
-                  path,
-                  core.getDirectoryFactory(),
-                  true,
-                  core.getLatestSchema(),
-                  core.getSolrConfig().indexConfig,
-                  core.getDeletionPolicy(),
-                  core.getCodec());
-          t.pause();
+          for (LeafReaderContext readerContext : leaves) {
+            // make sure we're going in order
+            assert readerContext.ordInParent == segmentDocSets.size();
+            FixedBitSet[] docSets =
+                split(
+                    readerContext,
+                    numPieces,
+                    field,
+                    rangesArr,
+                    splitKey,
+                    hashRouter,
+                    currentPartition,
+                    false);
+            segmentDocSets.add(docSets);
+          }
         }
+        t.stop();
       }
 
-      try {
-        if (splitMethod == SplitMethod.LINK) {
-          t = timings.sub("deleteDocuments");
-          t.resume();
-          // apply deletions specific to this partition. As a side-effect on the first call this
-          // also populates a cache of docsets to delete per leaf reader per partition, which is
-          // reused for subsequent partitions.
-          iw.deleteDocuments(
-              new SplittingQuery(
-                  partitionNumber,
-                  field,
-                  rangesArr,
-                  hashRouter,
-                  splitKey,
-                  docsToDeleteCache,
-                  currentPartition));
-          t.pause();
-        } else {
-          // This removes deletions but optimize might still be needed because sub-shards will have
-          // the same number of segments as the parent shard.
-          t = timings.sub("addIndexes");
-          t.resume();
-          for (int segmentNumber = 0; segmentNumber < leaves.size(); segmentNumber++) {
-            if (log.isInfoEnabled()) {
-              log.info(
-                  "SolrIndexSplitter: partition # {} partitionCount={} {} segment #={} segmentCount={}",
-                  partitionNumber,
-                  numPieces,
-                  (cmd.ranges != null ? " range=" + cmd.ranges.get(partitionNumber) : ""),
-                  segmentNumber,
-                  leaves.size()); // nowarn
-            }
-            CodecReader subReader = SlowCodecReaderWrapper.wrap(leaves.get(segmentNumber).reader());
-            iw.addIndexes(
-                new LiveDocsReader(subReader, segmentDocSets.get(segmentNumber)[partitionNumber]));
-          }
-          t.pause();
+      Map<IndexReader.CacheKey, FixedBitSet[]> docsToDeleteCache = new ConcurrentHashMap<>();
+
+      // would it be more efficient to write segment-at-a-time to each new index?
+      // - need to worry about number of open descriptors
+      // - need to worry about if IW.addIndexes does a sync or not...
+      // - would be more efficient on the read side, but prob less efficient merging
+      if (executor == null) {
+        for (int partitionNumber = 0; partitionNumber < numPieces; partitionNumber++) {
+          writePartition(
+              partitionNumber,
+              leaves,
+              parentDirectory,
+              parentConfig,
+              segmentDocSets,
+              timestamp,
+              docsToDeleteCache,
+              currentPartition,
+              timings);
         }
-        // we commit explicitly instead of sending a CommitUpdateCommand through the processor chain
-        // because the sub-shard cores will just ignore such a commit because the update log is not
-        // in active state at this time.
-        // TODO no commitUpdateCommand
-        SolrIndexWriter.setCommitData(iw, -1, cmd.commitData);
-        t = timings.sub("subIWCommit");
-        t.resume();
-        iw.commit();
-        t.pause();
-        success = true;
-      } finally {
-        if (iwRef != null) {
-          iwRef.decref();
-        } else {
-          if (success) {
-            t = timings.sub("subIWClose");
-            t.resume();
-            iw.close();
-            t.pause();
-          } else {
-            IOUtils.closeWhileHandlingException(iw);
-          }
-          if (splitMethod == SplitMethod.LINK) {
-            SolrCore subCore = cmd.cores.get(partitionNumber);
-            subCore.getDirectoryFactory().release(iw.getDirectory());
-          }
+      } else {
+        // each partition is written by its own IndexWriter; timings aren't thread-safe so every
+        // partition reports its own
+        List<Callable<Void>> tasks = new ArrayList<>(numPieces);
+        for (int partitionNumber = 0; partitionNumber < numPieces; partitionNumber++) {
+          int partition = partitionNumber;
+          RTimerTree partitionTimings = timings.sub("partition" + partitionNumber);
+          tasks.add(
+              () -> {
+                writePartition(
+                    partition,
+                    leaves,
+                    parentDirectory,
+                    parentConfig,
+                    segmentDocSets,
+                    timestamp,
+                    docsToDeleteCache,
+                    currentPartition,
+                    partitionTimings);
+                partitionTimings.stop();
+                log.info("SolrIndexSplitter: partition={} done", partition);
+                return null;
+              });
         }
+        ExecutorUtil.submitAllAndAwaitAggregatingExceptions(executor, tasks);
+      }
+    } finally {
+      if (executor != null) {
+        ExecutorUtil.shutdownAndAwaitTermination(executor);
       }
     }
     // all sub-indexes created ok
@@ -511,6 +442,165 @@ public class SolrIndexSplitter {
     }
   }
 
+  private void writePartition(
+      int partitionNumber,
+      List<LeafReaderContext> leaves,
+      Directory parentDirectory,
+      SolrIndexConfig parentConfig,
+      List<FixedBitSet[]> segmentDocSets,
+      String timestamp,
+      Map<IndexReader.CacheKey, FixedBitSet[]> docsToDeleteCache,
+      AtomicInteger currentPartition,
+      RTimerTree partitionTimings)
+      throws IOException {
+    String partitionName =
+        "SolrIndexSplitter:partition="
+            + partitionNumber
+            + ",partitionCount="
+            + numPieces
+            + (cmd.ranges != null ? ",range=" + cmd.ranges.get(partitionNumber) : "");
+    log.info(partitionName);
+    RTimerTree t;
+
+    boolean success = false;
+
+    RefCounted<IndexWriter> iwRef = null;
+    IndexWriter iw;
+    if (cmd.cores != null && splitMethod != SplitMethod.LINK) {
+      SolrCore subCore = cmd.cores.get(partitionNumber);
+      iwRef = subCore.getUpdateHandler().getSolrCoreState().getIndexWriter(subCore);
+      iw = iwRef.get();
+    } else {
+      if (splitMethod == SplitMethod.LINK) {
+        SolrCore subCore = cmd.cores.get(partitionNumber);
+        String path = subCore.getDataDir() + INDEX_PREFIX + timestamp;
+        t = partitionTimings.sub("hardLinkCopy");
+        t.resume();
+        // copy by hard-linking
+        Directory splitDir =
+            subCore
+                .getDirectoryFactory()
+                .get(
+                    path,
+                    DirectoryFactory.DirContext.DEFAULT,
+                    subCore.getSolrConfig().indexConfig.lockType);
+        // the wrapper doesn't hold any resources itself so it doesn't need closing
+        HardlinkCopyDirectoryWrapper hardLinkedDir = new HardlinkCopyDirectoryWrapper(splitDir);
+        boolean copiedOk = false;
+        try {
+          for (String file : parentDirectory.listAll()) {
+            // we've closed the IndexWriter, so ignore write.lock
+            // its file may be present even when IndexWriter is closed but
+            // we've already checked that the lock is not held by anyone else
+            if (file.equals(IndexWriter.WRITE_LOCK_NAME)) {
+              continue;
+            }
+            hardLinkedDir.copyFrom(parentDirectory, file, file, IOContext.DEFAULT);
+          }
+          copiedOk = true;
+        } finally {
+          if (!copiedOk) {
+            subCore.getDirectoryFactory().doneWithDirectory(splitDir);
+            subCore.getDirectoryFactory().remove(splitDir);
+          }
+        }
+        t.pause();
+        IndexWriterConfig iwConfig = parentConfig.toIndexWriterConfig(subCore);
+        // don't run merges at this time
+        iwConfig.setMergePolicy(NoMergePolicy.INSTANCE);
+        t = partitionTimings.sub("createSubIW");
+        t.resume();
+        iw = new SolrIndexWriter(partitionName, splitDir, iwConfig);
+        t.pause();
+      } else {
+        SolrCore core = searcher.getCore();
+        String path = cmd.paths.get(partitionNumber);
+        t = partitionTimings.sub("createSubIW");
+        t.resume();
+        iw =
+            SolrIndexWriter.create(
+                core,
+                partitionName,
+                path,
+                core.getDirectoryFactory(),
+                true,
+                core.getLatestSchema(),
+                core.getSolrConfig().indexConfig,
+                core.getDeletionPolicy(),
+                core.getCodec());
+        t.pause();
+      }
+    }
+
+    try {
+      if (splitMethod == SplitMethod.LINK) {
+        t = partitionTimings.sub("deleteDocuments");
+        t.resume();
+        // apply deletions specific to this partition. As a side-effect on the first call this
+        // also populates a cache of docsets to delete per leaf reader per partition, which is
+        // reused for subsequent partitions.
+        iw.deleteDocuments(
+            new SplittingQuery(
+                partitionNumber,
+                field,
+                rangesArr,
+                hashRouter,
+                splitKey,
+                docsToDeleteCache,
+                currentPartition,
+                partitionTimings));
+        t.pause();
+      } else {
+        // This removes deletions but optimize might still be needed because sub-shards will have
+        // the same number of segments as the parent shard.
+        t = partitionTimings.sub("addIndexes");
+        t.resume();
+        for (int segmentNumber = 0; segmentNumber < leaves.size(); segmentNumber++) {
+          if (log.isInfoEnabled()) {
+            log.info(
+                "SolrIndexSplitter: partition # {} partitionCount={} {} segment #={} segmentCount={}",
+                partitionNumber,
+                numPieces,
+                (cmd.ranges != null ? " range=" + cmd.ranges.get(partitionNumber) : ""),
+                segmentNumber,
+                leaves.size()); // nowarn
+          }
+          CodecReader subReader = SlowCodecReaderWrapper.wrap(leaves.get(segmentNumber).reader());
+          iw.addIndexes(
+              new LiveDocsReader(subReader, segmentDocSets.get(segmentNumber)[partitionNumber]));
+        }
+        t.pause();
+      }
+      // we commit explicitly instead of sending a CommitUpdateCommand through the processor chain
+      // because the sub-shard cores will just ignore such a commit because the update log is not
+      // in active state at this time.
+      // TODO no commitUpdateCommand
+      SolrIndexWriter.setCommitData(iw, -1, cmd.commitData);
+      t = partitionTimings.sub("subIWCommit");
+      t.resume();
+      iw.commit();
+      t.pause();
+      success = true;
+    } finally {
+      if (iwRef != null) {
+        iwRef.decref();
+      } else {
+        if (success) {
+          t = partitionTimings.sub("subIWClose");
+          t.resume();
+          iw.close();
+          t.pause();
+        } else {
+          IOUtils.closeWhileHandlingException(iw);
+        }
+        if (splitMethod == SplitMethod.LINK) {
+          SolrCore subCore = cmd.cores.get(partitionNumber);
+          subCore.getDirectoryFactory().release(iw.getDirectory());
+        }
+      }
+    }
+  }
+
   private void openNewSearcher(SolrCore core) throws Exception {
     Future<?>[] waitSearcher = (Future<?>[]) Array.newInstance(Future.class, 1);
     core.getSearcher(true, false, waitSearcher, true);
@@ -527,6 +617,7 @@ public class SolrIndexSplitter {
     private final String splitKey;
     private final Map<IndexReader.CacheKey, FixedBitSet[]> docsToDelete;
     private final AtomicInteger currentPartition;
+    private final RTimerTree timings;
 
     SplittingQuery(
         int partition,
@@ -535,7 +626,8 @@ public class SolrIndexSplitter {
         HashBasedRouter hashRouter,
         String splitKey,
         Map<IndexReader.CacheKey, FixedBitSet[]> docsToDelete,
-        AtomicInteger currentPartition) {
+        AtomicInteger currentPartition,
+        RTimerTree timings) {
       this.partition = partition;
       this.field = field;
       this.rangesArr = rangesArr;
@@ -543,6 +635,7 @@ public class SolrIndexSplitter {
       this.splitKey = splitKey;
       this.docsToDelete = docsToDelete;
       this.currentPartition = currentPartition;
+      this.timings = timings;
     }
 
     @Override
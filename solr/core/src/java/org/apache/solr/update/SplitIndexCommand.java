@@ -44,6 +44,13 @@ public class SplitIndexCommand extends UpdateCommand {
    */
   public Map<String, String> commitData;
 
+  /**
+   * The number of threads partitioning the segments and writing the sub-indexes, one per
+   * sub-index at most. More threads make the split faster but leave less CPU and IO to the other
+   * cores of the node.
+   */
+  public int numThreads = 1;
+
   public SplitIndexCommand(
       SolrQueryRequest req,
       SolrQueryResponse rsp,
@@ -87,6 +94,9 @@ public class SplitIndexCommand extends UpdateCommand {
     if (commitData != null) {
       sb.append(",commitData=").append(commitData);
     }
+    if (numThreads > 1) {
+      sb.append(",threads=").append(numThreads);
+    }
     sb.append('}');
     return sb.toString();
   }
@@ -27,15 +27,23 @@ import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.common.SolrException;
@@ -86,6 +94,13 @@ public class TransactionLog implements Closeable {
   protected volatile boolean deleteOnClose = true;
 
   protected AtomicInteger refcount = new AtomicInteger(1);
+
+  // state of GROUP_FSYNC finishes, all guarded by groupSyncLock
+  private final Object groupSyncLock = new Object();
+  private boolean groupSyncRunning;
+  private long groupSyncedPosition;
+  // the positions that threads waiting for the running fsync need to be synced
+  private final List<Long> groupSyncQueue = new ArrayList<>();
   protected Map<String, Integer> globalStringMap = new HashMap<>();
   protected List<String> globalStringList = new ArrayList<>();
 
@@ -426,49 +441,97 @@ public class TransactionLog implements Closeable {
 
     try {
       checkWriteHeader(codec, sdoc);
+      return append(encodeAdd(codec, cmd, prevPointer));
+    } catch (IOException e) {
+      // TODO: reset our file pointer back to "pos", the start of this record.
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error logging add", e);
+    }
+  }
 
-      // adaptive buffer sizing
-      int bufSize = lastAddSize; // unsynchronized access of lastAddSize should be fine
-      // at least 256 bytes and at most 1 MB
-      bufSize = Math.min(1024 * 1024, Math.max(256, bufSize + (bufSize >> 3) + 256));
+  /**
+   * Serializes an add update command (not an in-place update) for this log without writing it, so
+   * that the caller can do the expensive part of {@link #write(AddUpdateCommand)} before taking
+   * its own locks, and only append the bytes with {@link #write(EncodedAdd)} while holding them.
+   *
+   * @return the serialized command, or null if the log header has not been written yet (the
+   *     encoding depends on it), in which case {@link #write(AddUpdateCommand)} must be used.
+   */
+  public EncodedAdd encode(AddUpdateCommand cmd) {
+    assert !cmd.isInPlaceUpdate();
+    // Unsynchronized access, see checkWriteHeader
+    if (fos.size() == 0) return null;
+    try {
+      return new EncodedAdd(this, encodeAdd(new LogCodec(resolver), cmd, -1));
+    } catch (IOException e) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error logging add", e);
+    }
+  }
 
-      MemOutputStream out = new MemOutputStream(new byte[bufSize]);
-      codec.init(out);
-      if (cmd.isInPlaceUpdate()) {
-        codec.writeTag(JavaBinCodec.ARR, 5);
-        codec.writeInt(UpdateLog.UPDATE_INPLACE); // should just take one byte
-        codec.writeLong(cmd.getVersion());
-        codec.writeLong(prevPointer);
-        codec.writeLong(cmd.prevVersion);
-        codec.writeSolrInputDocument(cmd.getSolrInputDocument());
-      } else {
-        codec.writeTag(JavaBinCodec.ARR, 3);
-        codec.writeInt(UpdateLog.ADD); // should just take one byte
-        codec.writeLong(cmd.getVersion());
-        codec.writeSolrInputDocument(cmd.getSolrInputDocument());
-      }
-      lastAddSize = (int) out.size();
+  /**
+   * Writes an add update command previously serialized by {@link #encode(AddUpdateCommand)} on this
+   * log.
+   *
+   * @return Returns the position pointer of the written update command
+   */
+  public long write(EncodedAdd encoded) {
+    assert encoded.isFor(this);
+    try {
+      return append(encoded.out);
+    } catch (IOException e) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error logging add", e);
+    }
+  }
 
-      synchronized (this) {
-        long pos = fos.size(); // if we had flushed, this should be equal to channel.position()
-        assert pos != 0;
+  private MemOutputStream encodeAdd(LogCodec codec, AddUpdateCommand cmd, long prevPointer)
+      throws IOException {
+    // adaptive buffer sizing
+    int bufSize = lastAddSize; // unsynchronized access of lastAddSize should be fine
+    // at least 256 bytes and at most 1 MB
+    bufSize = Math.min(1024 * 1024, Math.max(256, bufSize + (bufSize >> 3) + 256));
+
+    MemOutputStream out = new MemOutputStream(new byte[bufSize]);
+    codec.init(out);
+    if (cmd.isInPlaceUpdate()) {
+      codec.writeTag(JavaBinCodec.ARR, 5);
+      codec.writeInt(UpdateLog.UPDATE_INPLACE); // should just take one byte
+      codec.writeLong(cmd.getVersion());
+      codec.writeLong(prevPointer);
+      codec.writeLong(cmd.prevVersion);
+      codec.writeSolrInputDocument(cmd.getSolrInputDocument());
+    } else {
+      codec.writeTag(JavaBinCodec.ARR, 3);
+      codec.writeInt(UpdateLog.ADD); // should just take one byte
+      codec.writeLong(cmd.getVersion());
+      codec.writeSolrInputDocument(cmd.getSolrInputDocument());
+    }
+    lastAddSize = (int) out.size();
+    return out;
+  }
 
-        /*
-        System.out.println("###writing at " + pos + " fos.size()=" + fos.size() + " raf.length()=" + raf.length());
-        if (pos != fos.size()) {
-          throw new RuntimeException("ERROR" + "###writing at " + pos + " fos.size()=" + fos.size() + " raf.length()=" + raf.length());
-        }
-        */
+  private long append(MemOutputStream out) throws IOException {
+    synchronized (this) {
+      long pos = fos.size(); // if we had flushed, this should be equal to channel.position()
+      assert pos != 0;
+      out.writeAll(fos);
+      endRecord(pos);
+      // fos.flushBuffer();  // flush later
+      return pos;
+    }
+  }
 
-        out.writeAll(fos);
-        endRecord(pos);
-        // fos.flushBuffer();  // flush later
-        return pos;
-      }
+  /** An add update command serialized by {@link #encode(AddUpdateCommand)}. */
+  public static final class EncodedAdd {
+    private final TransactionLog log;
+    private final MemOutputStream out;
 
-    } catch (IOException e) {
-      // TODO: reset our file pointer back to "pos", the start of this record.
-      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error logging add", e);
+    private EncodedAdd(TransactionLog log, MemOutputStream out) {
+      this.log = log;
+      this.out = out;
+    }
+
+    /** Whether this command was serialized for the given log and may be written to it. */
+    public boolean isFor(TransactionLog log) {
+      return this.log == log;
     }
   }
 
@@ -614,17 +677,38 @@ public class TransactionLog implements Closeable {
   public void closeOutput() {}
 
   public void finish(UpdateLog.SyncLevel syncLevel) {
+    finish(syncLevel, 0, null);
+  }
+
+  /**
+   * Makes the updates written so far visible to readers of the file ({@link
+   * UpdateLog.SyncLevel#FLUSH}) and possibly durable.
+   *
+   * @param groupSyncDelayNanos for {@link UpdateLog.SyncLevel#GROUP_FSYNC}, how long the thread
+   *     doing an fsync waits for other threads to join it first
+   * @param syncListener notified of each fsync done by this call, may be null
+   */
+  public void finish(
+      UpdateLog.SyncLevel syncLevel, long groupSyncDelayNanos, SyncListener syncListener) {
     if (syncLevel == UpdateLog.SyncLevel.NONE) return;
     try {
+      long position;
       synchronized (this) {
         fos.flush();
+        position = fos.size();
       }
 
       if (syncLevel == UpdateLog.SyncLevel.FSYNC) {
         // Since fsync is outside of synchronized block, we can end up with a partial
         // last record on power failure (which is OK, and does not represent an error...
         // we just need to be aware of it when reading).
+        long start = System.nanoTime();
         channel.force(true);
+        if (syncListener != null) {
+          syncListener.synced(1, System.nanoTime() - start);
+        }
+      } else if (syncLevel == UpdateLog.SyncLevel.GROUP_FSYNC) {
+        groupSync(position, groupSyncDelayNanos, syncListener);
       }
 
     } catch (IOException e) {
@@ -632,6 +716,83 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /**
+   * Makes sure the log is durable up to the given position, sharing fsyncs between threads: while
+   * one thread forces the channel, the others queue up, and the next fsync covers all of them.
+   */
+  private void groupSync(long position, long delayNanos, SyncListener syncListener)
+      throws IOException {
+    synchronized (groupSyncLock) {
+      boolean queued = false;
+      while (groupSyncedPosition < position && groupSyncRunning) {
+        if (!queued) {
+          groupSyncQueue.add(position);
+          queued = true;
+        }
+        try {
+          groupSyncLock.wait();
+        } catch (InterruptedException e) {
+          groupSyncQueue.remove(Long.valueOf(position));
+          Thread.currentThread().interrupt();
+          throw new SolrException(
+              SolrException.ErrorCode.SERVER_ERROR, "Interrupted while waiting for tlog fsync", e);
+        }
+      }
+      if (groupSyncedPosition >= position) {
+        return; // done by another thread (which dequeued us)
+      }
+      if (queued) {
+        groupSyncQueue.remove(Long.valueOf(position));
+      }
+      groupSyncRunning = true;
+    }
+
+    long syncedPosition = position;
+    long elapsedNanos = 0;
+    boolean synced = false;
+    try {
+      if (delayNanos > 0) {
+        LockSupport.parkNanos(delayNanos); // let more updates join this fsync
+      }
+      synchronized (this) {
+        fos.flush();
+        syncedPosition = fos.size();
+      }
+      long start = System.nanoTime();
+      channel.force(true);
+      elapsedNanos = System.nanoTime() - start;
+      synced = true;
+    } finally {
+      int batchSize = 1;
+      synchronized (groupSyncLock) {
+        groupSyncRunning = false;
+        if (synced) {
+          groupSyncedPosition = Math.max(groupSyncedPosition, syncedPosition);
+          for (Iterator<Long> it = groupSyncQueue.iterator(); it.hasNext(); ) {
+            if (it.next() <= groupSyncedPosition) {
+              it.remove();
+              batchSize++;
+            }
+          }
+        }
+        // on failure, one of the queued threads will try again
+        groupSyncLock.notifyAll();
+      }
+      if (synced && syncListener != null) {
+        syncListener.synced(batchSize, elapsedNanos);
+      }
+    }
+  }
+
+  /** Notified of the fsyncs done by {@link #finish(UpdateLog.SyncLevel, long, SyncListener)}. */
+  public interface SyncListener {
+    /**
+     * @param batchSize the number of finish calls the fsync was done for
+     * @param elapsedNanos the time it took to force the channel
+     */
+    void synced(int batchSize, long elapsedNanos);
+  }
+
   @Override
   public void close() {
     try {
@@ -702,6 +863,157 @@ public class TransactionLog implements Closeable {
     return new SortedLogReader(startingPos);
   }
 
+  /**
+   * Returns a reader that decodes the records of this log ahead, in parallel on the given executor,
+   * for replaying a log that isn't written to anymore. Returns null if the records can't be located
+   * without decoding them one after the other (e.g. if the log ends with a partial record), in
+   * which case {@link #getReader(long)} should be used.
+   *
+   * @param threads the maximum number of batches of records decoded at the same time
+   */
+  public LogReader getParallelReader(long startingPos, ExecutorService executor, int threads)
+      throws IOException {
+    long[] positions = locateRecords(startingPos);
+    return positions == null ? null : new ParallelLogReader(positions, executor, threads);
+  }
+
+  /**
+   * Locates the records from startingPos to the end of the log by following the record sizes that
+   * end each record backwards from the end.
+   *
+   * @return the start positions of the records, followed by the end of the last one, or null if
+   *     the sizes don't lead back exactly to startingPos
+   */
+  private long[] locateRecords(long startingPos) throws IOException {
+    long end;
+    synchronized (this) {
+      fos.flush();
+      end = fos.size();
+    }
+
+    ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+    long windowStart = end; // window holds the file's bytes from windowStart to windowEnd
+    long windowEnd = end;
+    long[] starts = new long[64];
+    int numRecords = 0;
+    long pos = end;
+    while (pos > startingPos) {
+      long sizePos = pos - 4;
+      if (sizePos < startingPos) return null;
+      if (sizePos < windowStart) {
+        windowEnd = pos;
+        windowStart = Math.max(0, windowEnd - window.capacity());
+        window.clear().limit((int) (windowEnd - windowStart));
+        while (window.hasRemaining()) {
+          if (channel.read(window, windowStart + window.position()) < 0) return null;
+        }
+      }
+      int size = window.getInt((int) (sizePos - windowStart));
+      long start = sizePos - size;
+      if (size <= 0 || start < startingPos) return null;
+      starts = ArrayUtil.grow(starts, numRecords + 1);
+      starts[numRecords++] = start;
+      pos = start;
+    }
+
+    // the header is read when the log is opened
+    int skip = numRecords > 0 && starts[numRecords - 1] == 0 ? 1 : 0;
+    long[] positions = new long[numRecords - skip + 1];
+    for (int i = 0; i < numRecords - skip; i++) {
+      positions[i] = starts[numRecords - skip - 1 - i];
+    }
+    positions[positions.length - 1] = end;
+    return positions;
+  }
+
+  /** Decodes the records between the given positions. */
+  private List<Object> decodeRecords(long[] positions, int from, int to) throws IOException {
+    ChannelFastInputStream is = channelInputStreamOpener.open(channel, positions[from]);
+    LogCodec codec = new LogCodec(resolver);
+    List<Object> records = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      records.add(codec.readVal(is));
+      is.readInt(); // skip over record size
+      if (is.position() != positions[i + 1]) {
+        throw new SolrException(
+            ErrorCode.SERVER_ERROR, "Corrupt transaction log record at " + positions[i]);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Reads records that are decoded in batches by other threads, keeping up to a given number of
+   * batches in flight.
+   */
+  public class ParallelLogReader extends LogReader {
+    private static final int BATCH_SIZE = 128;
+
+    private final long[] positions;
+    private final ExecutorService executor;
+    private final int maxBatchesInFlight;
+    private final Deque<Future<List<Object>>> batches = new ArrayDeque<>();
+    private int nextToSubmit;
+    private Iterator<Object> batch = Collections.emptyIterator();
+    private int numRead;
+
+    private ParallelLogReader(long[] positions, ExecutorService executor, int threads) {
+      incref();
+      this.positions = positions;
+      this.executor = executor;
+      this.maxBatchesInFlight = Math.max(1, threads);
+    }
+
+    @Override
+    public Object next() throws IOException, InterruptedException {
+      while (!batch.hasNext()) {
+        while (batches.size() < maxBatchesInFlight && nextToSubmit < positions.length - 1) {
+          final int from = nextToSubmit;
+          final int to = Math.min(from + BATCH_SIZE, positions.length - 1);
+          batches.addLast(executor.submit(() -> decodeRecords(positions, from, to)));
+          nextToSubmit = to;
+        }
+        Future<List<Object>> next = batches.pollFirst();
+        if (next == null) {
+          return null;
+        }
+        try {
+          batch = next.get().iterator();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException ioe) throw ioe;
+          if (e.getCause() instanceof RuntimeException re) throw re;
+          throw new SolrException(ErrorCode.SERVER_ERROR, e.getCause());
+        }
+      }
+      numRead++;
+      return batch.next();
+    }
+
+    @Override
+    public void close() {
+      for (Future<List<Object>> future : batches) {
+        future.cancel(false);
+      }
+      batches.clear();
+      super.close();
+    }
+
+    @Override
+    public String toString() {
+      return "ParallelLogReader{file=" + tlog + ", position=" + currentPos() + "}";
+    }
+
+    @Override
+    public long currentPos() {
+      return positions[numRead];
+    }
+
+    @Override
+    public long currentSize() {
+      return positions[positions.length - 1];
+    }
+  }
+
   /** Returns a single threaded reverse reader */
   public ReverseReader getReverseReader() throws IOException {
     return new FSReverseReader();
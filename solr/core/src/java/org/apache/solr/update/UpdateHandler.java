@@ -222,6 +222,20 @@ public abstract class UpdateHandler implements SolrInfoBean {
 
   public abstract int addDoc(AddUpdateCommand cmd) throws IOException;
 
+  /**
+   * Adds the given documents, in order, stopping at the first failure. Implementations may apply
+   * them more efficiently than one {@link #addDoc(AddUpdateCommand)} call each; this one doesn't.
+   *
+   * @return the number of documents added
+   */
+  public int addDocs(List<AddUpdateCommand> cmds) throws IOException {
+    int count = 0;
+    for (AddUpdateCommand cmd : cmds) {
+      count += addDoc(cmd);
+    }
+    return count;
+  }
+
   public abstract void delete(DeleteUpdateCommand cmd) throws IOException;
 
   public abstract void deleteByQuery(DeleteUpdateCommand cmd) throws IOException;
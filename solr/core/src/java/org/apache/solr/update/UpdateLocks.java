@@ -20,6 +20,9 @@ package org.apache.solr.update;
 import com.carrotsearch.hppc.IntObjectHashMap;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -27,6 +30,7 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOSupplier;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.util.IOFunction;
@@ -114,6 +118,31 @@ public class UpdateLocks {
     }
   }
 
+  /**
+   * Acquires the locks for all the given doc IDs, executes the function, and releases the locks.
+   * The locks are acquired in the order of the IDs' hashcodes so that concurrent callers can't
+   * deadlock. Each lock's {@link Condition} is signalled when acquired, to wake up anyone waiting
+   * on an update to one of the docs.
+   */
+  public <R> R runWithLocks(Collection<BytesRef> ids, IOSupplier<R> function) throws IOException {
+    BytesRef[] sorted = ids.toArray(new BytesRef[0]);
+    Arrays.sort(sorted, Comparator.comparingInt(BytesRef::hashCode));
+    return runWithLocks(sorted, 0, function);
+  }
+
+  private <R> R runWithLocks(BytesRef[] ids, int from, IOSupplier<R> function) throws IOException {
+    if (from == ids.length) {
+      return function.get();
+    }
+    // the locks are reentrant, so IDs that share a lock just take it again
+    return runWithLock(
+        ids[from],
+        condition -> {
+          condition.signalAll();
+          return runWithLocks(ids, from + 1, function);
+        });
+  }
+
   private LockAndCondition borrowLock() {
     assert Thread.holdsLock(hashToLock);
     if (lockPool.isEmpty()) {
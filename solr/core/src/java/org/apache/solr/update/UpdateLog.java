@@ -80,6 +80,7 @@ import org.apache.solr.metrics.SolrMetricProducer;
 import org.apache.solr.metrics.SolrMetricsContext;
 import org.apache.solr.metrics.otel.OtelUnit;
 import org.apache.solr.metrics.otel.instruments.AttributedLongCounter;
+import org.apache.solr.metrics.otel.instruments.AttributedLongHistogram;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequestBase;
 import org.apache.solr.request.SolrRequestInfo;
@@ -116,7 +117,9 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   public enum SyncLevel {
     NONE,
     FLUSH,
-    FSYNC;
+    FSYNC,
+    /** Like FSYNC, but concurrent requests share fsyncs */
+    GROUP_FSYNC;
 
     public static SyncLevel getSyncLevel(String level) {
       if (level == null) {
@@ -205,7 +208,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected volatile State state = State.ACTIVE;
 
   protected TransactionLog bufferTlog;
-  protected TransactionLog tlog;
+  // volatile since add() peeks at it before synchronizing, see encodeForCurrentLog
+  protected volatile TransactionLog tlog;
   protected TransactionLog prevTlog;
   protected TransactionLog prevTlogOnPrecommit;
   // list of recent logs, newest first
@@ -213,13 +217,15 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected Deque<TransactionLog> newestLogsOnStartup = new ArrayDeque<>();
   protected int numOldRecords; // number of records in the recent logs
 
-  protected Map<BytesRef, LogPtr> map = new HashMap<>();
-  protected Map<BytesRef, LogPtr> prevMap; // used while committing/reopening is happening
-  protected Map<BytesRef, LogPtr> prevMap2; // used while committing/reopening is happening
+  protected LogPtrMap map = new LogPtrMap();
+  protected LogPtrMap prevMap; // used while committing/reopening is happening
+  protected LogPtrMap prevMap2; // used while committing/reopening is happening
   // the transaction log used to look up entries found in prevMap
   protected TransactionLog prevMapLog;
   // the transaction log used to look up entries found in prevMap2
   protected TransactionLog prevMapLog2;
+  // a map dropped on commit, cleared and reused as the next map so its arrays need not regrow
+  private LogPtrMap spareMap;
 
   protected final int numDeletesToKeep = 1000;
   protected final int numDeletesByQueryToKeep = 100;
@@ -258,6 +264,10 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected VersionInfo versionInfo;
 
   protected SyncLevel defaultSyncLevel = SyncLevel.FLUSH;
+  // how long a GROUP_FSYNC waits for more requests to share its fsync with
+  protected long groupSyncDelayNanos;
+  // how many batches of records of old tlogs are decoded in parallel on replay; 1 for none
+  protected int replayDecodeThreads = 1;
 
   protected volatile UpdateHandler uhandler; // a core reload can change this reference!
   protected volatile boolean cancelApplyBufferUpdate;
@@ -267,6 +277,9 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected AttributedLongCounter applyingBufferedOpsCounter;
   protected AttributedLongCounter replayOpsCounter;
   protected AttributedLongCounter copyOverOldUpdatesCounter;
+  protected AttributedLongCounter replayBytesCounter;
+  protected AttributedLongHistogram fsyncTime;
+  protected AttributedLongHistogram fsyncBatchSize;
   protected SolrMetricsContext solrMetricsContext;
 
   public static class LogPtr {
@@ -379,6 +392,9 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   public void init(PluginInfo info) {
     dataDir = (String) info.initArgs.get("dir");
     defaultSyncLevel = SyncLevel.getSyncLevel((String) info.initArgs.get("syncLevel"));
+    groupSyncDelayNanos =
+        TimeUnit.MILLISECONDS.toNanos(objToInt(info.initArgs.get("groupSyncDelayMs"), 0));
+    replayDecodeThreads = Math.max(1, objToInt(info.initArgs.get("replayDecodeThreads"), 1));
 
     numRecordsToKeep = objToInt(info.initArgs.get("numRecordsToKeep"), 100);
     maxNumLogsToKeep = objToInt(info.initArgs.get("maxNumLogsToKeep"), 10);
@@ -681,6 +697,36 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
                 "solr.core.update_log.old_updates_copied",
                 "Total number of updates copied from previous tlog or last tlog to a new tlog"),
             baseAttributes);
+
+    replayBytesCounter =
+        new AttributedLongCounter(
+            solrMetricsContext.longCounter(
+                "solr.core.update_log.replay.bytes",
+                "Total number of tlog bytes read by log replay",
+                OtelUnit.BYTES),
+            baseAttributes);
+
+    fsyncTime =
+        new AttributedLongHistogram(
+            solrMetricsContext.longHistogram(
+                "solr.core.update_log.fsync.time",
+                "Time taken to fsync the tlog, for syncLevel FSYNC and GROUP_FSYNC",
+                OtelUnit.MICROSECONDS),
+            baseAttributes);
+
+    fsyncBatchSize =
+        new AttributedLongHistogram(
+            solrMetricsContext.longHistogram(
+                "solr.core.update_log.fsync.batch_size",
+                "Number of update requests made durable by one tlog fsync"),
+            baseAttributes);
+  }
+
+  private void recordSync(int batchSize, long elapsedNanos) {
+    if (fsyncTime != null) {
+      fsyncTime.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+      fsyncBatchSize.record((long) batchSize);
+    }
   }
 
   @Override
@@ -805,47 +851,97 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     // TODO: we currently need to log to maintain correct versioning, rtg, etc
     // if ((cmd.getFlags() & UpdateCommand.REPLAY) != 0) return;
 
+    // Serializing the document is the expensive part of logging it; do it before taking the lock
+    // so that concurrent indexing threads only serialize on appending the bytes and on the map.
+    TransactionLog.EncodedAdd encoded = encodeForCurrentLog(cmd);
+
     synchronized (this) {
-      if ((cmd.getFlags() & UpdateCommand.BUFFERING) != 0) {
-        ensureBufferTlog();
-        bufferTlog.write(cmd);
-        return;
+      addLocked(cmd, clearCaches, encoded);
+    }
+  }
+
+  /**
+   * Logs the given adds, in order, as one group of consecutive records: the lock is only taken
+   * once, so no other update can be logged in between.
+   */
+  public void add(List<AddUpdateCommand> cmds) {
+    if (cmds.isEmpty()) {
+      return;
+    }
+    TransactionLog.EncodedAdd[] encoded = new TransactionLog.EncodedAdd[cmds.size()];
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = encodeForCurrentLog(cmds.get(i));
+    }
+
+    synchronized (this) {
+      for (int i = 0; i < encoded.length; i++) {
+        addLocked(cmds.get(i), false, encoded[i]);
       }
+    }
+  }
 
-      long pos = -1;
-      long prevPointer = getPrevPointerForUpdate(cmd);
+  private void addLocked(
+      AddUpdateCommand cmd, boolean clearCaches, TransactionLog.EncodedAdd encoded) {
+    assert Thread.holdsLock(this);
+    if ((cmd.getFlags() & UpdateCommand.BUFFERING) != 0) {
+      ensureBufferTlog();
+      bufferTlog.write(cmd);
+      return;
+    }
 
-      // don't log if we are replaying from another log
-      if (!updateFromOldTlogs(cmd)) {
-        ensureLog();
+    long pos = -1;
+    long prevPointer = getPrevPointerForUpdate(cmd);
+
+    // don't log if we are replaying from another log
+    if (!updateFromOldTlogs(cmd)) {
+      ensureLog();
+      if (encoded != null && encoded.isFor(tlog)) {
+        pos = tlog.write(encoded);
+      } else {
+        // in-place update, new log, or the log was rolled over since we looked
         pos = tlog.write(cmd, prevPointer);
       }
+    }
 
-      if (!clearCaches) {
-        // TODO: in the future we could support a real position for a REPLAY update.
-        // Only currently would be useful for RTG while in recovery mode though.
-        LogPtr ptr = new LogPtr(pos, cmd.getVersion(), prevPointer);
-
-        map.put(cmd.getIndexedId(), ptr);
+    if (!clearCaches) {
+      // TODO: in the future we could support a real position for a REPLAY update.
+      // Only currently would be useful for RTG while in recovery mode though.
+      map.put(cmd.getIndexedId(), pos, cmd.getVersion(), prevPointer);
 
-        if (trace) {
-          log.trace(
-              "TLOG: added id {} to {} {} map={}",
-              cmd.getPrintableId(),
-              tlog,
-              ptr,
-              System.identityHashCode(map));
-        }
+      if (trace) {
+        log.trace(
+            "TLOG: added id {} to {} {} map={}",
+            cmd.getPrintableId(),
+            tlog,
+            new LogPtr(pos, cmd.getVersion(), prevPointer),
+            System.identityHashCode(map));
+      }
 
-      } else {
-        openRealtimeSearcher();
-        if (log.isTraceEnabled()) {
-          log.trace("TLOG: added id {} to {} clearCaches=true", cmd.getPrintableId(), tlog);
-        }
+    } else {
+      openRealtimeSearcher();
+      if (log.isTraceEnabled()) {
+        log.trace("TLOG: added id {} to {} clearCaches=true", cmd.getPrintableId(), tlog);
       }
     }
   }
 
+  /**
+   * Serializes a plain add for the current tlog without holding the lock. The tlog may be rolled
+   * over before the caller synchronizes, so it must check {@link
+   * TransactionLog.EncodedAdd#isFor(TransactionLog)} against the tlog it then writes to.
+   *
+   * @return null if the command can't or needn't be serialized ahead of time
+   */
+  private TransactionLog.EncodedAdd encodeForCurrentLog(AddUpdateCommand cmd) {
+    // in-place updates point to the previous entry, which must be looked up under the lock
+    int noEncodeFlags = UpdateCommand.BUFFERING | UpdateCommand.REPLAY;
+    if ((cmd.getFlags() & noEncodeFlags) != 0 || cmd.isInPlaceUpdate()) {
+      return null;
+    }
+    TransactionLog currentLog = tlog;
+    return currentLog == null ? null : currentLog.encode(cmd);
+  }
+
   /**
    * @return If cmd is an in-place update, then returns the pointer (in the tlog) of the previous
    *     update that the given update depends on. Returns -1 if this is not an in-place update, or
@@ -859,7 +955,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     // note: sync required to ensure maps aren't changed out form under us
     if (cmd.isInPlaceUpdate()) {
       BytesRef indexedId = cmd.getIndexedId();
-      for (Map<BytesRef, LogPtr> currentMap : Arrays.asList(map, prevMap, prevMap2)) {
+      for (LogPtrMap currentMap : Arrays.asList(map, prevMap, prevMap2)) {
         if (currentMap != null) {
           LogPtr prevEntry = currentMap.get(indexedId);
           if (null != prevEntry) {
@@ -888,7 +984,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
       }
 
       LogPtr ptr = new LogPtr(pos, cmd.version);
-      map.put(br, ptr);
+      map.put(br, ptr.pointer, ptr.version, ptr.previousPointer);
       oldDeletes.put(br, ptr);
 
       if (trace) {
@@ -1024,20 +1120,34 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   }
 
   protected void newMap() {
+    if (prevMap2 != null) {
+      spareMap = prevMap2;
+    }
     prevMap2 = prevMap;
     prevMapLog2 = prevMapLog;
 
     prevMap = map;
     prevMapLog = tlog;
 
-    map = new HashMap<>();
+    map = takeSpareMap();
   }
 
   private void clearOldMaps() {
+    spareMap = prevMap != null ? prevMap : prevMap2;
     prevMap = null;
     prevMap2 = null;
   }
 
+  private LogPtrMap takeSpareMap() {
+    LogPtrMap reused = spareMap;
+    if (reused == null) {
+      return new LogPtrMap();
+    }
+    spareMap = null;
+    reused.clear();
+    return reused;
+  }
+
   public boolean hasUncommittedChanges() {
     return tlog != null;
   }
@@ -1103,13 +1213,11 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     synchronized (this) {
       if (!cmd.softCommit) return; // already handled this at the start of the hard commit
-      newMap();
-
       // start adding documents to a new map since we won't know if
       // any added documents will make it into this commit or not.
       // But we do know that any updates already added will definitely
       // show up in the latest reader after the commit succeeds.
-      map = new HashMap<>();
+      newMap();
 
       if (debug) {
         log.debug(
@@ -1326,29 +1434,9 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   // synchronization is needed for stronger guarantees (as VersionUpdateProcessor does).
   public Long lookupVersion(BytesRef indexedId) {
     LogPtr entry;
-    TransactionLog lookupLog;
 
     synchronized (this) {
-      entry = map.get(indexedId);
-      lookupLog = tlog; // something found in "map" will always be in "tlog"
-      // SolrCore.verbose("TLOG: lookup ver: for id ",indexedId.utf8ToString(),"in
-      // map",System.identityHashCode(map),"got",entry,"lookupLog=",lookupLog);
-      if (entry == null && prevMap != null) {
-        entry = prevMap.get(indexedId);
-        // something found in prevMap will always be found in prevMapLog (which could be tlog or
-        // prevTlog)
-        lookupLog = prevMapLog;
-        // SolrCore.verbose("TLOG: lookup ver: for id ",indexedId.utf8ToString(),"in
-        // prevMap",System.identityHashCode(map),"got",entry,"lookupLog=",lookupLog);
-      }
-      if (entry == null && prevMap2 != null) {
-        entry = prevMap2.get(indexedId);
-        // something found in prevMap2 will always be found in prevMapLog2 (which could be tlog or
-        // prevTlog)
-        lookupLog = prevMapLog2;
-        // SolrCore.verbose("TLOG: lookup ver: for id ",indexedId.utf8ToString(),"in
-        // prevMap2",System.identityHashCode(map),"got",entry,"lookupLog=",lookupLog);
-      }
+      entry = lookupLogPtr(indexedId);
     }
 
     if (entry != null) {
@@ -1376,6 +1464,59 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     return null;
   }
 
+  /**
+   * Looks up the versions of the given ids like {@link #lookupVersion(BytesRef)} does, in the same
+   * order, but reads the versions of all ids that aren't in the update log from the index at once.
+   */
+  public Long[] lookupVersions(List<BytesRef> indexedIds) {
+    Long[] versions = new Long[indexedIds.size()];
+    List<BytesRef> notLogged = new ArrayList<>();
+    int[] notLoggedPositions = new int[indexedIds.size()];
+
+    synchronized (this) {
+      for (int i = 0; i < versions.length; i++) {
+        LogPtr entry = lookupLogPtr(indexedIds.get(i));
+        if (entry != null) {
+          versions[i] = entry.version;
+        } else {
+          notLoggedPositions[notLogged.size()] = i;
+          notLogged.add(indexedIds.get(i));
+        }
+      }
+    }
+    if (notLogged.isEmpty()) {
+      return versions;
+    }
+
+    Long[] fromIndex = versionInfo.getVersionsFromIndex(notLogged);
+
+    synchronized (this) {
+      for (int j = 0; j < fromIndex.length; j++) {
+        Long version = fromIndex[j];
+        if (version == null) {
+          // check the recent deletes, like lookupVersion
+          LogPtr entry = oldDeletes.get(notLogged.get(j));
+          version = entry == null ? null : entry.version;
+        }
+        versions[notLoggedPositions[j]] = version;
+      }
+    }
+    return versions;
+  }
+
+  /** Looks up the latest entry of the id in the maps of the update log. */
+  private LogPtr lookupLogPtr(BytesRef indexedId) {
+    assert Thread.holdsLock(this);
+    LogPtr entry = map.get(indexedId);
+    if (entry == null && prevMap != null) {
+      entry = prevMap.get(indexedId);
+    }
+    if (entry == null && prevMap2 != null) {
+      entry = prevMap2.get(indexedId);
+    }
+    return entry;
+  }
+
   public void finish(SyncLevel syncLevel) {
     if (syncLevel == null) {
       syncLevel = defaultSyncLevel;
@@ -1392,7 +1533,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     }
 
     try {
-      currLog.finish(syncLevel);
+      currLog.finish(syncLevel, groupSyncDelayNanos, this::recordSync);
     } finally {
       currLog.decref();
     }
@@ -2170,12 +2311,26 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
             recoveryInfo.positionOfStart,
             inSortedOrder);
         long lastStatusTime = System.nanoTime();
+        long replayedPos;
+        tlogReader = null;
         try {
           if (inSortedOrder) {
             tlogReader = translog.getSortedReader(recoveryInfo.positionOfStart);
           } else {
-            tlogReader = translog.getReader(recoveryInfo.positionOfStart);
+            if (!activeLog && replayDecodeThreads > 1) {
+              // nothing is written to old logs, so their records can be decoded ahead
+              tlogReader =
+                  translog.getParallelReader(
+                      recoveryInfo.positionOfStart, recoveryExecutor, replayDecodeThreads);
+              if (tlogReader == null) {
+                loglog.warn("Can't locate the records of {}, replaying it sequentially", translog);
+              }
+            }
+            if (tlogReader == null) {
+              tlogReader = translog.getReader(recoveryInfo.positionOfStart);
+            }
           }
+          replayedPos = tlogReader.currentPos();
         } catch (IOException e) {
           throw new UncheckedIOException(e);
         }
@@ -2213,6 +2368,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
           try {
             if (testing_logReplayHook != null) testing_logReplayHook.run();
             if (nextCount++ % 1000 == 0) {
+              replayedPos = countReplayedBytes(replayedPos);
               long now = System.nanoTime();
               if (now - lastStatusTime > STATUS_TIME) {
                 lastStatusTime = now;
@@ -2349,6 +2505,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
         }
 
         waitForAllUpdatesGetExecuted(pendingTasks);
+        countReplayedBytes(replayedPos);
         if (exceptionOnExecuteUpdate.get() != null) throw exceptionOnExecuteUpdate.get();
 
         CommitUpdateCommand cmd = new CommitUpdateCommand(req, false);
@@ -2389,6 +2546,15 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
       }
     }
 
+    /** Counts the bytes read since the given position, and returns the current one. */
+    private long countReplayedBytes(long sincePos) {
+      long pos = tlogReader.currentPos();
+      if (pos > sincePos) {
+        replayBytesCounter.add(pos - sincePos);
+      }
+      return pos;
+    }
+
     private void waitForAllUpdatesGetExecuted(AtomicInteger pendingTasks) {
       TimeOut timeOut =
           new TimeOut(Integer.MAX_VALUE, TimeUnit.MILLISECONDS, TimeSource.CURRENT_TIME);
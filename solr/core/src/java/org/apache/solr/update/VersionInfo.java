@@ -19,10 +19,18 @@ package org.apache.solr.update;
 import static org.apache.solr.common.params.CommonParams.VERSION_FIELD;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CloseableThreadLocal;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.schema.IndexSchema;
@@ -41,6 +49,12 @@ public class VersionInfo {
 
   private final SchemaField versionField;
 
+  // used to read versions if the version field has no docValues
+  private final ValueSource versionValueSource;
+
+  // the calling threads' version lookups of the realtime searcher, replaced when it is reopened
+  private volatile SearcherLookups searcherLookups;
+
   /**
    * Gets and returns the {@link org.apache.solr.common.params.CommonParams#VERSION_FIELD} from the
    * specified schema, after verifying that it is indexed, stored, and single-valued. If any of
@@ -81,6 +95,7 @@ public class VersionInfo {
     this.ulog = ulog;
     IndexSchema schema = ulog.uhandler.core.getLatestSchema();
     versionField = getAndCheckVersionField(schema);
+    versionValueSource = versionField.getType().getValueSource(versionField, null);
   }
 
   public SchemaField getVersionField() {
@@ -140,28 +155,67 @@ public class VersionInfo {
     return ulog.lookupVersion(idBytes);
   }
 
+  /**
+   * @see UpdateLog#lookupVersions(List)
+   */
+  public Long[] lookupVersions(List<BytesRef> idBytes) {
+    return ulog.lookupVersions(idBytes);
+  }
+
   /**
    * Returns the latest version from the index, searched by the given id (bytes) as seen from the
    * realtime searcher. Returns null if no document can be found in the index for the given id.
    */
-  @SuppressWarnings({"unchecked"})
   public Long getVersionFromIndex(BytesRef idBytes) {
-    // TODO: we could cache much of this and invalidate during a commit.
-    // TODO: most DocValues classes are threadsafe - expose which.
-
     RefCounted<SolrIndexSearcher> newestSearcher = ulog.uhandler.core.getRealtimeSearcher();
     try {
       SolrIndexSearcher searcher = newestSearcher.get();
       long lookup = searcher.lookupId(idBytes);
       if (lookup < 0) return null; // this means the doc doesn't exist in the index yet
 
-      ValueSource vs = versionField.getType().getValueSource(versionField, null);
-      Map<Object, Object> context = ValueSource.newContext(searcher);
-      vs.createWeight(context, searcher);
-      FunctionValues fv =
-          vs.getValues(context, searcher.getTopReaderContext().leaves().get((int) (lookup >> 32)));
-      long ver = fv.longVal((int) lookup);
-      return ver;
+      return leafLookups(searcher)[(int) (lookup >> 32)].get((int) lookup);
+
+    } catch (IOException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR, "Error reading version from index", e);
+    } finally {
+      if (newestSearcher != null) {
+        newestSearcher.decref();
+      }
+    }
+  }
+
+  /**
+   * Returns the latest versions from the index of the given ids (bytes), as seen from the realtime
+   * searcher, in the same order; null for ids of which no document can be found in the index. This
+   * is cheaper than looking the ids up one by one, since the versions are read in doc id order.
+   */
+  public Long[] getVersionsFromIndex(List<BytesRef> ids) {
+    Long[] versions = new Long[ids.size()];
+    if (ids.isEmpty()) {
+      return versions;
+    }
+    RefCounted<SolrIndexSearcher> newestSearcher = ulog.uhandler.core.getRealtimeSearcher();
+    try {
+      SolrIndexSearcher searcher = newestSearcher.get();
+      // segment ord in the high bits, doc id in the segment in the low bits; -1 if not found
+      long[] lookups = new long[ids.size()];
+      for (int i = 0; i < lookups.length; i++) {
+        lookups[i] = searcher.lookupId(ids.get(i));
+      }
+      int[] order =
+          IntStream.range(0, lookups.length)
+              .filter(i -> lookups[i] >= 0) // the others don't exist in the index yet
+              .boxed()
+              .sorted(Comparator.comparingLong(i -> lookups[i]))
+              .mapToInt(Integer::intValue)
+              .toArray();
+
+      LeafLookup[] leafLookups = leafLookups(searcher);
+      for (int i : order) {
+        versions[i] = leafLookups[(int) (lookups[i] >> 32)].get((int) lookups[i]);
+      }
+      return versions;
 
     } catch (IOException e) {
       throw new SolrException(
@@ -172,4 +226,93 @@ public class VersionInfo {
       }
     }
   }
+
+  /**
+   * Returns the calling thread's version lookups of the segments of the given searcher, creating
+   * them the first time. They are dropped once the searcher's reader is closed.
+   */
+  private LeafLookup[] leafLookups(SolrIndexSearcher searcher) throws IOException {
+    IndexReader.CacheHelper cacheHelper = searcher.getIndexReader().getReaderCacheHelper();
+    if (cacheHelper == null) {
+      return newLeafLookups(searcher);
+    }
+    SearcherLookups lookups = searcherLookups;
+    if (lookups == null || lookups.readerKey != cacheHelper.getKey()) {
+      SearcherLookups newLookups = new SearcherLookups(cacheHelper.getKey());
+      cacheHelper.addClosedListener(
+          key -> {
+            if (searcherLookups == newLookups) {
+              searcherLookups = null;
+            }
+            newLookups.perThread.close();
+          });
+      lookups = searcherLookups = newLookups;
+    }
+    LeafLookup[] leafLookups = lookups.perThread.get();
+    if (leafLookups == null) {
+      leafLookups = newLeafLookups(searcher);
+      lookups.perThread.set(leafLookups);
+    }
+    return leafLookups;
+  }
+
+  private LeafLookup[] newLeafLookups(SolrIndexSearcher searcher) throws IOException {
+    Map<Object, Object> context = null;
+    if (!versionField.hasDocValues()) {
+      context = ValueSource.newContext(searcher);
+      versionValueSource.createWeight(context, searcher);
+    }
+    List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    LeafLookup[] leafLookups = new LeafLookup[leaves.size()];
+    for (int i = 0; i < leafLookups.length; i++) {
+      leafLookups[i] = new LeafLookup(leaves.get(i), context);
+    }
+    return leafLookups;
+  }
+
+  /** The version lookups of the realtime searcher with the given reader, per thread. */
+  private static final class SearcherLookups {
+    final IndexReader.CacheKey readerKey;
+    final CloseableThreadLocal<LeafLookup[]> perThread = new CloseableThreadLocal<>();
+
+    SearcherLookups(IndexReader.CacheKey readerKey) {
+      this.readerKey = readerKey;
+    }
+  }
+
+  /**
+   * Reads the versions of one segment. Doc values can only be read by one thread and in increasing
+   * doc id order, so they are read again from the start when looking up an earlier doc.
+   */
+  private final class LeafLookup {
+    private final LeafReaderContext leaf;
+    // for the version value source if the version field has no docValues, else null
+    private final Map<Object, Object> context;
+    private NumericDocValues docValues;
+    private FunctionValues values;
+    private int lastDoc = -1;
+
+    LeafLookup(LeafReaderContext leaf, Map<Object, Object> context) {
+      this.leaf = leaf;
+      this.context = context;
+    }
+
+    long get(int doc) throws IOException {
+      if (doc <= lastDoc) {
+        docValues = null;
+        values = null;
+      }
+      lastDoc = doc;
+      if (context == null) {
+        if (docValues == null) {
+          docValues = DocValues.getNumeric(leaf.reader(), versionField.getName());
+        }
+        return docValues.advanceExact(doc) ? docValues.longValue() : 0;
+      }
+      if (values == null) {
+        values = versionValueSource.getValues(context, leaf);
+      }
+      return values.longVal(doc);
+    }
+  }
 }
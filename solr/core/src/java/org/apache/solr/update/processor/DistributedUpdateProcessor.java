@@ -22,6 +22,8 @@ import static org.apache.solr.update.processor.DistributingUpdateProcessorFactor
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -265,6 +267,132 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
 
   }
 
+  /**
+   * Passes the adds on as one batch when they can all be versioned up front. Without an update log
+   * there are no versions to assign. With one, new adds that we are the leader for are checked
+   * against the versions they were sent with, if any, and versioned together while holding all
+   * their ids' locks, so that the processors after this one log and index the whole batch at once.
+   * Anything else, such as atomic updates or a version conflict, is processed one add at a time.
+   */
+  @Override
+  public void processAdds(List<AddUpdateCommand> cmds) throws IOException {
+    for (AddUpdateCommand cmd : cmds) {
+      setupRequest(cmd);
+      if (!isBatchable(cmd)) {
+        super.processAdds(cmds); // fails on the same add as one by one
+        return;
+      }
+    }
+
+    List<BytesRef> ids = new ArrayList<>(cmds.size());
+    long[] versionsOnUpdate = new long[cmds.size()];
+    boolean checkVersions = false;
+    for (int i = 0; i < versionsOnUpdate.length; i++) {
+      AddUpdateCommand cmd = cmds.get(i);
+      assert TestInjection.injectFailUpdateRequests();
+      cmd.prevVersion =
+          cmd.getReq()
+              .getParams()
+              .getLong(DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION, -1);
+      ids.add(cmd.getIndexedId());
+      if (vinfo != null) {
+        versionsOnUpdate[i] = getVersionOnUpdate(cmd);
+        checkVersions |= versionsStored && versionsOnUpdate[i] != 0;
+      }
+    }
+    if (checkVersions && new HashSet<>(ids).size() < ids.size()) {
+      // an add may expect the version of an earlier add of the batch
+      super.processAdds(cmds);
+      return;
+    }
+
+    boolean added;
+    if (vinfo == null) {
+      doLocalAdds(cmds);
+      added = true;
+    } else {
+      boolean finalCheckVersions = checkVersions;
+      added =
+          getUpdateLocks()
+              .runWithLocks(
+                  ids,
+                  () -> {
+                    if (finalCheckVersions && !versionsMatch(ids, versionsOnUpdate)) {
+                      return false;
+                    }
+                    // versions are assigned in the order the adds are logged and indexed
+                    if (versionsStored) {
+                      for (AddUpdateCommand cmd : cmds) {
+                        long version = vinfo.getNewClock();
+                        cmd.setVersion(version);
+                        cmd.getSolrInputDocument().setField(CommonParams.VERSION_FIELD, version);
+                      }
+                    }
+                    doLocalAdds(cmds);
+                    return true;
+                  });
+    }
+    if (!added) {
+      // report or drop the conflicts like one by one
+      super.processAdds(cmds);
+      return;
+    }
+
+    if (returnVersions && rsp != null && idField != null) {
+      if (addsResponse == null) {
+        addsResponse = new NamedList<>(cmds.size());
+        rsp.add("adds", addsResponse);
+      }
+      if (scratch == null) scratch = new CharsRefBuilder();
+      for (AddUpdateCommand cmd : cmds) {
+        idField.getType().indexedToReadable(cmd.getIndexedId(), scratch);
+        addsResponse.add(scratch.toString(), cmd.getVersion());
+      }
+    }
+  }
+
+  /**
+   * Whether the add can be passed on in a batch: it is not an atomic update and, with an update
+   * log, it is a new add from a client to the leader.
+   */
+  private boolean isBatchable(AddUpdateCommand cmd) {
+    if (cmd.getIndexedId() == null || AtomicUpdateDocumentMerger.isAtomicUpdate(cmd)) {
+      return false;
+    }
+    if (vinfo == null) {
+      return true;
+    }
+    return isLeader
+        && !forwardToLeader
+        && (cmd.getFlags() & (UpdateCommand.REPLAY | UpdateCommand.PEER_SYNC)) == 0
+        && req.getParams().get(DISTRIB_FROM_COLLECTION) == null;
+  }
+
+  /**
+   * Whether the docs with the given ids have the versions the adds were sent with, if any, the same
+   * way {@link #doVersionAdd} checks them. The versions are looked up at once.
+   */
+  private boolean versionsMatch(List<BytesRef> ids, long[] versionsOnUpdate) {
+    List<BytesRef> checkedIds = new ArrayList<>();
+    for (int i = 0; i < versionsOnUpdate.length; i++) {
+      if (versionsOnUpdate[i] != 0) checkedIds.add(ids.get(i));
+    }
+    Long[] lastVersions = vinfo.lookupVersions(checkedIds);
+    int checked = 0;
+    for (long versionOnUpdate : versionsOnUpdate) {
+      if (versionOnUpdate == 0) continue;
+      Long lastVersion = lastVersions[checked++];
+      long foundVersion = lastVersion == null ? -1 : lastVersion;
+      if (versionOnUpdate == foundVersion
+          || (versionOnUpdate < 0 && foundVersion < 0)
+          || (versionOnUpdate == 1 && foundVersion > 0)) {
+        continue;
+      }
+      return false;
+    }
+    return true;
+  }
+
   protected void doDistribAdd(AddUpdateCommand cmd) throws IOException {
     // no-op for derived classes to implement
   }
@@ -275,6 +403,12 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
     isIndexChanged = true;
   }
 
+  // must be synchronized by the buckets of all the adds
+  private void doLocalAdds(List<AddUpdateCommand> cmds) throws IOException {
+    if (next != null) next.processAdds(cmds);
+    isIndexChanged = true;
+  }
+
   // must be synchronized by bucket
   private void doLocalDelete(DeleteUpdateCommand cmd) throws IOException {
     super.processDelete(cmd);
@@ -307,22 +441,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
     // at this point, there is an update we need to try and apply.
     // we may or may not be the leader.
 
-    // Find any existing version in the document
-    // TODO: don't reuse update commands any more!
-    long versionOnUpdate = cmd.getVersion();
-
-    if (versionOnUpdate == 0) {
-      SolrInputField versionField = cmd.getSolrInputDocument().getField(CommonParams.VERSION_FIELD);
-      if (versionField != null) {
-        Object o = versionField.getValue();
-        versionOnUpdate =
-            o instanceof Number ? ((Number) o).longValue() : Long.parseLong(o.toString());
-      } else {
-        // Find the version
-        String versionOnUpdateS = req.getParams().get(CommonParams.VERSION_FIELD);
-        versionOnUpdate = versionOnUpdateS == null ? 0 : Long.parseLong(versionOnUpdateS);
-      }
-    }
+    long versionOnUpdate = getVersionOnUpdate(cmd);
 
     boolean isReplayOrPeersync =
         (cmd.getFlags() & (UpdateCommand.REPLAY | UpdateCommand.PEER_SYNC)) != 0;
@@ -367,6 +486,27 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
             });
   }
 
+  /** Returns the version the add was sent with, in the doc or the request; 0 if none. */
+  private long getVersionOnUpdate(AddUpdateCommand cmd) {
+    // Find any existing version in the document
+    // TODO: don't reuse update commands any more!
+    long versionOnUpdate = cmd.getVersion();
+
+    if (versionOnUpdate == 0) {
+      SolrInputField versionField = cmd.getSolrInputDocument().getField(CommonParams.VERSION_FIELD);
+      if (versionField != null) {
+        Object o = versionField.getValue();
+        versionOnUpdate =
+            o instanceof Number ? ((Number) o).longValue() : Long.parseLong(o.toString());
+      } else {
+        // Find the version
+        String versionOnUpdateS = req.getParams().get(CommonParams.VERSION_FIELD);
+        versionOnUpdate = versionOnUpdateS == null ? 0 : Long.parseLong(versionOnUpdateS);
+      }
+    }
+    return versionOnUpdate;
+  }
+
   private boolean doVersionAdd(
       AddUpdateCommand cmd,
       long versionOnUpdate,
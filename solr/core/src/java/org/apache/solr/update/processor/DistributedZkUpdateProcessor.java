@@ -279,6 +279,14 @@ public class DistributedZkUpdateProcessor extends DistributedUpdateProcessor {
 
     super.processAdd(cmd);
   }
+  @Override
+  public void processAdds(List<AddUpdateCommand> cmds) throws IOException {
+    // each add is checked against the cluster state and distributed on its own
+    for (AddUpdateCommand cmd : cmds) {
+      processAdd(cmd);
+    }
+  }
+
 
   @Override
   protected void doDistribAdd(AddUpdateCommand cmd) throws IOException {
@@ -110,6 +110,27 @@ public class LogUpdateProcessorFactory extends UpdateRequestProcessorFactory
       // call delegate first so we can log things like the version that get set later
       if (next != null) next.processAdd(cmd);
 
+      logAdd(cmd);
+    }
+
+    @Override
+    public void processAdds(List<AddUpdateCommand> cmds) throws IOException {
+      if (logDebug) {
+        for (AddUpdateCommand cmd : cmds) {
+          log.debug("PRE_UPDATE {} {}", cmd, req);
+        }
+      }
+
+      // call delegate first so we can log things like the version that get set later
+      if (next != null) next.processAdds(cmds);
+
+      for (AddUpdateCommand cmd : cmds) {
+        logAdd(cmd);
+      }
+    }
+
+    /** Records an add that was processed, for the summary logged by {@link #finish()}. */
+    void logAdd(AddUpdateCommand cmd) {
       // Add a list of added id's to the response
       if (adds == null) {
         adds = new ArrayList<>();
@@ -133,6 +154,11 @@ public class LogUpdateProcessorFactory extends UpdateRequestProcessorFactory
       }
       if (next != null) next.processDelete(cmd);
 
+      logDelete(cmd);
+    }
+
+    /** Records a delete that was processed, for the summary logged by {@link #finish()}. */
+    void logDelete(DeleteUpdateCommand cmd) {
       if (cmd.isDeleteById()) {
         if (deletes == null) {
           deletes = new ArrayList<>();
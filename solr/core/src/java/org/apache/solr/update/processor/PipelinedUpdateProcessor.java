@@ -0,0 +1,406 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update.processor;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.params.UpdateParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.CommitUpdateCommand;
+import org.apache.solr.update.DeleteUpdateCommand;
+import org.apache.solr.update.MergeIndexesCommand;
+import org.apache.solr.update.RollbackUpdateCommand;
+import org.apache.solr.update.processor.LogUpdateProcessorFactory.LogUpdateProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets a loader parse a request on the request thread while the update processor chain, including
+ * the conversion to Lucene documents and indexing, runs on {@link UpdateParams#PIPELINE_THREADS}
+ * threads, each with its own instance of the chain.
+ *
+ * <p>Adds and deletes by id are handed to the thread chosen by the hash of their id, through a
+ * bounded queue, so that updates of the same id are processed in the order they were parsed. Any
+ * other command waits until all queued updates are processed. A delete by query then runs on the
+ * chain of one of the threads; a commit, rollback or merge runs on the request's own chain, which
+ * is the {@code next} processor. Unlike with a single thread, when an update fails the updates of
+ * other ids parsed before the failure was noticed may still be indexed.
+ *
+ * <p>The chains of the threads have their own responses, and no {@link LogUpdateProcessorFactory}.
+ * Their updates are recorded by the log processor of the request's chain, which logs one summary
+ * for the request, and the lowest replication factor they achieved is added to the request's
+ * response. Requests whose chain has a {@link TolerantUpdateProcessorFactory}, whose maximum number
+ * of errors is for the whole request, are not pipelined.
+ *
+ * <p>Adds that are queued consecutively for a thread are handed to its chain as one batch, see
+ * {@link UpdateRequestProcessor#processAdds(List)}.
+ *
+ * <p>The loader must not reuse the commands it passes, must call {@link #finishPipeline()} when it
+ * has loaded everything, and {@link #closePipeline()} in any case. The request's chain is finished
+ * and closed by the handler as usual.
+ */
+public class PipelinedUpdateProcessor extends UpdateRequestProcessor {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final int QUEUE_SIZE = 64;
+  private static final long POLL_MS = 100;
+  private static final Object STOP = new Object();
+
+  private final Worker[] workers;
+  private final SolrQueryResponse rsp;
+  private final LogUpdateProcessor logProcessor;
+  private final String uniqueKey;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private volatile boolean aborted;
+  private boolean stopped;
+  private int nextWorker; // for documents without an id
+
+  /**
+   * Returns a pipeline in front of the given processor if the request asks for more than one
+   * thread, or null if its updates should be processed by the processor directly.
+   */
+  public static PipelinedUpdateProcessor forRequest(
+      SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor processor) {
+    SolrParams params = req.getParams();
+    int threads = params.getInt(UpdateParams.PIPELINE_THREADS, 1);
+    if (threads <= 1
+        || processor instanceof PipelinedUpdateProcessor
+        // the versions are added to the response, one list per chain
+        || params.getBool(UpdateParams.VERSIONS, false)) {
+      return null;
+    }
+    UpdateRequestProcessorChain chain = req.getCore().getUpdateProcessorChain(params);
+    List<UpdateRequestProcessorFactory> factories = new ArrayList<>();
+    for (UpdateRequestProcessorFactory factory : chain.getProcessors()) {
+      if (factory instanceof TolerantUpdateProcessorFactory) {
+        // it counts the errors of one chain, not of the request
+        return null;
+      } else if (!(factory instanceof LogUpdateProcessorFactory)) {
+        factories.add(factory);
+      }
+    }
+    threads = Math.min(threads, Runtime.getRuntime().availableProcessors());
+    return new PipelinedUpdateProcessor(
+        req, rsp, processor, new UpdateRequestProcessorChain(factories, req.getCore()), threads);
+  }
+
+  private PipelinedUpdateProcessor(
+      SolrQueryRequest req,
+      SolrQueryResponse rsp,
+      UpdateRequestProcessor next,
+      UpdateRequestProcessorChain workerChain,
+      int threads) {
+    super(next);
+    this.rsp = rsp;
+    this.logProcessor = findLogProcessor(next);
+    SchemaField uniqueKeyField = req.getSchema().getUniqueKeyField();
+    this.uniqueKey = uniqueKeyField == null ? null : uniqueKeyField.getName();
+    this.workers = new Worker[threads];
+    try {
+      for (int i = 0; i < threads; i++) {
+        SolrQueryResponse workerRsp = new SolrQueryResponse();
+        workerRsp.addResponseHeader(new SimpleOrderedMap<>());
+        workers[i] = new Worker(workerChain.createProcessor(req, workerRsp), workerRsp);
+      }
+      for (Worker worker : workers) {
+        // the update executor propagates the request info to its threads
+        req.getCoreContainer().getUpdateShardHandler().getUpdateExecutor().execute(worker);
+        worker.started = true;
+      }
+    } catch (RuntimeException e) {
+      closePipeline();
+      throw e;
+    }
+  }
+
+  private static LogUpdateProcessor findLogProcessor(UpdateRequestProcessor processor) {
+    for (UpdateRequestProcessor p = processor; p != null; p = p.next) {
+      if (p instanceof LogUpdateProcessor logProcessor) {
+        return logProcessor;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void processAdd(AddUpdateCommand cmd) throws IOException {
+    Object id = uniqueKey == null ? null : cmd.getSolrInputDocument().getFieldValue(uniqueKey);
+    enqueue(id == null ? workers[nextWorker++ % workers.length] : workerFor(id), cmd);
+  }
+
+  @Override
+  public void processDelete(DeleteUpdateCommand cmd) throws IOException {
+    if (cmd.isDeleteById()) {
+      enqueue(workerFor(cmd.getId()), cmd);
+    } else {
+      // on the chain of a thread, so that only those report a replication factor
+      awaitQueued();
+      enqueue(workers[0], cmd);
+      awaitQueued();
+    }
+  }
+
+  @Override
+  public void processMergeIndexes(MergeIndexesCommand cmd) throws IOException {
+    awaitQueued();
+    super.processMergeIndexes(cmd);
+  }
+
+  @Override
+  public void processCommit(CommitUpdateCommand cmd) throws IOException {
+    awaitQueued();
+    super.processCommit(cmd);
+  }
+
+  @Override
+  public void processRollback(RollbackUpdateCommand cmd) throws IOException {
+    awaitQueued();
+    super.processRollback(cmd);
+  }
+
+  /**
+   * Waits until all queued updates are processed, stops the threads and finishes their chains.
+   * Throws the first failure of an update or of finishing.
+   */
+  public void finishPipeline() throws IOException {
+    awaitQueued();
+    stopWorkers();
+    checkFailure();
+    IOException firstException = null;
+    for (Worker worker : workers) {
+      try {
+        worker.chain.finish();
+      } catch (IOException e) {
+        if (firstException == null) {
+          firstException = e;
+        } else {
+          firstException.addSuppressed(e);
+        }
+      }
+    }
+    if (firstException != null) {
+      throw firstException;
+    }
+    addReplicationFactor();
+  }
+
+  /** Adds the lowest replication factor that the chains of the threads report, if any. */
+  private void addReplicationFactor() {
+    int minRf = Integer.MAX_VALUE;
+    for (Worker worker : workers) {
+      for (Object rf : worker.rsp.getResponseHeader().getAll(UpdateRequest.REPFACT)) {
+        minRf = Math.min(minRf, ((Number) rf).intValue());
+      }
+    }
+    NamedList<Object> header = rsp.getResponseHeader();
+    if (minRf != Integer.MAX_VALUE && header != null) {
+      header.add(UpdateRequest.REPFACT, minRf);
+    }
+  }
+
+  private void logAdds(List<AddUpdateCommand> cmds) {
+    if (logProcessor != null) {
+      synchronized (logProcessor) {
+        for (AddUpdateCommand cmd : cmds) {
+          logProcessor.logAdd(cmd);
+        }
+      }
+    }
+  }
+
+  private void logDelete(DeleteUpdateCommand cmd) {
+    if (logProcessor != null) {
+      synchronized (logProcessor) {
+        logProcessor.logDelete(cmd);
+      }
+    }
+  }
+
+  /** Stops the threads, dropping any queued updates, and closes their chains. */
+  public void closePipeline() {
+    aborted = true;
+    stopWorkers();
+    for (Worker worker : workers) {
+      if (worker == null) {
+        break;
+      }
+      try {
+        worker.chain.close();
+      } catch (Exception e) {
+        log.error("Exception closing pipelined processor", e);
+      }
+    }
+  }
+
+  private Worker workerFor(Object id) {
+    return workers[Math.floorMod(id.toString().hashCode(), workers.length)];
+  }
+
+  private void enqueue(Worker worker, Object item) throws IOException {
+    checkFailure();
+    try {
+      while (!worker.queue.offer(item, POLL_MS, TimeUnit.MILLISECONDS)) {
+        if (worker.done.getCount() == 0) {
+          checkFailure();
+          throw new SolrException(ErrorCode.SERVER_ERROR, "Update pipeline thread stopped");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(ErrorCode.SERVER_ERROR, "Interrupted while queueing update", e);
+    }
+  }
+
+  private void awaitQueued() throws IOException {
+    CountDownLatch processed = new CountDownLatch(workers.length);
+    for (Worker worker : workers) {
+      enqueue(worker, processed);
+    }
+    try {
+      while (!processed.await(POLL_MS, TimeUnit.MILLISECONDS)) {
+        for (Worker worker : workers) {
+          if (worker.done.getCount() == 0) {
+            checkFailure();
+            throw new SolrException(ErrorCode.SERVER_ERROR, "Update pipeline thread stopped");
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(ErrorCode.SERVER_ERROR, "Interrupted waiting for updates", e);
+    }
+    checkFailure();
+  }
+
+  private void stopWorkers() {
+    if (stopped) {
+      return;
+    }
+    stopped = true;
+    boolean interrupted = false;
+    for (Worker worker : workers) {
+      if (worker == null || !worker.started) {
+        continue;
+      }
+      // the threads keep taking from their queues until they see STOP, even after a failure
+      while (true) {
+        try {
+          if (worker.done.getCount() == 0
+              || worker.queue.offer(STOP, POLL_MS, TimeUnit.MILLISECONDS)) {
+            worker.done.await();
+            break;
+          }
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    Throwable t = failure.get();
+    if (t == null) {
+      return;
+    }
+    if (t instanceof IOException e) {
+      throw e;
+    } else if (t instanceof RuntimeException e) {
+      throw e;
+    } else if (t instanceof Error e) {
+      throw e;
+    }
+    throw new SolrException(ErrorCode.SERVER_ERROR, t);
+  }
+
+  private class Worker implements Runnable {
+    final UpdateRequestProcessor chain;
+    final SolrQueryResponse rsp;
+    final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    final CountDownLatch done = new CountDownLatch(1);
+    boolean started;
+
+    Worker(UpdateRequestProcessor chain, SolrQueryResponse rsp) {
+      this.chain = chain;
+      this.rsp = rsp;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (Object item = queue.take(); item != STOP; item = queue.take()) {
+          if (item instanceof CountDownLatch processed) {
+            processed.countDown();
+          } else if (failure.get() == null && !aborted) {
+            try {
+              if (item instanceof AddUpdateCommand cmd) {
+                processAdds(cmd);
+              } else {
+                DeleteUpdateCommand cmd = (DeleteUpdateCommand) item;
+                chain.processDelete(cmd);
+                logDelete(cmd);
+              }
+            } catch (Throwable t) {
+              failure.compareAndSet(null, t);
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure.compareAndSet(null, e);
+      } finally {
+        done.countDown();
+      }
+    }
+
+    /** Processes the given add and the adds queued right after it as one batch. */
+    private void processAdds(AddUpdateCommand first) throws IOException {
+      if (!(queue.peek() instanceof AddUpdateCommand)) {
+        chain.processAdd(first);
+        logAdds(List.of(first));
+        return;
+      }
+      List<AddUpdateCommand> batch = new ArrayList<>();
+      batch.add(first);
+      // this thread is the only consumer, so what it peeks is what it polls
+      while (batch.size() < QUEUE_SIZE && queue.peek() instanceof AddUpdateCommand cmd) {
+        batch.add(cmd);
+        queue.poll();
+      }
+      chain.processAdds(batch);
+      logAdds(batch);
+    }
+  }
+}
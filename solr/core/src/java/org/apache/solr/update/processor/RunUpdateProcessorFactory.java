@@ -17,6 +17,7 @@
 package org.apache.solr.update.processor;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
@@ -78,6 +79,24 @@ public class RunUpdateProcessorFactory extends UpdateRequestProcessorFactory {
       changesSinceCommit = true;
     }
 
+    @Override
+    public void processAdds(List<AddUpdateCommand> cmds) throws IOException {
+      for (AddUpdateCommand cmd : cmds) {
+        if (AtomicUpdateDocumentMerger.isAtomicUpdate(cmd)) {
+          super.processAdds(cmds); // fails on that one, like one by one
+          return;
+        }
+      }
+
+      try {
+        updateHandler.addDocs(cmds);
+      } finally {
+        // some may have been added before a failure
+        changesSinceCommit = true;
+      }
+      if (next != null) next.processAdds(cmds);
+    }
+
     @Override
     public void processDelete(DeleteUpdateCommand cmd) throws IOException {
       if (cmd.isDeleteById()) {
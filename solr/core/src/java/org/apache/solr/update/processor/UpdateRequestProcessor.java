@@ -19,6 +19,7 @@ package org.apache.solr.update.processor;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.List;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.solr.update.AddUpdateCommand;
 import org.apache.solr.update.CommitUpdateCommand;
@@ -54,6 +55,17 @@ public abstract class UpdateRequestProcessor implements Closeable {
     if (next != null) next.processAdd(cmd);
   }
 
+  /**
+   * Processes several adds, in order, stopping at the first failure. By default, calls {@link
+   * #processAdd(AddUpdateCommand)} for each one; processors that can handle a batch more
+   * efficiently, and pass it on to the next processor as a batch, override this.
+   */
+  public void processAdds(List<AddUpdateCommand> cmds) throws IOException {
+    for (AddUpdateCommand cmd : cmds) {
+      processAdd(cmd);
+    }
+  }
+
   public void processDelete(DeleteUpdateCommand cmd) throws IOException {
     if (next != null) next.processDelete(cmd);
   }
@@ -118,4 +118,63 @@ public class ClusterStateTest extends SolrTestCaseJ4 {
         "Provided liveNodes not used properly", 2, loadedClusterState.getLiveNodes().size());
     assertEquals("Should not have collections", 0, loadedClusterState.size());
   }
+
+  @Test
+  public void testSharesUnchangedSlicesAndReplicas() {
+    DocCollection previous =
+        ClusterState.collectionFromObjects(
+            "collection1", collectionObjects("active"), 1, Instant.EPOCH, null);
+
+    // same content, new version: all the slices are reused
+    DocCollection same =
+        ClusterState.collectionFromObjects(
+            "collection1", collectionObjects("active"), 2, Instant.EPOCH, null, previous);
+    assertEquals(2, same.getZNodeVersion());
+    assertSame(previous.getSlice("shard1"), same.getSlice("shard1"));
+    assertSame(previous.getSlice("shard2"), same.getSlice("shard2"));
+
+    // one replica of shard2 went down: only that replica and its slice are new
+    DocCollection changed =
+        ClusterState.collectionFromObjects(
+            "collection1", collectionObjects("down"), 3, Instant.EPOCH, null, same);
+    assertSame(same.getSlice("shard1"), changed.getSlice("shard1"));
+    Slice shard2 = changed.getSlice("shard2");
+    assertNotSame(same.getSlice("shard2"), shard2);
+    assertEquals(2, shard2.getReplicas().size());
+    assertSame(same.getReplica("core_node3"), shard2.getReplica("core_node3"));
+    assertNotSame(same.getReplica("core_node4"), shard2.getReplica("core_node4"));
+    assertEquals(Replica.State.DOWN, shard2.getReplica("core_node4").getState());
+    assertEquals(shard2.getReplica("core_node3"), shard2.getLeader());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> collectionObjects(String lastReplicaState) {
+    String json =
+        "{'shards':{"
+            + "'shard1':{'range':'80000000-ffffffff','state':'active','replicas':{"
+            + replicaJson("core_node1", "active", true)
+            + ","
+            + replicaJson("core_node2", "active", false)
+            + "}},"
+            + "'shard2':{'range':'0-7fffffff','state':'active','replicas':{"
+            + replicaJson("core_node3", "active", true)
+            + ","
+            + replicaJson("core_node4", lastReplicaState, false)
+            + "}}},"
+            + "'router':{'name':'compositeId'}}";
+    return (Map<String, Object>) Utils.fromJSONString(json.replace('\'', '"'));
+  }
+
+  private static String replicaJson(String name, String state, boolean leader) {
+    return "'"
+        + name
+        + "':{'core':'"
+        + name
+        + "_core','node_name':'node1:10000_solr','base_url':'http://node1:10000/solr',"
+        + "'type':'NRT','state':'"
+        + state
+        + "'"
+        + (leader ? ",'leader':'true'" : "")
+        + "}";
+  }
 }
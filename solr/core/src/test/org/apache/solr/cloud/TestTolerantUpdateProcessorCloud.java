@@ -43,6 +43,7 @@ import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.params.UpdateParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.embedded.JettySolrRunner;
@@ -1151,6 +1152,62 @@ public class TestTolerantUpdateProcessorCloud extends SolrCloudTestCase {
     assertQueryDocIds(client, false, docId21, docId22);
   }
 
+  public void testPipelinedReplicationFactor() throws Exception {
+    List<SolrInputDocument> docs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      docs.add(doc(f("id", (i % 2 == 0 ? S_ONE_PRE : S_TWO_PRE) + i), f("foo_i", "" + i)));
+    }
+    UpdateRequest req = update(params(UpdateParams.PIPELINE_THREADS, "4", "commit", "true"));
+    req.add(docs);
+    UpdateResponse rsp = req.process(S_ONE_LEADER_CLIENT);
+
+    assertEquals(0, rsp.getStatus());
+    // one replication factor for the request, not one per pipeline thread
+    assertEquals(
+        List.of(REPLICATION_FACTOR), rsp.getResponseHeader().getAll(UpdateRequest.REPFACT));
+    assertEquals(100, COLLECTION_CLIENT.query(params("q", "*:*")).getResults().getNumFound());
+  }
+
+  public void testPipelinedTolerantErrors() throws Exception {
+    // the errors and maxErrors of a tolerant chain are for the whole request
+    List<SolrInputDocument> docs = new ArrayList<>();
+    List<ExpectedErr> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String id = (i % 2 == 0 ? S_ONE_PRE : S_TWO_PRE) + i;
+      if (i % 10 == 0) {
+        docs.add(doc(f("id", id), f("foo_i", "bogus_val")));
+        expected.add(addErr(id, "bogus_val"));
+      } else {
+        docs.add(doc(f("id", id), f("foo_i", "" + i)));
+      }
+    }
+    UpdateRequest req =
+        update(
+            params(
+                UpdateParams.PIPELINE_THREADS, "4",
+                "update.chain", "tolerant-chain-max-errors-10",
+                "commit", "true"));
+    req.add(docs);
+    UpdateResponse rsp = req.process(S_ONE_LEADER_CLIENT);
+
+    assertEquals(0, rsp.getStatus());
+    assertEquals(1, rsp.getResponseHeader().getAll("errors").size());
+    assertUpdateTolerantErrors("pipelined", rsp, expected.toArray(new ExpectedErr[0]));
+    assertEquals(90, COLLECTION_CLIENT.query(params("q", "*:*")).getResults().getNumFound());
+
+    // 11 errors in all exceed maxErrors, even if no thread would have seen more than 10
+    docs.add(doc(f("id", S_ONE_PRE + "bogus"), f("foo_i", "bogus_val")));
+    UpdateRequest tooManyErrors =
+        update(
+            params(
+                UpdateParams.PIPELINE_THREADS, "4",
+                "update.chain", "tolerant-chain-max-errors-10"));
+    tooManyErrors.add(docs);
+    SolrException e =
+        expectThrows(SolrException.class, () -> tooManyErrors.process(S_ONE_LEADER_CLIENT));
+    assertEquals(400, e.code());
+  }
+
   /** Asserts that the UpdateResponse contains the specified expectedErrs and no others */
   public static void assertUpdateTolerantErrors(
       String assertionMsgPrefix, UpdateResponse response, ExpectedErr... expectedErrs) {
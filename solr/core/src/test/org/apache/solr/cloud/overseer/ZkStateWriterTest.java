@@ -314,6 +314,75 @@ public class ZkStateWriterTest extends SolrTestCaseJ4 {
     }
   }
 
+  public void testUnchangedStateNotRewritten() throws Exception {
+    Path zkDir = createTempDir("testUnchangedStateNotRewritten");
+
+    ZkTestServer server = new ZkTestServer(zkDir);
+
+    SolrZkClient zkClient = null;
+
+    try {
+      server.run();
+
+      zkClient =
+          new SolrZkClient.Builder()
+              .withUrl(server.getZkAddress())
+              .withTimeout(OverseerTest.DEFAULT_CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+              .build();
+      ZkController.createClusterZkNodes(zkClient);
+
+      try (ZkStateReader reader = new ZkStateReader(zkClient)) {
+        reader.createClusterStateWatchersAndUpdate();
+
+        ZkStateWriter writer =
+            new ZkStateWriter(reader, new Stats(), -1, STATE_COMPRESSION_PROVIDER);
+
+        zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/c1", true);
+
+        Map<String, Object> props =
+            Map.of(ZkStateReader.CONFIGNAME_PROP, ConfigSetsHandler.DEFAULT_CONFIGSET_NAME);
+        ClusterState state =
+            writer.enqueueUpdate(
+                reader.getClusterState(),
+                List.of(new ZkWriteCommand("c1", createDocCollection("c1", props))),
+                null);
+        assertFalse(writer.hasPendingUpdates()); // first write is flushed immediately
+        DocCollection c1 = state.getCollection("c1");
+
+        // the same state again doesn't touch the znode
+        writer.enqueueUpdate(state, List.of(new ZkWriteCommand("c1", c1)), null);
+        state = writer.writePendingUpdates();
+        Stat stat = new Stat();
+        zkClient.getData(ZkStateReader.getCollectionPath("c1"), null, stat);
+        assertEquals(c1.getZNodeVersion(), stat.getVersion());
+        assertEquals(c1.getZNodeVersion(), state.getCollection("c1").getZNodeVersion());
+
+        // but a different one does
+        DocCollection modified =
+            DocCollection.create(
+                "c1",
+                c1.getSlicesMap(),
+                Map.of(
+                    ZkStateReader.CONFIGNAME_PROP,
+                    ConfigSetsHandler.DEFAULT_CONFIGSET_NAME,
+                    "foo",
+                    "bar"),
+                c1.getRouter(),
+                c1.getZNodeVersion(),
+                c1.getCreationTime(),
+                null);
+        writer.enqueueUpdate(state, List.of(new ZkWriteCommand("c1", modified)), null);
+        state = writer.writePendingUpdates();
+        zkClient.getData(ZkStateReader.getCollectionPath("c1"), null, stat);
+        assertEquals(c1.getZNodeVersion() + 1, stat.getVersion());
+        assertEquals(stat.getVersion(), state.getCollection("c1").getZNodeVersion());
+      }
+    } finally {
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
+
   public void testExternalModification() throws Exception {
     Path zkDir = createTempDir("testExternalModification");
 
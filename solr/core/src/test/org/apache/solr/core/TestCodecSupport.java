@@ -24,9 +24,21 @@ import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.lucene104.Lucene104Codec;
 import org.apache.lucene.codecs.perfield.PerFieldDocValuesFormat;
 import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.SegmentInfo;
 import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.util.BytesRef;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.util.NamedList;
@@ -107,6 +119,71 @@ public class TestCodecSupport extends SolrTestCaseJ4 {
     assertEquals("Asserting", format.getDocValuesFormatForField("bar_direct").getName());
   }
 
+  public void testUniqueKeyBloomFilter() {
+    assertEquals("string_f", h.getCore().getLatestSchema().getUniqueKeyField().getName());
+
+    final SchemaCodecFactory factory = new SchemaCodecFactory();
+    final NamedList<Object> args = new NamedList<>();
+    args.add(SchemaCodecFactory.UNIQUE_KEY_BLOOM_FILTER, true);
+    factory.init(args);
+    factory.inform(h.getCore());
+    PerFieldPostingsFormat format = (PerFieldPostingsFormat) factory.getCodec().postingsFormat();
+    assertEquals("BloomFilter", format.getPostingsFormatForField("string_f").getName());
+    assertSame(
+        format.getPostingsFormatForField("string_f"),
+        format.getPostingsFormatForField("string_f"));
+    assertEquals(
+        TestUtil.getDefaultPostingsFormat().getName(),
+        format.getPostingsFormatForField("string_standard_f").getName());
+
+    // not enabled by default
+    format = (PerFieldPostingsFormat) h.getCore().getCodec().postingsFormat();
+    assertEquals(
+        TestUtil.getDefaultPostingsFormat().getName(),
+        format.getPostingsFormatForField("string_f").getName());
+  }
+
+  public void testUniqueKeyBloomFilterLookups() throws IOException {
+    final SchemaCodecFactory factory = new SchemaCodecFactory();
+    final NamedList<Object> args = new NamedList<>();
+    args.add(SchemaCodecFactory.UNIQUE_KEY_BLOOM_FILTER, true);
+    factory.init(args);
+    factory.inform(h.getCore());
+
+    try (Directory dir = newDirectory()) {
+      IndexWriterConfig iwc =
+          new IndexWriterConfig()
+              .setCodec(factory.getCodec())
+              .setMergePolicy(NoMergePolicy.INSTANCE);
+      try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+        for (int segment = 0; segment < 2; segment++) {
+          for (int i = 0; i < 100; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("string_f", segment + "-" + i, Field.Store.NO));
+            writer.addDocument(doc);
+          }
+          writer.commit();
+        }
+      }
+
+      // the default codec finds the bloom filtering format of the segments by its name
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        assertEquals(2, reader.leaves().size());
+        for (LeafReaderContext leaf : reader.leaves()) {
+          FieldInfo fieldInfo = leaf.reader().getFieldInfos().fieldInfo("string_f");
+          assertEquals(
+              "BloomFilter", fieldInfo.getAttribute(PerFieldPostingsFormat.PER_FIELD_FORMAT_KEY));
+          TermsEnum termsEnum = leaf.reader().terms("string_f").iterator();
+          for (int i = 0; i < 100; i++) {
+            assertTrue(termsEnum.seekExact(new BytesRef(leaf.ord + "-" + i)));
+            assertFalse(termsEnum.seekExact(new BytesRef((1 - leaf.ord) + "-" + i)));
+          }
+          assertFalse(termsEnum.seekExact(new BytesRef("missing")));
+        }
+      }
+    }
+  }
+
   private void reloadCoreAndRecreateIndex() {
     h.getCoreContainer().reload(h.coreName);
     assertU(delQ("*:*"));
@@ -420,6 +420,44 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
     assertVersions(leaderClient, followerClient);
   }
 
+  @Test
+  public void testParallelDownloads() throws Exception {
+    clearIndexWithReplication();
+
+    // several segments, so that there are many files to download
+    int totalDocs = 0;
+    for (int segment = 0; segment < 5; segment++) {
+      for (int i = 0; i < 10; i++) {
+        index(
+            leaderClient,
+            "id",
+            totalDocs++,
+            "name",
+            TestUtil.randomSimpleString(random(), 10, 100));
+      }
+      leaderClient.commit();
+    }
+
+    String fetchUrl =
+        buildUrl(followerJetty.getLocalPort())
+            + "/"
+            + DEFAULT_TEST_CORENAME
+            + ReplicationHandler.PATH
+            + "?wait=true&command=fetchindex&"
+            + ReplicationHandler.DOWNLOAD_THREADS
+            + "=4&"
+            + ReplicationHandler.MAX_DOWNLOAD_MB_PER_SEC
+            + "=100&leaderUrl="
+            + buildUrl(leaderJetty.getLocalPort())
+            + "/"
+            + DEFAULT_TEST_CORENAME
+            + ReplicationHandler.PATH;
+    URI.create(fetchUrl).toURL().openStream().close();
+
+    rQuery(totalDocs, "*:*", followerClient);
+    assertVersions(leaderClient, followerClient);
+  }
+
   @Test
   public void doTestReplicateAfterWrite2Follower() throws Exception {
     clearIndexWithReplication();
@@ -16,13 +16,20 @@
  */
 package org.apache.solr.handler.admin;
 
+import static org.apache.solr.common.params.CommonParams.NAME;
+
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.search.CaffeineCache;
+import org.apache.solr.search.NoOpRegenerator;
+import org.apache.solr.search.SolrCache;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -117,4 +124,57 @@ public class CoreInfoHandlerTest extends SolrTestCaseJ4 {
       assertEquals("Instance path should match", core.getInstancePath().toString(), instancePath);
     }
   }
+
+  @Test
+  public void testEntryCosts() throws Exception {
+    CoreInfoHandler handler = new CoreInfoHandler();
+    CaffeineCache<String, String> cache = new CaffeineCache<>();
+    cache.init(
+        Map.of(
+            NAME, "costCache",
+            SolrCache.SIZE_PARAM, "10",
+            SolrCache.TRACK_COST_PARAM, "true"),
+        null,
+        new NoOpRegenerator());
+    cache.setState(SolrCache.State.LIVE);
+    cache.computeIfAbsent("key1", k -> "value1");
+    cache.computeIfAbsent("key2", k -> "value2");
+    assertEquals("value1", cache.get("key1"));
+
+    try (SolrQueryRequest req = req()) {
+      req.getCore().getInfoRegistry().put("costCache", cache);
+      try {
+        SolrQueryResponse rsp = new SolrQueryResponse();
+        handler.handleRequestBody(req, rsp);
+        assertNull("Entry costs are only listed on request", rsp.getValues().get("entryCosts"));
+      } finally {
+        req.getCore().getInfoRegistry().remove("costCache");
+      }
+    }
+
+    try (SolrQueryRequest req = req(CoreInfoHandler.ENTRY_COSTS_PARAM, "1")) {
+      req.getCore().getInfoRegistry().put("costCache", cache);
+      try {
+        SolrQueryResponse rsp = new SolrQueryResponse();
+        handler.handleRequestBody(req, rsp);
+
+        @SuppressWarnings("unchecked")
+        SimpleOrderedMap<Object> entryCosts =
+            (SimpleOrderedMap<Object>) rsp.getValues().get("entryCosts");
+        assertNotNull("Entry costs should not be null", entryCosts);
+        @SuppressWarnings("unchecked")
+        List<SimpleOrderedMap<Object>> entries =
+            (List<SimpleOrderedMap<Object>>) entryCosts.get("costCache");
+        assertEquals(1, entries.size());
+        SimpleOrderedMap<Object> entry = entries.get(0);
+        assertEquals("key1", entry.get("key"));
+        assertEquals(1L, entry.get("hits"));
+        assertTrue((Long) entry.get("computeMs") >= 0);
+        assertTrue((Long) entry.get("ramBytes") > 0);
+      } finally {
+        req.getCore().getInfoRegistry().remove("costCache");
+      }
+    }
+    cache.close();
+  }
 }
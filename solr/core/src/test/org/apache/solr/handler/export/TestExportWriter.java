@@ -1173,6 +1173,44 @@ public class TestExportWriter extends SolrTestCaseJ4 {
     validateSort(numDocs);
   }
 
+  @Test
+  public void testExportThreads() throws Exception {
+    // several segments, each of them needing several sorting passes with a small queue
+    int id = 0;
+    for (int seg = 0; seg < 5; seg++) {
+      for (int i = 0; i < 300; i++, id++) {
+        assertU(
+            adoc(
+                "id", String.valueOf(id),
+                "sortabledv", TestUtil.randomSimpleString(random(), 1, 2),
+                "small_i_p", String.valueOf(id % 37)));
+      }
+      assertU(commit());
+    }
+
+    for (String sort : new String[] {"sortabledv asc,small_i_p desc", "small_i_p asc"}) {
+      List<?> expected = queryExportDocs(sort, 1);
+      assertEquals(id, expected.size());
+      for (int threads : new int[] {2, 8}) {
+        assertEquals(
+            "sort=" + sort + ", exportThreads=" + threads,
+            expected,
+            queryExportDocs(sort, threads));
+      }
+    }
+  }
+
+  private List<?> queryExportDocs(String sort, int exportThreads) throws Exception {
+    return queryJsonReturnDocs(
+        req(
+            "q", "*:*",
+            "qt", "/export",
+            "fl", "id,sortabledv,small_i_p",
+            "sort", sort,
+            ExportWriter.QUEUE_SIZE_PARAM, "200",
+            ExportWriter.EXPORT_THREADS_PARAM, String.valueOf(exportThreads)));
+  }
+
   private void createLargeIndex() throws Exception {
     int BATCH_SIZE = 5000;
     int NUM_BATCHES = 20;
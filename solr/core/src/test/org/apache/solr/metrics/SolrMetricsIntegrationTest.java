@@ -114,6 +114,11 @@ public class SolrMetricsIntegrationTest extends SolrTestCaseJ4 {
     assertNotNull(
         SolrMetricTestUtils.getCounterDatapoint(
             reader, "solr_zk_cumulative_multi_ops", baseLabels));
+    assertNotNull(
+        SolrMetricTestUtils.getCounterDatapoint(reader, "solr_zk_state_parsed_bytes", baseLabels));
+    assertNotNull(
+        SolrMetricTestUtils.getCounterDatapoint(
+            reader, "solr_zk_state_parse_time_milliseconds", baseLabels));
 
     Set<String> types = Set.of("delete", "exists", "multi", "read", "write");
 
@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrDocument;
@@ -29,8 +30,10 @@ import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.util.ByteUtils;
 import org.apache.solr.common.util.JavaBinCodec;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.Utf8CharSequence;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequestBase;
+import org.apache.solr.response.JavaBinResponseWriter.MaskCharSeqSolrDocument;
 import org.apache.solr.response.JavaBinResponseWriter.Resolver;
 import org.apache.solr.search.SolrReturnFields;
 import org.junit.BeforeClass;
@@ -93,6 +96,41 @@ public class TestJavaBinResponseWriter extends SolrTestCaseJ4 {
     req.close();
   }
 
+  public void testDocValuesAsUtf8() throws Exception {
+    String s = "Thailand (ประเทศไทย)";
+    assertU(adoc("id", "102", "name_sdv", s, "flag_bdv", "true"));
+    assertU(commit());
+
+    SolrQueryRequest req = req("q", "id:102", "fl", "id,name_sdv,flag_bdv");
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              int docId = searcher.getFirstMatch(new Term("id", "102"));
+              ResultContext.READASBYTES.set(f -> f.equals("name_sdv") || f.equals("flag_bdv"));
+              try {
+                SolrDocument doc =
+                    searcher.getDocFetcher().solrDoc(docId, new SolrReturnFields(req));
+                Object raw = ((MaskCharSeqSolrDocument) doc).getRaw("name_sdv");
+                assertTrue(raw.getClass().getName(), raw instanceof Utf8CharSequence);
+                assertEquals(s, doc.getFieldValue("name_sdv"));
+                assertEquals(Boolean.TRUE, doc.getFieldValue("flag_bdv"));
+              } finally {
+                ResultContext.READASBYTES.remove();
+              }
+              return null;
+            });
+
+    SolrQueryResponse rsp = h.queryAndResponse(null, req);
+    NamedList<Object> res = JavaBinResponseWriter.getParsedResponse(req, rsp);
+    SolrDocument doc = ((SolrDocumentList) res.get("response")).get(0);
+    assertEquals(s, doc.getFieldValue("name_sdv"));
+    assertEquals(Boolean.TRUE, doc.getFieldValue("flag_bdv"));
+    req.close();
+
+    assertU(delI("102"));
+    assertU(commit());
+  }
+
   public void testOmitHeader() throws Exception {
     SolrQueryRequest req = req("q", "*:*", "omitHeader", "true");
     SolrQueryResponse rsp = h.queryAndResponse(null, req);
@@ -388,6 +388,99 @@ public class TestCaffeineCache extends SolrTestCase {
     assertEquals(emptySize, cache.ramBytesUsed());
   }
 
+  @Test
+  public void testAdmission() throws IOException {
+    CaffeineCache<Integer, String> cache = new CaffeineCache<>();
+    Map<String, String> params =
+        Map.of(
+            SolrCache.SIZE_PARAM, "100",
+            SolrCache.ADMIT_AFTER_PARAM, "3",
+            SolrCache.ASYNC_PARAM, Boolean.toString(random().nextBoolean()));
+    cache.init(params, null, new NoOpRegenerator());
+
+    // not live yet, e.g. warming
+    cache.put(0, "zero");
+    assertEquals("zero", cache.get(0));
+
+    cache.setState(SolrCache.State.LIVE);
+    assertEquals("one", cache.computeIfAbsent(1, k -> "one"));
+    assertEquals(1, cache.size());
+    assertNull(cache.get(1));
+    assertEquals(1, cache.size());
+    // third sighting
+    assertEquals("one", cache.computeIfAbsent(1, k -> "one"));
+    assertEquals(2, cache.size());
+    assertEquals(
+        "one",
+        cache.computeIfAbsent(
+            1,
+            k -> {
+              throw new AssertionError("should be cached");
+            }));
+
+    // puts need prior lookups
+    cache.put(2, "two");
+    assertEquals(2, cache.size());
+    cache.get(2);
+    cache.get(2);
+    cache.get(2);
+    cache.put(2, "two");
+    assertEquals("two", cache.get(2));
+    cache.close();
+  }
+
+  @Test
+  public void testCostAwareAdmission() throws IOException {
+    CaffeineCache<Integer, String> cache = new CaffeineCache<>();
+    String cacheName = scope + "-cost";
+    SolrMetricsContext solrMetricsContext = new SolrMetricsContext(metricManager, registry);
+    cache.initializeMetrics(solrMetricsContext, Attributes.of(NAME_ATTR, cacheName), "solr_cache");
+    Map<String, String> params =
+        Map.of(
+            SolrCache.SIZE_PARAM, "100",
+            SolrCache.ADMIT_AFTER_PARAM, "10",
+            SolrCache.ADMIT_COST_MS_PARAM, "20");
+    cache.init(params, null, new NoOpRegenerator());
+    cache.setState(SolrCache.State.LIVE);
+
+    assertEquals("cheap", cache.computeIfAbsent(1, k -> "cheap"));
+    assertEquals(0, cache.size());
+    assertEquals(
+        "expensive",
+        cache.computeIfAbsent(
+            2,
+            k -> {
+              try {
+                Thread.sleep(30);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return "expensive";
+            }));
+    assertEquals(1, cache.size());
+    assertEquals("expensive", cache.get(2));
+    assertEquals(
+        "expensive",
+        cache.computeIfAbsent(
+            2,
+            k -> {
+              throw new AssertionError("should be cached");
+            }));
+
+    List<Map.Entry<Integer, CaffeineCache.EntryCost>> costs = cache.getEntryCosts(10);
+    assertEquals(1, costs.size());
+    assertEquals(2, costs.get(0).getKey().intValue());
+    CaffeineCache.EntryCost cost = costs.get(0).getValue();
+    assertTrue(cost.getComputeNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertTrue(cost.getRamBytes() > 0);
+    assertEquals(2, cost.getHits());
+
+    cache.remove(2);
+    assertEquals(0, cache.getEntryCosts(10).size());
+    cache.close();
+    solrMetricsContext.close();
+  }
+
   private CounterSnapshot.CounterDataPointSnapshot getCacheOperation(
       FilterablePrometheusMetricReader prometheusReader, String cacheName, String operation) {
     return SolrMetricTestUtils.getCounterDatapoint(
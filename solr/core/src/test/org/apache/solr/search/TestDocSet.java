@@ -107,6 +107,14 @@ public class TestDocSet extends SolrTestCase {
     return new BitDocSet(bs);
   }
 
+  public DocSet getRoaringDocSet(FixedBitSet bs) {
+    return RoaringDocSet.fromBits(bs);
+  }
+
+  public DocSet getOffHeapDocSet(FixedBitSet bs) {
+    return OffHeapDocSet.copyOf(rand.nextBoolean() ? getBitDocSet(bs) : getIntDocSet(bs));
+  }
+
   public DocSlice getDocSlice(FixedBitSet bs) {
     int len = bs.cardinality();
     int[] arr = new int[len + 5];
@@ -128,7 +136,7 @@ public class TestDocSet extends SolrTestCase {
   }
 
   public DocSet getDocSet(FixedBitSet bs) {
-    switch (rand.nextInt(9)) {
+    switch (rand.nextInt(11)) {
       case 0:
       case 1:
       case 2:
@@ -145,6 +153,10 @@ public class TestDocSet extends SolrTestCase {
         return getIntDocSet(bs);
       case 8:
         return getIntDocSet(bs);
+      case 9:
+        return getRoaringDocSet(bs);
+      case 10:
+        return getOffHeapDocSet(bs);
     }
     return null;
   }
@@ -224,6 +236,121 @@ public class TestDocSet extends SolrTestCase {
     // doMany(130, 1000000);
   }
 
+  /** A set spanning several blocks of a {@link RoaringDocSet}, with sparse, dense and run blocks */
+  private FixedBitSet getRandomBlockSet(int maxDoc) {
+    FixedBitSet bs = new FixedBitSet(maxDoc);
+    for (int start = 0; start < maxDoc; start += 1 << 16) {
+      int end = Math.min(maxDoc, start + (1 << 16));
+      switch (rand.nextInt(4)) {
+        case 0:
+          break;
+        case 1:
+          for (int i = rand.nextInt(100); i > 0; i--) {
+            bs.set(start + rand.nextInt(end - start));
+          }
+          break;
+        case 2:
+          for (int i = start; i < end; i++) {
+            if (rand.nextInt(3) == 0) bs.set(i);
+          }
+          break;
+        case 3:
+          for (int i = start; i < end; ) {
+            int runEnd = Math.min(end, i + rand.nextInt(2000) + 1);
+            if (rand.nextBoolean()) bs.set(i, runEnd);
+            i = runEnd + 1;
+          }
+          break;
+      }
+    }
+    return bs;
+  }
+
+  public void testRoaringDocSets() {
+    for (int i = 0; i < 50; i++) {
+      int maxDoc = rand.nextInt(300000) + 1;
+      FixedBitSet bs1 = getRandomBlockSet(maxDoc);
+      FixedBitSet bs2 = getRandomBlockSet(maxDoc);
+      DocSet a1 = new BitDocSet(bs1);
+      DocSet r1 = RoaringDocSet.fromBits(bs1);
+      DocSet r2 = RoaringDocSet.fromBits(bs2);
+      DocSet b2 = getDocSet(bs2);
+
+      checkEqual(bs1, r1);
+      iter(a1, r1);
+      assertTrue(DocSetUtil.equals(r2, b2));
+
+      FixedBitSet and = bs1.clone();
+      and.and(bs2);
+      FixedBitSet or = bs1.clone();
+      or.or(bs2);
+      FixedBitSet andNot = bs1.clone();
+      andNot.andNot(bs2);
+      for (DocSet other : new DocSet[] {r2, b2}) {
+        iter(new BitDocSet(and), r1.intersection(other));
+        iter(new BitDocSet(or), r1.union(other));
+        iter(new BitDocSet(andNot), r1.andNot(other));
+        iter(new BitDocSet(and), other.intersection(r1));
+        assertEquals(and.cardinality(), r1.intersectionSize(other));
+        assertEquals(and.cardinality(), other.intersectionSize(r1));
+        assertEquals(or.cardinality(), r1.unionSize(other));
+        assertEquals(andNot.cardinality(), r1.andNotSize(other));
+        assertEquals(and.cardinality() > 0, r1.intersects(other));
+      }
+
+      FixedBitSet target = new FixedBitSet(maxDoc);
+      r1.addAllTo(target);
+      assertEquals(bs1, target);
+    }
+  }
+
+  public void testCompress() {
+    int maxDoc = 1 << 20;
+    FixedBitSet bs = new FixedBitSet(maxDoc);
+    // runs compress well
+    bs.set(1000, 200000);
+    bs.set(500000, 500100);
+    BitDocSet bitDocSet = new BitDocSet(bs);
+    DocSet compressed = DocSetUtil.compress(bitDocSet);
+    assertTrue(compressed instanceof RoaringDocSet);
+    assertTrue(compressed.ramBytesUsed() * 10 < bitDocSet.ramBytesUsed());
+    iter(bitDocSet, compressed);
+
+    // random bits don't
+    FixedBitSet random = getRandomSet(maxDoc, maxDoc / 2);
+    BitDocSet randomDocSet = new BitDocSet(random);
+    assertSame(randomDocSet, DocSetUtil.compress(randomDocSet));
+  }
+
+  public void testRoaringRunOperations() {
+    int maxDoc = 1 << 17;
+    FixedBitSet bs1 = new FixedBitSet(maxDoc);
+    bs1.set(0, 1000);
+    bs1.set(2000, 3000);
+    bs1.set(70000, 80000);
+    FixedBitSet bs2 = new FixedBitSet(maxDoc);
+    bs2.set(1000, 2000); // adjoins both runs of bs1
+    bs2.set(2500, 5000); // overlaps the second
+    bs2.set(75000, 75010);
+    DocSet r1 = RoaringDocSet.fromBits(bs1);
+    DocSet r2 = RoaringDocSet.fromBits(bs2);
+
+    FixedBitSet or = bs1.clone();
+    or.or(bs2);
+    DocSet union = r1.union(r2);
+    iter(new BitDocSet(or), union);
+    // the merged runs stay runs, rather than becoming bitmaps
+    assertTrue(union.ramBytesUsed() < r1.ramBytesUsed() + r2.ramBytesUsed());
+
+    FixedBitSet and = bs1.clone();
+    and.and(bs2);
+    iter(new BitDocSet(and), r1.intersection(r2));
+    FixedBitSet andNot = bs1.clone();
+    andNot.andNot(bs2);
+    iter(new BitDocSet(andNot), r1.andNot(r2));
+    assertEquals(and.cardinality(), r1.intersectionSize(r2));
+  }
+
   public DocSet getRandomDocSet(int n, int maxDoc) {
     FixedBitSet obs = new FixedBitSet(maxDoc);
     int[] a = new int[n];
@@ -570,16 +697,20 @@ public class TestDocSet extends SolrTestCase {
   }
 
   /**
-   * Tests equivalence among {@link DocIdSetIterator} instances retrieved from {@link BitDocSet} and
-   * {@link SortedIntDocSet} implementations, via {@link DocSet#makeQuery()} and directly via {@link
-   * DocSet#iterator(LeafReaderContext)}. Also tests corresponding random-access {@link Bits}
-   * instances retrieved via {@link DocSet#makeQuery()}/ {@link DocIdSet#bits()}.
+   * Tests equivalence among {@link DocIdSetIterator} instances retrieved from {@link BitDocSet},
+   * {@link SortedIntDocSet}, {@link RoaringDocSet} and {@link OffHeapDocSet} implementations, via
+   * {@link DocSet#makeQuery()} and directly via {@link DocSet#iterator(LeafReaderContext)}. Also
+   * tests corresponding random-access {@link Bits} instances retrieved via {@link
+   * DocSet#makeQuery()}/ {@link DocIdSet#bits()}.
    */
   public void doFilterTest(IndexReader reader) throws IOException {
     IndexReaderContext topLevelContext = reader.getContext();
     FixedBitSet bs = getRandomSet(reader.maxDoc(), rand.nextInt(reader.maxDoc() + 1));
     DocSet a = new BitDocSet(bs);
     DocSet b = getIntDocSet(bs);
+    DocSet c = getRoaringDocSet(bs);
+    DocSet d = OffHeapDocSet.copyOf(a);
+    DocSet e = OffHeapDocSet.copyOf(b);
 
     //    Query fa = a.makeQuery();
     //    Query fb = b.makeQuery();
@@ -599,7 +730,10 @@ public class TestDocSet extends SolrTestCase {
       doTestIteratorEqual(
           getExpectedBits(a, readerContext),
           () -> a.iterator(readerContext),
-          () -> b.iterator(readerContext));
+          () -> b.iterator(readerContext),
+          () -> c.iterator(readerContext),
+          () -> d.iterator(readerContext),
+          () -> e.iterator(readerContext));
     }
 
     int nReaders = leaves.size();
@@ -609,7 +743,10 @@ public class TestDocSet extends SolrTestCase {
       doTestIteratorEqual(
           getExpectedBits(a, readerContext),
           () -> a.iterator(readerContext),
-          () -> b.iterator(readerContext));
+          () -> b.iterator(readerContext),
+          () -> c.iterator(readerContext),
+          () -> d.iterator(readerContext),
+          () -> e.iterator(readerContext));
     }
   }
 
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.Buffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+/** Test for {@link OffHeapCaffeineCache}. */
+public class TestOffHeapCaffeineCache extends SolrTestCase {
+
+  private static <K, V> OffHeapCaffeineCache<K, V> newCache() {
+    OffHeapCaffeineCache<K, V> cache = new OffHeapCaffeineCache<>();
+    Map<String, String> params = new HashMap<>();
+    params.put("size", "100");
+    params.put("autowarmCount", "10");
+    cache.init(params, null, new NoOpRegenerator());
+    cache.setState(SolrCache.State.LIVE);
+    return cache;
+  }
+
+  @Test
+  public void testDocSets() throws Exception {
+    OffHeapCaffeineCache<String, DocSet> cache = newCache();
+    try {
+      int maxDoc = 1000;
+      FixedBitSet bits = new FixedBitSet(maxDoc);
+      for (int i = 0; i < maxDoc; i += 3) {
+        bits.set(i);
+      }
+      BitDocSet bitDocSet = new BitDocSet(bits);
+      SortedIntDocSet intDocSet = new SortedIntDocSet(new int[] {1, 5, 700});
+
+      cache.put("ints", intDocSet);
+      Set<Reference<Buffer>> intsBuffers = new HashSet<>(cache.liveBuffers());
+      cache.put("bits", bitDocSet);
+      Set<Reference<Buffer>> bitsBuffers = new HashSet<>(cache.liveBuffers());
+      bitsBuffers.removeAll(intsBuffers);
+      assertEquals(2, cache.size());
+      assertEquals(
+          (long) FixedBitSet.bits2words(maxDoc) * Long.BYTES + 3 * Integer.BYTES,
+          cache.offHeapBytesUsed());
+
+      // lookups read the off-heap memory in place
+      DocSet cachedBits = cache.get("bits");
+      assertTrue(cachedBits instanceof OffHeapDocSet);
+      assertSame(cachedBits, cache.get("bits"));
+      assertEquals(bitDocSet.size(), cachedBits.size());
+      assertTrue(DocSetUtil.equals(bitDocSet, cachedBits));
+      assertEquals(bitDocSet.size(), cachedBits.intersectionSize(bitDocSet));
+      assertEquals(0, cachedBits.intersectionSize(intDocSet));
+      assertEquals(bitDocSet.size(), cachedBits.andNot(intDocSet).size());
+
+      DocSet cachedInts = cache.get("ints");
+      assertTrue(cachedInts instanceof OffHeapDocSet);
+      assertTrue(DocSetUtil.equals(intDocSet, cachedInts));
+
+      // the computing caller gets its own instance back
+      DocSet computed = new SortedIntDocSet(new int[] {2, 3});
+      assertSame(computed, cache.computeIfAbsent("computed", k -> computed));
+      assertTrue(DocSetUtil.equals(computed, cache.computeIfAbsent("computed", k -> null)));
+
+      // the memory of removed entries is counted until their buffers are garbage collected
+      cache.remove("bits");
+      assertEquals(
+          (long) FixedBitSet.bits2words(maxDoc) * Long.BYTES + 5 * Integer.BYTES,
+          cache.offHeapBytesUsed());
+      bitsBuffers.forEach(Reference::enqueue);
+      assertEquals(5 * Integer.BYTES, cache.offHeapBytesUsed());
+      cache.clear();
+      cache.liveBuffers().forEach(Reference::enqueue);
+      assertEquals(0, cache.offHeapBytesUsed());
+      assertTrue(cache.liveBuffers().isEmpty());
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testRejectedPutsAreNotCopied() throws IOException {
+    OffHeapCaffeineCache<String, DocSet> cache = new OffHeapCaffeineCache<>();
+    cache.init(Map.of("size", "100", "admitAfter", "2"), null, new NoOpRegenerator());
+    cache.setState(SolrCache.State.LIVE);
+    try {
+      DocSet docSet = new SortedIntDocSet(new int[] {1, 5, 700});
+      cache.put("once", docSet);
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.offHeapBytesUsed());
+
+      cache.get("twice");
+      cache.get("twice");
+      cache.put("twice", docSet);
+      assertEquals(1, cache.size());
+      assertEquals(3 * Integer.BYTES, cache.offHeapBytesUsed());
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testDocLists() throws IOException {
+    OffHeapCaffeineCache<String, DocList> cache = newCache();
+    try {
+      int[] docs = {7, 3, 42, 11, 5};
+      float[] scores = {5f, 4f, 3f, 2f, 1f};
+      DocSlice slice = new DocSlice(0, 5, docs, scores, 20, 5f, TotalHits.Relation.EQUAL_TO);
+      cache.put("q", slice);
+
+      DocList cached = cache.get("q");
+      assertTrue(cached instanceof OffHeapDocList);
+      assertEquals(5, cached.size());
+      assertEquals(20, cached.matches());
+      assertTrue(cached.hasScores());
+      DocIterator iter = cached.iterator();
+      for (int i = 0; i < docs.length; i++) {
+        assertTrue(iter.hasNext());
+        assertEquals(docs[i], iter.nextDoc());
+        assertEquals(scores[i], iter.score(), 0f);
+      }
+      assertFalse(iter.hasNext());
+
+      DocList subset = cached.subset(2, 2);
+      assertEquals(2, subset.offset());
+      assertEquals(2, subset.size());
+      iter = subset.iterator();
+      assertEquals(42, iter.nextDoc());
+      assertEquals(11, iter.nextDoc());
+      assertFalse(iter.hasNext());
+
+      // more matches exist than were stored
+      assertNull(cached.subset(4, 10));
+    } finally {
+      cache.close();
+    }
+  }
+}
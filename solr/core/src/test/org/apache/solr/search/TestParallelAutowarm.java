@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import io.prometheus.metrics.model.snapshots.Labels;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.util.SolrMetricTestUtils;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+
+/** Tests autowarming caches with {@code autowarmThreads > 1}. */
+public class TestParallelAutowarm extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("solr.autowarmThreads", "4");
+    // concurrent regeneration requires a cache that supports recursion
+    System.setProperty("solr.filterCache.async", "true");
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("solr.autowarmThreads");
+    System.clearProperty("solr.filterCache.async");
+  }
+
+  @Before
+  public void before() {
+    clearIndex();
+  }
+
+  public void testFilterCacheWarmedConcurrently() throws Exception {
+    assertNotNull(h.getCore().getAutowarmExecutor());
+    indexAndCacheFilters();
+
+    assertU(adoc("id", "100", "val_s", "v0"));
+    assertU(commit());
+
+    // the collection1 filterCache has autowarmCount=2 (queryResultCache warming may add more)
+    int filterCacheSize = h.getCore().withSearcher(searcher -> searcher.getFilterCache().size());
+    assertTrue("filterCache size " + filterCacheSize, filterCacheSize >= 2);
+    assertEquals(2, getFilterCacheWarmupEntries("warmed"), 0.0);
+    assertEquals(0, getFilterCacheWarmupEntries("skipped"), 0.0);
+    assertQ(req("q", "*:*", "fq", "val_s:v0"), "//*[@numFound='6']");
+  }
+
+  public void testEntriesRegeneratedOnSeveralThreads() throws Exception {
+    Map<String, String> params =
+        Map.of("size", "10", "autowarmCount", "4", SolrCache.ASYNC_PARAM, "true");
+    // every regeneration waits for another one to start, which needs two threads
+    CountDownLatch concurrentRegenerations = new CountDownLatch(2);
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+    CacheRegenerator regenerator =
+        new CacheRegenerator() {
+          @Override
+          public <K, V> boolean regenerateItem(
+              SolrIndexSearcher newSearcher,
+              SolrCache<K, V> newCache,
+              SolrCache<K, V> oldCache,
+              K oldKey,
+              V oldVal) {
+            threadNames.add(Thread.currentThread().getName());
+            concurrentRegenerations.countDown();
+            try {
+              concurrentRegenerations.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            newCache.put(oldKey, oldVal);
+            return true;
+          }
+        };
+
+    CaffeineCache<Integer, Integer> oldCache = new CaffeineCache<>();
+    Object persistence = oldCache.init(params, null, regenerator);
+    for (int i = 0; i < 4; i++) {
+      oldCache.put(i, i);
+    }
+    CaffeineCache<Integer, Integer> newCache = new CaffeineCache<>();
+    newCache.init(params, persistence, regenerator);
+    try {
+      h.getCore()
+          .withSearcher(
+              searcher -> {
+                newCache.warm(searcher, oldCache);
+                return null;
+              });
+
+      assertEquals(0, concurrentRegenerations.getCount());
+      assertTrue("regenerated on " + threadNames, threadNames.size() >= 2);
+      for (String threadName : threadNames) {
+        assertTrue(threadName, threadName.startsWith("autowarmExecutor"));
+      }
+      assertEquals(4, newCache.size());
+    } finally {
+      oldCache.close();
+      newCache.close();
+    }
+  }
+
+  public void testMaxAutowarmTimeStopsRegeneration() throws Exception {
+    // with no time to warm, every new searcher starts with empty caches
+    System.setProperty("solr.maxAutowarmTimeMs", "0");
+    deleteCore();
+    initCore("solrconfig.xml", "schema.xml");
+    try {
+      indexAndCacheFilters();
+
+      assertU(adoc("id", "100", "val_s", "v0"));
+      assertU(commit());
+
+      assertEquals(
+          0, (int) h.getCore().withSearcher(searcher -> searcher.getFilterCache().size()));
+      assertEquals(0, getFilterCacheWarmupEntries("warmed"), 0.0);
+      assertEquals(2, getFilterCacheWarmupEntries("skipped"), 0.0);
+      assertQ(req("q", "*:*", "fq", "val_s:v0"), "//*[@numFound='6']");
+    } finally {
+      System.clearProperty("solr.maxAutowarmTimeMs");
+      deleteCore();
+      initCore("solrconfig.xml", "schema.xml");
+    }
+  }
+
+  /** Indexes 20 docs in 4 groups of 5, and caches a filter for each group. */
+  private void indexAndCacheFilters() {
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "val_s", "v" + (i % 4)));
+    }
+    assertU(commit());
+    for (int i = 0; i < 4; i++) {
+      assertQ(req("q", "*:*", "fq", "val_s:v" + i), "//*[@numFound='5']");
+    }
+  }
+
+  private double getFilterCacheWarmupEntries(String type) {
+    Labels labels =
+        SolrMetricTestUtils.newStandaloneLabelsBuilder(h.getCore())
+            .label("category", "CACHE")
+            .label("name", "filterCache")
+            .label("type", type)
+            .build();
+    return SolrMetricTestUtils.getGaugeDatapoint(
+            h.getCore(), "solr_core_indexsearcher_cache_warmup_entries", labels)
+        .getValue();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.index.NoMergePolicyFactory;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+
+/** Tests the per-segment mode of the filterCache, see {@link SegmentFilterCache}. */
+public class TestSegmentFilterCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    // segments must survive commits for the per-segment entries to be reused
+    systemSetPropertySolrTestsMergePolicyFactory(NoMergePolicyFactory.class.getName());
+    System.setProperty("solr.filterCache.perSegment", "true");
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("solr.filterCache.perSegment");
+  }
+
+  @Before
+  public void cleanIndex() {
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
+  private SegmentFilterCache segmentFilterCache() throws Exception {
+    return h.getCore().withSearcher(SolrIndexSearcher::getSegmentFilterCache);
+  }
+
+  public void testReuseAcrossSearchers() throws Exception {
+    assertNotNull(segmentFilterCache());
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "val_s", i % 2 == 0 ? "even" : "odd"));
+    }
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "val_s:even"), "//*[@numFound='10']");
+
+    SegmentFilterCache cache = segmentFilterCache();
+    long misses = cache.getMisses();
+    long hits = cache.getHits();
+
+    // new segment; the filter is re-executed by autowarming or by the query below, but only the
+    // new segment must be computed
+    assertU(adoc("id", "100", "val_s", "even"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "val_s:even"), "//*[@numFound='11']");
+    assertEquals(misses + 1, cache.getMisses());
+    assertTrue(cache.getHits() > hits);
+  }
+
+  public void testDeletesAppliedToCachedSegments() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "val_s", "x"));
+    }
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "val_s:x"), "//*[@numFound='20']");
+
+    assertU(delI("3"));
+    assertU(delI("7"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "val_s:x"), "//*[@numFound='18']");
+    assertQ(req("q", "*:*", "fq", "-val_s:x"), "//*[@numFound='0']");
+  }
+}
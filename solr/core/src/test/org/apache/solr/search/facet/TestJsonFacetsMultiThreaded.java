@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.util.Map;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.Utils;
+import org.apache.solr.core.NodeConfig;
+import org.apache.solr.index.NoMergePolicyFactory;
+import org.apache.solr.update.UpdateShardHandlerConfig;
+import org.apache.solr.util.TestHarness;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/** Tests that multi-threaded collection of field facets gives the same results as single. */
+public class TestJsonFacetsMultiThreaded extends SolrTestCaseJ4 {
+  private static int origMinParallelDomainSize;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    systemSetPropertySolrTestsMergePolicyFactory(NoMergePolicyFactory.class.getName());
+    origMinParallelDomainSize = FacetFieldProcessor.MIN_PARALLEL_DOMAIN_SIZE;
+    FacetFieldProcessor.MIN_PARALLEL_DOMAIN_SIZE = 0;
+
+    NodeConfig nodeConfig =
+        new NodeConfig.NodeConfigBuilder("testNode", TEST_PATH())
+            .setUseSchemaCache(Boolean.getBoolean("shareSchema"))
+            .setUpdateShardHandlerConfig(UpdateShardHandlerConfig.TEST_DEFAULT)
+            .setIndexSearcherExecutorThreads(4)
+            .build();
+    createCoreContainer(
+        nodeConfig,
+        new TestHarness.TestCoresLocator(
+            DEFAULT_TEST_CORENAME,
+            createTempDir("data").toAbsolutePath().toString(),
+            "solrconfig-tlog.xml",
+            "schema_latest.xml"));
+    h.coreName = DEFAULT_TEST_CORENAME;
+
+    // many small segments, so that the searcher has several slices
+    int id = 0;
+    for (int seg = 0; seg < 8; seg++) {
+      for (int i = 0; i < 10; i++, id++) {
+        assertU(
+            adoc(
+                "id", String.valueOf(id),
+                "cat_sd", "c" + (id % 3),
+                "tags_sds", "t" + (id % 4),
+                "tags_sds", "t" + (id % 5),
+                "num_id", String.valueOf(id % 7),
+                "nums_ids", String.valueOf(id % 2),
+                "nums_ids", String.valueOf(id % 3)));
+      }
+      assertU(commit());
+    }
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    FacetFieldProcessor.MIN_PARALLEL_DOMAIN_SIZE = origMinParallelDomainSize;
+    System.clearProperty(SYSTEM_PROPERTY_SOLR_TESTS_MERGEPOLICYFACTORY);
+  }
+
+  public void testCounts() throws Exception {
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              assertTrue(
+                  "Expected > 1 slice, got " + searcher.getSlices().length,
+                  searcher.getSlices().length > 1);
+              return null;
+            });
+
+    assertJQ(
+        req(
+            "q", "*:*",
+            "rows", "0",
+            "multiThreaded", "true",
+            "json.facet", "{cats:{type:terms, field:cat_sd, method:dv}}"),
+        "facets=={count:80, cats:{buckets:["
+            + "{val:c0, count:27}, {val:c1, count:27}, {val:c2, count:26}]}}");
+  }
+
+  public void testSameAsSingleThreaded() throws Exception {
+    for (String method : new String[] {"dv", "dvhash"}) {
+      assertSameFacets("{f:{type:terms, field:cat_sd, method:" + method + "}}");
+      assertSameFacets(
+          "{f:{type:terms, field:cat_sd, method:"
+              + method
+              + ", domain:{filter:'num_id:[2 TO 5]'}}}");
+      assertSameFacets("{f:{type:terms, field:num_id, method:" + method + ", limit:3}}");
+      assertSameFacets("{f:{type:terms, field:nums_ids, method:" + method + "}}");
+    }
+    assertSameFacets("{f:{type:terms, field:tags_sds, perSeg:true}}");
+    assertSameFacets("{f:{type:terms, field:tags_sds, perSeg:false}}");
+    assertSameFacets("{f:{type:terms, field:tags_sds, prefix:t1}}");
+    // stats for the top buckets are computed after the (multi-threaded) counting
+    assertSameFacets("{f:{type:terms, field:tags_sds, limit:2, facet:{x:'sum(num_id)'}}}");
+    // sorting on a stat is collected single-threaded
+    assertSameFacets("{f:{type:terms, field:cat_sd, sort:'x desc', facet:{x:'sum(num_id)'}}}");
+    // relatedness sweeps its foreground and background sets along with the base domain
+    assertSameFacets(
+        "{f:{type:terms, field:tags_sds, limit:3, sort:'r desc',"
+            + " facet:{r:'relatedness($fore,$back)'}}}");
+    assertSameFacets(
+        "{f:{type:terms, field:cat_sd, facet:{g:{type:terms, field:tags_sds, limit:2}}}}");
+  }
+
+  private void assertSameFacets(String jsonFacet) throws Exception {
+    assertEquals(jsonFacet, getFacets(jsonFacet, false), getFacets(jsonFacet, true));
+  }
+
+  private Object getFacets(String jsonFacet, boolean multiThreaded) throws Exception {
+    String response =
+        JQ(
+            req(
+                "q", "*:*",
+                "rows", "0",
+                "fore", "num_id:[0 TO 3]",
+                "back", "*:*",
+                "multiThreaded", String.valueOf(multiThreaded),
+                "json.facet", jsonFacet));
+    return ((Map<?, ?>) Utils.fromJSONString(response)).get("facets");
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+public class CommitTrackerTest extends SolrTestCase {
+
+  @Test
+  public void testAdaptiveTimeUpperBound() {
+    CommitTracker tracker = new CommitTracker("Soft", null, -1, 1000, 15000, -1, true, true);
+    try {
+      assertEquals(1000, tracker.getCurrentTimeUpperBound());
+
+      // cheap commits keep the configured maxTime
+      tracker.adjustTimeUpperBound(100, false);
+      assertEquals(1000, tracker.getCurrentTimeUpperBound());
+
+      // slow commits stretch it to a multiple of their average cost
+      tracker.adjustTimeUpperBound(1100, false); // average 600ms
+      assertEquals(600 * CommitTracker.ADAPTIVE_COST_FACTOR, tracker.getCurrentTimeUpperBound());
+
+      // failures double it, up to the adaptive bound
+      tracker.adjustTimeUpperBound(0, true);
+      assertEquals(4800, tracker.getCurrentTimeUpperBound());
+      tracker.adjustTimeUpperBound(0, true);
+      tracker.adjustTimeUpperBound(0, true);
+      assertEquals(15000, tracker.getCurrentTimeUpperBound());
+
+      // and it goes back down as commits get cheaper
+      for (int i = 0; i < 20; i++) {
+        tracker.adjustTimeUpperBound(10, false);
+      }
+      assertEquals(1000, tracker.getCurrentTimeUpperBound());
+    } finally {
+      tracker.close();
+    }
+  }
+
+  @Test
+  public void testNotAdaptive() {
+    CommitTracker tracker = new CommitTracker("Hard", null, -1, 1000, -1, true, false);
+    try {
+      tracker.adjustTimeUpperBound(5000, false);
+      tracker.adjustTimeUpperBound(0, true);
+      assertEquals(1000, tracker.getCurrentTimeUpperBound());
+      assertEquals(1000, tracker.getTimeUpperBound());
+    } finally {
+      tracker.close();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.update.UpdateLog.LogPtr;
+import org.junit.Test;
+
+public class LogPtrMapTest extends SolrTestCase {
+
+  @Test
+  public void testSameAsHashMap() {
+    LogPtrMap map = new LogPtrMap();
+    Map<BytesRef, LogPtr> expected = new HashMap<>();
+    int numIds = atLeast(1000);
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < numIds * 3; i++) {
+        BytesRef id = newId(random().nextInt(numIds));
+        long pointer = random().nextLong();
+        long version = random().nextLong();
+        long prevPointer = random().nextBoolean() ? -1 : random().nextLong();
+        map.put(id, pointer, version, prevPointer);
+        expected.put(BytesRef.deepCopyOf(id), new LogPtr(pointer, version, prevPointer));
+      }
+      assertEquals(expected.size(), map.size());
+      for (int i = 0; i < numIds + 10; i++) {
+        BytesRef id = newId(i);
+        assertLogPtrEquals(expected.get(id), map.get(id));
+      }
+      map.clear();
+      expected.clear();
+      assertEquals(0, map.size());
+      assertNull(map.get(newId(0)));
+    }
+  }
+
+  private static void assertLogPtrEquals(LogPtr expected, LogPtr actual) {
+    if (expected == null) {
+      assertNull(actual);
+    } else {
+      assertNotNull(actual);
+      assertEquals(expected.pointer, actual.pointer);
+      assertEquals(expected.version, actual.version);
+      assertEquals(expected.previousPointer, actual.previousPointer);
+    }
+  }
+
+  /** An id with a random offset into its array, as ids in update commands may have */
+  private static BytesRef newId(int i) {
+    byte[] idBytes = ("id" + i).getBytes(StandardCharsets.UTF_8);
+    int offset = random().nextInt(3);
+    byte[] bytes = new byte[offset + idBytes.length + random().nextInt(3)];
+    System.arraycopy(idBytes, 0, bytes, offset, idBytes.length);
+    return new BytesRef(bytes, offset, idBytes.length);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.request.JavaBinRequestWriter;
+import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
+import org.apache.solr.client.solrj.request.RequestWriter;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.junit.Test;
+
+public class ReplicaUpdateRequestTest extends SolrTestCase {
+
+  @Test
+  public void testSerializedOnce() throws Exception {
+    SolrInputDocument doc = new SolrInputDocument("id", "1", "title_s", "one");
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set("update.distrib", "FROMLEADER");
+
+    ReplicaUpdateRequest replicaRequest = new ReplicaUpdateRequest();
+    replicaRequest.setParams(params);
+    replicaRequest.add(doc, 1000, true);
+    UpdateRequest plainRequest = new UpdateRequest();
+    plainRequest.setParams(params);
+    plainRequest.add(doc, 1000, true);
+
+    RequestWriter writer = new ReplicaUpdateRequest.Writer();
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new JavaBinRequestWriter().write(plainRequest, expected);
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    writer.write(replicaRequest, streamed);
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    writer.getContentWriter(replicaRequest).write(content);
+
+    assertArrayEquals(expected.toByteArray(), streamed.toByteArray());
+    assertArrayEquals(expected.toByteArray(), content.toByteArray());
+    assertSame(replicaRequest.getJavaBin(), replicaRequest.getJavaBin());
+
+    List<SolrInputDocument> docs = new ArrayList<>();
+    new JavaBinUpdateRequestCodec()
+        .unmarshal(
+            new ByteArrayInputStream(streamed.toByteArray()),
+            (document, req, commitWithin, overwrite) -> docs.add(document));
+    assertEquals(1, docs.size());
+    assertEquals("one", docs.get(0).getFieldValue("title_s"));
+
+    // other requests are written as usual
+    ByteArrayOutputStream plain = new ByteArrayOutputStream();
+    writer.write(plainRequest, plain);
+    assertArrayEquals(expected.toByteArray(), plain.toByteArray());
+    assertNull(writer.getContentWriter(new ReplicaUpdateRequest()));
+  }
+}
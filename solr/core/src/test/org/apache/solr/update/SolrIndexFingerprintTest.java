@@ -17,6 +17,9 @@
 package org.apache.solr.update;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.NumericDocValuesField;
@@ -24,8 +27,12 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.core.SolrCore;
+import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.RefCounted;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -63,33 +70,141 @@ public class SolrIndexFingerprintTest extends SolrTestCaseJ4 {
 
     try (var searcher = core.getSearcher().get()) {
       // Compute fingerprint sequentially to compare with parallel computation
-      IndexFingerprint expectedFingerprint =
-          searcher.getTopReaderContext().leaves().stream()
-              .map(
-                  ctx -> {
-                    try {
-                      LeafReader noCacheLeafReader =
-                          new FilterLeafReader(ctx.reader()) {
-                            @Override
-                            public CacheHelper getReaderCacheHelper() {
-                              return null;
-                            }
-
-                            @Override
-                            public CacheHelper getCoreCacheHelper() {
-                              return null;
-                            }
-                          };
-                      return core.getIndexFingerprint(
-                          searcher, noCacheLeafReader.getContext(), maxVersion);
-                    } catch (IOException e) {
-                      throw new RuntimeException(e);
-                    }
-                  })
-              .reduce(new IndexFingerprint(maxVersion), IndexFingerprint::reduce);
-
+      IndexFingerprint expectedFingerprint = getUncachedFingerprint(searcher, maxVersion);
       IndexFingerprint actualFingerprint = searcher.getIndexFingerprint(maxVersion);
       assertEquals(expectedFingerprint, actualFingerprint);
     }
   }
+
+  @Test
+  public void testCachedFingerprintAfterDeletes() throws Exception {
+    SolrCore core = h.getCore();
+    assertU(delQ("*:*"));
+    assertU(commit());
+    // a few segments, each with increasing versions
+    for (int segment = 0; segment < 4; segment++) {
+      for (int i = 0; i < 10; i++) {
+        assertU(adoc("id", segment + "-" + i));
+      }
+      assertU(commit());
+    }
+    List<Long> versions = new ArrayList<>();
+    RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
+    try {
+      SolrIndexSearcher searcher = searcherRef.get();
+      assertEquals(4, searcher.getTopReaderContext().leaves().size());
+      for (LeafReaderContext ctx : searcher.getTopReaderContext().leaves()) {
+        FunctionValues fv = IndexFingerprint.getVersionValues(searcher, ctx);
+        for (int doc = 0; doc < ctx.reader().maxDoc(); doc++) {
+          versions.add(fv.longVal(doc));
+        }
+      }
+      assertFingerprints(searcher, versions);
+    } finally {
+      searcherRef.decref();
+    }
+
+    // deletes in older segments, including the documents with the largest and the smallest
+    // version of a segment
+    assertU(delI("0-3"));
+    assertU(delI("1-9"));
+    assertU(delI("2-0"));
+    assertU(commit());
+    searcherRef = core.getSearcher();
+    try {
+      assertFingerprints(searcherRef.get(), versions);
+    } finally {
+      searcherRef.decref();
+    }
+  }
+
+  @Test
+  public void testCachedFingerprintAfterInPlaceUpdates() throws Exception {
+    SolrCore core = h.getCore();
+    assertU(delQ("*:*"));
+    assertU(commit());
+    for (int segment = 0; segment < 2; segment++) {
+      for (int i = 0; i < 10; i++) {
+        assertU(adoc("id", segment + "-" + i));
+      }
+      assertU(commit());
+    }
+    long newVersion;
+    RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
+    try {
+      List<Long> versions = getVersions(searcherRef.get());
+      assertFingerprints(searcherRef.get(), versions);
+      newVersion = Collections.max(versions) + 1;
+    } finally {
+      searcherRef.decref();
+    }
+
+    // like an in-place update, only rewrite the version doc values of a document of the older
+    // segment, which keeps the segment's core and live docs
+    RefCounted<IndexWriter> iwRef = core.getSolrCoreState().getIndexWriter(core);
+    try {
+      iwRef.get().updateNumericDocValue(new Term("id", "0-5"), "_version_", newVersion);
+    } finally {
+      iwRef.decref();
+    }
+    assertU(commit());
+    searcherRef = core.getSearcher();
+    try {
+      assertFingerprints(searcherRef.get(), getVersions(searcherRef.get()));
+    } finally {
+      searcherRef.decref();
+    }
+  }
+
+  private static List<Long> getVersions(SolrIndexSearcher searcher) throws IOException {
+    List<Long> versions = new ArrayList<>();
+    for (LeafReaderContext ctx : searcher.getTopReaderContext().leaves()) {
+      FunctionValues fv = IndexFingerprint.getVersionValues(searcher, ctx);
+      for (int doc = 0; doc < ctx.reader().maxDoc(); doc++) {
+        versions.add(fv.longVal(doc));
+      }
+    }
+    return versions;
+  }
+
+  private void assertFingerprints(SolrIndexSearcher searcher, List<Long> versions)
+      throws IOException {
+    List<Long> maxVersions = new ArrayList<>(versions);
+    maxVersions.add(0L);
+    maxVersions.add(Long.MAX_VALUE);
+    for (long maxVersion : maxVersions) {
+      // twice, to use the cached state of the segments the second time
+      IndexFingerprint expected = getUncachedFingerprint(searcher, maxVersion);
+      assertEquals(expected, searcher.getIndexFingerprint(maxVersion));
+      assertEquals(expected, searcher.getIndexFingerprint(maxVersion));
+    }
+  }
+
+  private static IndexFingerprint getUncachedFingerprint(
+      SolrIndexSearcher searcher, long maxVersion) {
+    SolrCore core = searcher.getCore();
+    return searcher.getTopReaderContext().leaves().stream()
+        .map(
+            ctx -> {
+              try {
+                LeafReader noCacheLeafReader =
+                    new FilterLeafReader(ctx.reader()) {
+                      @Override
+                      public CacheHelper getReaderCacheHelper() {
+                        return null;
+                      }
+
+                      @Override
+                      public CacheHelper getCoreCacheHelper() {
+                        return null;
+                      }
+                    };
+                return core.getIndexFingerprint(
+                    searcher, noCacheLeafReader.getContext(), maxVersion);
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            })
+        .reduce(new IndexFingerprint(maxVersion), IndexFingerprint::reduce);
+  }
 }
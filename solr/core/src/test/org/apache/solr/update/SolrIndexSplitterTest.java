@@ -81,12 +81,30 @@ public class SolrIndexSplitterTest extends SolrTestCaseJ4 {
     doTestSplitByPaths(SolrIndexSplitter.SplitMethod.LINK);
   }
 
+  @Test
+  public void testSplitByPathsMultiThreaded() throws Exception {
+    doTestSplitByPaths(SolrIndexSplitter.SplitMethod.REWRITE, 2);
+  }
+
+  @Test
+  public void testSplitByPathsLinkMultiThreaded() throws Exception {
+    doTestSplitByPaths(SolrIndexSplitter.SplitMethod.LINK, 2);
+  }
+
   private void doTestSplitByPaths(SolrIndexSplitter.SplitMethod splitMethod) throws Exception {
+    doTestSplitByPaths(splitMethod, 1);
+  }
+
+  private void doTestSplitByPaths(SolrIndexSplitter.SplitMethod splitMethod, int numThreads)
+      throws Exception {
     SolrQueryRequestBase request = null;
     try {
       // add two docs
       String id1 = "dorothy";
       assertU(adoc("id", id1));
+      if (numThreads > 1) {
+        assertU(commit()); // one segment per doc, so that segments get split concurrently too
+      }
       String id2 = "kansas";
       assertU(adoc("id", id2));
       assertU(commit());
@@ -108,6 +126,7 @@ public class SolrIndexSplitterTest extends SolrTestCaseJ4 {
               null,
               null,
               splitMethod);
+      command.numThreads = numThreads;
       doSplit(command);
 
       Directory directory =
@@ -18,12 +18,17 @@
 package org.apache.solr.update;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.solr.SolrTestCase;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.update.TransactionLog.LogReader;
 import org.junit.Test;
 
@@ -71,4 +76,137 @@ public class TransactionLogTest extends SolrTestCase {
       assertEquals(uuid, (UUID) doc.getFieldValue("uuid"));
     }
   }
+
+  @Test
+  public void testEncodedAdd() throws IOException, InterruptedException {
+    String tlogFileName =
+        String.format(
+            Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, Long.MAX_VALUE);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    try (TransactionLog tlog = new TransactionLog(logFile, null)) {
+      tlog.deleteOnClose = false;
+      // the header isn't written yet
+      assertNull(tlog.encode(addCommand("1")));
+      tlog.write(addCommand("1"));
+
+      TransactionLog.EncodedAdd encoded = tlog.encode(addCommand("2"));
+      assertNotNull(encoded);
+      assertTrue(encoded.isFor(tlog));
+      long pos = tlog.write(encoded);
+      SolrInputDocument doc = (SolrInputDocument) ((List<?>) tlog.lookup(pos)).get(2);
+      assertEquals("2", doc.getFieldValue("id"));
+    }
+
+    try (TransactionLog tlog = new TransactionLog(logFile, null, true)) {
+      LogReader reader = tlog.getReader(0);
+      for (String id : new String[] {"1", "2"}) {
+        SolrInputDocument doc = (SolrInputDocument) ((List<?>) reader.next()).get(2);
+        assertEquals(id, doc.getFieldValue("id"));
+      }
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  public void testGroupSync() throws Exception {
+    String tlogFileName =
+        String.format(
+            Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, Long.MAX_VALUE);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    int numThreads = 4;
+    int docsPerThread = atLeast(20);
+    AtomicInteger fsyncs = new AtomicInteger();
+    AtomicInteger syncedFinishes = new AtomicInteger();
+    TransactionLog.SyncListener listener =
+        (batchSize, elapsedNanos) -> {
+          assertTrue(batchSize >= 1);
+          fsyncs.incrementAndGet();
+          syncedFinishes.addAndGet(batchSize);
+        };
+    try (TransactionLog tlog = new TransactionLog(logFile, null)) {
+      tlog.deleteOnClose = false;
+      Thread[] threads = new Thread[numThreads];
+      for (int t = 0; t < numThreads; t++) {
+        final int thread = t;
+        final long delayNanos = random().nextBoolean() ? 0 : 100_000;
+        threads[t] =
+            new Thread(
+                () -> {
+                  for (int i = 0; i < docsPerThread; i++) {
+                    tlog.write(addCommand(thread + "_" + i));
+                    tlog.finish(UpdateLog.SyncLevel.GROUP_FSYNC, delayNanos, listener);
+                  }
+                });
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+    assertTrue(fsyncs.get() >= 1);
+    // finishes of updates already covered by an earlier fsync are not part of any batch
+    assertTrue(syncedFinishes.get() <= numThreads * docsPerThread);
+
+    try (TransactionLog tlog = new TransactionLog(logFile, null, true)) {
+      LogReader reader = tlog.getReader(0);
+      int numDocs = 0;
+      while (reader.next() != null) {
+        numDocs++;
+      }
+      assertEquals(numThreads * docsPerThread, numDocs);
+    }
+  }
+
+  @Test
+  public void testParallelReader() throws Exception {
+    String tlogFileName =
+        String.format(
+            Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, Long.MAX_VALUE);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    int numDocs = atLeast(500);
+    long secondPos = -1;
+    try (TransactionLog tlog = new TransactionLog(logFile, List.of("id"))) {
+      tlog.deleteOnClose = false;
+      for (int i = 0; i < numDocs; i++) {
+        long pos = tlog.write(addCommand(String.valueOf(i)));
+        if (i == 1) {
+          secondPos = pos;
+        }
+      }
+    }
+
+    ExecutorService executor = ExecutorUtil.newMDCAwareCachedThreadPool("testParallelReader");
+    try (TransactionLog tlog = new TransactionLog(logFile, null, true)) {
+      tlog.deleteOnClose = false;
+      for (long startingPos : new long[] {0, secondPos}) {
+        LogReader reader = tlog.getParallelReader(startingPos, executor, 3);
+        assertNotNull(reader);
+        int expectedId = startingPos == 0 ? 0 : 1;
+        Object entry;
+        while ((entry = reader.next()) != null) {
+          SolrInputDocument doc = (SolrInputDocument) ((List<?>) entry).get(2);
+          assertEquals(String.valueOf(expectedId++), doc.getFieldValue("id"));
+        }
+        assertEquals(numDocs, expectedId);
+        assertEquals(reader.currentSize(), reader.currentPos());
+        reader.close();
+      }
+    }
+
+    // a partial record at the end can't be located backwards
+    Files.write(logFile, new byte[] {1, 2, -1, -1, -1, -1}, StandardOpenOption.APPEND);
+    try (TransactionLog tlog = new TransactionLog(logFile, null, true)) {
+      assertNull(tlog.getParallelReader(0, executor, 3));
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
+  private static AddUpdateCommand addCommand(String id) {
+    AddUpdateCommand cmd = new AddUpdateCommand(null);
+    cmd.solrDoc = new SolrInputDocument("id", id);
+    return cmd;
+  }
 }
@@ -240,6 +240,50 @@ public class UpdateLogTest extends SolrTestCaseJ4 {
         ulog, null, sdoc("id", "1", "title_s", "title1", "val1_i_dvo", "1", "_version_", "100"));
   }
 
+  @Test
+  public void testAddDocs() throws Exception {
+    try (SolrQueryRequest req = req()) {
+      List<AddUpdateCommand> cmds =
+          List.of(
+              buildAddUpdateCommand(req, sdoc("id", "batch1", "title_s", "a", "_version_", "200")),
+              buildAddUpdateCommand(req, sdoc("id", "batch2", "title_s", "b", "_version_", "201")),
+              buildAddUpdateCommand(req, sdoc("id", "batch1", "title_s", "c", "_version_", "202")));
+      assertEquals(3, req.getCore().getUpdateHandler().addDocs(cmds));
+    }
+    // logged in order, so the latest update of each id wins
+    assertEquals(202L, (long) ulog.lookupVersion(new BytesRef("batch1")));
+    assertEquals(201L, (long) ulog.lookupVersion(new BytesRef("batch2")));
+
+    assertU(commit());
+    assertQ(req("q", "id:batch*"), "//result[@numFound='2']");
+    assertQ(req("q", "id:batch1"), "//result/doc/str[@name='title_s'][.='c']");
+  }
+
+  @Test
+  public void testMapReusedAfterSoftCommit() {
+    ulogAdd(ulog, null, sdoc("id", "1", "title_s", "title1", "_version_", "100"));
+    LogPtrMap committedMap = ulog.map;
+    assertEquals(1, committedMap.size());
+
+    ulogSoftCommit(ulog);
+    assertNotSame(committedMap, ulog.map);
+    // the map of the first commit was dropped once the searcher was opened, the next commit reuses
+    ulogSoftCommit(ulog);
+    assertSame(committedMap, ulog.map);
+    assertEquals(0, ulog.map.size());
+    assertNull(ulog.map.get(DOC_1_INDEXED_ID));
+  }
+
+  /** Simulate a soft commit on a given updateLog */
+  private static void ulogSoftCommit(UpdateLog ulog) {
+    try (SolrQueryRequest req = req()) {
+      CommitUpdateCommand commitCmd = new CommitUpdateCommand(req, false);
+      commitCmd.softCommit = true;
+      ulog.preSoftCommit(commitCmd);
+      ulog.postSoftCommit(commitCmd);
+    }
+  }
+
   /** Simulate a commit on a given updateLog */
   private static void ulogCommit(UpdateLog ulog) {
     try (SolrQueryRequest req = req()) {
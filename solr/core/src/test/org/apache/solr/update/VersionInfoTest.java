@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class VersionInfoTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-tlog.xml", "schema-inplace-updates.xml");
+  }
+
+  @Test
+  public void testGetVersionsFromIndex() throws Exception {
+    clearIndex();
+    Map<String, Long> expected = new HashMap<>();
+    int numSegments = random().nextInt(3) + 1;
+    for (int segment = 0; segment < numSegments; segment++) {
+      int numDocs = random().nextInt(20) + 1;
+      for (int i = 0; i < numDocs; i++) {
+        String id = segment + "_" + i;
+        expected.put(id, addAndGetVersion(sdoc("id", id), null));
+      }
+      assertU(commit());
+    }
+    // update a few of them, so that some docs were deleted in older segments
+    for (String id : new ArrayList<>(expected.keySet())) {
+      if (random().nextInt(4) == 0) {
+        expected.put(id, addAndGetVersion(sdoc("id", id), null));
+      }
+    }
+    assertU(commit());
+
+    List<String> ids = new ArrayList<>(expected.keySet());
+    ids.add("missing");
+    ids.add(0, "also_missing");
+    ids.addAll(expected.keySet()); // duplicates are looked up twice
+    Collections.shuffle(ids, random());
+    List<BytesRef> idBytes = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      idBytes.add(new BytesRef(id));
+    }
+
+    VersionInfo versionInfo = h.getCore().getUpdateHandler().getUpdateLog().getVersionInfo();
+    Long[] versions = versionInfo.getVersionsFromIndex(idBytes);
+    assertEquals(ids.size(), versions.length);
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(ids.get(i), expected.get(ids.get(i)), versions[i]);
+      assertEquals(ids.get(i), versions[i], versionInfo.getVersionFromIndex(idBytes.get(i)));
+    }
+    assertEquals(0, versionInfo.getVersionsFromIndex(List.of()).length);
+  }
+
+  @Test
+  public void testLookupVersions() throws Exception {
+    clearIndex();
+    List<BytesRef> ids = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", "committed_" + i));
+      ids.add(new BytesRef("committed_" + i));
+    }
+    assertU(commit());
+    // in the update log only
+    for (int i = 0; i < 5; i++) {
+      assertU(adoc("id", "logged_" + i));
+      ids.add(new BytesRef("logged_" + i));
+    }
+    assertU(delI("committed_3"));
+    ids.add(new BytesRef("missing"));
+    Collections.shuffle(ids, random());
+
+    VersionInfo versionInfo = h.getCore().getUpdateHandler().getUpdateLog().getVersionInfo();
+    Long[] versions = versionInfo.lookupVersions(ids);
+    assertEquals(ids.size(), versions.length);
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(ids.get(i).utf8ToString(), versionInfo.lookupVersion(ids.get(i)), versions[i]);
+    }
+    assertTrue(versions[ids.indexOf(new BytesRef("committed_3"))] < 0);
+    assertNull(versions[ids.indexOf(new BytesRef("missing"))]);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.UpdateParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.UpdateLog;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Batches of adds passed down the default chain, with and without an update log. */
+public class BatchedAddsTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @Test
+  public void testProcessAdds() throws Exception {
+    NamedList<?> adds = addTenDocs();
+    UpdateLog ulog = h.getCore().getUpdateHandler().getUpdateLog();
+    assertNotNull(ulog);
+    // versioned in order, and logged with the version of the last add of each id
+    long lastVersion = 0;
+    for (int i = 0; i < adds.size(); i++) {
+      long version = (Long) adds.getVal(i);
+      assertTrue(version > lastVersion);
+      lastVersion = version;
+      if (i >= 5) {
+        assertEquals(version, (long) ulog.lookupVersion(new BytesRef(adds.getName(i))));
+      }
+    }
+    // visible to real-time get before the commit
+    assertJQ(req("qt", "/get", "id", "3"), "/doc/val_i==8", "/doc/_version_==" + adds.getVal(8));
+    assertU(commit());
+
+    assertQ(req("q", "*:*"), "//result[@numFound='5']");
+    assertQ(req("q", "id:3"), "//result/doc/int[@name='val_i'][.='8']");
+  }
+
+  @Test
+  public void testProcessAddsWithVersions() throws Exception {
+    NamedList<?> adds = addTenDocs();
+    long version = (Long) adds.getVal(8); // the last add of id 3
+
+    // optimistic concurrency is checked for the whole batch
+    processAdds(
+        sdoc("id", "3", "val_i", 30, "_version_", version),
+        sdoc("id", "new", "val_i", 40, "_version_", -1));
+    assertJQ(req("qt", "/get", "id", "3"), "/doc/val_i==30");
+    assertJQ(req("qt", "/get", "id", "new"), "/doc/val_i==40");
+
+    // a conflict fails the same add as one at a time would
+    SolrException e =
+        expectThrows(
+            SolrException.class,
+            () ->
+                processAdds(
+                    sdoc("id", "4", "val_i", 50),
+                    sdoc("id", "3", "val_i", 60, "_version_", version)));
+    assertEquals(SolrException.ErrorCode.CONFLICT.code, e.code());
+    assertJQ(req("qt", "/get", "id", "4"), "/doc/val_i==50");
+    assertJQ(req("qt", "/get", "id", "3"), "/doc/val_i==30");
+  }
+
+  @Test
+  public void testProcessAddsWithoutUpdateLog() throws Exception {
+    deleteCore();
+    System.setProperty("solr.index.updatelog.enabled", "false");
+    try {
+      initCore("solrconfig.xml", "schema.xml");
+      assertNull(h.getCore().getUpdateHandler().getUpdateLog());
+
+      addTenDocs();
+      assertU(commit());
+
+      assertQ(req("q", "*:*"), "//result[@numFound='5']");
+      assertQ(req("q", "id:3"), "//result/doc/int[@name='val_i'][.='8']");
+    } finally {
+      System.clearProperty("solr.index.updatelog.enabled");
+      deleteCore();
+      initCore("solrconfig.xml", "schema.xml");
+    }
+  }
+
+  /** Adds ten docs with five distinct ids as one batch, returning the versions reported. */
+  private NamedList<?> addTenDocs() throws Exception {
+    assertU(delQ("*:*"));
+    assertU(commit());
+    SolrInputDocument[] docs = new SolrInputDocument[10];
+    for (int i = 0; i < docs.length; i++) {
+      docs[i] = sdoc("id", String.valueOf(i % 5), "val_i", i);
+    }
+    NamedList<?> adds = processAdds(docs);
+    assertEquals(10, adds.size());
+    return adds;
+  }
+
+  /** Adds the docs as one batch, returning the versions reported. */
+  private NamedList<?> processAdds(SolrInputDocument... docs) throws Exception {
+    try (SolrQueryRequest req = req(UpdateParams.VERSIONS, "true")) {
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      List<AddUpdateCommand> cmds = new ArrayList<>();
+      for (SolrInputDocument doc : docs) {
+        AddUpdateCommand cmd = new AddUpdateCommand(req);
+        cmd.solrDoc = doc;
+        cmds.add(cmd);
+      }
+
+      UpdateRequestProcessor processor =
+          h.getCore().getUpdateProcessingChain(null).createProcessor(req, rsp);
+      try {
+        processor.processAdds(cmds);
+        processor.finish();
+      } finally {
+        processor.close();
+      }
+
+      // every add was passed on, with its version reported by the distributed processor
+      NamedList<?> adds = (NamedList<?>) rsp.getValues().get("adds");
+      assertNotNull(adds);
+      assertEquals(docs.length, adds.size());
+      return adds;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.UpdateParams;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PipelinedUpdateProcessorTest extends SolrTestCaseJ4 {
+
+  private static final int NUM_IDS = 100;
+  private static final int NUM_ROUNDS = 3;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @Before
+  public void clean() {
+    clearIndex();
+    assertU(commit());
+  }
+
+  @Test
+  public void testJson() throws Exception {
+    StringBuilder json = new StringBuilder("{");
+    for (int round = 0; round < NUM_ROUNDS; round++) {
+      for (int id = 0; id < NUM_IDS; id++) {
+        json.append("\"add\":{\"doc\":{\"id\":\"")
+            .append(id)
+            .append("\",\"val_i\":")
+            .append(round)
+            .append("}},");
+      }
+    }
+    // deletes by id are ordered with the adds of the same id, delete by query with all of them
+    json.append("\"delete\":[\"0\",\"1\"],");
+    json.append("\"delete\":{\"query\":\"id:2\"},");
+    json.append("\"add\":{\"doc\":{\"id\":\"1\",\"val_i\":").append(NUM_ROUNDS).append("}},");
+    json.append("\"commit\":{}}");
+
+    updateJ(json.toString(), params(UpdateParams.PIPELINE_THREADS, "4"));
+
+    assertQ(req("q", "*:*"), "//result[@numFound='" + (NUM_IDS - 2) + "']");
+    assertQ(req("q", "val_i:" + (NUM_ROUNDS - 1)), "//result[@numFound='" + (NUM_IDS - 3) + "']");
+    assertQ(req("q", "id:1"), "//result/doc/int[@name='val_i'][.='" + NUM_ROUNDS + "']");
+  }
+
+  @Test
+  public void testJavabin() throws Exception {
+    UpdateRequest updateRequest = new UpdateRequest();
+    for (int round = 0; round < NUM_ROUNDS; round++) {
+      List<SolrInputDocument> docs = new ArrayList<>(NUM_IDS);
+      for (int id = 0; id < NUM_IDS; id++) {
+        docs.add(sdoc("id", String.valueOf(id), "val_i", round));
+      }
+      updateRequest.add(docs);
+    }
+    updateRequest.setParam(UpdateParams.PIPELINE_THREADS, "4");
+
+    try (EmbeddedSolrServer client =
+        new EmbeddedSolrServer(
+            h.getCoreContainer(),
+            "collection1",
+            EmbeddedSolrServer.RequestWriterSupplier.JavaBin)) {
+      client.request(updateRequest);
+      client.deleteById("0");
+      client.commit();
+    }
+
+    assertQ(req("q", "*:*"), "//result[@numFound='" + (NUM_IDS - 1) + "']");
+    assertQ(req("q", "val_i:" + (NUM_ROUNDS - 1)), "//result[@numFound='" + (NUM_IDS - 1) + "']");
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    // not a number; the failure of another thread is reported to the request
+    StringBuilder json = new StringBuilder("[");
+    for (int id = 0; id < NUM_IDS; id++) {
+      json.append("{\"id\":\"").append(id).append("\",\"val_i\":\"");
+      json.append(id == NUM_IDS / 2 ? "x" : String.valueOf(id)).append("\"},");
+    }
+    json.setLength(json.length() - 1);
+    json.append(']');
+
+    expectThrows(
+        Exception.class,
+        () -> updateJ(json.toString(), params(UpdateParams.PIPELINE_THREADS, "4")));
+  }
+}
@@ -30,6 +30,10 @@ public interface DocCollectionWatcher {
    * result of several state changes. Also, multiple calls to this method can be made with the same
    * state, ie. without any new updates.
    *
+   * <p>Unless the collection has per-replica states, the slices and replicas that didn't change are
+   * the same instances as in the previous state, so a watcher keeping the previous state can find
+   * what changed by comparing references.
+   *
    * @param collection the new collection state (may be null if the collection has been deleted)
    * @return true if the watcher should be removed
    */
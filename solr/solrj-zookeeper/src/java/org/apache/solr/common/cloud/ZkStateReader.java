@@ -42,6 +42,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
@@ -190,6 +191,10 @@ public class ZkStateReader implements SolrCloseable {
    */
   private DocCollectionWatches collectionWatches = new DocCollectionWatches();
 
+  // time spent parsing the state.json of collections, and how much of it was parsed
+  private final LongAdder collectionStateParseNanos = new LongAdder();
+  private final LongAdder collectionStateBytesParsed = new LongAdder();
+
   private Set<CloudCollectionsListener> cloudCollectionsListeners = ConcurrentHashMap.newKeySet();
 
   private final ExecutorService notifications = ExecutorUtil.newMDCAwareCachedThreadPool("watches");
@@ -776,7 +781,7 @@ public class ZkStateReader implements SolrCloseable {
           }
         }
         if (shouldFetch) {
-          cachedDocCollection = getCollectionLive(collName);
+          cachedDocCollection = getCollectionLive(collName, cachedDocCollection);
           lastUpdateTime = System.nanoTime();
         }
       }
@@ -1312,7 +1317,8 @@ public class ZkStateReader implements SolrCloseable {
           }
         }
 
-        DocCollection newState = fetchCollectionState(coll, this);
+        DocCollection newState =
+            fetchCollectionState(coll, this, collectionWatches.getDocCollection(coll));
         collectionWatches.updateDocCollection(coll, newState);
         synchronized (getUpdateLock()) {
           constructState(Set.of(coll));
@@ -1435,9 +1441,23 @@ public class ZkStateReader implements SolrCloseable {
     }
   }
 
+  /** Total time spent parsing the state.json of collections, in nanoseconds. */
+  public long getCollectionStateParseNanos() {
+    return collectionStateParseNanos.sum();
+  }
+
+  /** Total size of the state.json of collections parsed, in bytes. */
+  public long getCollectionStateBytesParsed() {
+    return collectionStateBytesParsed.sum();
+  }
+
   public DocCollection getCollectionLive(String coll) {
+    return getCollectionLive(coll, null);
+  }
+
+  private DocCollection getCollectionLive(String coll, DocCollection previous) {
     try {
-      return fetchCollectionState(coll, null);
+      return fetchCollectionState(coll, null, previous);
     } catch (KeeperException e) {
       throw new SolrException(
           ErrorCode.BAD_REQUEST, "Could not load collection from ZK: " + coll, e);
@@ -1448,25 +1468,39 @@ public class ZkStateReader implements SolrCloseable {
     }
   }
 
-  @SuppressWarnings("unchecked")
   private DocCollection fetchCollectionState(String coll, Watcher watcher)
       throws KeeperException, InterruptedException {
+    return fetchCollectionState(coll, watcher, null);
+  }
+
+  /**
+   * @param previous the current state of the collection if known, whose unchanged slices and
+   *     replicas are shared with the returned state
+   */
+  @SuppressWarnings("unchecked")
+  private DocCollection fetchCollectionState(String coll, Watcher watcher, DocCollection previous)
+      throws KeeperException, InterruptedException {
     String collectionPath = DocCollection.getCollectionPath(coll);
     while (true) {
       try {
         Stat stat = new Stat();
         byte[] data = zkClient.getData(collectionPath, watcher, stat);
+        long startTime = System.nanoTime();
         Map<String, Object> stateMap = (Map<String, Object>) Utils.fromJSON(data);
-
-        final var state =
-            ClusterState.createFromCollectionMap(
-                stat.getVersion(),
-                stateMap,
-                liveNodes,
-                Instant.ofEpochMilli(stat.getCtime()),
-                PerReplicaStatesOps.getZkClientPrsSupplier(
-                    zkClient, DocCollection.getCollectionPath(coll)));
-        return state.getCollectionOrNull(coll);
+        Map<String, Object> collectionMap = (Map<String, Object>) stateMap.get(coll);
+        DocCollection state =
+            collectionMap == null
+                ? null
+                : ClusterState.collectionFromObjects(
+                    coll,
+                    collectionMap,
+                    stat.getVersion(),
+                    Instant.ofEpochMilli(stat.getCtime()),
+                    PerReplicaStatesOps.getZkClientPrsSupplier(zkClient, collectionPath),
+                    previous);
+        collectionStateParseNanos.add(System.nanoTime() - startTime);
+        collectionStateBytesParsed.add(data == null ? 0 : data.length);
+        return state;
       } catch (KeeperException.NoNodeException e) {
         if (watcher != null) {
           // Leave an exists watch in place in case a state.json is created later.
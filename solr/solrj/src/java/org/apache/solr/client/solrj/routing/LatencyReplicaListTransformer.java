@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.solr.common.cloud.Replica;
+
+/**
+ * Orders replicas by the score of their node in a {@link ReplicaLatencyTracker}, fastest and least
+ * loaded first. Replicas with equal scores (e.g. on nodes without recent samples) are shuffled.
+ */
+public class LatencyReplicaListTransformer implements ReplicaListTransformer {
+
+  private final ReplicaLatencyTracker tracker;
+  private final Random r;
+
+  public LatencyReplicaListTransformer(ReplicaLatencyTracker tracker, Random r) {
+    this.tracker = tracker;
+    this.r = r;
+  }
+
+  @Override
+  public <T> void transform(List<T> choices) {
+    if (choices.size() > 1) {
+      Collections.shuffle(choices, r);
+      // scores change concurrently; take them once so that the sort sees consistent values
+      List<Scored<T>> scored = new ArrayList<>(choices.size());
+      for (T choice : choices) {
+        scored.add(new Scored<>(choice, tracker.score(url(choice))));
+      }
+      scored.sort(Comparator.comparingDouble(Scored::score)); // stable, keeps shuffled ties
+      for (int i = 0; i < scored.size(); i++) {
+        choices.set(i, scored.get(i).choice());
+      }
+    }
+  }
+
+  private static String url(Object choice) {
+    return choice instanceof Replica replica ? replica.getBaseUrl() : choice.toString();
+  }
+
+  private record Scored<T>(T choice, double score) {}
+}
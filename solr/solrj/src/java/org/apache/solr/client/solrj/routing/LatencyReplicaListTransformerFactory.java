@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.routing;
+
+import java.util.Random;
+import org.apache.solr.common.params.SolrParams;
+
+/**
+ * Factory for {@link LatencyReplicaListTransformer}s sharing one {@link ReplicaLatencyTracker}.
+ * Whoever sends the requests must report them to {@link #getTracker()}.
+ */
+public class LatencyReplicaListTransformerFactory implements ReplicaListTransformerFactory {
+  private final ReplicaListTransformer transformer;
+  private final ReplicaLatencyTracker tracker;
+
+  public LatencyReplicaListTransformerFactory(ReplicaLatencyTracker tracker, Random r) {
+    this.tracker = tracker;
+    this.transformer = new LatencyReplicaListTransformer(tracker, r);
+  }
+
+  public ReplicaLatencyTracker getTracker() {
+    return tracker;
+  }
+
+  @Override
+  public ReplicaListTransformer getInstance(
+      String configSpec, SolrParams requestParams, ReplicaListTransformerFactory fallback) {
+    if (configSpec != null) {
+      throw new IllegalArgumentException("Invalid routing spec: \"" + configSpec + '"');
+    }
+    return transformer;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.routing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.URLUtil;
+
+/**
+ * Keeps track, per Solr node, of an exponentially weighted moving average (EWMA) of the response
+ * time and of the number of requests in flight. Used by {@link LatencyReplicaListTransformer} to
+ * rank replicas the way C3 does: a node's score is its average response time multiplied by the
+ * cube of its (one plus) outstanding requests, so that a node that slows down or piles up requests
+ * is quickly avoided.
+ *
+ * <p>Nodes are identified by "host:port", so any URL of a node (with or without scheme, base or
+ * core URL) may be passed. A node without a recent sample (see {@code maxAgeMs}) is considered
+ * fast, so that new or recovered nodes are probed again.
+ */
+public class ReplicaLatencyTracker {
+
+  public static final String ALPHA = "alpha";
+  public static final String MAX_AGE_MS = "maxAgeMs";
+
+  public static final double DEFAULT_ALPHA = 0.3;
+  public static final long DEFAULT_MAX_AGE_MS = 30_000;
+
+  /** The response time recorded for a request that failed. */
+  static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double alpha;
+  private final long maxAgeNanos;
+  private final Map<String, NodeStats> stats = new ConcurrentHashMap<>();
+
+  public ReplicaLatencyTracker() {
+    this(DEFAULT_ALPHA, DEFAULT_MAX_AGE_MS);
+  }
+
+  /**
+   * @param alpha weight of the most recent response time in the average, in (0, 1]
+   * @param maxAgeMs how long a node's average is trusted without being updated
+   */
+  public ReplicaLatencyTracker(double alpha, long maxAgeMs) {
+    if (!(alpha > 0 && alpha <= 1)) {
+      throw new IllegalArgumentException(ALPHA + " must be in (0, 1], got " + alpha);
+    }
+    if (maxAgeMs <= 0) {
+      throw new IllegalArgumentException(MAX_AGE_MS + " must be positive, got " + maxAgeMs);
+    }
+    this.alpha = alpha;
+    this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+  }
+
+  public ReplicaLatencyTracker(NamedList<?> c) {
+    this(
+        c.get(ALPHA) == null ? DEFAULT_ALPHA : ((Number) c.get(ALPHA)).doubleValue(),
+        c.get(MAX_AGE_MS) == null ? DEFAULT_MAX_AGE_MS : ((Number) c.get(MAX_AGE_MS)).longValue());
+  }
+
+  /** Called when a request is sent to the node of the given URL. */
+  public void requestStarted(String url) {
+    getStats(url).outstanding.incrementAndGet();
+  }
+
+  /** Called when a request started with {@link #requestStarted(String)} completes. */
+  public void requestFinished(String url) {
+    getStats(url).outstanding.updateAndGet(n -> Math.max(0, n - 1));
+  }
+
+  /** Records the response time of a successful request to the node of the given URL. */
+  public void recordResponseTime(String url, long elapsedNanos) {
+    getStats(url).update(elapsedNanos, alpha, System.nanoTime());
+  }
+
+  /** Records that a request to the node of the given URL failed. */
+  public void recordFailure(String url) {
+    getStats(url).update(FAILURE_PENALTY_NANOS, alpha, System.nanoTime());
+  }
+
+  /** The node's score, lower is better. */
+  public double score(String url) {
+    NodeStats s = stats.get(nodeKey(url));
+    if (s == null) {
+      return 1;
+    }
+    double ewma = Math.max(1, s.ewmaNanos(System.nanoTime(), maxAgeNanos));
+    double queue = 1 + s.outstanding.get();
+    return ewma * queue * queue * queue;
+  }
+
+  /** The average response time of the node in milliseconds, or 0 if unknown. (for tests) */
+  double getAverageMillis(String url) {
+    NodeStats s = stats.get(nodeKey(url));
+    return s == null ? 0 : s.ewmaNanos(System.nanoTime(), maxAgeNanos) / 1_000_000;
+  }
+
+  /** The number of requests in flight to the node. (for tests) */
+  int getOutstanding(String url) {
+    NodeStats s = stats.get(nodeKey(url));
+    return s == null ? 0 : s.outstanding.get();
+  }
+
+  private NodeStats getStats(String url) {
+    return stats.computeIfAbsent(nodeKey(url), k -> new NodeStats());
+  }
+
+  /** The key identifying the node of the given URL: its "host:port". */
+  public static String nodeKey(String url) {
+    String hostAndPath = URLUtil.removeScheme(url);
+    int slash = hostAndPath.indexOf('/');
+    return slash < 0 ? hostAndPath : hostAndPath.substring(0, slash);
+  }
+
+  private static final class NodeStats {
+    final AtomicInteger outstanding = new AtomicInteger();
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+    private boolean sampled;
+
+    synchronized void update(long sampleNanos, double alpha, long nowNanos) {
+      ewmaNanos = sampled ? alpha * sampleNanos + (1 - alpha) * ewmaNanos : sampleNanos;
+      lastUpdateNanos = nowNanos;
+      sampled = true;
+    }
+
+    synchronized double ewmaNanos(long nowNanos, long maxAgeNanos) {
+      return sampled && nowNanos - lastUpdateNanos <= maxAgeNanos ? ewmaNanos : 0;
+    }
+  }
+}
@@ -43,6 +43,7 @@ public class RequestReplicaListTransformerGenerator {
           shufflingReplicaListTransformer;
   private final ReplicaListTransformerFactory stableRltFactory;
   private final ReplicaListTransformerFactory defaultRltFactory;
+  private final ReplicaListTransformerFactory latencyRltFactory;
   private final String defaultShardPreferences;
   private final String nodeName;
   private final String baseUrl;
@@ -63,6 +64,17 @@ public class RequestReplicaListTransformerGenerator {
     this(defaultRltFactory, stableRltFactory, null, null, null, null, null);
   }
 
+  /**
+   * @param latencyRltFactory used for {@code replica.base:latency}; may be null, in which case the
+   *     base order is random
+   */
+  public RequestReplicaListTransformerGenerator(
+      ReplicaListTransformerFactory defaultRltFactory,
+      ReplicaListTransformerFactory stableRltFactory,
+      ReplicaListTransformerFactory latencyRltFactory) {
+    this(defaultRltFactory, stableRltFactory, latencyRltFactory, null, null, null, null, null);
+  }
+
   public RequestReplicaListTransformerGenerator(
       String defaultShardPreferences,
       String nodeName,
@@ -80,7 +92,32 @@ public class RequestReplicaListTransformerGenerator {
       String baseUrl,
       String hostName,
       NodesSysProps sysProps) {
+    this(
+        defaultRltFactory,
+        stableRltFactory,
+        null,
+        defaultShardPreferences,
+        nodeName,
+        baseUrl,
+        hostName,
+        sysProps);
+  }
+
+  /**
+   * @param latencyRltFactory used for {@code replica.base:latency}; may be null, in which case the
+   *     base order is random
+   */
+  public RequestReplicaListTransformerGenerator(
+      ReplicaListTransformerFactory defaultRltFactory,
+      ReplicaListTransformerFactory stableRltFactory,
+      ReplicaListTransformerFactory latencyRltFactory,
+      String defaultShardPreferences,
+      String nodeName,
+      String baseUrl,
+      String hostName,
+      NodesSysProps sysProps) {
     this.defaultRltFactory = Objects.requireNonNullElse(defaultRltFactory, RANDOM_RLTF);
+    this.latencyRltFactory = Objects.requireNonNullElse(latencyRltFactory, RANDOM_RLTF);
     this.stableRltFactory =
         Objects.requireNonNullElseGet(stableRltFactory, AffinityReplicaListTransformerFactory::new);
     this.defaultShardPreferences = Objects.requireNonNullElse(defaultShardPreferences, "");
@@ -123,7 +160,8 @@ public class RequestReplicaListTransformerGenerator {
               hostName != null ? hostName : this.hostName, // could still be null
               sysProps != null ? sysProps : this.sysProps, // could still be null
               defaultRltFactory,
-              stableRltFactory);
+              stableRltFactory,
+              latencyRltFactory);
       ReplicaListTransformer baseReplicaListTransformer =
           replicaComp.getBaseReplicaListTransformer();
       if (replicaComp.getPreferenceRules() == null || replicaComp.getPreferenceRules().isEmpty()) {
@@ -259,6 +259,24 @@ public class ClusterState implements MapWriter {
       int version,
       Instant creationTime,
       DocCollection.PrsSupplier prsSupplier) {
+    return collectionFromObjects(name, objs, version, creationTime, prsSupplier, null);
+  }
+
+  /**
+   * Like {@link #collectionFromObjects(String, Map, int, Instant, DocCollection.PrsSupplier)}, but
+   * shares the slices and replicas that didn't change with {@code previous}, the previous state of
+   * the collection, if any.
+   *
+   * @see Slice#loadAllFromMap(String, Map, Map)
+   * @lucene.internal
+   */
+  public static DocCollection collectionFromObjects(
+      String name,
+      Map<String, Object> objs,
+      int version,
+      Instant creationTime,
+      DocCollection.PrsSupplier prsSupplier,
+      DocCollection previous) {
     Map<String, Object> props;
     Map<String, Slice> slices;
 
@@ -266,6 +284,11 @@ public class ClusterState implements MapWriter {
       if (log.isDebugEnabled()) {
         log.debug("a collection {} has per-replica state", name);
       }
+      // the slices and replicas of per-replica state collections are bound to their collection
+      previous = null;
+    }
+    if (previous != null && previous.isPerReplicaState()) {
+      previous = null;
     }
     @SuppressWarnings({"unchecked"})
     Map<String, Object> sliceObjs = (Map<String, Object>) objs.get(CollectionStateProps.SHARDS);
@@ -275,7 +298,10 @@ public class ClusterState implements MapWriter {
       slices = Slice.loadAllFromMap(name, objs);
       props = Map.of();
     } else {
-      slices = Slice.loadAllFromMap(name, sliceObjs);
+      slices =
+          previous == null
+              ? Slice.loadAllFromMap(name, sliceObjs)
+              : Slice.loadAllFromMap(name, sliceObjs, previous.getSlicesMap());
       objs.remove(CollectionStateProps.SHARDS);
       props = new HashMap<>(objs);
     }
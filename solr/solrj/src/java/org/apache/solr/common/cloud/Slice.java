@@ -28,6 +28,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -77,6 +78,78 @@ public class Slice extends ZkNodeProps implements Iterable<Replica> {
     return result;
   }
 
+  /**
+   * Like {@link #loadAllFromMap(String, Map)}, but reuses the slices and replicas of {@code
+   * previous} whose properties didn't change, so that consecutive states of a collection share
+   * their unchanged parts: less garbage, and an unchanged slice or replica is the same instance.
+   * Must not be used for collections with per-replica states, which are bound to their slices.
+   */
+  @SuppressWarnings({"unchecked"})
+  public static Map<String, Slice> loadAllFromMap(
+      String collection, Map<String, Object> genericSlices, Map<String, Slice> previous) {
+    if (genericSlices == null) return Map.of();
+    Map<String, Slice> result = CollectionUtil.newLinkedHashMap(genericSlices.size());
+    for (Map.Entry<String, Object> entry : genericSlices.entrySet()) {
+      String name = entry.getKey();
+      Object val = entry.getValue();
+      if (val instanceof Slice) {
+        result.put(name, (Slice) val);
+      } else if (val instanceof Map) {
+        Slice old = previous.get(name);
+        Map<String, Object> props = (Map<String, Object>) val;
+        result.put(
+            name,
+            old == null
+                ? new Slice(name, null, props, collection)
+                : old.reuseOrCopy(props, collection));
+      }
+    }
+    return result;
+  }
+
+  /** Returns this slice if it has the given properties, or else a new one sharing its replicas. */
+  @SuppressWarnings({"unchecked"})
+  private Slice reuseOrCopy(Map<String, Object> props, String collection) {
+    Map<String, Object> genericReplicas = (Map<String, Object>) props.get(SliceStateProps.REPLICAS);
+    if (genericReplicas == null || perReplicaStatesRef != null) {
+      return new Slice(name, null, props, collection);
+    }
+    boolean unchanged = genericReplicas.size() == replicas.size();
+    Map<String, Replica> newReplicas = CollectionUtil.newLinkedHashMap(genericReplicas.size());
+    for (Map.Entry<String, Object> entry : genericReplicas.entrySet()) {
+      String replicaName = entry.getKey();
+      Object val = entry.getValue();
+      Replica old = replicas.get(replicaName);
+      Replica r;
+      if (val instanceof Replica) {
+        r = (Replica) val;
+        unchanged &= r == old;
+      } else if (old != null && old.getProperties().equals(val)) {
+        r = old;
+      } else {
+        r = new Replica(replicaName, (Map<String, Object>) val, collection, name);
+        unchanged = false;
+      }
+      newReplicas.put(replicaName, r);
+    }
+    if (unchanged && hasSameProperties(props)) {
+      return this;
+    }
+    return new Slice(name, newReplicas, props, collection);
+  }
+
+  /** Whether the given properties are this slice's, not comparing the replicas. */
+  private boolean hasSameProperties(Map<String, Object> props) {
+    if (props.size() != propMap.size()) return false;
+    for (Map.Entry<String, Object> entry : props.entrySet()) {
+      if (!entry.getKey().equals(SliceStateProps.REPLICAS)
+          && !Objects.equals(entry.getValue(), propMap.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public Iterator<Replica> iterator() {
     return replicas.values().iterator();
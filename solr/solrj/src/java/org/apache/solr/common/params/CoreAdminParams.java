@@ -91,6 +91,9 @@ public abstract class CoreAdminParams {
 
   public static final String GET_RANGES = "getRanges";
 
+  /** The number of segments partitioned and of sub-indexes written concurrently by a split */
+  public static final String SPLIT_THREADS = "splitThreads";
+
   public static final String REQUESTID = "requestid";
 
   public static final String CORE_NODE_NAME = "coreNodeName";
@@ -71,6 +71,13 @@ public interface UpdateParams {
 
   public static final String EXPUNGE_DELETES = "expungeDeletes";
 
+  /**
+   * Number of threads to run the update processor chain on for the documents of one request. Adds
+   * and deletes by id of the same id are processed in order by the same thread. Not supported by
+   * all loaders; 1 or less (the default) processes everything on the request thread.
+   */
+  public static final String PIPELINE_THREADS = "update.pipelineThreads";
+
   /** Return versions of updates? */
   public static final String VERSIONS = "versions";
 
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.ShardParams;
+import org.apache.solr.common.util.Utils;
+import org.junit.Test;
+
+@SolrTestCaseJ4.SuppressSSL // not useful / needed for this test
+public class LatencyReplicaListTransformerTest extends SolrTestCase {
+
+  private static final String FAST = "http://host1:8983/solr";
+  private static final String SLOW = "http://host2:8983/solr";
+  private static final String UNKNOWN = "http://host3:8983/solr";
+
+  @Test
+  public void testNodeKey() {
+    assertEquals("host1:8983", ReplicaLatencyTracker.nodeKey(FAST));
+    assertEquals("host1:8983", ReplicaLatencyTracker.nodeKey("host1:8983/solr/coll_shard1"));
+    assertEquals("host1:8983", ReplicaLatencyTracker.nodeKey("https://host1:8983"));
+  }
+
+  @Test
+  public void testAverage() {
+    ReplicaLatencyTracker tracker = new ReplicaLatencyTracker(0.5, 60_000);
+    assertEquals(0, tracker.getAverageMillis(FAST), 0);
+    tracker.recordResponseTime(FAST, TimeUnit.MILLISECONDS.toNanos(10));
+    assertEquals(10, tracker.getAverageMillis(FAST), 0.001);
+    tracker.recordResponseTime(FAST + "/coll_shard1_replica_n1", TimeUnit.MILLISECONDS.toNanos(30));
+    assertEquals(20, tracker.getAverageMillis(FAST), 0.001);
+    tracker.recordFailure(FAST);
+    assertEquals(510, tracker.getAverageMillis(FAST), 0.001);
+
+    tracker.requestStarted(FAST);
+    tracker.requestStarted(FAST);
+    assertEquals(2, tracker.getOutstanding(FAST));
+    tracker.requestFinished(FAST);
+    tracker.requestFinished(FAST);
+    tracker.requestFinished(FAST);
+    assertEquals(0, tracker.getOutstanding(FAST));
+
+    expectThrows(IllegalArgumentException.class, () -> new ReplicaLatencyTracker(0, 1000));
+    expectThrows(IllegalArgumentException.class, () -> new ReplicaLatencyTracker(0.5, 0));
+  }
+
+  @Test
+  public void testTransformUrls() {
+    ReplicaLatencyTracker tracker = new ReplicaLatencyTracker();
+    tracker.recordResponseTime(FAST, TimeUnit.MILLISECONDS.toNanos(5));
+    tracker.recordResponseTime(SLOW, TimeUnit.MILLISECONDS.toNanos(50));
+    ReplicaListTransformer transformer = new LatencyReplicaListTransformer(tracker, random());
+
+    for (int i = 0; i < 10; i++) {
+      List<String> urls = new ArrayList<>(List.of(SLOW + "/c1", FAST + "/c1", UNKNOWN + "/c1"));
+      transformer.transform(urls);
+      // nodes without samples are tried first so that they get some
+      assertEquals(List.of(UNKNOWN + "/c1", FAST + "/c1", SLOW + "/c1"), urls);
+    }
+
+    // a fast node with many outstanding requests loses to a slower idle one
+    for (int i = 0; i < 3; i++) {
+      tracker.requestStarted(FAST);
+    }
+    List<String> urls = new ArrayList<>(List.of(FAST, SLOW));
+    transformer.transform(urls);
+    assertEquals(List.of(SLOW, FAST), urls);
+  }
+
+  @Test
+  public void testTransformReplicas() {
+    ReplicaLatencyTracker tracker = new ReplicaLatencyTracker();
+    tracker.recordResponseTime(FAST, TimeUnit.MILLISECONDS.toNanos(5));
+    tracker.recordResponseTime(SLOW, TimeUnit.MILLISECONDS.toNanos(50));
+    ReplicaListTransformer transformer =
+        new LatencyReplicaListTransformerFactory(tracker, random()).getInstance(null, null, null);
+
+    List<Replica> replicas = new ArrayList<>(List.of(replica("host2"), replica("host1")));
+    transformer.transform(replicas);
+    assertEquals(FAST, replicas.get(0).getBaseUrl());
+    assertEquals(SLOW, replicas.get(1).getBaseUrl());
+  }
+
+  @Test
+  public void testReplicaBaseLatency() {
+    ReplicaLatencyTracker tracker = new ReplicaLatencyTracker();
+    tracker.recordResponseTime(FAST, TimeUnit.MILLISECONDS.toNanos(5));
+    tracker.recordResponseTime(SLOW, TimeUnit.MILLISECONDS.toNanos(50));
+    RequestReplicaListTransformerGenerator generator =
+        new RequestReplicaListTransformerGenerator(
+            null,
+            null,
+            new LatencyReplicaListTransformerFactory(tracker, random()),
+            null,
+            null,
+            null,
+            null,
+            null);
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(
+        ShardParams.SHARDS_PREFERENCE,
+        ShardParams.SHARDS_PREFERENCE_REPLICA_BASE + ":" + ShardParams.REPLICA_LATENCY);
+
+    List<String> urls = new ArrayList<>(List.of(SLOW, FAST));
+    generator.getReplicaListTransformer(params).transform(urls);
+    assertEquals(List.of(FAST, SLOW), urls);
+
+    // without a configured latency tracker, the base order falls back to random
+    new RequestReplicaListTransformerGenerator().getReplicaListTransformer(params).transform(urls);
+    assertEquals(2, urls.size());
+  }
+
+  private static Replica replica(String host) {
+    String nodeName = host + ":8983_solr";
+    Map<String, Object> propMap = new HashMap<>();
+    propMap.put("core", "core_" + host);
+    propMap.put("type", "NRT");
+    propMap.put("node_name", nodeName);
+    propMap.put("base_url", Utils.getBaseUrlForNodeName(nodeName, "http"));
+    return new Replica("replica_" + host, propMap, "c1", "s1");
+  }
+}